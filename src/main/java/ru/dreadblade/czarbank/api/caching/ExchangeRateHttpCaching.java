@@ -0,0 +1,85 @@
+package ru.dreadblade.czarbank.api.caching;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.support.CronExpression;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+import ru.dreadblade.czarbank.service.snapshot.ExchangeRateHistory;
+import ru.dreadblade.czarbank.service.snapshot.ExchangeRateHistoryService;
+import ru.dreadblade.czarbank.service.snapshot.ExchangeRateSnapshotService;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.function.Supplier;
+
+/**
+ * Conditional GET support for the reads that only change with the exchange rates (and the currencies, which are
+ * created together with their rates). The ETag is taken from the content of the in-memory rates, so every instance
+ * gives the same ETag to the same rates, and a request with a matching If-None-Match is answered with 304 Not Modified
+ * before the response is built. The ETag is weak, because the JSON and XML representations share it. There is
+ * no Last-Modified, the time the rates were loaded differs between the instances
+ */
+@Component
+public class ExchangeRateHttpCaching {
+    private final ExchangeRateHistoryService exchangeRateHistoryService;
+    private final ExchangeRateSnapshotService exchangeRateSnapshotService;
+    private final CronExpression updateCronExpression;
+
+    public ExchangeRateHttpCaching(ExchangeRateHistoryService exchangeRateHistoryService,
+                                   ExchangeRateSnapshotService exchangeRateSnapshotService,
+                                   @Value("${czar-bank.exchange-rate.update-cron:@daily}") String updateCron) {
+        this.exchangeRateHistoryService = exchangeRateHistoryService;
+        this.exchangeRateSnapshotService = exchangeRateSnapshotService;
+        this.updateCronExpression = CronExpression.parse(updateCron);
+    }
+
+    /**
+     * Returns 304 Not Modified if the client already has the current version, otherwise the body built by the supplier.
+     * Both responses carry the ETag and a Cache-Control valid until the next scheduled rates update
+     */
+    public <T> ResponseEntity<T> respond(WebRequest webRequest, Supplier<T> bodySupplier) {
+        return respondWith(webRequest, () -> ResponseEntity.ok(bodySupplier.get()));
+    }
+
+    /**
+     * Same as {@link #respond(WebRequest, Supplier)} for a response that is built with its own headers
+     */
+    public <T> ResponseEntity<T> respondWith(WebRequest webRequest, Supplier<ResponseEntity<T>> responseSupplier) {
+        ExchangeRateHistory history = exchangeRateHistoryService.getHistory();
+
+        String eTag = "W/\"" + history.getLatestDate().map(Object::toString).orElse("none") +
+                "-" + Long.toString(history.getContentHash(), Character.MAX_RADIX) +
+                "-" + Long.toString(exchangeRateSnapshotService.getSnapshot().getContentHash(), Character.MAX_RADIX) + "\"";
+
+        CacheControl cacheControl = getCacheControl();
+
+        if (webRequest.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(eTag)
+                    .cacheControl(cacheControl)
+                    .build();
+        }
+
+        ResponseEntity<T> response = responseSupplier.get();
+
+        return ResponseEntity.status(response.getStatusCode())
+                .headers(response.getHeaders())
+                .eTag(eTag)
+                .cacheControl(cacheControl)
+                .body(response.getBody());
+    }
+
+    private CacheControl getCacheControl() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime nextUpdate = updateCronExpression.next(now);
+
+        if (nextUpdate == null) {
+            return CacheControl.noCache();
+        }
+
+        return CacheControl.maxAge(Duration.between(now, nextUpdate)).cachePublic();
+    }
+}
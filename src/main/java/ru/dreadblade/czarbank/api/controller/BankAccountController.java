@@ -8,8 +8,10 @@ import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.dreadblade.czarbank.api.mapper.BankAccountMapper;
+import ru.dreadblade.czarbank.api.model.request.BankAccountBalanceSlotsRequestDTO;
 import ru.dreadblade.czarbank.api.model.request.BankAccountRequestDTO;
 import ru.dreadblade.czarbank.api.model.request.validation.CreateRequest;
+import ru.dreadblade.czarbank.api.model.request.validation.UpdateRequest;
 import ru.dreadblade.czarbank.api.model.response.BankAccountResponseDTO;
 import ru.dreadblade.czarbank.domain.BankAccount;
 import ru.dreadblade.czarbank.domain.security.User;
@@ -36,19 +38,28 @@ public class BankAccountController {
     @GetMapping
     public ResponseEntity<List<BankAccountResponseDTO>> findAllForUser(@AuthenticationPrincipal User currentUser) {
         return ResponseEntity.ok(bankAccountService.findAllForUser(currentUser).stream()
-                .map(bankAccountMapper::entityToResponseDto)
+                .map(this::toResponseDto)
                 .collect(Collectors.toList()));
     }
 
-    @PreAuthorize("hasAuthority('BANK_ACCOUNT_READ') or (isAuthenticated() and @bankAccountService.findById(#accountId).getOwner().getId() == principal.id)")
+    @PreAuthorize("hasAuthority('BANK_ACCOUNT_READ') or (isAuthenticated() and @bankAccountAuthorizationManager.isCurrentUserTheOwnerOfBankAccount(#accountId))")
     @GetMapping("/{accountId}")
     public ResponseEntity<BankAccountResponseDTO> findById(@PathVariable Long accountId) {
         BankAccount bankAccount = bankAccountService.findById(accountId);
 
-        BankAccountResponseDTO responseDTO = bankAccountMapper.entityToResponseDto(bankAccount);
+        BankAccountResponseDTO responseDTO = toResponseDto(bankAccount);
         return ResponseEntity.ok(responseDTO);
     }
 
+    @PreAuthorize("hasAuthority('BANK_ACCOUNT_UPDATE')")
+    @PutMapping("/{accountId}/balance-slots")
+    public ResponseEntity<BankAccountResponseDTO> updateBalanceSlots(@PathVariable Long accountId,
+                                                                     @Validated(UpdateRequest.class) @RequestBody BankAccountBalanceSlotsRequestDTO requestDTO) {
+        BankAccount updatedAccount = bankAccountService.updateBalanceSlots(accountId, requestDTO.getBalanceSlots());
+
+        return ResponseEntity.ok(toResponseDto(updatedAccount));
+    }
+
     @PreAuthorize("hasAuthority('BANK_ACCOUNT_CREATE') or (isAuthenticated() and #currentUser.id == #requestDTO.ownerId)")
     @PostMapping
     public ResponseEntity<BankAccountResponseDTO> createAccount(@AuthenticationPrincipal User currentUser,
@@ -65,10 +76,17 @@ public class BankAccountController {
                 .body(responseDTO);
     }
 
-    @PreAuthorize("hasAuthority('BANK_ACCOUNT_DELETE') or (isAuthenticated() and @bankAccountService.findById(#accountId).getOwner().getId() == principal.id)")
+    @PreAuthorize("hasAuthority('BANK_ACCOUNT_DELETE') or (isAuthenticated() and @bankAccountAuthorizationManager.isCurrentUserTheOwnerOfBankAccount(#accountId))")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     @DeleteMapping("/{accountId}")
     public void deleteAccountById(@PathVariable Long accountId) {
         bankAccountService.deleteById(accountId);
     }
+
+    private BankAccountResponseDTO toResponseDto(BankAccount bankAccount) {
+        BankAccountResponseDTO responseDTO = bankAccountMapper.entityToResponseDto(bankAccount);
+        responseDTO.setBalance(bankAccountService.getBalance(bankAccount));
+
+        return responseDTO;
+    }
 }
\ No newline at end of file
@@ -1,6 +1,8 @@
 package ru.dreadblade.czarbank.api.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -13,8 +15,10 @@ import ru.dreadblade.czarbank.api.model.request.validation.UpdateRequest;
 import ru.dreadblade.czarbank.api.model.response.BankAccountTypeResponseDTO;
 import ru.dreadblade.czarbank.domain.BankAccountType;
 import ru.dreadblade.czarbank.service.BankAccountTypeService;
+import ru.dreadblade.czarbank.service.cache.SerializedResponseCache;
 
 import javax.servlet.http.HttpServletRequest;
+import java.lang.reflect.Type;
 import java.net.URI;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -22,20 +26,26 @@ import java.util.stream.Collectors;
 @RequestMapping("/api/bank-account-types")
 @RestController
 public class BankAccountTypeController {
+    private static final Type BANK_ACCOUNT_TYPE_LIST_TYPE = new ParameterizedTypeReference<List<BankAccountTypeResponseDTO>>() { }.getType();
+
     private final BankAccountTypeService bankAccountTypeService;
     private final BankAccountTypeMapper bankAccountTypeMapper;
+    private final SerializedResponseCache serializedResponseCache;
 
     @Autowired
-    public BankAccountTypeController(BankAccountTypeService bankAccountTypeService, BankAccountTypeMapper bankAccountTypeMapper) {
+    public BankAccountTypeController(BankAccountTypeService bankAccountTypeService, BankAccountTypeMapper bankAccountTypeMapper,
+                                     SerializedResponseCache serializedResponseCache) {
         this.bankAccountTypeService = bankAccountTypeService;
         this.bankAccountTypeMapper = bankAccountTypeMapper;
+        this.serializedResponseCache = serializedResponseCache;
     }
 
     @GetMapping
-    public ResponseEntity<List<BankAccountTypeResponseDTO>> findAll() {
-        return ResponseEntity.ok(bankAccountTypeService.findAll().stream()
-                .map(bankAccountTypeMapper::entityToResponseDto)
-                .collect(Collectors.toList()));
+    public ResponseEntity<byte[]> findAll(@RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept) {
+        return serializedResponseCache.respond(SerializedResponseCache.Name.BANK_ACCOUNT_TYPES, accept,
+                BANK_ACCOUNT_TYPE_LIST_TYPE, () -> bankAccountTypeService.findAll().stream()
+                        .map(bankAccountTypeMapper::entityToResponseDto)
+                        .collect(Collectors.toList()));
     }
 
     @PreAuthorize("hasAuthority('BANK_ACCOUNT_TYPE_CREATE')")
@@ -1,18 +1,24 @@
 package ru.dreadblade.czarbank.api.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.dreadblade.czarbank.api.caching.ExchangeRateHttpCaching;
 import ru.dreadblade.czarbank.api.mapper.CurrencyMapper;
 import ru.dreadblade.czarbank.api.model.request.CurrencyRequestDTO;
 import ru.dreadblade.czarbank.api.model.request.validation.CreateRequest;
 import ru.dreadblade.czarbank.api.model.response.CurrencyResponseDTO;
 import ru.dreadblade.czarbank.domain.Currency;
 import ru.dreadblade.czarbank.service.CurrencyService;
+import ru.dreadblade.czarbank.service.cache.SerializedResponseCache;
 
 import javax.servlet.http.HttpServletRequest;
+import java.lang.reflect.Type;
 import java.net.URI;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -20,20 +26,30 @@ import java.util.stream.Collectors;
 @RequestMapping("/api/currencies")
 @RestController
 public class CurrencyController {
+    private static final Type CURRENCY_LIST_TYPE = new ParameterizedTypeReference<List<CurrencyResponseDTO>>() { }.getType();
+
     private final CurrencyService currencyService;
     private final CurrencyMapper currencyMapper;
+    private final ExchangeRateHttpCaching exchangeRateHttpCaching;
+    private final SerializedResponseCache serializedResponseCache;
 
     @Autowired
-    public CurrencyController(CurrencyService currencyService, CurrencyMapper currencyMapper) {
+    public CurrencyController(CurrencyService currencyService, CurrencyMapper currencyMapper,
+                              ExchangeRateHttpCaching exchangeRateHttpCaching,
+                              SerializedResponseCache serializedResponseCache) {
         this.currencyService = currencyService;
         this.currencyMapper = currencyMapper;
+        this.exchangeRateHttpCaching = exchangeRateHttpCaching;
+        this.serializedResponseCache = serializedResponseCache;
     }
 
     @GetMapping
-    public ResponseEntity<List<CurrencyResponseDTO>> findAll() {
-        return ResponseEntity.ok(currencyService.findAll().stream()
-                .map(currencyMapper::entityToResponseDto)
-                .collect(Collectors.toList()));
+    public ResponseEntity<byte[]> findAll(WebRequest webRequest) {
+        return exchangeRateHttpCaching.respondWith(webRequest, () -> serializedResponseCache.respond(
+                SerializedResponseCache.Name.CURRENCIES, webRequest.getHeader(HttpHeaders.ACCEPT), CURRENCY_LIST_TYPE,
+                () -> currencyService.findAll().stream()
+                        .map(currencyMapper::entityToResponseDto)
+                        .collect(Collectors.toList())));
     }
 
     @PreAuthorize("hasAuthority('CURRENCY_CREATE')")
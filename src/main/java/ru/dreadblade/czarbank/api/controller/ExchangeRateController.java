@@ -1,44 +1,74 @@
 package ru.dreadblade.czarbank.api.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.dreadblade.czarbank.api.caching.ExchangeRateHttpCaching;
 import ru.dreadblade.czarbank.api.mapper.ExchangeRateMapper;
+import ru.dreadblade.czarbank.api.model.response.ExchangeRateAggregateResponseDTO;
 import ru.dreadblade.czarbank.api.model.response.ExchangeRateResponseDTO;
 import ru.dreadblade.czarbank.service.ExchangeRateService;
+import ru.dreadblade.czarbank.service.cache.SerializedResponseCache;
+import ru.dreadblade.czarbank.service.snapshot.ExchangeRateAggregate;
 
+import java.lang.reflect.Type;
 import java.time.LocalDate;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 @RequestMapping("/api/currencies/exchange-rates")
 @RestController
 @RequiredArgsConstructor
 public class ExchangeRateController {
+    private static final Type EXCHANGE_RATE_LIST_TYPE = new ParameterizedTypeReference<List<ExchangeRateResponseDTO>>() { }.getType();
+
     private final ExchangeRateService exchangeRateService;
     private final ExchangeRateMapper exchangeRateMapper;
+    private final ExchangeRateHttpCaching exchangeRateHttpCaching;
+    private final SerializedResponseCache serializedResponseCache;
 
     @GetMapping("/latest")
-    public List<ExchangeRateResponseDTO> findAllLatest() {
-        return exchangeRateService.findAllLatest().stream()
-                .map(exchangeRateMapper::entityToResponseDto)
-                .collect(Collectors.toList());
+    public ResponseEntity<byte[]> findAllLatest(WebRequest webRequest) {
+        return exchangeRateHttpCaching.respondWith(webRequest, () -> serializedResponseCache.respond(
+                SerializedResponseCache.Name.LATEST_EXCHANGE_RATES, webRequest.getHeader(HttpHeaders.ACCEPT),
+                EXCHANGE_RATE_LIST_TYPE, () -> exchangeRateMapper.seriesToResponseDtos(exchangeRateService.findAllLatest())));
     }
 
     @GetMapping("/historical/{date}")
-    public List<ExchangeRateResponseDTO> findAllByDate(@PathVariable @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate date) {
-        return exchangeRateService.findAllByDate(date).stream()
-                .map(exchangeRateMapper::entityToResponseDto)
-                .collect(Collectors.toList());
+    public ResponseEntity<List<ExchangeRateResponseDTO>> findAllByDate(
+            @PathVariable @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate date,
+            WebRequest webRequest
+    ) {
+        return exchangeRateHttpCaching.respond(webRequest,
+                () -> exchangeRateMapper.seriesToResponseDtos(exchangeRateService.findAllByDate(date)));
     }
 
     @GetMapping("/time-series")
-    public List<ExchangeRateResponseDTO> findAllInTimeSeries(
+    public ResponseEntity<List<ExchangeRateResponseDTO>> findAllInTimeSeries(
+            @RequestParam("start-date") @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate startDate,
+            @RequestParam("end-date") @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate endDate,
+            @RequestParam(name = "currency-id", required = false) Set<Long> currencyIds,
+            WebRequest webRequest
+    ) {
+        return exchangeRateHttpCaching.respond(webRequest, () -> exchangeRateMapper.seriesToResponseDtos(
+                exchangeRateService.findAllInTimeSeries(startDate, endDate, currencyIds)));
+    }
+
+    @GetMapping(value = "/time-series", params = "interval")
+    public ResponseEntity<List<ExchangeRateAggregateResponseDTO>> aggregateTimeSeries(
             @RequestParam("start-date") @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate startDate,
-            @RequestParam("end-date") @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate endDate
+            @RequestParam("end-date") @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate endDate,
+            @RequestParam(name = "currency-id", required = false) Set<Long> currencyIds,
+            @RequestParam ExchangeRateAggregate.Interval interval,
+            WebRequest webRequest
     ) {
-        return exchangeRateService.findAllInTimeSeries(startDate, endDate).stream()
-                .map(exchangeRateMapper::entityToResponseDto)
-                .collect(Collectors.toList());
+        return exchangeRateHttpCaching.respond(webRequest, () -> exchangeRateService
+                .aggregateTimeSeries(startDate, endDate, currencyIds, interval).stream()
+                .map(exchangeRateMapper::aggregateToResponseDto)
+                .toList());
     }
 }
@@ -1,32 +1,52 @@
 package ru.dreadblade.czarbank.api.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.dreadblade.czarbank.api.mapper.TransactionMapper;
+import ru.dreadblade.czarbank.api.model.request.TransactionBatchRequestDTO;
 import ru.dreadblade.czarbank.api.model.request.TransactionRequestDTO;
 import ru.dreadblade.czarbank.api.model.request.validation.CreateRequest;
+import ru.dreadblade.czarbank.api.model.response.TransactionBatchResponseDTO;
+import ru.dreadblade.czarbank.api.model.response.TransactionHistoryPageResponseDTO;
 import ru.dreadblade.czarbank.api.model.response.TransactionResponseDTO;
 import ru.dreadblade.czarbank.domain.Transaction;
+import ru.dreadblade.czarbank.domain.TransactionBatchItemResult;
+import ru.dreadblade.czarbank.domain.TransactionHistoryFilter;
+import ru.dreadblade.czarbank.domain.TransactionHistoryItem;
+import ru.dreadblade.czarbank.domain.TransactionHistoryPage;
 import ru.dreadblade.czarbank.service.TransactionService;
 
 import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URI;
+import java.time.Instant;
 import java.util.List;
 import java.util.stream.Collectors;
 
 @RequestMapping("/api")
 @RestController
 public class TransactionController {
+    private static final String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
     private final TransactionService transactionService;
     private final TransactionMapper transactionMapper;
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    public TransactionController(TransactionService transactionService, TransactionMapper transactionMapper) {
+    public TransactionController(TransactionService transactionService, TransactionMapper transactionMapper,
+                                 ObjectMapper objectMapper) {
         this.transactionService = transactionService;
         this.transactionMapper = transactionMapper;
+        this.objectMapper = objectMapper;
     }
 
     @PreAuthorize("hasAuthority('TRANSACTION_READ')")
@@ -45,13 +65,87 @@ public class TransactionController {
                 .collect(Collectors.toList()));
     }
 
+    @PreAuthorize("hasAuthority('TRANSACTION_READ') or @transactionAuthorizationManager.isCurrentUserTheOwnerOfBankAccount(#bankAccountId)")
+    @GetMapping("/bank-accounts/{bankAccountId}/transactions/history")
+    public ResponseEntity<TransactionHistoryPageResponseDTO> findHistoryPage(
+            @PathVariable Long bankAccountId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(required = false) TransactionHistoryItem.Direction direction
+    ) {
+        TransactionHistoryPage page = transactionService.findHistoryPage(bankAccountId,
+                new TransactionHistoryFilter(from, to, direction), cursor, limit);
+
+        return ResponseEntity.ok(TransactionHistoryPageResponseDTO.builder()
+                .items(page.getItems().stream()
+                        .map(transactionMapper::historyItemToResponseDto)
+                        .collect(Collectors.toList()))
+                .nextCursor(page.getNextCursor() == null ? null : page.getNextCursor().encode())
+                .build());
+    }
+
+    @PreAuthorize("hasAuthority('TRANSACTION_READ') or @transactionAuthorizationManager.isCurrentUserTheOwnerOfBankAccount(#bankAccountId)")
+    @GetMapping(value = "/bank-accounts/{bankAccountId}/transactions/export", produces = NDJSON_MEDIA_TYPE)
+    public ResponseEntity<StreamingResponseBody> exportHistory(
+            @PathVariable Long bankAccountId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(required = false) TransactionHistoryItem.Direction direction
+    ) {
+        transactionService.checkBankAccountExists(bankAccountId);
+
+        TransactionHistoryFilter filter = new TransactionHistoryFilter(from, to, direction);
+
+        StreamingResponseBody responseBody = outputStream -> transactionService.exportHistory(bankAccountId, filter, item -> {
+            try {
+                outputStream.write(objectMapper.writeValueAsBytes(transactionMapper.historyItemToResponseDto(item)));
+                outputStream.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON_MEDIA_TYPE))
+                .body(responseBody);
+    }
+
     @PreAuthorize("hasAuthority('TRANSACTION_CREATE') or @transactionAuthorizationManager.isCurrentUserTheOwnerOfSourceBankAccount(#transactionRequest.sourceBankAccountNumber)")
     @PostMapping("/transactions")
     public ResponseEntity<TransactionResponseDTO> createTransaction(@Validated(CreateRequest.class) @RequestBody TransactionRequestDTO transactionRequest,
+                                                                    @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
                                                                     HttpServletRequest request) {
-        Transaction createdTransaction = transactionService.createTransaction(transactionRequest);
+        Transaction createdTransaction = transactionService.createTransaction(transactionRequest, idempotencyKey);
 
         return ResponseEntity.created(URI.create(request.getRequestURI() + "/" + createdTransaction.getId()))
                 .body(transactionMapper.entityToResponseDto(createdTransaction));
     }
+
+    @PreAuthorize("hasAuthority('TRANSACTION_CREATE') or @transactionAuthorizationManager.isCurrentUserTheOwnerOfSourceBankAccounts(#batchRequest.transactions.![sourceBankAccountNumber])")
+    @PostMapping("/transactions/batch")
+    public ResponseEntity<TransactionBatchResponseDTO> createTransactions(@Validated(CreateRequest.class) @RequestBody TransactionBatchRequestDTO batchRequest) {
+        List<TransactionBatchItemResult> results = transactionService.createTransactions(batchRequest.getTransactions(),
+                batchRequest.isAtomic());
+
+        int createdCount = (int) results.stream()
+                .filter(result -> result.getStatus() == TransactionBatchItemResult.Status.CREATED)
+                .count();
+
+        TransactionBatchResponseDTO response = TransactionBatchResponseDTO.builder()
+                .atomic(batchRequest.isAtomic())
+                .createdCount(createdCount)
+                .failedCount(results.size() - createdCount)
+                .results(results.stream()
+                        .map(transactionMapper::batchItemResultToResponseDto)
+                        .collect(Collectors.toList()))
+                .build();
+
+        if (batchRequest.isAtomic() && createdCount != results.size()) {
+            return ResponseEntity.badRequest().body(response);
+        }
+
+        return ResponseEntity.ok(response);
+    }
 }
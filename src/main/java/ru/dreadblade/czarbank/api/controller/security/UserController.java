@@ -40,7 +40,7 @@ public class UserController {
                 .collect(Collectors.toList()));
     }
 
-    @PreAuthorize("hasAuthority('USER_READ') or (isAuthenticated() and #userId == principal.id)")
+    @PreAuthorize("hasAuthority('USER_READ') or (isAuthenticated() and @userAuthorizationManager.isCurrentUser(#userId))")
     @GetMapping("/{userId}")
     public ResponseEntity<UserResponseDTO> findUserById(@PathVariable Long userId) {
         User user = userService.findUserById(userId);
@@ -59,7 +59,7 @@ public class UserController {
                 .body(userMapper.entityToResponseDto(createdUser));
     }
 
-    @PreAuthorize("hasAuthority('USER_UPDATE') or (isAuthenticated() and #userId == principal.id)")
+    @PreAuthorize("hasAuthority('USER_UPDATE') or (isAuthenticated() and @userAuthorizationManager.isCurrentUser(#userId))")
     @PutMapping("/{userId}")
     public ResponseEntity<UserResponseDTO> update(@PathVariable Long userId,
                                                   @Validated(UpdateRequest.class) @RequestBody UserRequestDTO requestDTO,
@@ -69,7 +69,7 @@ public class UserController {
         return ResponseEntity.ok(userMapper.entityToResponseDto(updatedUser));
     }
 
-    @PreAuthorize("hasAuthority('USER_DELETE') or (isAuthenticated() and #userId == principal.id)")
+    @PreAuthorize("hasAuthority('USER_DELETE') or (isAuthenticated() and @userAuthorizationManager.isCurrentUser(#userId))")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     @DeleteMapping("/{userId}")
     public void deleteUserById(@PathVariable Long userId) {
@@ -2,11 +2,43 @@ package ru.dreadblade.czarbank.api.mapper;
 
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
+import ru.dreadblade.czarbank.api.model.response.ExchangeRateAggregateResponseDTO;
 import ru.dreadblade.czarbank.api.model.response.ExchangeRateResponseDTO;
 import ru.dreadblade.czarbank.domain.ExchangeRate;
+import ru.dreadblade.czarbank.service.snapshot.ExchangeRateAggregate;
+import ru.dreadblade.czarbank.service.snapshot.ExchangeRateSeries;
+
+import java.util.ArrayList;
+import java.util.List;
 
 @Mapper
 public interface ExchangeRateMapper {
     @Mapping(target = "currencyId", source = "currency.id")
     ExchangeRateResponseDTO entityToResponseDto(ExchangeRate exchangeRate);
+
+    ExchangeRateAggregateResponseDTO aggregateToResponseDto(ExchangeRateAggregate exchangeRateAggregate);
+
+    /**
+     * Flattens the series of the same range into the exchange rates ordered by date
+     */
+    default List<ExchangeRateResponseDTO> seriesToResponseDtos(List<ExchangeRateSeries> series) {
+        if (series.isEmpty()) {
+            return List.of();
+        }
+
+        int size = series.get(0).getSize();
+        List<ExchangeRateResponseDTO> responseDTOs = new ArrayList<>(size * series.size());
+
+        for (int i = 0; i < size; i++) {
+            for (ExchangeRateSeries currencySeries : series) {
+                responseDTOs.add(ExchangeRateResponseDTO.builder()
+                        .date(currencySeries.getDate(i))
+                        .currencyId(currencySeries.getCurrencyId())
+                        .exchangeRate(currencySeries.getExchangeRate(i))
+                        .build());
+            }
+        }
+
+        return responseDTOs;
+    }
 }
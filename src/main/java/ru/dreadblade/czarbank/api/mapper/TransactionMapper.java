@@ -1,12 +1,21 @@
 package ru.dreadblade.czarbank.api.mapper;
 
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import ru.dreadblade.czarbank.api.model.request.TransactionRequestDTO;
+import ru.dreadblade.czarbank.api.model.response.TransactionBatchItemResponseDTO;
+import ru.dreadblade.czarbank.api.model.response.TransactionHistoryItemResponseDTO;
 import ru.dreadblade.czarbank.api.model.response.TransactionResponseDTO;
 import ru.dreadblade.czarbank.domain.Transaction;
+import ru.dreadblade.czarbank.domain.TransactionBatchItemResult;
+import ru.dreadblade.czarbank.domain.TransactionHistoryItem;
 
 @Mapper
 public interface TransactionMapper {
     Transaction requestDtoToEntity(TransactionRequestDTO transactionRequestDTO);
     TransactionResponseDTO entityToResponseDto(Transaction transaction);
+    TransactionBatchItemResponseDTO batchItemResultToResponseDto(TransactionBatchItemResult transactionBatchItemResult);
+
+    @Mapping(target = "datetime", source = "createdAt")
+    TransactionHistoryItemResponseDTO historyItemToResponseDto(TransactionHistoryItem transactionHistoryItem);
 }
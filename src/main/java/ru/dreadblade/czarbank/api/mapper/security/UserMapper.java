@@ -1,6 +1,7 @@
 package ru.dreadblade.czarbank.api.mapper.security;
 
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import ru.dreadblade.czarbank.api.model.request.security.UserRequestDTO;
 import ru.dreadblade.czarbank.api.model.response.security.UserResponseDTO;
 import ru.dreadblade.czarbank.domain.security.Role;
@@ -12,6 +13,7 @@ import java.util.stream.Collectors;
 
 @Mapper(uses = { RoleMapper.class })
 public interface UserMapper {
+    @Mapping(target = "authoritySet", ignore = true)
     User requestDtoToEntity(UserRequestDTO userRequestDTO);
     UserResponseDTO entityToResponseDto(User user);
 
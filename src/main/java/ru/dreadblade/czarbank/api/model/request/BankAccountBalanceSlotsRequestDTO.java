@@ -0,0 +1,20 @@
+package ru.dreadblade.czarbank.api.model.request;
+
+import lombok.*;
+import ru.dreadblade.czarbank.api.model.request.validation.UpdateRequest;
+
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BankAccountBalanceSlotsRequestDTO {
+    @NotNull(message = "Balance slots count must be not null", groups = UpdateRequest.class)
+    @Min(message = "Balance slots count must be non-negative", groups = UpdateRequest.class, value = 0)
+    @Max(message = "The maximum balance slots count is 64", groups = UpdateRequest.class, value = 64)
+    private Integer balanceSlots;
+}
@@ -0,0 +1,27 @@
+package ru.dreadblade.czarbank.api.model.request;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.*;
+import ru.dreadblade.czarbank.api.model.request.validation.CreateRequest;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import java.util.List;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionBatchRequestDTO {
+    @Valid
+    @NotEmpty(message = "Transactions must be not empty", groups = CreateRequest.class)
+    private List<TransactionRequestDTO> transactions;
+
+    /**
+     * If true, the batch is applied all-or-nothing, otherwise failed transfers are skipped
+     */
+    @Builder.Default
+    @JsonProperty("isAtomic")
+    private boolean atomic = true;
+}
@@ -0,0 +1,22 @@
+package ru.dreadblade.czarbank.api.model.response;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExchangeRateAggregateResponseDTO {
+    private Long currencyId;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private BigDecimal open;
+    private BigDecimal high;
+    private BigDecimal low;
+    private BigDecimal close;
+    private BigDecimal average;
+}
@@ -0,0 +1,20 @@
+package ru.dreadblade.czarbank.api.model.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionBatchItemResponseDTO {
+    private int index;
+    private String status;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private TransactionResponseDTO transaction;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String message;
+}
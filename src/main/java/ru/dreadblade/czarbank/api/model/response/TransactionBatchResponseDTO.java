@@ -0,0 +1,19 @@
+package ru.dreadblade.czarbank.api.model.response;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionBatchResponseDTO {
+    @JsonProperty("isAtomic")
+    private boolean atomic;
+    private int createdCount;
+    private int failedCount;
+    private List<TransactionBatchItemResponseDTO> results;
+}
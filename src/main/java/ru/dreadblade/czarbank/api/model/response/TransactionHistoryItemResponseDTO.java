@@ -0,0 +1,21 @@
+package ru.dreadblade.czarbank.api.model.response;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionHistoryItemResponseDTO {
+    private Long id;
+    private Instant datetime;
+    private BigDecimal amount;
+    private BigDecimal receivedAmount;
+    private String sourceBankAccountNumber;
+    private String destinationBankAccountNumber;
+    private String direction;
+}
@@ -0,0 +1,18 @@
+package ru.dreadblade.czarbank.api.model.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionHistoryPageResponseDTO {
+    private List<TransactionHistoryItemResponseDTO> items;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String nextCursor;
+}
@@ -1,6 +1,7 @@
 package ru.dreadblade.czarbank.domain;
 
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.OnDelete;
 import org.hibernate.annotations.OnDeleteAction;
 import ru.dreadblade.czarbank.domain.security.User;
@@ -18,7 +19,7 @@ import java.util.Set;
 public class BankAccount extends BaseEntity {
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bank_account_id_sequence")
-    @SequenceGenerator(name = "bank_account_id_sequence", allocationSize = 1)
+    @SequenceGenerator(name = "bank_account_id_sequence", allocationSize = 50)
     private Long id;
 
     @Column(length = 20, nullable = false, unique = true, updatable = false)
@@ -35,9 +36,22 @@ public class BankAccount extends BaseEntity {
     @Column(nullable = false, precision = 20, scale = 2)
     private BigDecimal balance = BigDecimal.ZERO;
 
+    /**
+     * A closed account is kept for its ledger entries and transactions, but is no longer found or used in transfers
+     */
     @Builder.Default
+    @ColumnDefault("false")
+    @Column(nullable = false)
     private Boolean isClosed = false;
 
+    /**
+     * Number of the balance slots the incoming transfers are spread over, 0 if the account is not a hot account
+     */
+    @Builder.Default
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Integer balanceSlots = 0;
+
     @ManyToOne(fetch = FetchType.EAGER)
     private BankAccountType bankAccountType;
 
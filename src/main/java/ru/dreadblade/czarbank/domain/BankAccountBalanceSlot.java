@@ -0,0 +1,35 @@
+package ru.dreadblade.czarbank.domain;
+
+import lombok.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+import ru.dreadblade.czarbank.domain.key.BankAccountBalanceSlotCompositeKey;
+
+import javax.persistence.*;
+import java.math.BigDecimal;
+
+/**
+ * A part of the balance of a hot bank account. The incoming transfers of a hot account are credited to one
+ * of its slots instead of the balance row, the slots are periodically folded back into the balance
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@IdClass(BankAccountBalanceSlotCompositeKey.class)
+public class BankAccountBalanceSlot extends BaseEntity {
+    @Id
+    @ManyToOne(fetch = FetchType.LAZY)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private BankAccount bankAccount;
+
+    @Id
+    @Column(nullable = false, updatable = false)
+    private Integer slot;
+
+    @Builder.Default
+    @Column(nullable = false, precision = 20, scale = 2)
+    private BigDecimal balance = BigDecimal.ZERO;
+}
@@ -1,6 +1,7 @@
 package ru.dreadblade.czarbank.domain;
 
 import lombok.*;
+import org.springframework.data.domain.Persistable;
 import ru.dreadblade.czarbank.domain.key.ExchangeRateCompositeKey;
 
 import javax.persistence.*;
@@ -14,7 +15,7 @@ import java.time.LocalDate;
 @AllArgsConstructor
 @Entity
 @IdClass(ExchangeRateCompositeKey.class)
-public class ExchangeRate extends BaseEntity {
+public class ExchangeRate extends BaseEntity implements Persistable<ExchangeRateCompositeKey> {
     @Id
     @Column(nullable = false, updatable = false)
     private LocalDate date;
@@ -28,4 +29,33 @@ public class ExchangeRate extends BaseEntity {
      */
     @Column(nullable = false, precision = 6, scale = 2)
     private BigDecimal exchangeRate;
+
+    /**
+     * The key is assigned by the application, so without this flag every save of a new exchange rate
+     * would be turned into a merge preceded by a select
+     */
+    @Transient
+    @Builder.Default
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private boolean isNew = true;
+
+    @Override
+    public ExchangeRateCompositeKey getId() {
+        return ExchangeRateCompositeKey.builder()
+                .date(date)
+                .currency(currency == null ? null : currency.getId())
+                .build();
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
 }
@@ -0,0 +1,56 @@
+package ru.dreadblade.czarbank.domain;
+
+import lombok.*;
+
+import javax.persistence.*;
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * A single leg of a money movement on a bank account. Entries are only ever appended and never deleted, so
+ * the accounts are closed instead of being deleted. The balance of an account is the sum of the amounts of its entries
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+public class LedgerEntry extends BaseEntity {
+    /**
+     * Size of the id block reserved by a single call of the sequence (pooled-lo optimizer)
+     */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ledger_entry_id_sequence")
+    @SequenceGenerator(name = "ledger_entry_id_sequence", allocationSize = ID_ALLOCATION_SIZE)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 32, nullable = false, updatable = false)
+    private Type entryType;
+
+    /**
+     * Signed amount in the currency of the bank account, negative for the legs that take money from the account
+     */
+    @Column(nullable = false, updatable = false, precision = 20, scale = 2)
+    private BigDecimal amount;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    private BankAccount bankAccount;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    private Transaction transaction;
+
+    @Column(updatable = false)
+    private Instant createdAt;
+
+    public enum Type {
+        OPENING,
+        DEBIT,
+        CREDIT,
+        COMMISSION,
+        CURRENCY_EXCHANGE_COMMISSION
+    }
+}
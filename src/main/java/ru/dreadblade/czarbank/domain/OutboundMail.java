@@ -0,0 +1,63 @@
+package ru.dreadblade.czarbank.domain;
+
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import javax.persistence.*;
+import java.time.Instant;
+
+/**
+ * A mail waiting in the outbox, it is written in the same transaction as the change it notifies about
+ * and is sent later by the dispatcher
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+public class OutboundMail extends BaseEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbound_mail_id_sequence")
+    @SequenceGenerator(name = "outbound_mail_id_sequence", allocationSize = 50)
+    private Long id;
+
+    @Column(length = 254, nullable = false, updatable = false)
+    private String recipient;
+
+    @Column(length = 255, nullable = false, updatable = false)
+    private String subject;
+
+    @Column(columnDefinition = "text", nullable = false, updatable = false)
+    private String htmlContent;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16, nullable = false)
+    @Builder.Default
+    private Status status = Status.PENDING;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer attempts = 0;
+
+    @Column(nullable = false)
+    private Instant nextAttemptAt;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    @CreationTimestamp
+    @Column(updatable = false)
+    private Instant createdAt;
+
+    private Instant sentAt;
+
+    public enum Status {
+        PENDING,
+        SENT,
+        /**
+         * Every attempt failed, the mail is kept for inspection and is never retried
+         */
+        DEAD
+    }
+}
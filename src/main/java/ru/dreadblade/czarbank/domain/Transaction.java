@@ -14,9 +14,14 @@ import java.time.Instant;
 @AllArgsConstructor
 @Entity
 public class Transaction extends BaseEntity {
+    /**
+     * Size of the id block reserved by a single call of the sequence (pooled-lo optimizer)
+     */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transaction_id_sequence")
-    @SequenceGenerator(name = "transaction_id_sequence", allocationSize = 1)
+    @SequenceGenerator(name = "transaction_id_sequence", allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     @Column(nullable = false, updatable = false, precision = 20, scale = 2)
@@ -32,6 +37,6 @@ public class Transaction extends BaseEntity {
     private BankAccount destinationBankAccount;
 
     @CreationTimestamp
-    @Column(updatable = false)
+    @Column(nullable = false, updatable = false)
     private Instant createdAt;
 }
@@ -0,0 +1,22 @@
+package ru.dreadblade.czarbank.domain;
+
+import lombok.*;
+
+/**
+ * Outcome of a single transfer within a batch of transfers
+ */
+@Getter
+@Builder
+@AllArgsConstructor
+public class TransactionBatchItemResult {
+    private final int index;
+    private final Status status;
+    private final Transaction transaction;
+    private final String message;
+
+    public enum Status {
+        CREATED,
+        FAILED,
+        ROLLED_BACK
+    }
+}
@@ -0,0 +1,43 @@
+package ru.dreadblade.czarbank.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import ru.dreadblade.czarbank.exception.CzarBankException;
+import ru.dreadblade.czarbank.exception.ExceptionMessage;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Position in the transaction history, the history is ordered by (createdAt, id) from the newest to the oldest
+ */
+@Getter
+@AllArgsConstructor
+public class TransactionHistoryCursor {
+    private static final String SEPARATOR = "_";
+
+    private final Instant createdAt;
+    private final Long id;
+
+    public static TransactionHistoryCursor of(TransactionHistoryItem item) {
+        return new TransactionHistoryCursor(item.getCreatedAt(), item.getId());
+    }
+
+    public static TransactionHistoryCursor decode(String cursor) {
+        try {
+            String decodedCursor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separatorIndex = decodedCursor.indexOf(SEPARATOR);
+
+            return new TransactionHistoryCursor(Instant.parse(decodedCursor.substring(0, separatorIndex)),
+                    Long.parseLong(decodedCursor.substring(separatorIndex + 1)));
+        } catch (RuntimeException e) {
+            throw new CzarBankException(ExceptionMessage.INVALID_TRANSACTION_HISTORY_CURSOR);
+        }
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((createdAt + SEPARATOR + id).getBytes(StandardCharsets.UTF_8));
+    }
+}
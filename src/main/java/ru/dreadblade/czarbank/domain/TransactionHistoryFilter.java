@@ -0,0 +1,25 @@
+package ru.dreadblade.czarbank.domain;
+
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * Filter of the transaction history of a bank account, empty fields are not applied
+ */
+@Getter
+@Builder
+@AllArgsConstructor
+public class TransactionHistoryFilter {
+    /**
+     * Inclusive lower bound of the creation time
+     */
+    private final Instant from;
+
+    /**
+     * Exclusive upper bound of the creation time
+     */
+    private final Instant to;
+
+    private final TransactionHistoryItem.Direction direction;
+}
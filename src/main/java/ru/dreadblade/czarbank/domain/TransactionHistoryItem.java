@@ -0,0 +1,27 @@
+package ru.dreadblade.czarbank.domain;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * A row of the transaction history of a bank account, read without loading the bank account entities
+ */
+@Getter
+@Builder
+@AllArgsConstructor
+public class TransactionHistoryItem {
+    private final Long id;
+    private final Instant createdAt;
+    private final BigDecimal amount;
+    private final BigDecimal receivedAmount;
+    private final String sourceBankAccountNumber;
+    private final String destinationBankAccountNumber;
+    private final Direction direction;
+
+    public enum Direction {
+        INCOMING,
+        OUTGOING
+    }
+}
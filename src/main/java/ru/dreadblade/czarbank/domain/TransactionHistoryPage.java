@@ -0,0 +1,17 @@
+package ru.dreadblade.czarbank.domain;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Builder
+@AllArgsConstructor
+public class TransactionHistoryPage {
+    private final List<TransactionHistoryItem> items;
+
+    /**
+     * Cursor of the next page, null if this page is the last one
+     */
+    private final TransactionHistoryCursor nextCursor;
+}
@@ -0,0 +1,47 @@
+package ru.dreadblade.czarbank.domain;
+
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import javax.persistence.*;
+import java.time.Instant;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "transaction_idempotency_key_source_key_idx",
+        columnNames = { "source_bank_account_number", "idempotency_key" }))
+public class TransactionIdempotencyKey extends BaseEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transaction_idempotency_key_id_sequence")
+    @SequenceGenerator(name = "transaction_idempotency_key_id_sequence", allocationSize = 50)
+    private Long id;
+
+    /**
+     * Number of the source bank account of the transfer, the keys are unique per source bank account only
+     */
+    @Column(length = 20, nullable = false, updatable = false)
+    private String sourceBankAccountNumber;
+
+    @Column(length = 255, nullable = false, updatable = false)
+    private String idempotencyKey;
+
+    /**
+     * SHA-256 digest of the transfer request, so that a key reused for a different transfer is rejected
+     */
+    @Column(length = 64, nullable = false, updatable = false)
+    private String requestHash;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Transaction transaction;
+
+    @CreationTimestamp
+    @Column(updatable = false)
+    private Instant createdAt;
+}
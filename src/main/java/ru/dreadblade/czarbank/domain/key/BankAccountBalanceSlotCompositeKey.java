@@ -0,0 +1,28 @@
+package ru.dreadblade.czarbank.domain.key;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BankAccountBalanceSlotCompositeKey implements Serializable {
+    private Long bankAccount;
+    private Integer slot;
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof BankAccountBalanceSlotCompositeKey that)) return false;
+        return bankAccount.equals(that.bankAccount) && slot.equals(that.slot);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(bankAccount, slot);
+    }
+}
@@ -0,0 +1,90 @@
+package ru.dreadblade.czarbank.domain.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.*;
+
+/**
+ * Immutable authorities of a set of roles, compiled once and shared by every user with the same roles.
+ * The permissions are a bitset over the ids of the permission table, so a membership check is a map lookup
+ * of the permission name and a single bit test without any allocation
+ */
+public final class AuthoritySet {
+    private static final String ROLE_PREFIX = "ROLE_";
+
+    /**
+     * Ids of the known permissions by their names, shared by all the authority sets of the same version
+     */
+    private final Map<String, Long> permissionIdsByName;
+    private final long[] permissionBits;
+    private final Set<String> roleAuthorities;
+    private final Set<GrantedAuthority> grantedAuthorities;
+
+    private AuthoritySet(Map<String, Long> permissionIdsByName, long[] permissionBits, Set<String> roleAuthorities,
+                         Set<GrantedAuthority> grantedAuthorities) {
+        this.permissionIdsByName = permissionIdsByName;
+        this.permissionBits = permissionBits;
+        this.roleAuthorities = roleAuthorities;
+        this.grantedAuthorities = grantedAuthorities;
+    }
+
+    /**
+     * Compiles the authorities of the roles against their own permissions
+     */
+    public static AuthoritySet of(Collection<Role> roles) {
+        Map<String, Long> permissionIdsByName = new HashMap<>();
+
+        for (Role role : roles) {
+            for (Permission permission : role.getPermissions()) {
+                permissionIdsByName.put(permission.getName(), permission.getId());
+            }
+        }
+
+        return of(roles, Map.copyOf(permissionIdsByName));
+    }
+
+    /**
+     * Compiles the authorities of the roles against the shared index of all the permissions
+     */
+    public static AuthoritySet of(Collection<Role> roles, Map<String, Long> permissionIdsByName) {
+        BitSet permissionBits = new BitSet();
+        Set<String> roleAuthorities = new HashSet<>();
+        Set<GrantedAuthority> grantedAuthorities = new HashSet<>();
+
+        for (Role role : roles) {
+            String roleAuthority = ROLE_PREFIX + role.getName();
+
+            roleAuthorities.add(roleAuthority);
+            grantedAuthorities.add(new SimpleGrantedAuthority(roleAuthority));
+
+            for (Permission permission : role.getPermissions()) {
+                permissionBits.set(Math.toIntExact(permission.getId()));
+                grantedAuthorities.add(new SimpleGrantedAuthority(permission.getName()));
+            }
+        }
+
+        return new AuthoritySet(permissionIdsByName, permissionBits.toLongArray(), Set.copyOf(roleAuthorities),
+                Collections.unmodifiableSet(grantedAuthorities));
+    }
+
+    public boolean contains(String authority) {
+        Long permissionId = permissionIdsByName.get(authority);
+
+        if (permissionId != null) {
+            return hasPermission(permissionId);
+        }
+
+        return roleAuthorities.contains(authority);
+    }
+
+    public boolean hasPermission(long permissionId) {
+        int word = (int) (permissionId >>> 6);
+
+        return permissionId >= 0 && word < permissionBits.length && (permissionBits[word] & (1L << permissionId)) != 0;
+    }
+
+    public Set<GrantedAuthority> getGrantedAuthorities() {
+        return grantedAuthorities;
+    }
+}
@@ -16,13 +16,16 @@ import java.time.Instant;
 public class BlacklistedAccessToken extends BaseEntity {
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "blacklisted_access_token_id_sequence")
-    @SequenceGenerator(name = "blacklisted_access_token_id_sequence", allocationSize = 1)
+    @SequenceGenerator(name = "blacklisted_access_token_id_sequence", allocationSize = 50)
     private Long id;
 
-    @Column(length = 4096, nullable = false, updatable = false)
-    private String accessToken;
+    /**
+     * The jti claim of the access token, or the SHA-256 digest of the token if it has no jti
+     */
+    @Column(length = 64, nullable = false, unique = true, updatable = false)
+    private String tokenId;
 
     @CreationTimestamp
     @Column(updatable = false)
     private Instant createdAt;
-}
\ No newline at end of file
+}
@@ -18,7 +18,7 @@ import java.time.Instant;
 public class EmailVerificationToken extends BaseEntity {
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "email_verification_token_id_sequence")
-    @SequenceGenerator(name = "email_verification_token_id_sequence", allocationSize = 1)
+    @SequenceGenerator(name = "email_verification_token_id_sequence", allocationSize = 50)
     private Long id;
 
     @Column(length = 36, nullable = false, unique = true, updatable = false)
@@ -16,7 +16,7 @@ import javax.persistence.*;
 public class RecoveryCode extends BaseEntity {
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "recovery_code_sequence")
-    @SequenceGenerator(name = "recovery_code_sequence", allocationSize = 1)
+    @SequenceGenerator(name = "recovery_code_sequence", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.EAGER)
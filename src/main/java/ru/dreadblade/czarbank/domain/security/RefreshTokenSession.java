@@ -18,7 +18,7 @@ import java.time.Instant;
 public class RefreshTokenSession extends BaseEntity {
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "refresh_token_session_sequence")
-    @SequenceGenerator(name = "refresh_token_session_sequence", allocationSize = 1)
+    @SequenceGenerator(name = "refresh_token_session_sequence", allocationSize = 50)
     private Long id;
 
     @Column(length = 36, nullable = false, unique = true, updatable = false)
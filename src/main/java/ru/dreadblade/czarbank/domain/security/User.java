@@ -2,7 +2,6 @@ package ru.dreadblade.czarbank.domain.security;
 
 import lombok.*;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import ru.dreadblade.czarbank.domain.BaseEntity;
 
@@ -10,7 +9,6 @@ import javax.persistence.*;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 @Getter
 @Setter
@@ -22,7 +20,7 @@ import java.util.stream.Collectors;
 public class User extends BaseEntity implements UserDetails {
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_id_sequence")
-    @SequenceGenerator(name = "user_id_sequence", allocationSize = 1)
+    @SequenceGenerator(name = "user_id_sequence", allocationSize = 50)
     private Long id;
 
     @Column(length = 10, nullable = false, unique = true)
@@ -65,23 +63,42 @@ public class User extends BaseEntity implements UserDetails {
     @Builder.Default
     private boolean isEnabled = true;
 
-    @Override
-    public Collection<? extends GrantedAuthority> getAuthorities() {
-        Set<SimpleGrantedAuthority> authorities = roles.stream()
-                .map(role -> new SimpleGrantedAuthority("ROLE_" + role.getName()))
-                .collect(Collectors.toSet());
+    /**
+     * Compiled authorities of the roles, either shared ones assigned when the user is loaded as a principal
+     * or compiled from the roles on the first use
+     */
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private volatile AuthoritySet authoritySet;
+
+    public void setRoles(Set<Role> roles) {
+        this.roles = roles;
+        this.authoritySet = null;
+    }
+
+    public AuthoritySet getAuthoritySet() {
+        AuthoritySet authoritySet = this.authoritySet;
+
+        if (authoritySet == null) {
+            authoritySet = AuthoritySet.of(roles);
+            this.authoritySet = authoritySet;
+        }
 
-        authorities.addAll(roles.stream()
-                .map(Role::getPermissions)
-                .flatMap(Set::stream)
-                .map(permission -> new SimpleGrantedAuthority(permission.getName()))
-                .collect(Collectors.toSet()));
+        return authoritySet;
+    }
+
+    public void setAuthoritySet(AuthoritySet authoritySet) {
+        this.authoritySet = authoritySet;
+    }
 
-        return authorities;
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return getAuthoritySet().getGrantedAuthorities();
     }
 
     public boolean hasAuthority(String authority) {
-        return this.getAuthorities().contains(new SimpleGrantedAuthority(authority));
+        return getAuthoritySet().contains(authority);
     }
 
     @Override
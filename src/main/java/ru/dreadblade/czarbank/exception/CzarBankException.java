@@ -8,9 +8,11 @@ import org.springframework.http.HttpStatus;
 @Setter
 public class CzarBankException extends RuntimeException {
     private HttpStatus status;
+    private final ExceptionMessage exceptionMessage;
 
     public CzarBankException(ExceptionMessage exceptionMessage) {
         super(exceptionMessage.getMessage());
         this.status = exceptionMessage.getStatus();
+        this.exceptionMessage = exceptionMessage;
     }
 }
@@ -26,6 +26,11 @@ public enum ExceptionMessage {
     BANK_ACCOUNT_TYPE_IN_USE("Bank account type in use", HttpStatus.BAD_REQUEST),
     NOT_ENOUGH_BALANCE("Not enough balance", HttpStatus.BAD_REQUEST),
     UNSUPPORTED_CURRENCY("Currency is not supported", HttpStatus.BAD_REQUEST),
+    INVALID_TRANSACTION_HISTORY_CURSOR("Invalid transaction history cursor", HttpStatus.BAD_REQUEST),
+    TRANSACTION_BATCH_TOO_LARGE("Too many transactions in the batch", HttpStatus.BAD_REQUEST),
+    INVALID_IDEMPOTENCY_KEY("Idempotency key must be a non-blank string of up to 255 characters", HttpStatus.BAD_REQUEST),
+    IDEMPOTENCY_KEY_ALREADY_USED("Idempotency key has already been used for a different transaction", HttpStatus.UNPROCESSABLE_ENTITY),
+    TRANSACTION_CONFLICT("The transaction could not be completed due to concurrent updates, please, try again", HttpStatus.CONFLICT),
     EMAIL_ADDRESS_ALREADY_VERIFIED("Email address already verified", HttpStatus.BAD_REQUEST),
     EMAIL_VERIFICATION_TOKEN_EXPIRED("We have sent a new email with a link to verify your account to " +
             "the email address you provided when you created your account", HttpStatus.BAD_REQUEST),
@@ -0,0 +1,10 @@
+package ru.dreadblade.czarbank.repository;
+
+/**
+ * Owner of the bank account, read without loading the account itself
+ */
+public interface BankAccountOwnership {
+    Long getId();
+    String getNumber();
+    Long getOwnerId();
+}
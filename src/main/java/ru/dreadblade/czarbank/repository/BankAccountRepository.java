@@ -1,17 +1,57 @@
 package ru.dreadblade.czarbank.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import ru.dreadblade.czarbank.domain.BankAccount;
 
+import javax.persistence.LockModeType;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface BankAccountRepository extends JpaRepository<BankAccount, Long> {
     Optional<BankAccount> findByNumber(String number);
 
+    @Query("select b from BankAccount as b where b.id = :id and b.isClosed = false")
+    Optional<BankAccount> findOpenById(Long id);
+
+    @Query("select case when count(b) > 0 then true else false end from BankAccount as b " +
+            "where b.id = :id and b.isClosed = false")
+    boolean existsOpenById(Long id);
+
+    @Query("select b from BankAccount as b where b.isClosed = false")
+    List<BankAccount> findAllOpen();
+
+    @Query("select b from BankAccount as b where b.number in :numbers and b.isClosed = false order by b.id asc")
+    List<BankAccount> findAllOpenByNumberIn(Collection<String> numbers);
+
+    /**
+     * Locks the accounts a transfer changes directly in ascending id order: the sources, and the destinations that are
+     * not hot accounts
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b from BankAccount as b " +
+            "where b.number in :numbers and (b.number in :sourceNumbers or b.balanceSlots = 0) and b.isClosed = false " +
+            "order by b.id asc")
+    List<BankAccount> lockAllForTransfer(Collection<String> numbers, Collection<String> sourceNumbers);
+
     @Query("select b from BankAccount as b " +
             "inner join User as u on b.owner.id = u.id " +
-            "where u.id = :ownerId")
+            "where u.id = :ownerId and b.isClosed = false")
     List<BankAccount> findAllByOwnerId(Long ownerId);
+
+    /**
+     * Finds the open and the closed accounts of the owner
+     */
+    @Query("select b from BankAccount as b where b.owner.id = :ownerId")
+    List<BankAccount> findAllIncludingClosedByOwnerId(Long ownerId);
+
+    @Query("select b.id as id, b.number as number, b.owner.id as ownerId from BankAccount as b " +
+            "where b.id = :id and b.isClosed = false")
+    Optional<BankAccountOwnership> findOwnershipById(Long id);
+
+    @Query("select b.id as id, b.number as number, b.owner.id as ownerId from BankAccount as b " +
+            "where b.number in :numbers and b.isClosed = false")
+    List<BankAccountOwnership> findAllOwnershipsByNumberIn(Collection<String> numbers);
 }
@@ -0,0 +1,12 @@
+package ru.dreadblade.czarbank.repository;
+
+import java.time.LocalDate;
+
+/**
+ * Continuous range of dates that have an exchange rate for the currency
+ */
+public interface ExchangeRateHistoryIsland {
+    Long getCurrencyId();
+    LocalDate getStartDate();
+    LocalDate getEndDate();
+}
@@ -21,4 +21,11 @@ public interface ExchangeRateRepository extends JpaRepository<ExchangeRate, Exch
     List<ExchangeRate> findAllInTimeSeries(@Param("start_date") LocalDate startDate, @Param("end_date") LocalDate endDate);
 
     Optional<ExchangeRate> findByCurrencyAndDate(Currency currency, LocalDate date);
+
+    @Query(value = "select currency_id as currencyId, min(date) as startDate, max(date) as endDate from (" +
+            "select currency_id, date, date - cast(row_number() over (partition by currency_id order by date) as integer) as island " +
+            "from exchange_rate where date between :start_date and :end_date) as dates " +
+            "group by currency_id, island order by currency_id, startDate", nativeQuery = true)
+    List<ExchangeRateHistoryIsland> findAllHistoryIslands(@Param("start_date") LocalDate startDate,
+                                                          @Param("end_date") LocalDate endDate);
 }
\ No newline at end of file
@@ -0,0 +1,10 @@
+package ru.dreadblade.czarbank.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import ru.dreadblade.czarbank.domain.LedgerEntry;
+
+import java.util.List;
+
+public interface LedgerEntryRepository extends JpaRepository<LedgerEntry, Long> {
+    List<LedgerEntry> findAllByBankAccountIdOrderByIdAsc(Long bankAccountId);
+}
@@ -0,0 +1,10 @@
+package ru.dreadblade.czarbank.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import ru.dreadblade.czarbank.domain.OutboundMail;
+
+import java.util.List;
+
+public interface OutboundMailRepository extends JpaRepository<OutboundMail, Long> {
+    List<OutboundMail> findAllByRecipient(String recipient);
+}
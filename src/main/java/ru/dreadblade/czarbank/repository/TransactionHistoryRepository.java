@@ -0,0 +1,22 @@
+package ru.dreadblade.czarbank.repository;
+
+import ru.dreadblade.czarbank.domain.TransactionHistoryCursor;
+import ru.dreadblade.czarbank.domain.TransactionHistoryFilter;
+import ru.dreadblade.czarbank.domain.TransactionHistoryItem;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+public interface TransactionHistoryRepository {
+    /**
+     * Returns up to {@code limit} rows of the history that go after the cursor (or from the newest row if the cursor is null)
+     */
+    List<TransactionHistoryItem> findHistoryPage(Long bankAccountId, TransactionHistoryFilter filter,
+                                                 TransactionHistoryCursor cursor, int limit);
+
+    /**
+     * Passes every row of the history to the consumer as soon as it is read from the database.
+     * Must be called within a transaction, otherwise the driver reads the whole result set at once
+     */
+    void streamHistory(Long bankAccountId, TransactionHistoryFilter filter, Consumer<TransactionHistoryItem> consumer);
+}
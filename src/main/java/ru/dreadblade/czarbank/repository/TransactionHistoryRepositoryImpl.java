@@ -0,0 +1,111 @@
+package ru.dreadblade.czarbank.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import ru.dreadblade.czarbank.domain.TransactionHistoryCursor;
+import ru.dreadblade.czarbank.domain.TransactionHistoryFilter;
+import ru.dreadblade.czarbank.domain.TransactionHistoryItem;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Reads the history as a union of the outgoing and incoming transactions, so each branch is served by its own
+ * (bank account id, created_at, id) index instead of an OR join over the whole table
+ */
+public class TransactionHistoryRepositoryImpl implements TransactionHistoryRepository {
+    private static final String SELECT_COLUMNS = "select t.id, t.amount, t.received_amount, t.created_at, " +
+            "sb.number as source_bank_account_number, db.number as destination_bank_account_number, ";
+    private static final String FROM_TRANSACTION = " from transaction t " +
+            "left join bank_account sb on sb.id = t.source_bank_account_id " +
+            "left join bank_account db on db.id = t.destination_bank_account_id ";
+    private static final String ORDER_BY = " order by created_at desc, id desc";
+
+    private static final RowMapper<TransactionHistoryItem> ROW_MAPPER = (rs, rowNum) -> TransactionHistoryItem.builder()
+            .id(rs.getLong("id"))
+            .createdAt(rs.getTimestamp("created_at").toInstant())
+            .amount(rs.getBigDecimal("amount"))
+            .receivedAmount(rs.getBigDecimal("received_amount"))
+            .sourceBankAccountNumber(rs.getString("source_bank_account_number"))
+            .destinationBankAccountNumber(rs.getString("destination_bank_account_number"))
+            .direction(TransactionHistoryItem.Direction.valueOf(rs.getString("direction")))
+            .build();
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public TransactionHistoryRepositoryImpl(DataSource dataSource,
+                                            @Value("${czar-bank.transaction.history.fetch-size:500}") int fetchSize) {
+        JdbcTemplate streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        streamingJdbcTemplate.setFetchSize(fetchSize);
+
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(streamingJdbcTemplate);
+    }
+
+    @Override
+    public List<TransactionHistoryItem> findHistoryPage(Long bankAccountId, TransactionHistoryFilter filter,
+                                                        TransactionHistoryCursor cursor, int limit) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource("limit", limit);
+
+        return jdbcTemplate.query(buildQuery(bankAccountId, filter, cursor, true, parameters) + " limit :limit",
+                parameters, ROW_MAPPER);
+    }
+
+    @Override
+    public void streamHistory(Long bankAccountId, TransactionHistoryFilter filter, Consumer<TransactionHistoryItem> consumer) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource();
+
+        RowCallbackHandler rowCallbackHandler = rs -> consumer.accept(ROW_MAPPER.mapRow(rs, 0));
+
+        jdbcTemplate.query(buildQuery(bankAccountId, filter, null, false, parameters), parameters, rowCallbackHandler);
+    }
+
+    private String buildQuery(Long bankAccountId, TransactionHistoryFilter filter, TransactionHistoryCursor cursor,
+                              boolean isLimited, MapSqlParameterSource parameters) {
+        parameters.addValue("bankAccountId", bankAccountId);
+
+        StringBuilder conditions = new StringBuilder();
+
+        if (filter.getFrom() != null) {
+            conditions.append(" and t.created_at >= :from");
+            parameters.addValue("from", Timestamp.from(filter.getFrom()));
+        }
+
+        if (filter.getTo() != null) {
+            conditions.append(" and t.created_at < :to");
+            parameters.addValue("to", Timestamp.from(filter.getTo()));
+        }
+
+        if (cursor != null) {
+            conditions.append(" and (t.created_at, t.id) < (:cursorCreatedAt, :cursorId)");
+            parameters.addValue("cursorCreatedAt", Timestamp.from(cursor.getCreatedAt()));
+            parameters.addValue("cursorId", cursor.getId());
+        }
+
+        List<String> branches = new ArrayList<>(2);
+
+        if (filter.getDirection() != TransactionHistoryItem.Direction.INCOMING) {
+            branches.add(buildBranch(TransactionHistoryItem.Direction.OUTGOING,
+                    "t.source_bank_account_id = :bankAccountId" + conditions, isLimited));
+        }
+
+        if (filter.getDirection() != TransactionHistoryItem.Direction.OUTGOING) {
+            branches.add(buildBranch(TransactionHistoryItem.Direction.INCOMING,
+                    "t.destination_bank_account_id = :bankAccountId " +
+                    "and t.source_bank_account_id is distinct from :bankAccountId" + conditions, isLimited));
+        }
+
+        return "select * from (" + String.join(" union all ", branches) + ") history" + ORDER_BY;
+    }
+
+    private String buildBranch(TransactionHistoryItem.Direction direction, String condition, boolean isLimited) {
+        return "(" + SELECT_COLUMNS + "'" + direction.name() + "' as direction" + FROM_TRANSACTION +
+                "where " + condition + (isLimited ? " order by t.created_at desc, t.id desc limit :limit" : "") + ")";
+    }
+}
@@ -0,0 +1,14 @@
+package ru.dreadblade.czarbank.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import ru.dreadblade.czarbank.domain.TransactionIdempotencyKey;
+
+import java.util.Optional;
+
+public interface TransactionIdempotencyKeyRepository extends JpaRepository<TransactionIdempotencyKey, Long> {
+    @Query("select k from TransactionIdempotencyKey k join fetch k.transaction " +
+            "where k.sourceBankAccountNumber = :sourceBankAccountNumber and k.idempotencyKey = :idempotencyKey")
+    Optional<TransactionIdempotencyKey> findBySourceBankAccountNumberAndIdempotencyKey(String sourceBankAccountNumber,
+                                                                                       String idempotencyKey);
+}
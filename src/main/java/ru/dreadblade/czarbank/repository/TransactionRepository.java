@@ -6,7 +6,7 @@ import ru.dreadblade.czarbank.domain.Transaction;
 
 import java.util.List;
 
-public interface TransactionRepository extends JpaRepository<Transaction, Long> {
+public interface TransactionRepository extends JpaRepository<Transaction, Long>, TransactionHistoryRepository {
     @Query("select t from Transaction as t " +
             "inner join BankAccount b on t.sourceBankAccount.id = b.id or " +
             "t.destinationBankAccount.id = b.id " +
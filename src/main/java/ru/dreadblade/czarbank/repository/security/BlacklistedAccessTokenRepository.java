@@ -1,13 +1,18 @@
 package ru.dreadblade.czarbank.repository.security;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import ru.dreadblade.czarbank.domain.security.BlacklistedAccessToken;
 
 import java.time.Instant;
 import java.util.List;
 
 public interface BlacklistedAccessTokenRepository extends JpaRepository<BlacklistedAccessToken, Long> {
-    boolean existsByAccessToken(String accessToken);
+    boolean existsByTokenId(String tokenId);
 
-    List<BlacklistedAccessToken> findAllByCreatedAtIsBefore(Instant instant);
-}
\ No newline at end of file
+    @Query("select b.tokenId from BlacklistedAccessToken b")
+    List<String> findAllTokenIds();
+
+    @Query("select b.tokenId from BlacklistedAccessToken b where b.createdAt >= :instant")
+    List<String> findAllTokenIdsCreatedSince(Instant instant);
+}
@@ -0,0 +1,35 @@
+package ru.dreadblade.czarbank.security.authorization;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import ru.dreadblade.czarbank.domain.BankAccount;
+import ru.dreadblade.czarbank.domain.security.User;
+import ru.dreadblade.czarbank.service.BankAccountService;
+
+@Component
+public class BankAccountAuthorizationManager {
+    private final BankAccountService bankAccountService;
+
+    @Autowired
+    public BankAccountAuthorizationManager(BankAccountService bankAccountService) {
+        this.bankAccountService = bankAccountService;
+    }
+
+    /**
+     * The account is remembered for the rest of the request, so the handler doesn't load it again
+     */
+    public boolean isCurrentUserTheOwnerOfBankAccount(Long bankAccountId) {
+        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+
+        if (!(principal instanceof User)) {
+            return false;
+        }
+
+        User currentUser = (User) principal;
+
+        BankAccount bankAccount = bankAccountService.findById(bankAccountId);
+
+        return bankAccount.getOwner().getId().equals(currentUser.getId());
+    }
+}
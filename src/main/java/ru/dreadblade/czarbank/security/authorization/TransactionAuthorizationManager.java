@@ -3,20 +3,26 @@ package ru.dreadblade.czarbank.security.authorization;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
-import ru.dreadblade.czarbank.domain.BankAccount;
 import ru.dreadblade.czarbank.domain.security.User;
 import ru.dreadblade.czarbank.exception.CzarBankException;
 import ru.dreadblade.czarbank.exception.ExceptionMessage;
-import ru.dreadblade.czarbank.repository.BankAccountRepository;
+import ru.dreadblade.czarbank.service.BankAccountOwnerIndex;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Checks the owners of the accounts against the owner index, the accounts themselves are not loaded
+ */
 @Component
 public class TransactionAuthorizationManager {
 
-    private final BankAccountRepository bankAccountRepository;
+    private final BankAccountOwnerIndex bankAccountOwnerIndex;
 
     @Autowired
-    public TransactionAuthorizationManager(BankAccountRepository bankAccountRepository) {
-        this.bankAccountRepository = bankAccountRepository;
+    public TransactionAuthorizationManager(BankAccountOwnerIndex bankAccountOwnerIndex) {
+        this.bankAccountOwnerIndex = bankAccountOwnerIndex;
     }
 
     public boolean isCurrentUserTheOwnerOfBankAccount(Long bankAccountId) {
@@ -28,11 +34,11 @@ public class TransactionAuthorizationManager {
 
         User currentUser = (User) principal;
 
-        BankAccount sourceBankAccount = bankAccountRepository.findById(bankAccountId).orElseThrow(() ->
+        Long ownerId = bankAccountOwnerIndex.findOwnerId(bankAccountId).orElseThrow(() ->
                 new CzarBankException(ExceptionMessage.BANK_ACCOUNT_NOT_FOUND)
         );
 
-        return sourceBankAccount.getOwner().getId().equals(currentUser.getId());
+        return ownerId.equals(currentUser.getId());
     }
 
     public boolean isCurrentUserTheOwnerOfSourceBankAccount(String bankAccountNumber) {
@@ -44,10 +50,30 @@ public class TransactionAuthorizationManager {
 
         User currentUser = (User) principal;
 
-        BankAccount sourceBankAccount = bankAccountRepository.findByNumber(bankAccountNumber).orElseThrow(() ->
+        Long ownerId = bankAccountOwnerIndex.findOwnerIdByNumber(bankAccountNumber).orElseThrow(() ->
                 new CzarBankException(ExceptionMessage.SOURCE_BANK_ACCOUNT_DOESNT_EXIST)
         );
 
-        return sourceBankAccount.getOwner().getId().equals(currentUser.getId());
+        return ownerId.equals(currentUser.getId());
+    }
+
+    /**
+     * Unknown bank accounts are skipped here, the transfers from them are rejected one by one
+     */
+    public boolean isCurrentUserTheOwnerOfSourceBankAccounts(Collection<String> bankAccountNumbers) {
+        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+
+        if (!(principal instanceof User)) {
+            return false;
+        }
+
+        User currentUser = (User) principal;
+
+        List<String> knownBankAccountNumbers = bankAccountNumbers.stream()
+                .filter(Objects::nonNull)
+                .toList();
+
+        return bankAccountOwnerIndex.findOwnerIdsByNumbers(knownBankAccountNumbers).values().stream()
+                .allMatch(ownerId -> ownerId.equals(currentUser.getId()));
     }
 }
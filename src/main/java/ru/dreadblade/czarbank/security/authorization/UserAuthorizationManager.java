@@ -0,0 +1,21 @@
+package ru.dreadblade.czarbank.security.authorization;
+
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import ru.dreadblade.czarbank.domain.security.User;
+
+@Component
+public class UserAuthorizationManager {
+
+    public boolean isCurrentUser(Long userId) {
+        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+
+        if (!(principal instanceof User)) {
+            return false;
+        }
+
+        User currentUser = (User) principal;
+
+        return currentUser.getId().equals(userId);
+    }
+}
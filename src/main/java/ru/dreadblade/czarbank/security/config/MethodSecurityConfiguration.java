@@ -0,0 +1,42 @@
+package ru.dreadblade.czarbank.security.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.security.access.expression.method.DefaultMethodSecurityExpressionHandler;
+import org.springframework.security.access.expression.method.MethodSecurityExpressionHandler;
+import org.springframework.security.config.annotation.method.configuration.EnableGlobalMethodSecurity;
+import org.springframework.security.config.annotation.method.configuration.GlobalMethodSecurityConfiguration;
+
+/**
+ * Compiles the {@code @PreAuthorize} expressions to bytecode after their first evaluations, the parts that
+ * can't be compiled are still interpreted
+ */
+@Configuration
+@EnableGlobalMethodSecurity(prePostEnabled = true)
+public class MethodSecurityConfiguration extends GlobalMethodSecurityConfiguration {
+    private final ApplicationContext applicationContext;
+
+    @Autowired
+    public MethodSecurityConfiguration(ApplicationContext applicationContext) {
+        this.applicationContext = applicationContext;
+    }
+
+    /**
+     * The framework only sets up its own default handler, so the bean resolver for the {@code @bean} references
+     * of the expressions is registered here
+     */
+    @Override
+    protected MethodSecurityExpressionHandler createExpressionHandler() {
+        DefaultMethodSecurityExpressionHandler expressionHandler = new DefaultMethodSecurityExpressionHandler();
+
+        expressionHandler.setExpressionParser(new SpelExpressionParser(
+                new SpelParserConfiguration(SpelCompilerMode.MIXED, getClass().getClassLoader())));
+        expressionHandler.setApplicationContext(applicationContext);
+
+        return expressionHandler;
+    }
+}
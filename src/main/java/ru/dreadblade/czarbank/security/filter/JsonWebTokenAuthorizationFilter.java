@@ -12,8 +12,9 @@ import org.springframework.web.filter.OncePerRequestFilter;
 import ru.dreadblade.czarbank.domain.security.User;
 import ru.dreadblade.czarbank.exception.CzarBankSecurityException;
 import ru.dreadblade.czarbank.exception.ExceptionMessage;
-import ru.dreadblade.czarbank.repository.security.BlacklistedAccessTokenRepository;
+import ru.dreadblade.czarbank.security.service.AccessTokenRevocationService;
 import ru.dreadblade.czarbank.security.service.AccessTokenService;
+import ru.dreadblade.czarbank.service.metrics.SecurityMetrics;
 
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
@@ -27,12 +28,15 @@ public class JsonWebTokenAuthorizationFilter extends OncePerRequestFilter {
     private String authorizationHeaderPrefix;
 
     private final AccessTokenService accessTokenService;
-    private final BlacklistedAccessTokenRepository blacklistedAccessTokenRepository;
+    private final AccessTokenRevocationService accessTokenRevocationService;
+    private final SecurityMetrics securityMetrics;
 
     @Autowired
-    public JsonWebTokenAuthorizationFilter(AccessTokenService accessTokenService, BlacklistedAccessTokenRepository blacklistedAccessTokenRepository) {
+    public JsonWebTokenAuthorizationFilter(AccessTokenService accessTokenService, AccessTokenRevocationService accessTokenRevocationService,
+                                           SecurityMetrics securityMetrics) {
         this.accessTokenService = accessTokenService;
-        this.blacklistedAccessTokenRepository = blacklistedAccessTokenRepository;
+        this.accessTokenRevocationService = accessTokenRevocationService;
+        this.securityMetrics = securityMetrics;
     }
 
     @Override
@@ -51,11 +55,7 @@ public class JsonWebTokenAuthorizationFilter extends OncePerRequestFilter {
 
         accessToken = accessToken.substring(authorizationHeaderPrefix.length());
 
-        if (blacklistedAccessTokenRepository.existsByAccessToken(accessToken)) {
-            throw new CzarBankSecurityException(ExceptionMessage.INVALID_ACCESS_TOKEN);
-        }
-
-        User user = accessTokenService.getUserFromToken(accessToken);
+        User user = authenticate(accessToken);
 
         if (!user.isEmailVerified()) {
             throw new CzarBankSecurityException(ExceptionMessage.EMAIL_VERIFICATION_REQUIRED);
@@ -84,4 +84,24 @@ public class JsonWebTokenAuthorizationFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
+
+    private User authenticate(String accessToken) {
+        long startedAt = System.nanoTime();
+
+        try {
+            if (accessTokenRevocationService.isRevoked(accessTokenService.getTokenId(accessToken))) {
+                throw new CzarBankSecurityException(ExceptionMessage.INVALID_ACCESS_TOKEN);
+            }
+
+            User user = accessTokenService.getUserFromToken(accessToken);
+
+            securityMetrics.recordAuthentication(System.nanoTime() - startedAt);
+
+            return user;
+        } catch (RuntimeException e) {
+            securityMetrics.recordFailedAuthentication(System.nanoTime() - startedAt, e);
+
+            throw e;
+        }
+    }
 }
@@ -0,0 +1,133 @@
+package ru.dreadblade.czarbank.security.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import ru.dreadblade.czarbank.domain.security.BlacklistedAccessToken;
+import ru.dreadblade.czarbank.repository.security.BlacklistedAccessTokenRepository;
+import ru.dreadblade.czarbank.service.metrics.SecurityMetrics;
+import ru.dreadblade.czarbank.util.BloomFilter;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Store of revoked access tokens keyed by the token id. The database is only asked when the in-memory Bloom filter
+ * reports that the token might have been revoked, so checking a token that has not been revoked costs no I/O.
+ * Tokens revoked by other instances are picked up by {@link #synchronize()}
+ */
+@Slf4j
+@Service
+public class AccessTokenRevocationService {
+    private final BlacklistedAccessTokenRepository blacklistedAccessTokenRepository;
+    private final SecurityMetrics securityMetrics;
+
+    private final long expectedRevocations;
+    private final double falsePositiveProbability;
+
+    /**
+     * How far every synchronization reaches back before the previous one. The creation time of a revocation is
+     * stamped by the clock of the revoking instance before its commit, so a revocation committed during
+     * the previous synchronization, or by an instance whose clock is behind, may be older than its start
+     */
+    private final Duration synchronizationOverlap;
+
+    /**
+     * Guards the swap of the filter against a revocation being put into the filter that is being replaced
+     */
+    private final Object revokedTokenIdsLock = new Object();
+
+    private volatile BloomFilter revokedTokenIds;
+
+    /**
+     * Ids revoked while a rebuild is running, which its read of the database may have missed. Null between rebuilds
+     */
+    private Set<String> tokenIdsRevokedDuringRebuild;
+
+    private volatile Instant synchronizedAt = Instant.EPOCH;
+
+    public AccessTokenRevocationService(BlacklistedAccessTokenRepository blacklistedAccessTokenRepository,
+                                        SecurityMetrics securityMetrics,
+                                        @Value("${czar-bank.security.access-token.revocation.expected-revocations:100000}") long expectedRevocations,
+                                        @Value("${czar-bank.security.access-token.revocation.false-positive-probability:0.001}") double falsePositiveProbability,
+                                        @Value("${czar-bank.security.access-token.revocation.synchronization-overlap-seconds:60}") long synchronizationOverlapSeconds) {
+        this.blacklistedAccessTokenRepository = blacklistedAccessTokenRepository;
+        this.securityMetrics = securityMetrics;
+        this.expectedRevocations = expectedRevocations;
+        this.falsePositiveProbability = falsePositiveProbability;
+        this.synchronizationOverlap = Duration.ofSeconds(synchronizationOverlapSeconds);
+        this.revokedTokenIds = new BloomFilter(expectedRevocations, falsePositiveProbability);
+    }
+
+    public boolean isRevoked(String tokenId) {
+        if (!revokedTokenIds.mightContain(tokenId)) {
+            securityMetrics.recordFilteredRevocationLookup();
+
+            return false;
+        }
+
+        boolean isRevoked = blacklistedAccessTokenRepository.existsByTokenId(tokenId);
+
+        securityMetrics.recordRevocationLookup(isRevoked);
+
+        return isRevoked;
+    }
+
+    public void revoke(String tokenId) {
+        blacklistedAccessTokenRepository.save(BlacklistedAccessToken.builder()
+                .tokenId(tokenId)
+                .build());
+
+        synchronized (revokedTokenIdsLock) {
+            revokedTokenIds.put(tokenId);
+
+            if (tokenIdsRevokedDuringRebuild != null) {
+                tokenIdsRevokedDuringRebuild.add(tokenId);
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the filter from the database, dropping the ids of the released tokens. The ids revoked on this instance
+     * while the database is read are put into the rebuilt filter before it replaces the current one
+     */
+    public synchronized void rebuild() {
+        synchronized (revokedTokenIdsLock) {
+            tokenIdsRevokedDuringRebuild = new HashSet<>();
+        }
+
+        Instant rebuildStartedAt = Instant.now();
+        List<String> tokenIds = blacklistedAccessTokenRepository.findAllTokenIds();
+
+        BloomFilter rebuiltRevokedTokenIds = new BloomFilter(Math.max(expectedRevocations, tokenIds.size()),
+                falsePositiveProbability);
+        tokenIds.forEach(rebuiltRevokedTokenIds::put);
+
+        synchronized (revokedTokenIdsLock) {
+            tokenIdsRevokedDuringRebuild.forEach(rebuiltRevokedTokenIds::put);
+            tokenIdsRevokedDuringRebuild = null;
+
+            revokedTokenIds = rebuiltRevokedTokenIds;
+        }
+        synchronizedAt = rebuildStartedAt;
+
+        log.info("Access token revocation filter has been rebuilt from {} revoked tokens", tokenIds.size());
+    }
+
+    @Scheduled(fixedDelayString = "#{${czar-bank.security.access-token.revocation.synchronization-seconds:10}}",
+            initialDelayString = "#{${czar-bank.security.access-token.revocation.synchronization-seconds:10}}",
+            timeUnit = TimeUnit.SECONDS)
+    public synchronized void synchronize() {
+        Instant synchronizationStartedAt = Instant.now();
+
+        blacklistedAccessTokenRepository.findAllTokenIdsCreatedSince(synchronizedAt.minus(synchronizationOverlap))
+                .forEach(revokedTokenIds::put);
+
+        synchronizedAt = synchronizationStartedAt;
+    }
+}
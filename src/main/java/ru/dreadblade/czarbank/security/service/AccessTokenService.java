@@ -4,6 +4,7 @@ import com.auth0.jwt.JWT;
 import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.interfaces.DecodedJWT;
 import com.auth0.jwt.interfaces.JWTVerifier;
+import lombok.SneakyThrows;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Service;
@@ -12,8 +13,12 @@ import ru.dreadblade.czarbank.exception.CzarBankException;
 import ru.dreadblade.czarbank.exception.ExceptionMessage;
 import ru.dreadblade.czarbank.repository.security.UserRepository;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.util.Date;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Service
@@ -30,11 +35,16 @@ public class AccessTokenService {
     private final String secretKey;
 
     private final UserRepository userRepository;
+    private final PrincipalCacheService principalCacheService;
+    private final AuthoritySetService authoritySetService;
     private final JWTVerifier verifier;
 
     public AccessTokenService(@Value("${czar-bank.security.access-token.secret-key}") String secretKey,
-                              UserRepository userRepository) {
+                              UserRepository userRepository, PrincipalCacheService principalCacheService,
+                              AuthoritySetService authoritySetService) {
         this.userRepository = userRepository;
+        this.principalCacheService = principalCacheService;
+        this.authoritySetService = authoritySetService;
         this.secretKey = secretKey;
         this.verifier = JWT.require(Algorithm.HMAC512(secretKey)).build();
     }
@@ -48,6 +58,7 @@ public class AccessTokenService {
         Date expiresAt = new Date(System.currentTimeMillis() + accessTokenExpirationSeconds * 1000L);
 
         return JWT.create()
+                .withJWTId(UUID.randomUUID().toString())
                 .withIssuer(issuer)
                 .withAudience(audience)
                 .withSubject(user.getUsername())
@@ -62,7 +73,31 @@ public class AccessTokenService {
 
         String username = decodedJWT.getSubject();
 
-        return userRepository.findByUsername(username)
-                .orElseThrow(() -> new CzarBankException(ExceptionMessage.INVALID_ACCESS_TOKEN));
+        return principalCacheService.getPrincipal(getTokenId(decodedJWT), tokenId -> userRepository.findByUsername(username)
+                .map(authoritySetService::attach)
+                .orElseThrow(() -> new CzarBankException(ExceptionMessage.INVALID_ACCESS_TOKEN)));
+    }
+
+    /**
+     * Returns the id of the token without verifying it
+     */
+    public String getTokenId(String accessToken) {
+        DecodedJWT decodedJWT = JWT.decode(accessToken);
+
+        return decodedJWT.getId() != null ? decodedJWT.getId() : sha256Hex(accessToken);
+    }
+
+    private String getTokenId(DecodedJWT decodedJWT) {
+        return decodedJWT.getId() != null ? decodedJWT.getId() : sha256Hex(decodedJWT.getToken());
+    }
+
+    /**
+     * Tokens issued without an id are identified by their SHA-256 digest
+     */
+    @SneakyThrows
+    private static String sha256Hex(String accessToken) {
+        byte[] digest = MessageDigest.getInstance("SHA-256").digest(accessToken.getBytes(StandardCharsets.UTF_8));
+
+        return HexFormat.of().formatHex(digest);
     }
 }
@@ -8,12 +8,10 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import ru.dreadblade.czarbank.api.model.request.security.AuthenticationRequestDTO;
-import ru.dreadblade.czarbank.domain.security.BlacklistedAccessToken;
 import ru.dreadblade.czarbank.domain.security.RefreshTokenSession;
 import ru.dreadblade.czarbank.domain.security.User;
 import ru.dreadblade.czarbank.exception.CzarBankSecurityException;
 import ru.dreadblade.czarbank.exception.ExceptionMessage;
-import ru.dreadblade.czarbank.repository.security.BlacklistedAccessTokenRepository;
 import ru.dreadblade.czarbank.repository.security.RefreshTokenSessionRepository;
 import ru.dreadblade.czarbank.service.security.TwoFactorAuthenticationService;
 
@@ -23,9 +21,11 @@ import java.util.function.Predicate;
 @RequiredArgsConstructor
 public class AuthenticationService {
     private final AuthenticationManager authenticationManager;
-    private final BlacklistedAccessTokenRepository blacklistedAccessTokenRepository;
+    private final AccessTokenRevocationService accessTokenRevocationService;
     private final RefreshTokenSessionRepository refreshTokenSessionRepository;
     private final TwoFactorAuthenticationService twoFactorAuthenticationService;
+    private final AccessTokenService accessTokenService;
+    private final PrincipalCacheService principalCacheService;
 
     @Value("${czar-bank.security.access-token.header.prefix}")
     private String authorizationHeaderPrefix;
@@ -58,16 +58,15 @@ public class AuthenticationService {
             accessToken = accessToken.substring(authorizationHeaderPrefix.length());
         }
 
-        BlacklistedAccessToken blacklistedAccessToken = BlacklistedAccessToken.builder()
-                .accessToken(accessToken)
-                .build();
+        String tokenId = accessTokenService.getTokenId(accessToken);
 
         RefreshTokenSession refreshTokenSession = refreshTokenSessionRepository.findByRefreshToken(refreshToken)
                 .filter(Predicate.not(RefreshTokenSession::getIsRevoked))
                 .filter(session -> session.getUser().getId().equals(currentUser.getId()))
                 .orElseThrow(() -> new CzarBankSecurityException(ExceptionMessage.INVALID_REFRESH_TOKEN));
 
-        blacklistedAccessTokenRepository.save(blacklistedAccessToken);
+        accessTokenRevocationService.revoke(tokenId);
+        principalCacheService.invalidateToken(tokenId);
 
         refreshTokenSession.setIsRevoked(true);
         refreshTokenSessionRepository.save(refreshTokenSession);
@@ -0,0 +1,108 @@
+package ru.dreadblade.czarbank.security.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import ru.dreadblade.czarbank.domain.security.AuthoritySet;
+import ru.dreadblade.czarbank.domain.security.Permission;
+import ru.dreadblade.czarbank.domain.security.Role;
+import ru.dreadblade.czarbank.domain.security.User;
+import ru.dreadblade.czarbank.repository.security.PermissionRepository;
+import ru.dreadblade.czarbank.repository.security.RoleRepository;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Compiles the authorities of every distinct set of roles once per version of the roles. The version is bumped
+ * whenever the permissions of a role change, and a set is always compiled from the roles read after the bump,
+ * so a principal loaded before the change can't put stale authorities into the cache.
+ * <p>
+ * The version is local to the instance, the changes made by other instances are picked up once the compiled
+ * sets expire, no later than the cached principals
+ */
+@Service
+public class AuthoritySetService {
+    private final RoleRepository roleRepository;
+    private final PermissionRepository permissionRepository;
+    private final Cache<RoleSetKey, AuthoritySet> authoritySets;
+    private final long ttlNanos;
+    private final AtomicLong version = new AtomicLong();
+
+    private volatile PermissionIndex permissionIndex;
+
+    public AuthoritySetService(RoleRepository roleRepository, PermissionRepository permissionRepository,
+                               @Value("${czar-bank.security.authority-sets.maximum-size:1000}") long maximumSize,
+                               @Value("${czar-bank.security.authority-sets.ttl-seconds:60}") long ttlSeconds) {
+        this.roleRepository = roleRepository;
+        this.permissionRepository = permissionRepository;
+        this.ttlNanos = Duration.ofSeconds(ttlSeconds).toNanos();
+        this.authoritySets = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+    }
+
+    /**
+     * Assigns the shared authorities of the roles of the user to the user
+     */
+    public User attach(User user) {
+        user.setAuthoritySet(getAuthoritySet(user.getRoles().stream()
+                .map(Role::getId)
+                .sorted()
+                .toList()));
+
+        return user;
+    }
+
+    public AuthoritySet getAuthoritySet(List<Long> sortedRoleIds) {
+        long currentVersion = version.get();
+
+        return authoritySets.get(new RoleSetKey(currentVersion, sortedRoleIds),
+                key -> AuthoritySet.of(roleRepository.findAllById(key.roleIds), getPermissionIdsByName(currentVersion)));
+    }
+
+    /**
+     * Drops every compiled set, must be called after the permissions of a role were changed or a role was deleted
+     */
+    public void invalidateAll() {
+        version.incrementAndGet();
+        authoritySets.invalidateAll();
+    }
+
+    private Map<String, Long> getPermissionIdsByName(long currentVersion) {
+        PermissionIndex permissionIndex = this.permissionIndex;
+
+        if (permissionIndex == null || permissionIndex.version != currentVersion
+                || System.nanoTime() - permissionIndex.loadedAtNanos > ttlNanos) {
+            long loadedAtNanos = System.nanoTime();
+
+            permissionIndex = new PermissionIndex(currentVersion, loadedAtNanos, permissionRepository.findAll().stream()
+                    .collect(Collectors.toUnmodifiableMap(Permission::getName, Permission::getId)));
+
+            this.permissionIndex = permissionIndex;
+        }
+
+        return permissionIndex.permissionIdsByName;
+    }
+
+    @EqualsAndHashCode
+    @AllArgsConstructor
+    private static class RoleSetKey {
+        private final long version;
+        private final List<Long> roleIds;
+    }
+
+    @AllArgsConstructor
+    private static class PermissionIndex {
+        private final long version;
+        private final long loadedAtNanos;
+        private final Map<String, Long> permissionIdsByName;
+    }
+}
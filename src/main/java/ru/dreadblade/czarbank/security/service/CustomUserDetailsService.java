@@ -10,15 +10,18 @@ import ru.dreadblade.czarbank.repository.security.UserRepository;
 @Service
 public class CustomUserDetailsService implements UserDetailsService {
     private final UserRepository userRepository;
+    private final AuthoritySetService authoritySetService;
 
     @Autowired
-    public CustomUserDetailsService(UserRepository userRepository) {
+    public CustomUserDetailsService(UserRepository userRepository, AuthoritySetService authoritySetService) {
         this.userRepository = userRepository;
+        this.authoritySetService = authoritySetService;
     }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         return userRepository.findByUsername(username)
+                .map(authoritySetService::attach)
                 .orElseThrow(() -> new UsernameNotFoundException("User with username \"" + username + "\" not found"));
     }
 }
@@ -0,0 +1,86 @@
+package ru.dreadblade.czarbank.security.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deletes expired rows of the token tables with set-based deletes of a bounded size, each chunk in its own
+ * statement, so that a large backlog never holds locks on the whole table or builds up a huge transaction
+ */
+@Slf4j
+@Service
+public class ExpiredTokenReaperService {
+    private static final String DELETE_CHUNK_QUERY = "delete from %1$s where id in (select id from %1$s where %2$s limit ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${czar-bank.security.token-reaper.chunk-size:1000}")
+    private int chunkSize;
+
+    public ExpiredTokenReaperService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Deletes the rows created before the threshold that also match the additional condition, if any
+     *
+     * @param tableName  one of the token tables (or another table with a created_at column), never user input
+     * @param condition  additional SQL condition on the rows of the table, never user input
+     */
+    public ReapResult reapCreatedBefore(String tableName, Instant threshold, String condition, Object... parameters) {
+        String rowCondition = "created_at < ?" + (condition == null ? "" : " and (" + condition + ")");
+        String deleteChunkQuery = String.format(DELETE_CHUNK_QUERY, tableName, rowCondition);
+
+        Object[] queryParameters = new Object[parameters.length + 2];
+        queryParameters[0] = Timestamp.from(threshold);
+        System.arraycopy(parameters, 0, queryParameters, 1, parameters.length);
+        queryParameters[queryParameters.length - 1] = chunkSize;
+
+        long reclaimedRows = 0;
+        int chunkCount = 0;
+        long maxChunkMillis = 0;
+        long reapStartedAt = System.nanoTime();
+
+        int deletedRows;
+
+        do {
+            long chunkStartedAt = System.nanoTime();
+
+            deletedRows = jdbcTemplate.update(deleteChunkQuery, queryParameters);
+
+            long chunkMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - chunkStartedAt);
+
+            reclaimedRows += deletedRows;
+            chunkCount++;
+            maxChunkMillis = Math.max(maxChunkMillis, chunkMillis);
+
+            log.debug("Reclaimed {} rows of {} in {} ms", deletedRows, tableName, chunkMillis);
+        } while (deletedRows == chunkSize);
+
+        ReapResult result = new ReapResult(tableName, reclaimedRows, chunkCount, maxChunkMillis,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - reapStartedAt));
+
+        log.info("Reclaimed {} rows of {} in {} chunks, {} ms in total, the longest chunk took {} ms",
+                result.getReclaimedRows(), tableName, result.getChunkCount(), result.getTotalMillis(), result.getMaxChunkMillis());
+
+        return result;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class ReapResult {
+        private final String tableName;
+        private final long reclaimedRows;
+        private final int chunkCount;
+        private final long maxChunkMillis;
+        private final long totalMillis;
+    }
+}
@@ -0,0 +1,43 @@
+package ru.dreadblade.czarbank.security.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import ru.dreadblade.czarbank.domain.security.User;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Keeps the users resolved from access tokens, so that the authentication of a request doesn't hit the database.
+ * Entries are keyed by the token id and must be invalidated whenever the user, their roles or the token change
+ */
+@Service
+public class PrincipalCacheService {
+    private final Cache<String, User> principalsByTokenId;
+
+    public PrincipalCacheService(@Value("${czar-bank.security.principal-cache.maximum-size:10000}") long maximumSize,
+                                 @Value("${czar-bank.security.principal-cache.ttl-seconds:60}") long ttlSeconds) {
+        this.principalsByTokenId = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+    }
+
+    public User getPrincipal(String tokenId, Function<String, User> loader) {
+        return principalsByTokenId.get(tokenId, loader);
+    }
+
+    public void invalidateToken(String tokenId) {
+        principalsByTokenId.invalidate(tokenId);
+    }
+
+    public void invalidateUser(Long userId) {
+        principalsByTokenId.asMap().values().removeIf(user -> user.getId().equals(userId));
+    }
+
+    public void invalidateAll() {
+        principalsByTokenId.invalidateAll();
+    }
+}
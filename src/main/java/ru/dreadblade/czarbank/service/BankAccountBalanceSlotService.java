@@ -0,0 +1,146 @@
+package ru.dreadblade.czarbank.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.dreadblade.czarbank.domain.BankAccount;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+/**
+ * Spreads the incoming transfers of hot bank accounts over several balance slots, so the transfers to the same
+ * account don't all wait for the lock of its balance row. The balance of a hot account is its stored balance plus
+ * the balances of its slots.
+ * <p>
+ * Locks are always taken on the bank account rows first and on the slot rows after them, so the transfers,
+ * the folding and the resizing of the slots can't deadlock each other
+ */
+@Slf4j
+@Service
+public class BankAccountBalanceSlotService {
+    private static final String CREDIT_SLOT_QUERY = "update bank_account_balance_slot set balance = balance + ? " +
+            "where bank_account_id = ? and slot = ?";
+    private static final String SLOTS_BALANCE_QUERY = "select coalesce(sum(balance), 0) from bank_account_balance_slot " +
+            "where bank_account_id = ?";
+    private static final String LOCK_BANK_ACCOUNT_QUERY = "select id from bank_account where id = ? for update";
+    private static final String FOLD_SLOTS_QUERY = "with folded as (" +
+            "select slot, balance from bank_account_balance_slot where bank_account_id = ? and balance <> 0 for update" +
+            "), reset as (" +
+            "update bank_account_balance_slot s set balance = 0 from folded f where s.bank_account_id = ? and s.slot = f.slot" +
+            ") update bank_account set balance = balance + (select coalesce(sum(balance), 0) from folded) where id = ?";
+    private static final String DELETE_SLOTS_QUERY = "delete from bank_account_balance_slot where bank_account_id = ?";
+    private static final String INSERT_SLOT_QUERY = "insert into bank_account_balance_slot (bank_account_id, slot, balance) " +
+            "values (?, ?, 0)";
+    private static final String UPDATE_SLOTS_COUNT_QUERY = "update bank_account set balance_slots = ? where id = ?";
+    private static final String HOT_BANK_ACCOUNT_IDS_QUERY = "select id from bank_account where balance_slots > 0";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final AtomicLong roundRobinCounter = new AtomicLong();
+
+    @Value("${czar-bank.bank-account.balance-slots.selection:HASH}")
+    private SlotSelection slotSelection;
+
+    public BankAccountBalanceSlotService(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    public enum SlotSelection {
+        /**
+         * The slot is picked by the source bank account, so every payer keeps hitting the same slot
+         */
+        HASH,
+        ROUND_ROBIN
+    }
+
+    public boolean isHotAccount(BankAccount bankAccount) {
+        return bankAccount.getBalanceSlots() != null && bankAccount.getBalanceSlots() > 0;
+    }
+
+    /**
+     * Returns the stored balance of the account together with the balances of its slots
+     */
+    public BigDecimal getBalance(BankAccount bankAccount) {
+        if (!isHotAccount(bankAccount)) {
+            return bankAccount.getBalance();
+        }
+
+        return bankAccount.getBalance().add(jdbcTemplate.queryForObject(SLOTS_BALANCE_QUERY, BigDecimal.class,
+                bankAccount.getId()));
+    }
+
+    /**
+     * Credits one of the slots of the hot account, the balance row of the account is neither locked nor changed
+     *
+     * @throws OptimisticLockingFailureException if the slots of the account were resized in the meantime
+     */
+    public void credit(BankAccount hotAccount, BankAccount source, BigDecimal amount) {
+        int updatedSlots = jdbcTemplate.update(CREDIT_SLOT_QUERY, amount, hotAccount.getId(), selectSlot(hotAccount, source));
+
+        if (updatedSlots == 0) {
+            throw new OptimisticLockingFailureException("Balance slots of the bank account " + hotAccount.getId() +
+                    " were resized");
+        }
+    }
+
+    /**
+     * Moves the balances of the slots to the balance of the account. The caller must hold the lock of the
+     * bank account row and must flush its pending changes of the account first
+     */
+    public void foldLocked(Long bankAccountId) {
+        jdbcTemplate.update(FOLD_SLOTS_QUERY, bankAccountId, bankAccountId, bankAccountId);
+    }
+
+    /**
+     * Folds the slots of every hot account, each account in its own short transaction
+     */
+    public void foldAll() {
+        List<Long> hotAccountIds = jdbcTemplate.queryForList(HOT_BANK_ACCOUNT_IDS_QUERY, Long.class);
+
+        hotAccountIds.forEach(bankAccountId -> transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.query(LOCK_BANK_ACCOUNT_QUERY, resultSet -> { }, bankAccountId);
+
+            foldLocked(bankAccountId);
+        }));
+
+        log.debug("Folded the balance slots of {} hot bank accounts", hotAccountIds.size());
+    }
+
+    /**
+     * Folds the current slots of the account and replaces them with the given number of empty slots,
+     * 0 turns the hot account mode off
+     */
+    public void resize(Long bankAccountId, int slotsCount) {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.query(LOCK_BANK_ACCOUNT_QUERY, resultSet -> { }, bankAccountId);
+
+            foldLocked(bankAccountId);
+
+            jdbcTemplate.update(DELETE_SLOTS_QUERY, bankAccountId);
+
+            if (slotsCount > 0) {
+                jdbcTemplate.batchUpdate(INSERT_SLOT_QUERY, IntStream.range(0, slotsCount).boxed().toList(), slotsCount,
+                        (ps, slot) -> {
+                            ps.setLong(1, bankAccountId);
+                            ps.setInt(2, slot);
+                        });
+            }
+
+            jdbcTemplate.update(UPDATE_SLOTS_COUNT_QUERY, slotsCount, bankAccountId);
+        });
+    }
+
+    private int selectSlot(BankAccount hotAccount, BankAccount source) {
+        long selector = slotSelection == SlotSelection.HASH ? Long.hashCode(source.getId()) :
+                roundRobinCounter.getAndIncrement();
+
+        return (int) Math.floorMod(selector, (long) hotAccount.getBalanceSlots());
+    }
+}
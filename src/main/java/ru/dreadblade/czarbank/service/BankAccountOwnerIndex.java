@@ -0,0 +1,90 @@
+package ru.dreadblade.czarbank.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import ru.dreadblade.czarbank.domain.BankAccount;
+import ru.dreadblade.czarbank.repository.BankAccountOwnership;
+import ru.dreadblade.czarbank.repository.BankAccountRepository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Keeps the owners of the recently checked bank accounts by the ids and the numbers of the accounts, so an ownership
+ * check is a hash lookup. The owner of an account never changes, so an entry only goes stale once its account is
+ * deleted, and the requests to a deleted account fail with not found anyway. Unknown accounts are not remembered,
+ * the accounts created by other instances are found on the next lookup
+ */
+@Service
+public class BankAccountOwnerIndex {
+    private final BankAccountRepository bankAccountRepository;
+    private final Cache<Long, Long> ownerIdsByAccountId;
+    private final Cache<String, Long> ownerIdsByAccountNumber;
+
+    public BankAccountOwnerIndex(BankAccountRepository bankAccountRepository,
+                                 @Value("${czar-bank.bank-account.owner-index.maximum-size:100000}") long maximumSize) {
+        this.bankAccountRepository = bankAccountRepository;
+        this.ownerIdsByAccountId = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .build();
+        this.ownerIdsByAccountNumber = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .build();
+    }
+
+    public Optional<Long> findOwnerId(Long bankAccountId) {
+        return Optional.ofNullable(ownerIdsByAccountId.get(bankAccountId, id ->
+                bankAccountRepository.findOwnershipById(id)
+                        .map(ownership -> {
+                            ownerIdsByAccountNumber.put(ownership.getNumber(), ownership.getOwnerId());
+                            return ownership.getOwnerId();
+                        })
+                        .orElse(null)));
+    }
+
+    public Optional<Long> findOwnerIdByNumber(String bankAccountNumber) {
+        return Optional.ofNullable(findOwnerIdsByNumbers(List.of(bankAccountNumber)).get(bankAccountNumber));
+    }
+
+    /**
+     * Looks up the owners of all the accounts at once, the accounts not in the index are read with a single query
+     *
+     * @return the owner ids by the numbers of the known accounts
+     */
+    public Map<String, Long> findOwnerIdsByNumbers(Collection<String> bankAccountNumbers) {
+        return ownerIdsByAccountNumber.getAll(bankAccountNumbers, numbers -> {
+            List<String> missingNumbers = new ArrayList<>();
+            numbers.forEach(missingNumbers::add);
+
+            Map<String, Long> ownerIds = new HashMap<>();
+
+            for (BankAccountOwnership ownership : bankAccountRepository.findAllOwnershipsByNumberIn(missingNumbers)) {
+                ownerIds.put(ownership.getNumber(), ownership.getOwnerId());
+                ownerIdsByAccountId.put(ownership.getId(), ownership.getOwnerId());
+            }
+
+            return ownerIds;
+        });
+    }
+
+    public void put(BankAccount bankAccount) {
+        ownerIdsByAccountId.put(bankAccount.getId(), bankAccount.getOwner().getId());
+        ownerIdsByAccountNumber.put(bankAccount.getNumber(), bankAccount.getOwner().getId());
+    }
+
+    public void evict(BankAccount bankAccount) {
+        ownerIdsByAccountId.invalidate(bankAccount.getId());
+        ownerIdsByAccountNumber.invalidate(bankAccount.getNumber());
+    }
+
+    public void invalidateAll() {
+        ownerIdsByAccountId.invalidateAll();
+        ownerIdsByAccountNumber.invalidateAll();
+    }
+}
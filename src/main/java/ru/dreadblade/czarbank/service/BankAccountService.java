@@ -12,6 +12,7 @@ import ru.dreadblade.czarbank.exception.ExceptionMessage;
 import ru.dreadblade.czarbank.repository.BankAccountRepository;
 import ru.dreadblade.czarbank.repository.BankAccountTypeRepository;
 import ru.dreadblade.czarbank.repository.CurrencyRepository;
+import ru.dreadblade.czarbank.service.cache.RequestEntityMemo;
 import ru.dreadblade.czarbank.service.security.UserService;
 
 import java.math.BigDecimal;
@@ -23,29 +24,62 @@ public class BankAccountService {
     private final BankAccountTypeRepository bankAccountTypeRepository;
     private final CurrencyRepository currencyRepository;
     private final UserService userService;
+    private final BankAccountBalanceSlotService bankAccountBalanceSlotService;
+    private final RequestEntityMemo requestEntityMemo;
+    private final BankAccountOwnerIndex bankAccountOwnerIndex;
 
     @Autowired
-    public BankAccountService(BankAccountRepository bankAccountRepository, BankAccountTypeRepository bankAccountTypeRepository, CurrencyRepository currencyRepository, UserService userService) {
+    public BankAccountService(BankAccountRepository bankAccountRepository, BankAccountTypeRepository bankAccountTypeRepository, CurrencyRepository currencyRepository, UserService userService,
+                              BankAccountBalanceSlotService bankAccountBalanceSlotService, RequestEntityMemo requestEntityMemo,
+                              BankAccountOwnerIndex bankAccountOwnerIndex) {
         this.bankAccountRepository = bankAccountRepository;
         this.bankAccountTypeRepository = bankAccountTypeRepository;
         this.currencyRepository = currencyRepository;
         this.userService = userService;
+        this.bankAccountBalanceSlotService = bankAccountBalanceSlotService;
+        this.requestEntityMemo = requestEntityMemo;
+        this.bankAccountOwnerIndex = bankAccountOwnerIndex;
     }
 
     public List<BankAccount> findAllForUser(User user) {
         if (user.hasAuthority("BANK_ACCOUNT_READ")) {
-            return bankAccountRepository.findAll();
+            return bankAccountRepository.findAllOpen();
         }
 
         return bankAccountRepository.findAllByOwnerId(user.getId());
     }
 
+    /**
+     * Finds the account once per request, the authorization checks and the handler of the request share it
+     */
     public BankAccount findById(Long id) {
-        return bankAccountRepository.findById(id).orElseThrow(() ->
+        return requestEntityMemo.find(BankAccount.class, id, bankAccountRepository::findOpenById).orElseThrow(() ->
                 new CzarBankException(ExceptionMessage.BANK_ACCOUNT_NOT_FOUND)
         );
     }
 
+    /**
+     * Returns the balance of the account, including the balance slots of a hot account
+     */
+    public BigDecimal getBalance(BankAccount bankAccount) {
+        return bankAccountBalanceSlotService.getBalance(bankAccount);
+    }
+
+    /**
+     * Turns the hot account mode on with the given number of balance slots, or off if the number is 0
+     */
+    public BankAccount updateBalanceSlots(Long id, int balanceSlots) {
+        if (!bankAccountRepository.existsOpenById(id)) {
+            throw new CzarBankException(ExceptionMessage.BANK_ACCOUNT_NOT_FOUND);
+        }
+
+        bankAccountBalanceSlotService.resize(id, balanceSlots);
+
+        requestEntityMemo.evictAll(BankAccount.class);
+
+        return findById(id);
+    }
+
     public BankAccount create(Long ownerId, Long bankAccountTypeId, Long currencyId) {
         BankAccountType bankAccountType = bankAccountTypeRepository.findById(bankAccountTypeId)
                 .orElseThrow(() -> new CzarBankException(ExceptionMessage.BANK_ACCOUNT_TYPE_NOT_FOUND));
@@ -53,20 +87,29 @@ public class BankAccountService {
         Currency currency = currencyRepository.findById(currencyId)
                 .orElseThrow(() -> new CzarBankException(ExceptionMessage.CURRENCY_NOT_FOUND));
 
-        return bankAccountRepository.save(BankAccount.builder()
+        BankAccount createdAccount = bankAccountRepository.save(BankAccount.builder()
                 .balance(BigDecimal.ZERO)
                 .number(RandomStringUtils.randomNumeric(20))
                 .bankAccountType(bankAccountType)
                 .usedCurrency(currency)
                 .owner(userService.findUserById(ownerId))
                 .build());
+
+        bankAccountOwnerIndex.put(createdAccount);
+
+        return createdAccount;
     }
 
+    /**
+     * Closes the account instead of deleting it, the ledger entries and the transactions of the account are kept
+     */
     public void deleteById(Long id) {
-        if (bankAccountRepository.existsById(id)) {
-            bankAccountRepository.deleteById(id);
-        } else {
-            throw new CzarBankException(ExceptionMessage.BANK_ACCOUNT_NOT_FOUND);
-        }
+        BankAccount bankAccount = findById(id);
+
+        bankAccount.setIsClosed(true);
+        bankAccountRepository.save(bankAccount);
+
+        requestEntityMemo.evictAll(BankAccount.class);
+        bankAccountOwnerIndex.evict(bankAccount);
     }
 }
@@ -7,6 +7,7 @@ import ru.dreadblade.czarbank.api.model.request.BankAccountTypeRequestDTO;
 import ru.dreadblade.czarbank.domain.BankAccountType;
 import ru.dreadblade.czarbank.exception.*;
 import ru.dreadblade.czarbank.repository.BankAccountTypeRepository;
+import ru.dreadblade.czarbank.service.cache.SerializedResponseCache;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -14,10 +15,13 @@ import java.util.List;
 @Service
 public class BankAccountTypeService {
     private final BankAccountTypeRepository bankAccountTypeRepository;
+    private final SerializedResponseCache serializedResponseCache;
 
     @Autowired
-    public BankAccountTypeService(BankAccountTypeRepository bankAccountTypeRepository) {
+    public BankAccountTypeService(BankAccountTypeRepository bankAccountTypeRepository,
+                                  SerializedResponseCache serializedResponseCache) {
         this.bankAccountTypeRepository = bankAccountTypeRepository;
+        this.serializedResponseCache = serializedResponseCache;
     }
 
     public List<BankAccountType> findAll() {
@@ -29,11 +33,15 @@ public class BankAccountTypeService {
             throw new CzarBankException(ExceptionMessage.BANK_ACCOUNT_TYPE_NAME_ALREADY_EXISTS);
         }
 
-        return bankAccountTypeRepository.save(BankAccountType.builder()
+        BankAccountType createdType = bankAccountTypeRepository.save(BankAccountType.builder()
                 .name(requestDTO.getName())
                 .transactionCommission(requestDTO.getTransactionCommission())
                 .currencyExchangeCommission(requestDTO.getCurrencyExchangeCommission())
                 .build());
+
+        serializedResponseCache.invalidate(SerializedResponseCache.Name.BANK_ACCOUNT_TYPES);
+
+        return createdType;
     }
 
     public BankAccountType updateById(long id, BankAccountTypeRequestDTO requestDTO) {
@@ -62,13 +70,19 @@ public class BankAccountTypeService {
             bankAccountTypeToUpdate.setCurrencyExchangeCommission(currencyExchangeCommission);
         }
 
-        return bankAccountTypeRepository.save(bankAccountTypeToUpdate);
+        BankAccountType updatedType = bankAccountTypeRepository.save(bankAccountTypeToUpdate);
+
+        serializedResponseCache.invalidate(SerializedResponseCache.Name.BANK_ACCOUNT_TYPES);
+
+        return updatedType;
     }
 
     public void deleteById(long id) {
         if (bankAccountTypeRepository.existsById(id)) {
             if (!bankAccountTypeRepository.isTypeUsedByBankAccount(id)) {
                 bankAccountTypeRepository.deleteById(id);
+
+                serializedResponseCache.invalidate(SerializedResponseCache.Name.BANK_ACCOUNT_TYPES);
             } else {
                 throw new CzarBankException(ExceptionMessage.BANK_ACCOUNT_TYPE_IN_USE);
             }
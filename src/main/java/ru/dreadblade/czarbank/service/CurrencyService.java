@@ -4,11 +4,17 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import ru.dreadblade.czarbank.domain.Currency;
+import ru.dreadblade.czarbank.domain.ExchangeRate;
 import ru.dreadblade.czarbank.exception.CzarBankException;
 import ru.dreadblade.czarbank.exception.ExceptionMessage;
 import ru.dreadblade.czarbank.repository.CurrencyRepository;
 import ru.dreadblade.czarbank.repository.ExchangeRateRepository;
+import ru.dreadblade.czarbank.service.cache.SerializedResponseCache;
 import ru.dreadblade.czarbank.service.external.CentralBankOfRussiaService;
+import ru.dreadblade.czarbank.service.metrics.ExchangeRateMetrics;
+import ru.dreadblade.czarbank.service.snapshot.ExchangeRateHistoryService;
+import ru.dreadblade.czarbank.service.snapshot.ExchangeRateSnapshot;
+import ru.dreadblade.czarbank.service.snapshot.ExchangeRateSnapshotService;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
@@ -23,6 +29,10 @@ public class CurrencyService {
     private final CurrencyRepository currencyRepository;
     private final ExchangeRateRepository exchangeRateRepository;
     private final CentralBankOfRussiaService centralBankOfRussiaService;
+    private final ExchangeRateSnapshotService exchangeRateSnapshotService;
+    private final ExchangeRateHistoryService exchangeRateHistoryService;
+    private final SerializedResponseCache serializedResponseCache;
+    private final ExchangeRateMetrics exchangeRateMetrics;
 
     @Value("#{T(java.time.LocalDate).parse('${czar-bank.exchange-rate.history.load-from-date:2012-01-01}')}")
     private LocalDate loadHistoryFromDate;
@@ -53,42 +63,84 @@ public class CurrencyService {
 
         LocalDate today = LocalDate.now();
 
-        exchangeRateRepository.saveAll(
+        List<ExchangeRate> exchangeRates = exchangeRateRepository.saveAll(
                 centralBankOfRussiaService.getExchangeRatesForCurrencyBetweenDates(currency, loadHistoryFromDate, today)
         );
 
+        exchangeRateSnapshotService.refresh();
+        exchangeRateHistoryService.append(exchangeRates);
+        serializedResponseCache.invalidate(SerializedResponseCache.Name.CURRENCIES);
+
         return currency;
     }
 
     public BigDecimal exchangeCurrency(Currency source, BigDecimal amount, Currency target) {
-        if (source.getCode().equals(target.getCode())) {
+        return exchangeCurrency(exchangeRateSnapshotService.getSnapshot(), source, amount, target);
+    }
+
+    public BigDecimal exchangeCurrency(ExchangeRateSnapshot snapshot, Currency source, BigDecimal amount, Currency target) {
+        ExchangeRateMetrics.ConversionPath path = getConversionPath(source, target);
+        long startedAt = System.nanoTime();
+
+        try {
+            BigDecimal exchangedAmount = exchangeCurrency(snapshot, path, source, amount, target);
+
+            exchangeRateMetrics.recordExchange(path, System.nanoTime() - startedAt);
+
+            return exchangedAmount;
+        } catch (RuntimeException e) {
+            exchangeRateMetrics.recordFailedExchange(path, System.nanoTime() - startedAt, e);
+
+            throw e;
+        }
+    }
+
+    private BigDecimal exchangeCurrency(ExchangeRateSnapshot snapshot, ExchangeRateMetrics.ConversionPath path,
+                                        Currency source, BigDecimal amount, Currency target) {
+        if (path == ExchangeRateMetrics.ConversionPath.SAME_CURRENCY) {
             return amount;
         }
 
-        if (source.getCode().equals(BASE_CURRENCY)) {
-            BigDecimal rate = getExchangeRateByCurrency(target);
+        if (path == ExchangeRateMetrics.ConversionPath.FROM_BASE_CURRENCY) {
+            BigDecimal rate = getExchangeRateByCurrency(snapshot, target);
             return amount.divide(rate, RoundingMode.HALF_EVEN);
         }
 
-        if (target.getCode().equals(BASE_CURRENCY)) {
-            BigDecimal rate = getExchangeRateByCurrency(source);
+        if (path == ExchangeRateMetrics.ConversionPath.TO_BASE_CURRENCY) {
+            BigDecimal rate = getExchangeRateByCurrency(snapshot, source);
             return amount.multiply(rate);
         }
 
-        BigDecimal rateToRub = getExchangeRateByCurrency(source);
+        BigDecimal rateToRub = getExchangeRateByCurrency(snapshot, source);
 
         BigDecimal amountInRub = amount.multiply(rateToRub);
 
-        BigDecimal rateToTarget = getExchangeRateByCurrency(target);
+        BigDecimal rateToTarget = getExchangeRateByCurrency(snapshot, target);
 
         return amountInRub.divide(rateToTarget, RoundingMode.HALF_EVEN);
     }
 
-    private BigDecimal getExchangeRateByCurrency(Currency currency) {
-        return exchangeRateRepository.findAllLatest().stream()
-                .filter(exchangeRate -> exchangeRate.getCurrency().getCode().equals(currency.getCode()))
-                .findFirst()
-                .orElseThrow(() -> new CzarBankException(ExceptionMessage.LATEST_EXCHANGE_RATES_NOT_FOUND))
-                .getExchangeRate();
+    private static ExchangeRateMetrics.ConversionPath getConversionPath(Currency source, Currency target) {
+        if (source.getCode().equals(target.getCode())) {
+            return ExchangeRateMetrics.ConversionPath.SAME_CURRENCY;
+        }
+
+        if (source.getCode().equals(BASE_CURRENCY)) {
+            return ExchangeRateMetrics.ConversionPath.FROM_BASE_CURRENCY;
+        }
+
+        if (target.getCode().equals(BASE_CURRENCY)) {
+            return ExchangeRateMetrics.ConversionPath.TO_BASE_CURRENCY;
+        }
+
+        return ExchangeRateMetrics.ConversionPath.CROSS_CURRENCY;
+    }
+
+    private BigDecimal getExchangeRateByCurrency(ExchangeRateSnapshot snapshot, Currency currency) {
+        String currencyCode = currency.getCode();
+
+        return snapshot.findRate(currencyCode)
+                .or(() -> exchangeRateSnapshotService.refreshOnMiss(snapshot).findRate(currencyCode))
+                .orElseThrow(() -> new CzarBankException(ExceptionMessage.LATEST_EXCHANGE_RATES_NOT_FOUND));
     }
 }
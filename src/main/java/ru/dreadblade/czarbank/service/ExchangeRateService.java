@@ -2,39 +2,38 @@ package ru.dreadblade.czarbank.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import ru.dreadblade.czarbank.domain.ExchangeRate;
 import ru.dreadblade.czarbank.exception.CzarBankException;
 import ru.dreadblade.czarbank.exception.ExceptionMessage;
-import ru.dreadblade.czarbank.repository.CurrencyRepository;
-import ru.dreadblade.czarbank.repository.ExchangeRateRepository;
+import ru.dreadblade.czarbank.service.snapshot.ExchangeRateAggregate;
+import ru.dreadblade.czarbank.service.snapshot.ExchangeRateHistory;
+import ru.dreadblade.czarbank.service.snapshot.ExchangeRateHistoryService;
+import ru.dreadblade.czarbank.service.snapshot.ExchangeRateSeries;
 
 import java.time.LocalDate;
-import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Set;
 
 @Service
 public class ExchangeRateService {
-    private final ExchangeRateRepository exchangeRateRepository;
-    private final CurrencyRepository currencyRepository;
+    private final ExchangeRateHistoryService exchangeRateHistoryService;
 
     @Autowired
-    public ExchangeRateService(ExchangeRateRepository exchangeRateRepository, CurrencyRepository currencyRepository) {
-        this.exchangeRateRepository = exchangeRateRepository;
-        this.currencyRepository = currencyRepository;
+    public ExchangeRateService(ExchangeRateHistoryService exchangeRateHistoryService) {
+        this.exchangeRateHistoryService = exchangeRateHistoryService;
     }
 
-    public List<ExchangeRate> findAllLatest() {
-        List<ExchangeRate> exchangeRates = exchangeRateRepository.findAllLatest();
+    public List<ExchangeRateSeries> findAllLatest() {
+        ExchangeRateHistory history = exchangeRateHistoryService.getHistory();
 
-        if (exchangeRates.isEmpty()) {
-            throw new CzarBankException(ExceptionMessage.LATEST_EXCHANGE_RATES_NOT_FOUND);
-        }
+        LocalDate latestDate = history.getLatestDate()
+                .orElseThrow(() -> new CzarBankException(ExceptionMessage.LATEST_EXCHANGE_RATES_NOT_FOUND));
 
-        return exchangeRates;
+        return history.findAllCoveringRange(latestDate, latestDate);
     }
 
-    public List<ExchangeRate> findAllByDate(LocalDate date) {
-        List<ExchangeRate> exchangeRates = exchangeRateRepository.findAllByDate(date);
+    public List<ExchangeRateSeries> findAllByDate(LocalDate date) {
+        List<ExchangeRateSeries> exchangeRates = exchangeRateHistoryService.getHistory().findAllCoveringRange(date, date);
 
         if (exchangeRates.isEmpty()) {
             throw new CzarBankException(ExceptionMessage.EXCHANGE_RATES_AT_DATE_NOT_FOUND);
@@ -43,15 +42,36 @@ public class ExchangeRateService {
         return exchangeRates;
     }
 
-    public List<ExchangeRate> findAllInTimeSeries(LocalDate startDate, LocalDate endDate) {
-        List<ExchangeRate> exchangeRates = exchangeRateRepository.findAllInTimeSeries(startDate, endDate);
+    /**
+     * Returns the daily exchange rates of the given currencies (all currencies if none are given) between the start
+     * and end dates, every currency must have a rate for every day
+     */
+    public List<ExchangeRateSeries> findAllInTimeSeries(LocalDate startDate, LocalDate endDate, Set<Long> currencyIds) {
+        ExchangeRateHistory history = exchangeRateHistoryService.getHistory();
 
-        long exchangeRatesPerCurrency = exchangeRates.size() / (currencyRepository.count() - 1L);
+        List<ExchangeRateSeries> exchangeRates = history.findAllCoveringRange(startDate, endDate);
+        int expectedCurrenciesCount = history.getCurrenciesCount();
 
-        if (exchangeRates.isEmpty() || ChronoUnit.DAYS.between(startDate, endDate) + 1L > exchangeRatesPerCurrency) {
+        if (currencyIds != null && !currencyIds.isEmpty()) {
+            exchangeRates = exchangeRates.stream()
+                    .filter(series -> currencyIds.contains(series.getCurrencyId()))
+                    .toList();
+            expectedCurrenciesCount = currencyIds.size();
+        }
+
+        if (exchangeRates.isEmpty() || exchangeRates.size() < expectedCurrenciesCount) {
             throw new CzarBankException(ExceptionMessage.EXCHANGE_RATES_AT_DATE_NOT_FOUND);
         }
 
         return exchangeRates;
     }
+
+    public List<ExchangeRateAggregate> aggregateTimeSeries(LocalDate startDate, LocalDate endDate, Set<Long> currencyIds,
+                                                           ExchangeRateAggregate.Interval interval) {
+        return findAllInTimeSeries(startDate, endDate, currencyIds).stream()
+                .flatMap(series -> series.aggregate(interval).stream())
+                .sorted(Comparator.comparing(ExchangeRateAggregate::getStartDate)
+                        .thenComparing(ExchangeRateAggregate::getCurrencyId))
+                .toList();
+    }
 }
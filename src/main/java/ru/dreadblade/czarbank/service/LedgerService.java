@@ -0,0 +1,168 @@
+package ru.dreadblade.czarbank.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.dreadblade.czarbank.domain.BankAccount;
+import ru.dreadblade.czarbank.domain.LedgerEntry;
+import ru.dreadblade.czarbank.domain.Transaction;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Appends the ledger entries of the transfers and maintains the balances of the bank accounts as a projection
+ * of the ledger, which can be rebuilt from the entries at any time
+ */
+@Slf4j
+@Service
+public class LedgerService {
+    private static final int BALANCE_SCALE = 2;
+
+    private static final String NEXT_LEDGER_ENTRY_ID_BLOCKS_QUERY = "select nextval('ledger_entry_id_sequence') from generate_series(1, ?)";
+    private static final String INSERT_LEDGER_ENTRY_QUERY = "insert into ledger_entry (id, entry_type, amount, " +
+            "bank_account_id, transaction_id, created_at) values (?, ?, ?, ?, ?, ?)";
+    private static final String LOCK_ALL_BANK_ACCOUNTS_QUERY = "select id from bank_account order by id for update";
+    private static final String FOLD_ALL_BALANCE_SLOTS_QUERY = "with folded as (" +
+            "select bank_account_id, sum(balance) as balance from bank_account_balance_slot where balance <> 0 " +
+            "group by bank_account_id" +
+            "), reset as (" +
+            "update bank_account_balance_slot set balance = 0 where balance <> 0" +
+            ") update bank_account b set balance = b.balance + f.balance from folded f where b.id = f.bank_account_id";
+    private static final String REBUILD_BALANCES_QUERY = "update bank_account b " +
+            "set balance = coalesce((select sum(e.amount) from ledger_entry e where e.bank_account_id = b.id), 0) " +
+            "where b.balance <> coalesce((select sum(e.amount) from ledger_entry e where e.bank_account_id = b.id), 0)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public LedgerService(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * Builds the entries of a transfer whose balance changes are already applied to the accounts. The amounts of the
+     * entries are rounded in the same way as the balances are stored and the last commission leg absorbs the rounding,
+     * so the entries of an account always add up to its stored balance
+     *
+     * @param sourceBalanceBefore       balance of the source account before the transfer
+     * @param destinationBalanceBefore  balance of the destination account after the source was charged, or null if
+     *                                  the destination was credited through its balance slots
+     */
+    public List<LedgerEntry> buildTransferEntries(Transaction transaction, BigDecimal sourceBalanceBefore,
+                                                  BigDecimal destinationBalanceBefore, BigDecimal transactionCommission) {
+        BankAccount source = transaction.getSourceBankAccount();
+        BankAccount destination = transaction.getDestinationBankAccount();
+
+        BigDecimal debit = round(transaction.getAmount()).negate();
+        BigDecimal commissions = round(source.getBalance()).subtract(round(sourceBalanceBefore)).subtract(debit);
+        BigDecimal credit = destinationBalanceBefore == null ? round(transaction.getReceivedAmount()) :
+                round(destination.getBalance()).subtract(round(destinationBalanceBefore));
+
+        List<LedgerEntry> entries = new ArrayList<>(4);
+
+        entries.add(entry(transaction, source, LedgerEntry.Type.DEBIT, debit));
+
+        if (source.getUsedCurrency().equals(destination.getUsedCurrency())) {
+            addCommission(entries, transaction, LedgerEntry.Type.COMMISSION, commissions);
+        } else {
+            BigDecimal transactionCommissionAmount = round(transactionCommission).negate();
+
+            addCommission(entries, transaction, LedgerEntry.Type.COMMISSION, transactionCommissionAmount);
+            addCommission(entries, transaction, LedgerEntry.Type.CURRENCY_EXCHANGE_COMMISSION,
+                    commissions.subtract(transactionCommissionAmount));
+        }
+
+        entries.add(entry(transaction, destination, LedgerEntry.Type.CREDIT, credit));
+
+        return entries;
+    }
+
+    /**
+     * Stores the entries with a single JDBC batch insert. Every value of the sequence reserves a block of ids
+     * in the same way as the pooled-lo optimizer of Hibernate does. The transactions of the entries must be
+     * already written to the database.
+     */
+    public void append(List<LedgerEntry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+
+        int blockCount = (entries.size() + LedgerEntry.ID_ALLOCATION_SIZE - 1) / LedgerEntry.ID_ALLOCATION_SIZE;
+        List<Long> blockStarts = jdbcTemplate.queryForList(NEXT_LEDGER_ENTRY_ID_BLOCKS_QUERY, Long.class, blockCount);
+        Instant createdAt = Instant.now();
+
+        for (int i = 0; i < entries.size(); i++) {
+            long blockStart = blockStarts.get(i / LedgerEntry.ID_ALLOCATION_SIZE);
+
+            entries.get(i).setId(blockStart + i % LedgerEntry.ID_ALLOCATION_SIZE);
+            entries.get(i).setCreatedAt(createdAt);
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_LEDGER_ENTRY_QUERY, entries, entries.size(), (ps, entry) -> {
+            ps.setLong(1, entry.getId());
+            ps.setString(2, entry.getEntryType().name());
+            ps.setBigDecimal(3, entry.getAmount());
+            ps.setLong(4, entry.getBankAccount().getId());
+
+            if (entry.getTransaction() != null) {
+                ps.setLong(5, entry.getTransaction().getId());
+            } else {
+                ps.setNull(5, Types.BIGINT);
+            }
+
+            ps.setTimestamp(6, Timestamp.from(entry.getCreatedAt()));
+        });
+    }
+
+    /**
+     * Recalculates the stored balances from the ledger. All the bank accounts are locked in ascending id order first,
+     * the same order the transfers use, so no transfer can append entries or credit balance slots while the balances
+     * are rebuilt. The balance slots of the hot accounts are folded into their balances before the comparison
+     *
+     * @return the number of bank accounts whose stored balance differed from the ledger
+     */
+    public int rebuildBalances() {
+        Integer correctedAccounts = transactionTemplate.execute(status -> {
+            jdbcTemplate.query(LOCK_ALL_BANK_ACCOUNTS_QUERY, resultSet -> { });
+            jdbcTemplate.update(FOLD_ALL_BALANCE_SLOTS_QUERY);
+
+            return jdbcTemplate.update(REBUILD_BALANCES_QUERY);
+        });
+
+        log.info("Bank account balances rebuilt from the ledger, {} balances corrected", correctedAccounts);
+
+        return correctedAccounts == null ? 0 : correctedAccounts;
+    }
+
+    private static void addCommission(List<LedgerEntry> entries, Transaction transaction, LedgerEntry.Type type,
+                                      BigDecimal amount) {
+        if (amount.signum() != 0) {
+            entries.add(entry(transaction, transaction.getSourceBankAccount(), type, amount));
+        }
+    }
+
+    private static LedgerEntry entry(Transaction transaction, BankAccount bankAccount, LedgerEntry.Type type,
+                                     BigDecimal amount) {
+        return LedgerEntry.builder()
+                .entryType(type)
+                .amount(amount)
+                .bankAccount(bankAccount)
+                .transaction(transaction)
+                .build();
+    }
+
+    /**
+     * Rounds the same way PostgreSQL does when a value is stored to a numeric(20, 2) column
+     */
+    private static BigDecimal round(BigDecimal amount) {
+        return amount.setScale(BALANCE_SCALE, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,147 @@
+package ru.dreadblade.czarbank.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.SneakyThrows;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.dreadblade.czarbank.api.model.request.TransactionRequestDTO;
+import ru.dreadblade.czarbank.domain.Transaction;
+import ru.dreadblade.czarbank.domain.TransactionIdempotencyKey;
+import ru.dreadblade.czarbank.exception.CzarBankException;
+import ru.dreadblade.czarbank.exception.ExceptionMessage;
+import ru.dreadblade.czarbank.repository.TransactionIdempotencyKeyRepository;
+import ru.dreadblade.czarbank.repository.TransactionRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Optional;
+
+/**
+ * Remembers the transactions created for the Idempotency-Key of a transfer request, so a retried request gets the
+ * transaction created by the first one instead of moving the money again. A key is scoped to the source bank account
+ * of the transfer, so different clients can't collide on the same key. The recently used keys are kept in memory,
+ * the unique index of the table catches the keys used concurrently or by another instance
+ */
+@Service
+public class TransactionIdempotencyService {
+    public static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
+
+    private final TransactionIdempotencyKeyRepository transactionIdempotencyKeyRepository;
+    private final TransactionRepository transactionRepository;
+    private final Cache<String, RecentKey> recentKeys;
+
+    public TransactionIdempotencyService(TransactionIdempotencyKeyRepository transactionIdempotencyKeyRepository,
+                                         TransactionRepository transactionRepository,
+                                         @Value("${czar-bank.transaction.idempotency.cache.maximum-size:10000}") long maximumSize,
+                                         @Value("${czar-bank.transaction.idempotency.cache.ttl-seconds:600}") long ttlSeconds) {
+        this.transactionIdempotencyKeyRepository = transactionIdempotencyKeyRepository;
+        this.transactionRepository = transactionRepository;
+        this.recentKeys = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+    }
+
+    /**
+     * Returns the transaction already created for the key, if any
+     *
+     * @throws CzarBankException if the key is invalid or was used for a different transfer
+     */
+    public Optional<Transaction> findCreatedTransaction(String idempotencyKey, TransactionRequestDTO transactionRequest) {
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+            throw new CzarBankException(ExceptionMessage.INVALID_IDEMPOTENCY_KEY);
+        }
+
+        String requestHash = hashRequest(transactionRequest);
+        String sourceBankAccountNumber = transactionRequest.getSourceBankAccountNumber();
+        String recentKeyId = toRecentKeyId(sourceBankAccountNumber, idempotencyKey);
+        RecentKey recentKey = recentKeys.getIfPresent(recentKeyId);
+
+        if (recentKey != null) {
+            checkRequestHash(recentKey.getRequestHash(), requestHash);
+
+            Optional<Transaction> transaction = transactionRepository.findById(recentKey.getTransactionId());
+
+            if (transaction.isPresent()) {
+                return transaction;
+            }
+
+            recentKeys.invalidate(recentKeyId);
+        }
+
+        return transactionIdempotencyKeyRepository.findBySourceBankAccountNumberAndIdempotencyKey(sourceBankAccountNumber,
+                        idempotencyKey)
+                .map(storedKey -> {
+                    checkRequestHash(storedKey.getRequestHash(), requestHash);
+
+                    recentKeys.put(recentKeyId, new RecentKey(requestHash, storedKey.getTransaction().getId()));
+
+                    return storedKey.getTransaction();
+                });
+    }
+
+    /**
+     * Stores the key in the transaction of the transfer. A key stored concurrently fails the transfer
+     * with a {@link org.springframework.dao.DataIntegrityViolationException}
+     */
+    public void saveCreatedTransaction(String idempotencyKey, TransactionRequestDTO transactionRequest, Transaction transaction) {
+        String requestHash = hashRequest(transactionRequest);
+        String sourceBankAccountNumber = transactionRequest.getSourceBankAccountNumber();
+        String recentKeyId = toRecentKeyId(sourceBankAccountNumber, idempotencyKey);
+
+        transactionIdempotencyKeyRepository.saveAndFlush(TransactionIdempotencyKey.builder()
+                .sourceBankAccountNumber(sourceBankAccountNumber)
+                .idempotencyKey(idempotencyKey)
+                .requestHash(requestHash)
+                .transaction(transaction)
+                .build());
+
+        RecentKey recentKey = new RecentKey(requestHash, transaction.getId());
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    recentKeys.put(recentKeyId, recentKey);
+                }
+            });
+        } else {
+            recentKeys.put(recentKeyId, recentKey);
+        }
+    }
+
+    private static String toRecentKeyId(String sourceBankAccountNumber, String idempotencyKey) {
+        return sourceBankAccountNumber + ":" + idempotencyKey;
+    }
+
+    private static void checkRequestHash(String storedRequestHash, String requestHash) {
+        if (!storedRequestHash.equals(requestHash)) {
+            throw new CzarBankException(ExceptionMessage.IDEMPOTENCY_KEY_ALREADY_USED);
+        }
+    }
+
+    @SneakyThrows
+    private static String hashRequest(TransactionRequestDTO transactionRequest) {
+        String request = transactionRequest.getSourceBankAccountNumber() + ":" +
+                transactionRequest.getDestinationBankAccountNumber() + ":" +
+                transactionRequest.getAmount().stripTrailingZeros().toPlainString();
+
+        byte[] digest = MessageDigest.getInstance("SHA-256").digest(request.getBytes(StandardCharsets.UTF_8));
+
+        return HexFormat.of().formatHex(digest);
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class RecentKey {
+        private final String requestHash;
+        private final Long transactionId;
+    }
+}
@@ -1,31 +1,97 @@
 package ru.dreadblade.czarbank.service;
 
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.EntityKey;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import ru.dreadblade.czarbank.api.model.request.TransactionRequestDTO;
 import ru.dreadblade.czarbank.domain.BankAccount;
+import ru.dreadblade.czarbank.domain.LedgerEntry;
 import ru.dreadblade.czarbank.domain.Transaction;
+import ru.dreadblade.czarbank.domain.TransactionBatchItemResult;
+import ru.dreadblade.czarbank.domain.TransactionHistoryCursor;
+import ru.dreadblade.czarbank.domain.TransactionHistoryFilter;
+import ru.dreadblade.czarbank.domain.TransactionHistoryItem;
+import ru.dreadblade.czarbank.domain.TransactionHistoryPage;
 import ru.dreadblade.czarbank.exception.CzarBankException;
 import ru.dreadblade.czarbank.exception.ExceptionMessage;
 import ru.dreadblade.czarbank.repository.BankAccountRepository;
 import ru.dreadblade.czarbank.repository.TransactionRepository;
+import ru.dreadblade.czarbank.service.metrics.TransferMetrics;
+import ru.dreadblade.czarbank.service.snapshot.ExchangeRateSnapshot;
+import ru.dreadblade.czarbank.service.snapshot.ExchangeRateSnapshotService;
 
-import javax.transaction.Transactional;
+import javax.persistence.EntityManager;
 import java.math.BigDecimal;
-import java.util.List;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
+@Slf4j
 @Service
 public class TransactionService {
+    private static final String NEXT_TRANSACTION_ID_BLOCKS_QUERY = "select nextval('transaction_id_sequence') from generate_series(1, ?)";
+    private static final String INSERT_TRANSACTION_QUERY = "insert into transaction (id, amount, received_amount, " +
+            "created_at, source_bank_account_id, destination_bank_account_id) values (?, ?, ?, ?, ?, ?)";
 
     private final TransactionRepository transactionRepository;
     private final BankAccountRepository bankAccountRepository;
     private final CurrencyService currencyService;
+    private final ExchangeRateSnapshotService exchangeRateSnapshotService;
+    private final EntityManager entityManager;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TransferMetrics transferMetrics;
+    private final TransactionIdempotencyService transactionIdempotencyService;
+    private final LedgerService ledgerService;
+    private final BankAccountBalanceSlotService bankAccountBalanceSlotService;
+
+    @Value("${czar-bank.transaction.history.max-page-size:500}")
+    private int maxHistoryPageSize;
+
+    @Value("${czar-bank.transaction.batch.max-size:1000}")
+    private int maxBatchSize;
+
+    @Value("${czar-bank.transaction.retry.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${czar-bank.transaction.retry.initial-backoff-millis:5}")
+    private long initialBackoffMillis;
+
+    @Value("${czar-bank.transaction.retry.max-backoff-millis:100}")
+    private long maxBackoffMillis;
 
     @Autowired
-    public TransactionService(TransactionRepository transactionRepository, BankAccountRepository bankAccountRepository, CurrencyService currencyService) {
+    public TransactionService(TransactionRepository transactionRepository, BankAccountRepository bankAccountRepository,
+                              CurrencyService currencyService, ExchangeRateSnapshotService exchangeRateSnapshotService,
+                              EntityManager entityManager, JdbcTemplate jdbcTemplate,
+                              TransactionTemplate transactionTemplate, TransferMetrics transferMetrics,
+                              TransactionIdempotencyService transactionIdempotencyService, LedgerService ledgerService,
+                              BankAccountBalanceSlotService bankAccountBalanceSlotService) {
         this.transactionRepository = transactionRepository;
         this.bankAccountRepository = bankAccountRepository;
         this.currencyService = currencyService;
+        this.exchangeRateSnapshotService = exchangeRateSnapshotService;
+        this.entityManager = entityManager;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.transferMetrics = transferMetrics;
+        this.transactionIdempotencyService = transactionIdempotencyService;
+        this.ledgerService = ledgerService;
+        this.bankAccountBalanceSlotService = bankAccountBalanceSlotService;
     }
 
     public List<Transaction> findAll() {
@@ -33,53 +99,379 @@ public class TransactionService {
     }
 
     public List<Transaction> findAllByBankAccountId(Long bankAccountId) {
-        if (bankAccountRepository.existsById(bankAccountId)) {
+        if (bankAccountRepository.existsOpenById(bankAccountId)) {
             return transactionRepository.findAllByBankAccountId(bankAccountId);
         }
 
         throw new CzarBankException(ExceptionMessage.BANK_ACCOUNT_NOT_FOUND);
     }
 
-    @Transactional
+    public TransactionHistoryPage findHistoryPage(Long bankAccountId, TransactionHistoryFilter filter, String cursor, int limit) {
+        checkBankAccountExists(bankAccountId);
+
+        TransactionHistoryCursor historyCursor = cursor == null ? null : TransactionHistoryCursor.decode(cursor);
+        int pageSize = Math.min(Math.max(limit, 1), maxHistoryPageSize);
+
+        List<TransactionHistoryItem> items = transactionRepository.findHistoryPage(bankAccountId, filter, historyCursor,
+                pageSize + 1);
+
+        if (items.size() <= pageSize) {
+            return new TransactionHistoryPage(items, null);
+        }
+
+        List<TransactionHistoryItem> pageItems = items.subList(0, pageSize);
+
+        return new TransactionHistoryPage(pageItems, TransactionHistoryCursor.of(pageItems.get(pageSize - 1)));
+    }
+
+    public void checkBankAccountExists(Long bankAccountId) {
+        if (!bankAccountRepository.existsOpenById(bankAccountId)) {
+            throw new CzarBankException(ExceptionMessage.BANK_ACCOUNT_NOT_FOUND);
+        }
+    }
+
+    /**
+     * Reads the whole history of the bank account in a read-only transaction, passing the rows to the consumer one by one
+     */
+    public void exportHistory(Long bankAccountId, TransactionHistoryFilter filter, Consumer<TransactionHistoryItem> consumer) {
+        TransactionTemplate readOnlyTransactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        readOnlyTransactionTemplate.setReadOnly(true);
+
+        readOnlyTransactionTemplate.executeWithoutResult(status ->
+                transactionRepository.streamHistory(bankAccountId, filter, consumer));
+    }
+
     public Transaction createTransaction(TransactionRequestDTO transactionRequest) {
-        BankAccount source = bankAccountRepository.findByNumber(transactionRequest.getSourceBankAccountNumber())
-                .orElseThrow(() -> new CzarBankException(ExceptionMessage.SOURCE_BANK_ACCOUNT_DOESNT_EXIST));
+        return createTransaction(transactionRequest, transaction -> { });
+    }
+
+    /**
+     * Creates the transaction only once for the idempotency key: a repeated request returns the transaction
+     * created by the first one without transferring the money again
+     */
+    public Transaction createTransaction(TransactionRequestDTO transactionRequest, String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return createTransaction(transactionRequest);
+        }
+
+        Optional<Transaction> createdTransaction = transactionIdempotencyService.findCreatedTransaction(idempotencyKey,
+                transactionRequest);
+
+        if (createdTransaction.isPresent()) {
+            return createdTransaction.get();
+        }
+
+        try {
+            return createTransaction(transactionRequest, transaction ->
+                    transactionIdempotencyService.saveCreatedTransaction(idempotencyKey, transactionRequest, transaction));
+        } catch (DataIntegrityViolationException e) {
+            return transactionIdempotencyService.findCreatedTransaction(idempotencyKey, transactionRequest)
+                    .orElseThrow(() -> e);
+        }
+    }
+
+    private Transaction createTransaction(TransactionRequestDTO transactionRequest, Consumer<Transaction> afterTransfer) {
+        long startedAt = System.nanoTime();
+
+        try {
+            Transaction transaction = executeWithRetry(() -> transactionTemplate.execute(status -> {
+                Transaction createdTransaction = transfer(transactionRequest);
+
+                afterTransfer.accept(createdTransaction);
+
+                return createdTransaction;
+            }));
+
+            transferMetrics.recordCompletedTransfer(System.nanoTime() - startedAt);
+
+            return transaction;
+        } catch (RuntimeException e) {
+            transferMetrics.recordFailedTransfer(System.nanoTime() - startedAt, e);
+
+            throw e;
+        }
+    }
+
+    public List<TransactionBatchItemResult> createTransactions(List<TransactionRequestDTO> transactionRequests, boolean isAtomic) {
+        if (transactionRequests.size() > maxBatchSize) {
+            throw new CzarBankException(ExceptionMessage.TRANSACTION_BATCH_TOO_LARGE);
+        }
+
+        return executeWithRetry(() -> transactionTemplate.execute(status -> {
+            List<TransactionBatchItemResult> results = transferBatch(transactionRequests, isAtomic);
+
+            if (isAtomic && results.stream().anyMatch(result -> result.getStatus() != TransactionBatchItemResult.Status.CREATED)) {
+                status.setRollbackOnly();
+            }
+
+            return results;
+        }));
+    }
+
+    private Transaction transfer(TransactionRequestDTO transactionRequest) {
+        String sourceNumber = transactionRequest.getSourceBankAccountNumber();
+        String destinationNumber = transactionRequest.getDestinationBankAccountNumber();
+
+        Map<String, BankAccount> lockedAccounts = lockBankAccounts(new HashSet<>(List.of(sourceNumber, destinationNumber)),
+                Set.of(sourceNumber));
+        List<LedgerEntry> ledgerEntries = new ArrayList<>();
+
+        Transaction transaction = applyTransfer(lockedAccounts.get(sourceNumber), lockedAccounts.get(destinationNumber),
+                transactionRequest.getAmount(), exchangeRateSnapshotService.getSnapshot(), ledgerEntries);
+
+        transactionRepository.saveAndFlush(transaction);
+        ledgerService.append(ledgerEntries);
+
+        return transaction;
+    }
+
+    /**
+     * Applies the transfers one by one against the locked accounts, sharing a single exchange rate snapshot,
+     * and stores the created transactions and their ledger entries with a JDBC batch insert each. In the atomic mode all the results
+     * are reported as rolled back as soon as any of the transfers fails.
+     */
+    private List<TransactionBatchItemResult> transferBatch(List<TransactionRequestDTO> transactionRequests, boolean isAtomic) {
+        Set<String> bankAccountNumbers = new HashSet<>();
+        Set<String> sourceBankAccountNumbers = new HashSet<>();
+
+        transactionRequests.forEach(request -> {
+            bankAccountNumbers.add(request.getSourceBankAccountNumber());
+            bankAccountNumbers.add(request.getDestinationBankAccountNumber());
+            sourceBankAccountNumbers.add(request.getSourceBankAccountNumber());
+        });
+
+        Map<String, BankAccount> lockedAccounts = lockBankAccounts(bankAccountNumbers, sourceBankAccountNumbers);
+        ExchangeRateSnapshot snapshot = exchangeRateSnapshotService.getSnapshot();
+
+        List<TransactionBatchItemResult> results = new ArrayList<>(transactionRequests.size());
+        List<Transaction> createdTransactions = new ArrayList<>(transactionRequests.size());
+        List<LedgerEntry> ledgerEntries = new ArrayList<>();
+
+        for (int i = 0; i < transactionRequests.size(); i++) {
+            TransactionRequestDTO request = transactionRequests.get(i);
+
+            try {
+                Transaction transaction = applyTransfer(lockedAccounts.get(request.getSourceBankAccountNumber()),
+                        lockedAccounts.get(request.getDestinationBankAccountNumber()), request.getAmount(), snapshot,
+                        ledgerEntries);
+
+                createdTransactions.add(transaction);
 
-        BankAccount destination = bankAccountRepository.findByNumber(transactionRequest.getDestinationBankAccountNumber())
-                .orElseThrow(() -> new CzarBankException(ExceptionMessage.DESTINATION_BANK_ACCOUNT_DOESNT_EXIST));
+                results.add(TransactionBatchItemResult.builder()
+                        .index(i)
+                        .status(TransactionBatchItemResult.Status.CREATED)
+                        .transaction(transaction)
+                        .build());
+            } catch (CzarBankException e) {
+                results.add(TransactionBatchItemResult.builder()
+                        .index(i)
+                        .status(TransactionBatchItemResult.Status.FAILED)
+                        .message(e.getMessage())
+                        .build());
+            }
+        }
+
+        if (isAtomic && createdTransactions.size() != transactionRequests.size()) {
+            return results.stream()
+                    .map(result -> result.getStatus() == TransactionBatchItemResult.Status.FAILED ? result :
+                            TransactionBatchItemResult.builder()
+                                    .index(result.getIndex())
+                                    .status(TransactionBatchItemResult.Status.ROLLED_BACK)
+                                    .build())
+                    .toList();
+        }
+
+        insertTransactions(createdTransactions);
+        ledgerService.append(ledgerEntries);
+
+        return results;
+    }
+
+    /**
+     * Moves the money between the accounts and builds the (not yet persisted) transaction and its ledger entries.
+     * A hot destination account is credited through one of its balance slots. The slots of a hot source account
+     * are folded into its balance if the balance alone is not enough. Nothing is changed if the transfer is rejected.
+     */
+    private Transaction applyTransfer(BankAccount source, BankAccount destination, BigDecimal transactionAmount,
+                                      ExchangeRateSnapshot snapshot, List<LedgerEntry> ledgerEntries) {
+        if (source == null) {
+            throw new CzarBankException(ExceptionMessage.SOURCE_BANK_ACCOUNT_DOESNT_EXIST);
+        }
+
+        if (destination == null) {
+            throw new CzarBankException(ExceptionMessage.DESTINATION_BANK_ACCOUNT_DOESNT_EXIST);
+        }
 
-        BigDecimal transactionAmount = transactionRequest.getAmount();
         BigDecimal transactionCommissionAmount = transactionAmount.multiply(source.getBankAccountType()
                 .getTransactionCommission());
 
         BigDecimal transactionAmountWithCommission = transactionAmount.add(transactionCommissionAmount);
+        BigDecimal receivedAmount = transactionAmount;
 
         if (!source.getUsedCurrency().equals(destination.getUsedCurrency())) {
-            transactionCommissionAmount = transactionAmount.multiply(source.getBankAccountType().getCurrencyExchangeCommission());
+            BigDecimal currencyExchangeCommissionAmount = transactionAmount.multiply(source.getBankAccountType()
+                    .getCurrencyExchangeCommission());
 
-            transactionAmountWithCommission = transactionAmountWithCommission.add(transactionCommissionAmount);
+            transactionAmountWithCommission = transactionAmountWithCommission.add(currencyExchangeCommissionAmount);
+        }
+
+        if (source.getBalance().compareTo(transactionAmountWithCommission) < 0 &&
+                bankAccountBalanceSlotService.isHotAccount(source)) {
+            entityManager.flush();
+            bankAccountBalanceSlotService.foldLocked(source.getId());
+            entityManager.refresh(source);
         }
 
         if (source.getBalance().compareTo(transactionAmountWithCommission) < 0) {
             throw new CzarBankException(ExceptionMessage.NOT_ENOUGH_BALANCE);
         }
 
+        if (!source.getUsedCurrency().equals(destination.getUsedCurrency())) {
+            receivedAmount = currencyService.exchangeCurrency(snapshot, source.getUsedCurrency(), transactionAmount,
+                    destination.getUsedCurrency());
+        }
+
+        BigDecimal sourceBalanceBefore = source.getBalance();
+        source.setBalance(source.getBalance().subtract(transactionAmountWithCommission));
+
+        BigDecimal destinationBalanceBefore = null;
+
+        if (bankAccountBalanceSlotService.isHotAccount(destination)) {
+            bankAccountBalanceSlotService.credit(destination, source, receivedAmount);
+        } else {
+            destinationBalanceBefore = destination.getBalance();
+            destination.setBalance(destination.getBalance().add(receivedAmount));
+        }
+
         Transaction transaction = Transaction.builder()
                 .amount(transactionAmount)
-                .receivedAmount(transactionAmount)
+                .receivedAmount(receivedAmount)
                 .sourceBankAccount(source)
                 .destinationBankAccount(destination)
                 .build();
 
-        source.setBalance(source.getBalance().subtract(transactionAmountWithCommission));
+        ledgerEntries.addAll(ledgerService.buildTransferEntries(transaction, sourceBalanceBefore, destinationBalanceBefore,
+                transactionCommissionAmount));
 
-        if (!source.getUsedCurrency().equals(destination.getUsedCurrency())) {
-            transaction.setReceivedAmount(currencyService.exchangeCurrency(source.getUsedCurrency(), transactionAmount,
-                    destination.getUsedCurrency()));
+        return transaction;
+    }
+
+    /**
+     * Every value of the sequence reserves a block of ids in the same way as the pooled-lo optimizer of Hibernate does,
+     * so the ids taken here never clash with the ones generated for {@link TransactionRepository#save(Object)}
+     */
+    private void insertTransactions(List<Transaction> transactions) {
+        if (transactions.isEmpty()) {
+            return;
+        }
+
+        int blockCount = (transactions.size() + Transaction.ID_ALLOCATION_SIZE - 1) / Transaction.ID_ALLOCATION_SIZE;
+        List<Long> blockStarts = jdbcTemplate.queryForList(NEXT_TRANSACTION_ID_BLOCKS_QUERY, Long.class, blockCount);
+        Instant createdAt = Instant.now();
+
+        for (int i = 0; i < transactions.size(); i++) {
+            long blockStart = blockStarts.get(i / Transaction.ID_ALLOCATION_SIZE);
+
+            transactions.get(i).setId(blockStart + i % Transaction.ID_ALLOCATION_SIZE);
+            transactions.get(i).setCreatedAt(createdAt);
         }
 
-        destination.setBalance(destination.getBalance().add(transaction.getReceivedAmount()));
+        jdbcTemplate.batchUpdate(INSERT_TRANSACTION_QUERY, transactions, transactions.size(), (ps, transaction) -> {
+            ps.setLong(1, transaction.getId());
+            ps.setBigDecimal(2, transaction.getAmount());
+            ps.setBigDecimal(3, transaction.getReceivedAmount());
+            ps.setTimestamp(4, Timestamp.from(transaction.getCreatedAt()));
+            ps.setLong(5, transaction.getSourceBankAccount().getId());
+            ps.setLong(6, transaction.getDestinationBankAccount().getId());
+        });
+    }
+
+    /**
+     * Locks the bank accounts in ascending id order with a single query, so concurrent transfers between the same
+     * accounts can't deadlock each other. Hot accounts that only receive money are not locked, they are credited
+     * through their balance slots and are read without a lock. An account already present in the persistence
+     * context keeps its possibly stale state when a query returns it, so only such an account is re-read.
+     */
+    private Map<String, BankAccount> lockBankAccounts(Set<String> bankAccountNumbers,
+                                                      Set<String> sourceBankAccountNumbers) {
+        Set<Object> managedBankAccountIds = getManagedBankAccountIds();
+
+        long lockStartedAt = System.nanoTime();
+
+        List<BankAccount> lockedAccounts = bankAccountRepository.lockAllForTransfer(bankAccountNumbers,
+                sourceBankAccountNumbers);
+
+        lockedAccounts.stream()
+                .filter(bankAccount -> managedBankAccountIds.contains(bankAccount.getId()))
+                .forEach(entityManager::refresh);
+
+        transferMetrics.recordLockWait(System.nanoTime() - lockStartedAt);
+
+        Map<String, BankAccount> bankAccounts = lockedAccounts.stream()
+                .collect(Collectors.toMap(BankAccount::getNumber, Function.identity()));
+
+        List<String> unlockedNumbers = bankAccountNumbers.stream()
+                .filter(number -> !bankAccounts.containsKey(number))
+                .toList();
+
+        if (!unlockedNumbers.isEmpty()) {
+            bankAccountRepository.findAllOpenByNumberIn(unlockedNumbers)
+                    .forEach(bankAccount -> bankAccounts.put(bankAccount.getNumber(), bankAccount));
+        }
+
+        return bankAccounts;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Set<Object> getManagedBankAccountIds() {
+        Set<EntityKey> entityKeys = entityManager.unwrap(Session.class).getStatistics().getEntityKeys();
+
+        return entityKeys.stream()
+                .filter(entityKey -> BankAccount.class.getName().equals(entityKey.getEntityName()))
+                .map(EntityKey::getIdentifier)
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Retries the transfer on lock acquisition, deadlock and serialization failures with an exponential
+     * backoff and full jitter. A transfer joining an already running transaction is executed once,
+     * because the failure has already marked the outer transaction as rollback-only.
+     */
+    private <T> T executeWithRetry(Supplier<T> transfer) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return transfer.get();
+        }
+
+        int attempt = 1;
+
+        while (true) {
+            try {
+                return transfer.get();
+            } catch (ConcurrencyFailureException e) {
+                if (attempt >= maxAttempts) {
+                    log.warn("Transfer failed after {} attempts due to concurrent updates", attempt);
+
+                    throw new CzarBankException(ExceptionMessage.TRANSACTION_CONFLICT);
+                }
+
+                transferMetrics.recordRetry();
 
-        return transactionRepository.save(transaction);
+                backoff(attempt);
+
+                attempt++;
+            }
+        }
+    }
+
+    private void backoff(int attempt) {
+        long backoffMillis = Math.min(maxBackoffMillis, initialBackoffMillis << Math.min(attempt - 1, 20));
+
+        try {
+            TimeUnit.MILLISECONDS.sleep(ThreadLocalRandom.current().nextLong(backoffMillis + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            throw new CzarBankException(ExceptionMessage.TRANSACTION_CONFLICT);
+        }
     }
 }
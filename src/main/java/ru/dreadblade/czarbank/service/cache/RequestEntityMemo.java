@@ -0,0 +1,96 @@
+package ru.dreadblade.czarbank.service.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Remembers the entities loaded while handling the current HTTP request, so the authorization checks and
+ * the services behind them read an entity from the database once per request. The memo lives in the request
+ * attributes and is dropped together with the request, outside a request every lookup goes to the loader.
+ * <p>
+ * Only the lookups whose result may be reused for the rest of the request belong here, the reads that lock
+ * a row or must see the latest committed state go to the database directly
+ */
+@Component
+public class RequestEntityMemo {
+    private static final String ATTRIBUTE_NAME = RequestEntityMemo.class.getName();
+
+    /**
+     * Returns the memoized entity, including a memoized absence, or loads and remembers it
+     */
+    @SuppressWarnings("unchecked")
+    public <K, E> Optional<E> find(Class<E> entityType, K key, Function<K, Optional<E>> loader) {
+        Map<MemoKey, Optional<?>> memo = getMemo();
+
+        if (memo == null) {
+            return loader.apply(key);
+        }
+
+        MemoKey memoKey = new MemoKey(entityType, key);
+        Optional<E> entity = (Optional<E>) memo.get(memoKey);
+
+        if (entity == null) {
+            entity = loader.apply(key);
+            memo.put(memoKey, entity);
+        }
+
+        return entity;
+    }
+
+    /**
+     * Remembers an entity loaded elsewhere under one more key, e.g. an entity found by its natural key under its id
+     */
+    public <E> void put(Class<E> entityType, Object key, E entity) {
+        Map<MemoKey, Optional<?>> memo = getMemo();
+
+        if (memo != null) {
+            memo.put(new MemoKey(entityType, key), Optional.ofNullable(entity));
+        }
+    }
+
+    /**
+     * Forgets every key of the entity type, must be called after the entities of the type were changed or deleted
+     * within the request
+     */
+    public void evictAll(Class<?> entityType) {
+        Map<MemoKey, Optional<?>> memo = getMemo();
+
+        if (memo != null) {
+            memo.keySet().removeIf(memoKey -> memoKey.entityType.equals(entityType));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<MemoKey, Optional<?>> getMemo() {
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+
+        if (requestAttributes == null) {
+            return null;
+        }
+
+        Map<MemoKey, Optional<?>> memo = (Map<MemoKey, Optional<?>>) requestAttributes.getAttribute(ATTRIBUTE_NAME,
+                RequestAttributes.SCOPE_REQUEST);
+
+        if (memo == null) {
+            memo = new HashMap<>();
+            requestAttributes.setAttribute(ATTRIBUTE_NAME, memo, RequestAttributes.SCOPE_REQUEST);
+        }
+
+        return memo;
+    }
+
+    @EqualsAndHashCode
+    @AllArgsConstructor
+    private static class MemoKey {
+        private final Class<?> entityType;
+        private final Object key;
+    }
+}
@@ -0,0 +1,185 @@
+package ru.dreadblade.czarbank.service.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.http.*;
+import org.springframework.http.converter.GenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Keeps the already encoded bodies of small, rarely changing responses per content type, so they are written to the
+ * response as they are, without loading, mapping and serializing the data again. The services that change the data
+ * behind a response invalidate it, the changes made by other instances are picked up once the bodies expire
+ */
+@Component
+public class SerializedResponseCache {
+    private static final List<MediaType> SUPPORTED_MEDIA_TYPES = List.of(MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML);
+
+    private final List<HttpMessageConverter<?>> messageConverters;
+    private final Map<Name, Entries> entriesByName = new EnumMap<>(Name.class);
+    private final long ttlNanos;
+
+    public SerializedResponseCache(HttpMessageConverters messageConverters,
+                                   @Value("${czar-bank.serialized-response-cache.ttl-seconds:60}") long ttlSeconds) {
+        this.messageConverters = messageConverters.getConverters();
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+
+        for (Name name : Name.values()) {
+            entriesByName.put(name, new Entries());
+        }
+    }
+
+    public enum Name {
+        CURRENCIES,
+        LATEST_EXCHANGE_RATES,
+        BANK_ACCOUNT_TYPES
+    }
+
+    /**
+     * Returns the cached body in the content type accepted by the client, the body is serialized and cached first
+     * if it is missing
+     */
+    public ResponseEntity<byte[]> respond(Name name, String acceptHeader, Type bodyType, Supplier<?> bodySupplier) {
+        MediaType mediaType = negotiateMediaType(acceptHeader);
+        Entries entries = entriesByName.get(name);
+
+        long generation = entries.generation.get();
+        Entry entry = entries.bodiesByMediaType.get(mediaType);
+
+        if (entry == null || entry.generation != generation || System.nanoTime() - entry.createdAtNanos > ttlNanos) {
+            entry = new Entry(generation, System.nanoTime(), serialize(bodySupplier.get(), bodyType, mediaType));
+
+            if (entries.generation.get() == generation) {
+                entries.bodiesByMediaType.put(mediaType, entry);
+            }
+        }
+
+        return ResponseEntity.ok()
+                .contentType(mediaType)
+                .contentLength(entry.body.length)
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(entry.body);
+    }
+
+    /**
+     * Drops the body at once and, if called within a transaction, once more after the transaction completes, so a body
+     * serialized by a concurrent request from the data not yet committed doesn't survive the commit
+     */
+    public void invalidate(Name name) {
+        Entries entries = entriesByName.get(name);
+
+        entries.invalidate();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    entries.invalidate();
+                }
+            });
+        }
+    }
+
+    public void invalidateAll() {
+        for (Name name : Name.values()) {
+            invalidate(name);
+        }
+    }
+
+    private MediaType negotiateMediaType(String acceptHeader) {
+        List<MediaType> acceptedMediaTypes = acceptHeader == null || acceptHeader.isBlank() ?
+                new ArrayList<>(List.of(MediaType.ALL)) : MediaType.parseMediaTypes(acceptHeader);
+
+        MediaType.sortBySpecificityAndQuality(acceptedMediaTypes);
+
+        for (MediaType acceptedMediaType : acceptedMediaTypes) {
+            for (MediaType supportedMediaType : SUPPORTED_MEDIA_TYPES) {
+                if (acceptedMediaType.getQualityValue() > 0 && acceptedMediaType.isCompatibleWith(supportedMediaType)) {
+                    return supportedMediaType;
+                }
+            }
+        }
+
+        throw new ResponseStatusException(HttpStatus.NOT_ACCEPTABLE);
+    }
+
+    @SuppressWarnings("unchecked")
+    private byte[] serialize(Object body, Type bodyType, MediaType mediaType) {
+        for (HttpMessageConverter<?> converter : messageConverters) {
+            if (converter instanceof GenericHttpMessageConverter<?> genericConverter &&
+                    genericConverter.canWrite(bodyType, body.getClass(), mediaType)) {
+                ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+                try {
+                    ((GenericHttpMessageConverter<Object>) genericConverter).write(body, bodyType, mediaType,
+                            new ByteArrayOutputMessage(outputStream));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+
+                return outputStream.toByteArray();
+            }
+        }
+
+        throw new ResponseStatusException(HttpStatus.NOT_ACCEPTABLE);
+    }
+
+    private static class Entries {
+        private final AtomicLong generation = new AtomicLong();
+        private final Map<MediaType, Entry> bodiesByMediaType = new ConcurrentHashMap<>();
+
+        void invalidate() {
+            generation.incrementAndGet();
+            bodiesByMediaType.clear();
+        }
+    }
+
+    private static class Entry {
+        private final long generation;
+        private final long createdAtNanos;
+        private final byte[] body;
+
+        Entry(long generation, long createdAtNanos, byte[] body) {
+            this.generation = generation;
+            this.createdAtNanos = createdAtNanos;
+            this.body = body;
+        }
+    }
+
+    private static class ByteArrayOutputMessage implements HttpOutputMessage {
+        private final OutputStream body;
+        private final HttpHeaders headers = new HttpHeaders();
+
+        ByteArrayOutputMessage(OutputStream body) {
+            this.body = body;
+        }
+
+        @Override
+        public OutputStream getBody() {
+            return body;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+    }
+}
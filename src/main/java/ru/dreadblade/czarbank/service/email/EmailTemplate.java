@@ -0,0 +1,27 @@
+package ru.dreadblade.czarbank.service.email;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * An email template from templates/email together with the subject of its mails and the type of its model
+ *
+ * @param <M> the type of the model, the template reads the properties of the model by their names
+ */
+@Getter
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public final class EmailTemplate<M> {
+    public static final EmailTemplate<VerificationEmail> VERIFICATION = new EmailTemplate<>(
+            "verification-email-message.ftlh", "czar-bank account verification");
+
+    /**
+     * Every template the application renders, all of them must be present at startup
+     */
+    public static final List<EmailTemplate<?>> ALL = List.of(VERIFICATION);
+
+    private final String fileName;
+    private final String subject;
+}
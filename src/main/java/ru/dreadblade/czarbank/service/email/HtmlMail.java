@@ -0,0 +1,12 @@
+package ru.dreadblade.czarbank.service.email;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class HtmlMail {
+    private final String recipientEmailAddress;
+    private final String subject;
+    private final String htmlContent;
+}
@@ -0,0 +1,177 @@
+package ru.dreadblade.czarbank.service.email;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import ru.dreadblade.czarbank.domain.OutboundMail;
+import ru.dreadblade.czarbank.repository.OutboundMailRepository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the outgoing mails in the outbound_mail table, so a mail is sent if and only if the transaction that
+ * enqueued it commits. The dispatcher claims the due mails in batches with a lease, sends every batch over
+ * a single connection, retries the failed mails with an exponential backoff and moves a mail to the dead letters
+ * once it runs out of attempts.
+ * <p>
+ * A mail whose lease expires before its result is stored, e.g. because the instance stopped, is sent again,
+ * the delivery is at least once
+ */
+@Slf4j
+@Service
+public class MailOutboxService {
+    private static final int LAST_ERROR_MAX_LENGTH = 1000;
+
+    private static final String CLAIM_DUE_MAILS_QUERY = "update outbound_mail set next_attempt_at = ? where id in (" +
+            "select id from outbound_mail where status = 'PENDING' and next_attempt_at <= ? " +
+            "order by next_attempt_at, id limit ? for update skip locked" +
+            ") returning id, recipient, subject, html_content, attempts";
+    private static final String MARK_SENT_QUERY = "update outbound_mail set status = 'SENT', attempts = attempts + 1, " +
+            "sent_at = ?, last_error = null where id = ?";
+    private static final String RESCHEDULE_QUERY = "update outbound_mail set attempts = attempts + 1, " +
+            "next_attempt_at = ?, last_error = ? where id = ?";
+    private static final String MARK_DEAD_QUERY = "update outbound_mail set status = 'DEAD', attempts = attempts + 1, " +
+            "last_error = ? where id = ?";
+
+    private final OutboundMailRepository outboundMailRepository;
+    private final MailService mailService;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${czar-bank.mail.outbox.batch-size:50}")
+    private int batchSize;
+
+    @Value("${czar-bank.mail.outbox.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${czar-bank.mail.outbox.initial-backoff-seconds:30}")
+    private long initialBackoffSeconds;
+
+    @Value("${czar-bank.mail.outbox.max-backoff-seconds:3600}")
+    private long maxBackoffSeconds;
+
+    @Value("${czar-bank.mail.outbox.lease-seconds:300}")
+    private long leaseSeconds;
+
+    public MailOutboxService(OutboundMailRepository outboundMailRepository, MailService mailService,
+                             JdbcTemplate jdbcTemplate) {
+        this.outboundMailRepository = outboundMailRepository;
+        this.mailService = mailService;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Adds the mail to the outbox within the transaction of the caller, the mail is due immediately
+     */
+    public OutboundMail enqueue(String recipientEmailAddress, String subject, String htmlContent) {
+        return outboundMailRepository.save(OutboundMail.builder()
+                .recipient(recipientEmailAddress)
+                .subject(subject)
+                .htmlContent(htmlContent)
+                .nextAttemptAt(Instant.now())
+                .build());
+    }
+
+    /**
+     * Sends the due mails batch by batch until the outbox has no more of them
+     *
+     * @return the number of the mails attempted
+     */
+    public int dispatchAll() {
+        int attempted = 0;
+        int dispatched;
+
+        do {
+            dispatched = dispatchBatch();
+            attempted += dispatched;
+        } while (dispatched == batchSize);
+
+        return attempted;
+    }
+
+    /**
+     * Claims a batch of the due mails, sends it and stores the result of every mail
+     *
+     * @return the number of the mails attempted
+     */
+    public int dispatchBatch() {
+        Instant now = Instant.now();
+
+        List<ClaimedMail> claimedMails = jdbcTemplate.query(CLAIM_DUE_MAILS_QUERY, (resultSet, rowNum) ->
+                new ClaimedMail(resultSet.getLong("id"), resultSet.getInt("attempts"),
+                        new HtmlMail(resultSet.getString("recipient"), resultSet.getString("subject"),
+                                resultSet.getString("html_content"))),
+                Timestamp.from(now.plusSeconds(leaseSeconds)), Timestamp.from(now), batchSize);
+
+        if (claimedMails.isEmpty()) {
+            return 0;
+        }
+
+        Map<HtmlMail, Exception> failures = mailService.sendHtmlMails(claimedMails.stream()
+                .map(ClaimedMail::getMail)
+                .toList());
+
+        Instant finishedAt = Instant.now();
+        List<ClaimedMail> sentMails = new ArrayList<>(claimedMails.size());
+
+        for (ClaimedMail claimedMail : claimedMails) {
+            Exception failure = failures.get(claimedMail.getMail());
+
+            if (failure == null) {
+                sentMails.add(claimedMail);
+            } else {
+                storeFailure(claimedMail, failure, finishedAt);
+            }
+        }
+
+        if (!sentMails.isEmpty()) {
+            jdbcTemplate.batchUpdate(MARK_SENT_QUERY, sentMails, sentMails.size(), (ps, sentMail) -> {
+                ps.setTimestamp(1, Timestamp.from(finishedAt));
+                ps.setLong(2, sentMail.getId());
+            });
+        }
+
+        log.debug("Dispatched {} outbound mails, {} failed", claimedMails.size(), failures.size());
+
+        return claimedMails.size();
+    }
+
+    private void storeFailure(ClaimedMail claimedMail, Exception failure, Instant failedAt) {
+        int attempts = claimedMail.getAttempts() + 1;
+        String lastError = StringUtils.abbreviate(String.valueOf(failure.getMessage()), LAST_ERROR_MAX_LENGTH);
+
+        if (attempts >= maxAttempts) {
+            jdbcTemplate.update(MARK_DEAD_QUERY, lastError, claimedMail.getId());
+
+            log.warn("Outbound mail {} to {} is dead after {} attempts: {}", claimedMail.getId(),
+                    claimedMail.getMail().getRecipientEmailAddress(), attempts, lastError);
+        } else {
+            jdbcTemplate.update(RESCHEDULE_QUERY, Timestamp.from(failedAt.plusSeconds(getBackoffSeconds(attempts))),
+                    lastError, claimedMail.getId());
+        }
+    }
+
+    /**
+     * Doubles the delay after every failed attempt, starting from the initial backoff
+     */
+    private long getBackoffSeconds(int attempts) {
+        int exponent = Math.min(attempts - 1, 30);
+
+        return Math.min(initialBackoffSeconds << exponent, maxBackoffSeconds);
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class ClaimedMail {
+        private final long id;
+        private final int attempts;
+        private final HtmlMail mail;
+    }
+}
@@ -1,7 +1,29 @@
 package ru.dreadblade.czarbank.service.email;
 
 import javax.mail.MessagingException;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 
 public interface MailService {
     void sendHtmlMail(String recipientEmailAddress, String subject, String htmlContent) throws MessagingException;
+
+    /**
+     * Sends every mail of the batch, a failure of one mail doesn't stop the others
+     *
+     * @return the failed mails with the causes of their failures, empty if every mail was sent
+     */
+    default Map<HtmlMail, Exception> sendHtmlMails(List<HtmlMail> mails) {
+        Map<HtmlMail, Exception> failures = new IdentityHashMap<>();
+
+        for (HtmlMail mail : mails) {
+            try {
+                sendHtmlMail(mail.getRecipientEmailAddress(), mail.getSubject(), mail.getHtmlContent());
+            } catch (MessagingException | RuntimeException e) {
+                failures.put(mail, e);
+            }
+        }
+
+        return failures;
+    }
 }
@@ -2,12 +2,18 @@ package ru.dreadblade.czarbank.service.email;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Profile;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
 
 import javax.mail.MessagingException;
 import javax.mail.internet.MimeMessage;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 @Service
 @Profile("smtp")
@@ -17,6 +23,42 @@ public class SmtpMailService implements MailService {
 
     @Override
     public void sendHtmlMail(String recipientEmailAddress, String subject, String htmlContent) throws MessagingException {
+        javaMailSender.send(createMessage(recipientEmailAddress, subject, htmlContent));
+    }
+
+    /**
+     * Sends the whole batch over a single connection to the SMTP server
+     */
+    @Override
+    public Map<HtmlMail, Exception> sendHtmlMails(List<HtmlMail> mails) {
+        Map<HtmlMail, Exception> failures = new IdentityHashMap<>();
+        Map<MimeMessage, HtmlMail> mailsByMessage = new LinkedHashMap<>();
+
+        for (HtmlMail mail : mails) {
+            try {
+                mailsByMessage.put(createMessage(mail.getRecipientEmailAddress(), mail.getSubject(),
+                        mail.getHtmlContent()), mail);
+            } catch (MessagingException e) {
+                failures.put(mail, e);
+            }
+        }
+
+        if (mailsByMessage.isEmpty()) {
+            return failures;
+        }
+
+        try {
+            javaMailSender.send(mailsByMessage.keySet().toArray(MimeMessage[]::new));
+        } catch (MailSendException e) {
+            e.getFailedMessages().forEach((message, exception) -> failures.put(mailsByMessage.get(message), exception));
+        } catch (MailException e) {
+            mailsByMessage.values().forEach(mail -> failures.put(mail, e));
+        }
+
+        return failures;
+    }
+
+    private MimeMessage createMessage(String recipientEmailAddress, String subject, String htmlContent) throws MessagingException {
         MimeMessage message = javaMailSender.createMimeMessage();
         MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
 
@@ -24,6 +66,6 @@ public class SmtpMailService implements MailService {
         helper.setSubject(subject);
         helper.setText(htmlContent, true);
 
-        javaMailSender.send(message);
+        return message;
     }
 }
@@ -0,0 +1,19 @@
+package ru.dreadblade.czarbank.service.email;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Model of {@link EmailTemplate#VERIFICATION}
+ */
+@Getter
+@Builder
+public class VerificationEmail {
+    public static final String SUPPORT_EMAIL_ADDRESS = "support@czarbank.org";
+
+    private final String username;
+    private final String emailVerificationUrl;
+
+    @Builder.Default
+    private final String supportEmailAddress = SUPPORT_EMAIL_ADDRESS;
+}
@@ -0,0 +1,68 @@
+package ru.dreadblade.czarbank.service.external;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.UriComponentsBuilder;
+import ru.dreadblade.czarbank.api.model.response.external.CentralBankOfRussiaExchangeRatesResponseDTO;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Mapping of the ISO currency codes to the internal currency ids of the Central Bank of the Russian Federation
+ * (VAL_NM_RQ), loaded once and shared until the TTL passes
+ */
+@Component
+public class CentralBankOfRussiaCurrencyDirectory {
+    private static final String EXCHANGE_RATES_ON_DATE_PATH = "/XML_daily.asp";
+
+    private final ConditionalGetClient conditionalGetClient;
+    private final String apiUrl;
+    private final Duration ttl;
+
+    private volatile Map<String, String> uniqueCurrencyCodesByCurrencyCode = Map.of();
+    private volatile Instant expiresAt = Instant.MIN;
+
+    public CentralBankOfRussiaCurrencyDirectory(ConditionalGetClient conditionalGetClient,
+                                                @Value("${czar-bank.exchange-rate.central-bank-of-russia.api-url:https://www.cbr.ru/scripts}") String apiUrl,
+                                                @Value("${czar-bank.exchange-rate.central-bank-of-russia.directory-ttl-seconds:86400}") long ttlSeconds) {
+        this.conditionalGetClient = conditionalGetClient;
+        this.apiUrl = apiUrl;
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+    }
+
+    public Optional<String> findUniqueCurrencyCode(String currencyCode) {
+        if (Instant.now().isAfter(expiresAt) || !uniqueCurrencyCodesByCurrencyCode.containsKey(currencyCode)) {
+            reload();
+        }
+
+        return Optional.ofNullable(uniqueCurrencyCodesByCurrencyCode.get(currencyCode));
+    }
+
+    private synchronized void reload() {
+        if (Instant.now().isBefore(expiresAt) && !uniqueCurrencyCodesByCurrencyCode.isEmpty()) {
+            return;
+        }
+
+        String requestUrl = UriComponentsBuilder.fromHttpUrl(apiUrl + EXCHANGE_RATES_ON_DATE_PATH)
+                .encode()
+                .toUriString();
+
+        CentralBankOfRussiaExchangeRatesResponseDTO exchangeRatesResponseDTO = conditionalGetClient
+                .get(requestUrl, CentralBankOfRussiaExchangeRatesResponseDTO.class);
+
+        if (exchangeRatesResponseDTO == null || !exchangeRatesResponseDTO.isValid()) {
+            return;
+        }
+
+        uniqueCurrencyCodesByCurrencyCode = exchangeRatesResponseDTO.getRates().stream()
+                .collect(Collectors.toUnmodifiableMap(
+                        CentralBankOfRussiaExchangeRatesResponseDTO.ExchangeRateOnDateDTO::getCurrencyCode,
+                        CentralBankOfRussiaExchangeRatesResponseDTO.ExchangeRateOnDateDTO::getUniqueCurrencyCode,
+                        (first, second) -> first));
+        expiresAt = Instant.now().plus(ttl);
+    }
+}
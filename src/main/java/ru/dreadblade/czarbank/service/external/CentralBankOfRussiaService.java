@@ -1,26 +1,31 @@
 package ru.dreadblade.czarbank.service.external;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
-import ru.dreadblade.czarbank.api.model.response.external.CentralBankOfRussiaExchangeRatesBetweenDatesResponseDTO;
 import ru.dreadblade.czarbank.api.model.response.external.CentralBankOfRussiaExchangeRatesResponseDTO;
 import ru.dreadblade.czarbank.domain.Currency;
 import ru.dreadblade.czarbank.domain.ExchangeRate;
+import ru.dreadblade.czarbank.service.metrics.ExchangeRateMetrics;
 
+import javax.xml.stream.XMLStreamException;
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.function.Consumer;
 
 @Service
 @RequiredArgsConstructor
 public class CentralBankOfRussiaService {
-    private static final String CENTRAL_BANK_OF_RUSSIA_EXCHANGE_RATES_ON_DATE_API_URL = "https://www.cbr.ru/scripts/XML_daily.asp";
-    private static final String CENTRAL_BANK_OF_RUSSIA_EXCHANGE_RATES_BETWEEN_DATES_API_URL = "https://www.cbr.ru/scripts/XML_dynamic.asp";
+    private static final String EXCHANGE_RATES_ON_DATE_PATH = "/XML_daily.asp";
+    private static final String EXCHANGE_RATES_BETWEEN_DATES_PATH = "/XML_dynamic.asp";
 
     private static final String EXCHANGE_RATE_DATE_REQUEST_PARAM_NAME = "date_req";
     private static final String EXCHANGE_RATE_START_DATE_REQUEST_PARAM_NAME = "date_req1";
@@ -29,18 +34,31 @@ public class CentralBankOfRussiaService {
 
     private static final String EXCHANGE_RATE_DATE_REQUEST_PARAM_PATTERN = "dd/MM/yyyy";
 
+    /**
+     * How far before the start date the rates are requested when no previous rate is known, so the first days get
+     * the rate published before them. The longest run of days without a published rate is the New Year holidays
+     */
+    private static final int PREVIOUS_RATE_LOOKBACK_DAYS = 14;
+
     private final RestTemplate restTemplate;
+    private final ConditionalGetClient conditionalGetClient;
+    private final CentralBankOfRussiaCurrencyDirectory currencyDirectory;
+    private final ExchangeRateMetrics exchangeRateMetrics;
+
+    @Value("${czar-bank.exchange-rate.central-bank-of-russia.api-url:https://www.cbr.ru/scripts}")
+    private String apiUrl;
 
     public List<ExchangeRate> getExchangeRatesForCurrenciesByDate(List<Currency> currencies, LocalDate date) {
         String formattedDateRequestParam = date.format(DateTimeFormatter.ofPattern(EXCHANGE_RATE_DATE_REQUEST_PARAM_PATTERN));
 
-        String requestUrl = UriComponentsBuilder.fromHttpUrl(CENTRAL_BANK_OF_RUSSIA_EXCHANGE_RATES_ON_DATE_API_URL)
+        String requestUrl = UriComponentsBuilder.fromHttpUrl(apiUrl + EXCHANGE_RATES_ON_DATE_PATH)
                 .queryParam(EXCHANGE_RATE_DATE_REQUEST_PARAM_NAME, formattedDateRequestParam)
                 .encode()
                 .toUriString();
 
-        ResponseEntity<CentralBankOfRussiaExchangeRatesResponseDTO> response = restTemplate
-                .getForEntity(requestUrl, CentralBankOfRussiaExchangeRatesResponseDTO.class);
+        ResponseEntity<CentralBankOfRussiaExchangeRatesResponseDTO> response = exchangeRateMetrics
+                .recordCentralBankOfRussiaRequest("exchange-rates-on-date", () -> restTemplate
+                        .getForEntity(requestUrl, CentralBankOfRussiaExchangeRatesResponseDTO.class));
 
         CentralBankOfRussiaExchangeRatesResponseDTO exchangeRatesResponseDTO = response.getBody();
 
@@ -72,66 +90,64 @@ public class CentralBankOfRussiaService {
     }
 
     public List<ExchangeRate> getExchangeRatesForCurrencyBetweenDates(Currency currency, LocalDate startDate, LocalDate endDate) {
-        String formattedStartDateRequestParam = startDate.format(DateTimeFormatter.ofPattern(EXCHANGE_RATE_DATE_REQUEST_PARAM_PATTERN));
+        List<ExchangeRate> result = new ArrayList<>();
+
+        streamExchangeRatesForCurrencyBetweenDates(currency, startDate, endDate, null, result::add);
+
+        return result;
+    }
+
+    /**
+     * Passes the exchange rate for every day between the start and end dates (both inclusive) to the consumer
+     * while the response is being read. Days without a published rate (weekends, holidays) get the last known rate,
+     * starting with the given previous rate, the rate of the day before the start date. Without a previous rate
+     * the rates are requested from a few days earlier to find it. The records of the response must go in the
+     * ascending order of their dates as they are published
+     */
+    public void streamExchangeRatesForCurrencyBetweenDates(Currency currency, LocalDate startDate, LocalDate endDate,
+                                                           BigDecimal previousRate, Consumer<ExchangeRate> consumer) {
+        LocalDate requestStartDate = previousRate == null ? startDate.minusDays(PREVIOUS_RATE_LOOKBACK_DAYS) : startDate;
+
+        String formattedStartDateRequestParam = requestStartDate.format(DateTimeFormatter.ofPattern(EXCHANGE_RATE_DATE_REQUEST_PARAM_PATTERN));
         String formattedEndDateRequestParam = endDate.format(DateTimeFormatter.ofPattern(EXCHANGE_RATE_DATE_REQUEST_PARAM_PATTERN));
 
-        String requestUrl = UriComponentsBuilder.fromHttpUrl(CENTRAL_BANK_OF_RUSSIA_EXCHANGE_RATES_BETWEEN_DATES_API_URL)
+        String uniqueCurrencyCode = currencyDirectory.findUniqueCurrencyCode(currency.getCode())
+                .orElseThrow(IllegalStateException::new);
+
+        String requestUrl = UriComponentsBuilder.fromHttpUrl(apiUrl + EXCHANGE_RATES_BETWEEN_DATES_PATH)
                 .queryParam(EXCHANGE_RATE_START_DATE_REQUEST_PARAM_NAME, formattedStartDateRequestParam)
                 .queryParam(EXCHANGE_RATE_END_DATE_REQUEST_PARAM_NAME, formattedEndDateRequestParam)
-                .queryParam(EXCHANGE_RATE_UNIQUE_CURRENCY_CODE_REQUEST_PARAM_NAME, getUniqueCurrencyCodeForCurrency(currency))
+                .queryParam(EXCHANGE_RATE_UNIQUE_CURRENCY_CODE_REQUEST_PARAM_NAME, uniqueCurrencyCode)
                 .encode()
                 .toUriString();
 
-        ResponseEntity<CentralBankOfRussiaExchangeRatesBetweenDatesResponseDTO> response = restTemplate
-                .getForEntity(requestUrl, CentralBankOfRussiaExchangeRatesBetweenDatesResponseDTO.class);
-
-        var exchangeRatesResponseDTO = response.getBody();
-
-        if (exchangeRatesResponseDTO == null || !exchangeRatesResponseDTO.isValid()) {
-            return List.of();
-        }
-
-        LocalDate currentDate = startDate;
-        List<ExchangeRate> result = new ArrayList<>();
-
-        var exchangeRateDTOs = exchangeRatesResponseDTO.getRates();
-        int exchangeRatesCount = exchangeRateDTOs.size();
-
-        exchangeRateDTOs.sort(Comparator.comparing(e -> e.getDate()));
+        exchangeRateMetrics.recordCentralBankOfRussiaRequest("exchange-rates-between-dates", () ->
+                restTemplate.execute(requestUrl, HttpMethod.GET, null, response -> {
+                    DailyRateFiller filler = new DailyRateFiller(currency, startDate, previousRate, consumer);
 
-        for (int i = 0; i < exchangeRatesCount; i++) {
-            var rateDTO = exchangeRateDTOs.get(i);
-
-            if (rateDTO.getNominal() > 1) {
-                rateDTO.setRate(rateDTO.getRate().divide(BigDecimal.valueOf(rateDTO.getNominal()), RoundingMode.HALF_EVEN));
-            }
-
-            while (i != exchangeRatesCount - 1 && currentDate.isBefore(exchangeRateDTOs.get(i + 1).getDate()) || i == exchangeRatesCount - 1 && currentDate.isBefore(endDate.plusDays(1))) {
-                result.add(ExchangeRate.builder()
-                        .currency(currency)
-                        .exchangeRate(rateDTO.getRate())
-                        .date(currentDate)
-                        .build());
+                    try {
+                        CentralBankOfRussiaXmlReader.readRecords(response.getBody(), filler::accept);
+                    } catch (XMLStreamException e) {
+                        throw new IOException(e);
+                    }
 
-                currentDate = currentDate.plusDays(1);
-            }
-        }
+                    filler.fillUntil(endDate);
 
-        return result;
+                    return null;
+                }));
     }
 
     public boolean exchangeRateForCurrencyExists(Currency currency, LocalDate fromDate) {
         String formattedDateRequestParam = fromDate.format(DateTimeFormatter.ofPattern(EXCHANGE_RATE_DATE_REQUEST_PARAM_PATTERN));
 
-        String requestUrl = UriComponentsBuilder.fromHttpUrl(CENTRAL_BANK_OF_RUSSIA_EXCHANGE_RATES_ON_DATE_API_URL)
+        String requestUrl = UriComponentsBuilder.fromHttpUrl(apiUrl + EXCHANGE_RATES_ON_DATE_PATH)
                 .queryParam(EXCHANGE_RATE_DATE_REQUEST_PARAM_NAME, formattedDateRequestParam)
                 .encode()
                 .toUriString();
 
-        ResponseEntity<CentralBankOfRussiaExchangeRatesResponseDTO> response = restTemplate
-                .getForEntity(requestUrl, CentralBankOfRussiaExchangeRatesResponseDTO.class);
-
-        CentralBankOfRussiaExchangeRatesResponseDTO exchangeRatesResponseDTO = response.getBody();
+        CentralBankOfRussiaExchangeRatesResponseDTO exchangeRatesResponseDTO = exchangeRateMetrics
+                .recordCentralBankOfRussiaRequest("exchange-rate-exists", () -> conditionalGetClient
+                        .get(requestUrl, CentralBankOfRussiaExchangeRatesResponseDTO.class));
 
         if (exchangeRatesResponseDTO == null || !exchangeRatesResponseDTO.isValid()) {
             return false;
@@ -141,23 +157,47 @@ public class CentralBankOfRussiaService {
                 .anyMatch(dto -> dto.getCurrencyCode().equals(currency.getCode()));
     }
 
-    private String getUniqueCurrencyCodeForCurrency(Currency currency) {
-        String requestUrl = UriComponentsBuilder.fromHttpUrl(CENTRAL_BANK_OF_RUSSIA_EXCHANGE_RATES_ON_DATE_API_URL)
-                .encode()
-                .toUriString();
-
-        ResponseEntity<CentralBankOfRussiaExchangeRatesResponseDTO> response = restTemplate
-                .getForEntity(requestUrl, CentralBankOfRussiaExchangeRatesResponseDTO.class);
+    /**
+     * Turns the published rates into a rate for every day from the start date, the rates published before the start
+     * date only become the last known rate. If no rate is known before the first published one, the first rate also
+     * covers the days before it
+     */
+    static class DailyRateFiller {
+        private final Currency currency;
+        private final Consumer<ExchangeRate> consumer;
+
+        private LocalDate currentDate;
+        private BigDecimal lastRate;
+
+        DailyRateFiller(Currency currency, LocalDate startDate, BigDecimal previousRate, Consumer<ExchangeRate> consumer) {
+            this.currency = currency;
+            this.currentDate = startDate;
+            this.lastRate = previousRate;
+            this.consumer = consumer;
+        }
 
-        CentralBankOfRussiaExchangeRatesResponseDTO exchangeRatesResponseDTO = response.getBody();
+        void accept(LocalDate date, long nominal, BigDecimal rate) {
+            if (lastRate != null) {
+                fillUntil(date.minusDays(1));
+            }
 
-        if (exchangeRatesResponseDTO == null || !exchangeRatesResponseDTO.isValid()) {
-            return null;
+            lastRate = nominal > 1 ? rate.divide(BigDecimal.valueOf(nominal), RoundingMode.HALF_EVEN) : rate;
         }
 
-        return exchangeRatesResponseDTO.getRates().stream()
-                .filter(dto -> dto.getCurrencyCode().equals(currency.getCode()))
-                .map(dto -> dto.getUniqueCurrencyCode())
-                .findAny().orElseThrow(IllegalStateException::new);
+        void fillUntil(LocalDate endDate) {
+            if (lastRate == null) {
+                return;
+            }
+
+            while (!currentDate.isAfter(endDate)) {
+                consumer.accept(ExchangeRate.builder()
+                        .currency(currency)
+                        .exchangeRate(lastRate)
+                        .date(currentDate)
+                        .build());
+
+                currentDate = currentDate.plusDays(1);
+            }
+        }
     }
 }
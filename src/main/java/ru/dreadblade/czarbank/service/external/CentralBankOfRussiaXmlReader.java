@@ -0,0 +1,174 @@
+package ru.dreadblade.czarbank.service.external;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Pull parser for the exchange rates history documents (XML_dynamic.asp) of the Central Bank of the Russian Federation.
+ * Records are handed over one by one while the document is still being read, without building an object tree,
+ * and the values with a decimal comma are parsed straight from the parser buffer
+ */
+public final class CentralBankOfRussiaXmlReader {
+    private static final String RECORD_ELEMENT_NAME = "Record";
+    private static final String DATE_ATTRIBUTE_NAME = "Date";
+    private static final String NOMINAL_ELEMENT_NAME = "Nominal";
+    private static final String VALUE_ELEMENT_NAME = "Value";
+
+    /**
+     * Largest unscaled value that can be accumulated digit by digit without overflowing a long
+     */
+    private static final long MAX_UNSCALED_VALUE = (Long.MAX_VALUE - 9) / 10;
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = createXmlInputFactory();
+
+    private CentralBankOfRussiaXmlReader() {
+    }
+
+    @FunctionalInterface
+    public interface RecordHandler {
+        void handle(LocalDate date, long nominal, BigDecimal rate);
+    }
+
+    /**
+     * Reads the records in the document order and passes each complete one to the handler
+     */
+    public static void readRecords(InputStream inputStream, RecordHandler handler) throws XMLStreamException {
+        XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(inputStream);
+
+        try {
+            LocalDate date = null;
+            long nominal = 1;
+            BigDecimal rate = null;
+
+            while (reader.hasNext()) {
+                int event = reader.next();
+
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    String elementName = reader.getLocalName();
+
+                    if (RECORD_ELEMENT_NAME.equals(elementName)) {
+                        date = parseDate(reader.getAttributeValue(null, DATE_ATTRIBUTE_NAME));
+                        nominal = 1;
+                        rate = null;
+                    } else if (NOMINAL_ELEMENT_NAME.equals(elementName) && reader.next() == XMLStreamConstants.CHARACTERS) {
+                        nominal = parseDecimal(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength())
+                                .longValueExact();
+                    } else if (VALUE_ELEMENT_NAME.equals(elementName) && reader.next() == XMLStreamConstants.CHARACTERS) {
+                        rate = parseDecimal(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT && RECORD_ELEMENT_NAME.equals(reader.getLocalName())) {
+                    if (date != null && rate != null) {
+                        handler.handle(date, nominal, rate);
+                    }
+
+                    date = null;
+                }
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Parses a decimal number written with either a comma or a dot as the decimal separator
+     */
+    static BigDecimal parseDecimal(char[] chars, int start, int length) {
+        int end = start + length;
+
+        while (start < end && Character.isWhitespace(chars[start])) {
+            start++;
+        }
+
+        while (end > start && Character.isWhitespace(chars[end - 1])) {
+            end--;
+        }
+
+        if (start == end) {
+            throw new NumberFormatException("Empty decimal value");
+        }
+
+        boolean isNegative = chars[start] == '-';
+        int position = isNegative ? start + 1 : start;
+
+        long unscaledValue = 0;
+        int scale = -1;
+
+        for (; position < end; position++) {
+            char c = chars[position];
+
+            if (c == ',' || c == '.') {
+                if (scale >= 0) {
+                    throw new NumberFormatException("Multiple decimal separators: " + new String(chars, start, end - start));
+                }
+
+                scale = 0;
+            } else if (c >= '0' && c <= '9') {
+                if (unscaledValue > MAX_UNSCALED_VALUE) {
+                    return parseLongDecimal(chars, start, end);
+                }
+
+                unscaledValue = unscaledValue * 10 + (c - '0');
+
+                if (scale >= 0) {
+                    scale++;
+                }
+            } else {
+                throw new NumberFormatException("Invalid decimal value: " + new String(chars, start, end - start));
+            }
+        }
+
+        return BigDecimal.valueOf(isNegative ? -unscaledValue : unscaledValue, Math.max(scale, 0));
+    }
+
+    /**
+     * Parses the dd.MM.yyyy date format used by the Central Bank of the Russian Federation
+     */
+    static LocalDate parseDate(String value) {
+        if (value == null || value.length() != 10 || value.charAt(2) != '.' || value.charAt(5) != '.') {
+            throw new IllegalArgumentException("Invalid date: " + value);
+        }
+
+        return LocalDate.of(parseInt(value, 6, 10), parseInt(value, 3, 5), parseInt(value, 0, 2));
+    }
+
+    private static BigDecimal parseLongDecimal(char[] chars, int start, int end) {
+        char[] normalizedChars = new char[end - start];
+
+        for (int i = start; i < end; i++) {
+            normalizedChars[i - start] = chars[i] == ',' ? '.' : chars[i];
+        }
+
+        return new BigDecimal(normalizedChars);
+    }
+
+    private static int parseInt(String value, int start, int end) {
+        int result = 0;
+
+        for (int i = start; i < end; i++) {
+            char c = value.charAt(i);
+
+            if (c < '0' || c > '9') {
+                throw new IllegalArgumentException("Invalid date: " + value);
+            }
+
+            result = result * 10 + (c - '0');
+        }
+
+        return result;
+    }
+
+    private static XMLInputFactory createXmlInputFactory() {
+        XMLInputFactory xmlInputFactory = XMLInputFactory.newFactory();
+
+        xmlInputFactory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        xmlInputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        xmlInputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+
+        return xmlInputFactory;
+    }
+}
@@ -0,0 +1,67 @@
+package ru.dreadblade.czarbank.service.external;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.*;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Performs GET requests that revalidate the previously received response with If-None-Match/If-Modified-Since,
+ * so an unchanged document is answered with 304 Not Modified and is neither transferred nor parsed again
+ */
+@Component
+public class ConditionalGetClient {
+    private final RestTemplate restTemplate;
+    private final Cache<String, CachedResponse> responsesByUrl;
+
+    public ConditionalGetClient(RestTemplate restTemplate,
+                                @Value("${czar-bank.external.conditional-get.cache-size:256}") long cacheSize) {
+        this.restTemplate = restTemplate;
+        this.responsesByUrl = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .build();
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(String url, Class<T> responseType) {
+        CachedResponse cachedResponse = responsesByUrl.getIfPresent(url);
+        HttpHeaders requestHeaders = new HttpHeaders();
+
+        if (cachedResponse != null && responseType.isInstance(cachedResponse.body)) {
+            if (cachedResponse.eTag != null) {
+                requestHeaders.setIfNoneMatch(cachedResponse.eTag);
+            }
+
+            if (cachedResponse.lastModified > 0) {
+                requestHeaders.setIfModifiedSince(cachedResponse.lastModified);
+            }
+        }
+
+        ResponseEntity<T> response = restTemplate.exchange(url, HttpMethod.GET, new HttpEntity<>(requestHeaders), responseType);
+
+        if (response.getStatusCode() == HttpStatus.NOT_MODIFIED && cachedResponse != null) {
+            return (T) cachedResponse.body;
+        }
+
+        String eTag = response.getHeaders().getETag();
+        long lastModified = response.getHeaders().getLastModified();
+
+        if (response.getBody() != null && (eTag != null || lastModified > 0)) {
+            responsesByUrl.put(url, new CachedResponse(eTag, lastModified, response.getBody()));
+        } else {
+            responsesByUrl.invalidate(url);
+        }
+
+        return response.getBody();
+    }
+
+    @AllArgsConstructor
+    private static class CachedResponse {
+        private final String eTag;
+        private final long lastModified;
+        private final Object body;
+    }
+}
@@ -1,23 +1,103 @@
 package ru.dreadblade.czarbank.service.freemarker;
 
+import freemarker.template.Configuration;
 import freemarker.template.Template;
 import freemarker.template.TemplateException;
-import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
 import org.springframework.stereotype.Service;
-import org.springframework.ui.freemarker.FreeMarkerTemplateUtils;
 import org.springframework.web.servlet.view.freemarker.FreeMarkerConfigurer;
+import ru.dreadblade.czarbank.service.email.EmailTemplate;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
+/**
+ * Renders the email templates. All the templates of templates/email are parsed once at startup, so a broken
+ * or a missing template fails the startup instead of the first mail, and every render writes into a buffer
+ * reused by the thread
+ */
+@Slf4j
 @Service
-@RequiredArgsConstructor
 public class FreemarkerTemplateService {
-    private final FreeMarkerConfigurer freeMarkerConfigurer;
+    private static final String EMAIL_TEMPLATES_PATTERN = "classpath:/templates/email/*.ftl*";
 
-    public String getProcessedFreemarkerTemplate(String name, Map<String, Object> model) throws IOException, TemplateException {
-        Template freemarkerTemplate = freeMarkerConfigurer.getConfiguration().getTemplate(name);
+    private final Map<String, Template> templates;
+    private final ThreadLocal<StringBuilderWriter> buffers = ThreadLocal.withInitial(StringBuilderWriter::new);
 
-        return FreeMarkerTemplateUtils.processTemplateIntoString(freemarkerTemplate, model);
+    public FreemarkerTemplateService(FreeMarkerConfigurer freeMarkerConfigurer) throws IOException {
+        this.templates = loadTemplates(freeMarkerConfigurer.getConfiguration());
+    }
+
+    public <M> String render(EmailTemplate<M> emailTemplate, M model) throws IOException, TemplateException {
+        Template template = getTemplate(emailTemplate);
+        StringBuilderWriter buffer = buffers.get();
+
+        try {
+            template.process(model, buffer);
+
+            return buffer.drain();
+        } finally {
+            buffer.reset();
+        }
+    }
+
+    /**
+     * Renders a mail for every model, the results are in the order of the models
+     */
+    public <M> List<String> renderAll(EmailTemplate<M> emailTemplate, List<M> models) throws IOException, TemplateException {
+        Template template = getTemplate(emailTemplate);
+        StringBuilderWriter buffer = buffers.get();
+        List<String> renderedMails = new ArrayList<>(models.size());
+
+        try {
+            for (M model : models) {
+                template.process(model, buffer);
+
+                renderedMails.add(buffer.drain());
+            }
+        } finally {
+            buffer.reset();
+        }
+
+        return renderedMails;
+    }
+
+    private Template getTemplate(EmailTemplate<?> emailTemplate) {
+        Template template = templates.get(emailTemplate.getFileName());
+
+        if (template == null) {
+            throw new IllegalArgumentException("Email template " + emailTemplate.getFileName() + " is not loaded");
+        }
+
+        return template;
+    }
+
+    private static Map<String, Template> loadTemplates(Configuration configuration) throws IOException {
+        Map<String, Template> templates = new HashMap<>();
+
+        for (Resource resource : new PathMatchingResourcePatternResolver().getResources(EMAIL_TEMPLATES_PATTERN)) {
+            String fileName = resource.getFilename();
+
+            try {
+                templates.put(fileName, configuration.getTemplate(fileName));
+            } catch (IOException e) {
+                throw new IllegalStateException("Email template " + fileName + " can't be parsed", e);
+            }
+        }
+
+        for (EmailTemplate<?> emailTemplate : EmailTemplate.ALL) {
+            if (!templates.containsKey(emailTemplate.getFileName())) {
+                throw new IllegalStateException("Email template " + emailTemplate.getFileName() + " is missing");
+            }
+        }
+
+        log.info("Loaded {} email templates", templates.size());
+
+        return Map.copyOf(templates);
     }
 }
@@ -0,0 +1,66 @@
+package ru.dreadblade.czarbank.service.freemarker;
+
+import java.io.Writer;
+
+/**
+ * Unsynchronized writer into a reusable {@link StringBuilder}, unlike {@link java.io.StringWriter}
+ * it keeps its buffer between the renders
+ */
+class StringBuilderWriter extends Writer {
+    private static final int INITIAL_CAPACITY = 8 * 1024;
+
+    /**
+     * Larger buffers are dropped after a render, so a single huge render doesn't pin the memory of the thread
+     */
+    private static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+
+    private StringBuilder builder = new StringBuilder(INITIAL_CAPACITY);
+
+    @Override
+    public void write(int c) {
+        builder.append((char) c);
+    }
+
+    @Override
+    public void write(char[] buffer, int offset, int length) {
+        builder.append(buffer, offset, length);
+    }
+
+    @Override
+    public void write(String string, int offset, int length) {
+        builder.append(string, offset, offset + length);
+    }
+
+    @Override
+    public Writer append(CharSequence sequence) {
+        builder.append(sequence);
+        return this;
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void close() {
+    }
+
+    /**
+     * Returns the written content and empties the buffer for the next render
+     */
+    String drain() {
+        String content = builder.toString();
+
+        reset();
+
+        return content;
+    }
+
+    void reset() {
+        if (builder.capacity() > MAX_RETAINED_CAPACITY) {
+            builder = new StringBuilder(INITIAL_CAPACITY);
+        } else {
+            builder.setLength(0);
+        }
+    }
+}
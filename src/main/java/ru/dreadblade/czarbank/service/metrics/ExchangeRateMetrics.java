@@ -0,0 +1,77 @@
+package ru.dreadblade.czarbank.service.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Timers of the currency conversions and of the requests to the API of the Central Bank of the Russian Federation
+ */
+@Component
+public class ExchangeRateMetrics {
+    private static final String EXCHANGES_TIMER_NAME = "czarbank.currency.exchanges";
+    private static final String CENTRAL_BANK_OF_RUSSIA_REQUESTS_TIMER_NAME = "czarbank.central-bank-of-russia.requests";
+
+    public enum ConversionPath {
+        SAME_CURRENCY,
+        FROM_BASE_CURRENCY,
+        TO_BASE_CURRENCY,
+        CROSS_CURRENCY
+    }
+
+    private final MeterRegistry meterRegistry;
+    private final Map<ConversionPath, Timer> successfulExchanges = new EnumMap<>(ConversionPath.class);
+
+    public ExchangeRateMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+
+        for (ConversionPath path : ConversionPath.values()) {
+            successfulExchanges.put(path, exchangesTimer(path, MetricOutcome.SUCCESS));
+        }
+    }
+
+    public void recordExchange(ConversionPath path, long nanos) {
+        successfulExchanges.get(path).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordFailedExchange(ConversionPath path, long nanos, Throwable failure) {
+        exchangesTimer(path, MetricOutcome.of(failure)).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Performs the request and records its duration tagged by the operation and the outcome
+     */
+    public <T> T recordCentralBankOfRussiaRequest(String operation, Supplier<T> request) {
+        long startedAt = System.nanoTime();
+        String outcome = MetricOutcome.SUCCESS;
+
+        try {
+            return request.get();
+        } catch (RuntimeException e) {
+            outcome = MetricOutcome.of(e);
+
+            throw e;
+        } finally {
+            Timer.builder(CENTRAL_BANK_OF_RUSSIA_REQUESTS_TIMER_NAME)
+                    .description("Requests to the API of the Central Bank of the Russian Federation")
+                    .tag("operation", operation)
+                    .tag(MetricOutcome.TAG, outcome)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Timer exchangesTimer(ConversionPath path, String outcome) {
+        return Timer.builder(EXCHANGES_TIMER_NAME)
+                .description("Currency conversions through CurrencyService.exchangeCurrency")
+                .tag("path", path.name().toLowerCase(Locale.ROOT))
+                .tag(MetricOutcome.TAG, outcome)
+                .register(meterRegistry);
+    }
+}
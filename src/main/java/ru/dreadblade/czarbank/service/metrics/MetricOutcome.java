@@ -0,0 +1,56 @@
+package ru.dreadblade.czarbank.service.metrics;
+
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.exceptions.TokenExpiredException;
+import ru.dreadblade.czarbank.exception.CzarBankException;
+import ru.dreadblade.czarbank.exception.ExceptionMessage;
+
+import java.util.Locale;
+
+/**
+ * Values of the outcome tag of the timers. The outcome of a failure is derived from its {@link ExceptionMessage},
+ * so the number of the tag values stays bounded
+ */
+public final class MetricOutcome {
+    public static final String TAG = "outcome";
+
+    public static final String SUCCESS = "success";
+    public static final String INSUFFICIENT_BALANCE = "insufficient_balance";
+    public static final String NOT_FOUND = "not_found";
+    public static final String TOKEN_EXPIRED = "token_expired";
+    public static final String INVALID_TOKEN = "invalid_token";
+    public static final String ERROR = "error";
+
+    private MetricOutcome() {
+    }
+
+    public static String of(Throwable failure) {
+        if (failure == null) {
+            return SUCCESS;
+        }
+
+        if (failure instanceof TokenExpiredException) {
+            return TOKEN_EXPIRED;
+        }
+
+        if (failure instanceof JWTVerificationException) {
+            return INVALID_TOKEN;
+        }
+
+        if (!(failure instanceof CzarBankException czarBankException) || czarBankException.getExceptionMessage() == null) {
+            return ERROR;
+        }
+
+        ExceptionMessage exceptionMessage = czarBankException.getExceptionMessage();
+
+        if (exceptionMessage == ExceptionMessage.NOT_ENOUGH_BALANCE) {
+            return INSUFFICIENT_BALANCE;
+        }
+
+        if (exceptionMessage.name().endsWith("_NOT_FOUND") || exceptionMessage.name().endsWith("_DOESNT_EXIST")) {
+            return NOT_FOUND;
+        }
+
+        return exceptionMessage.name().toLowerCase(Locale.ROOT);
+    }
+}
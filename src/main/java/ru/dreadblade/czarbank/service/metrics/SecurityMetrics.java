@@ -0,0 +1,66 @@
+package ru.dreadblade.czarbank.service.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timers of the access token authentication and counters of the lookups of revoked access tokens
+ */
+@Component
+public class SecurityMetrics {
+    private static final String AUTHENTICATIONS_TIMER_NAME = "czarbank.access-tokens.authentications";
+    private static final String REVOCATION_LOOKUPS_COUNTER_NAME = "czarbank.access-tokens.revocation.lookups";
+    private static final String RESULT_TAG = "result";
+
+    private final MeterRegistry meterRegistry;
+    private final Timer successfulAuthentications;
+
+    /**
+     * The Bloom filter answered that the token was not revoked, the database was not asked
+     */
+    private final Counter filteredLookups;
+    private final Counter revokedLookups;
+    private final Counter falsePositiveLookups;
+
+    public SecurityMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.successfulAuthentications = authenticationsTimer(MetricOutcome.SUCCESS);
+        this.filteredLookups = revocationLookupsCounter("filtered");
+        this.revokedLookups = revocationLookupsCounter("revoked");
+        this.falsePositiveLookups = revocationLookupsCounter("false_positive");
+    }
+
+    public void recordAuthentication(long nanos) {
+        successfulAuthentications.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordFailedAuthentication(long nanos, Throwable failure) {
+        authenticationsTimer(MetricOutcome.of(failure)).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordFilteredRevocationLookup() {
+        filteredLookups.increment();
+    }
+
+    public void recordRevocationLookup(boolean isRevoked) {
+        (isRevoked ? revokedLookups : falsePositiveLookups).increment();
+    }
+
+    private Timer authenticationsTimer(String outcome) {
+        return Timer.builder(AUTHENTICATIONS_TIMER_NAME)
+                .description("Verification of the access tokens of the requests and resolution of their users")
+                .tag(MetricOutcome.TAG, outcome)
+                .register(meterRegistry);
+    }
+
+    private Counter revocationLookupsCounter(String result) {
+        return Counter.builder(REVOCATION_LOOKUPS_COUNTER_NAME)
+                .description("Checks whether an access token was revoked")
+                .tag(RESULT_TAG, result)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,43 @@
+package ru.dreadblade.czarbank.service.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+import ru.dreadblade.czarbank.service.task.Task;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timers of the scheduled and startup tasks, tagged by the class of the task and the outcome of the run
+ */
+@Component
+public class TaskMetrics {
+    private static final String TASKS_TIMER_NAME = "czarbank.tasks";
+
+    private final MeterRegistry meterRegistry;
+
+    public TaskMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void record(Task task, Runnable run) {
+        long startedAt = System.nanoTime();
+        String outcome = MetricOutcome.SUCCESS;
+
+        try {
+            run.run();
+        } catch (RuntimeException e) {
+            outcome = MetricOutcome.of(e);
+
+            throw e;
+        } finally {
+            Timer.builder(TASKS_TIMER_NAME)
+                    .description("Runs of the scheduled and startup tasks")
+                    .tag("task", ClassUtils.getUserClass(task).getSimpleName())
+                    .tag(MetricOutcome.TAG, outcome)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package ru.dreadblade.czarbank.service.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Throughput and lock contention counters of the transfer engine. The latency of the transfers is published
+ * as the czarbank.transfers timer tagged by the outcome, the counters are published as function meters
+ */
+@Component
+public class TransferMetrics {
+    private static final String TRANSFERS_TIMER_NAME = "czarbank.transfers";
+
+    private final MeterRegistry meterRegistry;
+    private final Timer successfulTransfers;
+
+    private final LongAdder completedTransfers = new LongAdder();
+    private final LongAdder failedTransfers = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder lockAcquisitions = new LongAdder();
+    private final LongAdder lockWaitNanos = new LongAdder();
+    private final LongAccumulator maxLockWaitNanos = new LongAccumulator(Long::max, 0L);
+
+    public TransferMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.successfulTransfers = transfersTimer(MetricOutcome.SUCCESS);
+
+        FunctionCounter.builder("czarbank.transfers.retries", retries, LongAdder::sum)
+                .description("Transfers retried after a concurrent update")
+                .register(meterRegistry);
+
+        FunctionTimer.builder("czarbank.transfers.lock.wait", this, TransferMetrics::getLockAcquisitions,
+                        TransferMetrics::getLockWaitNanos, TimeUnit.NANOSECONDS)
+                .description("Time spent waiting for the locks of the bank accounts")
+                .register(meterRegistry);
+
+        Gauge.builder("czarbank.transfers.lock.wait.max", maxLockWaitNanos, max -> max.get() / 1_000_000_000.0)
+                .description("Longest wait for the locks of the bank accounts since the start")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    public void recordCompletedTransfer(long nanos) {
+        completedTransfers.increment();
+        successfulTransfers.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordFailedTransfer(long nanos, Throwable failure) {
+        failedTransfers.increment();
+        transfersTimer(MetricOutcome.of(failure)).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordRetry() {
+        retries.increment();
+    }
+
+    public void recordLockWait(long nanos) {
+        lockAcquisitions.increment();
+        lockWaitNanos.add(nanos);
+        maxLockWaitNanos.accumulate(nanos);
+    }
+
+    public long getCompletedTransfers() {
+        return completedTransfers.sum();
+    }
+
+    public long getFailedTransfers() {
+        return failedTransfers.sum();
+    }
+
+    public long getRetries() {
+        return retries.sum();
+    }
+
+    public long getLockAcquisitions() {
+        return lockAcquisitions.sum();
+    }
+
+    public long getLockWaitNanos() {
+        return lockWaitNanos.sum();
+    }
+
+    public long getMaxLockWaitNanos() {
+        return maxLockWaitNanos.get();
+    }
+
+    private Timer transfersTimer(String outcome) {
+        return Timer.builder(TRANSFERS_TIMER_NAME)
+                .description("Transfers created through TransactionService.createTransaction")
+                .tag(MetricOutcome.TAG, outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
@@ -10,24 +10,22 @@ import ru.dreadblade.czarbank.domain.security.User;
 import ru.dreadblade.czarbank.exception.CzarBankSecurityException;
 import ru.dreadblade.czarbank.exception.ExceptionMessage;
 import ru.dreadblade.czarbank.repository.security.UserRepository;
-import ru.dreadblade.czarbank.service.email.MailService;
+import ru.dreadblade.czarbank.security.service.PrincipalCacheService;
+import ru.dreadblade.czarbank.service.email.EmailTemplate;
+import ru.dreadblade.czarbank.service.email.MailOutboxService;
+import ru.dreadblade.czarbank.service.email.VerificationEmail;
 import ru.dreadblade.czarbank.service.freemarker.FreemarkerTemplateService;
 
 import java.time.Instant;
-import java.util.HashMap;
-import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
 public class AccountManagementService {
-    private static final String VERIFICATION_EMAIL_SUBJECT = "czar-bank account verification";
-    private static final String VERIFICATION_EMAIL_SUPPORT_EMAIL_ADDRESS = "support@czarbank.org";
-    private static final String VERIFICATION_EMAIL_TEMPLATE_FILENAME = "verification-email-message.ftlh";
-
     private final UserRepository userRepository;
     private final EmailVerificationTokenService emailVerificationTokenService;
-    private final MailService mailService;
+    private final MailOutboxService mailOutboxService;
     private final FreemarkerTemplateService templateService;
+    private final PrincipalCacheService principalCacheService;
 
     @Value("${czar-bank.security.email-verification-token.expiration-seconds:86400}")
     private Long emailVerificationTokenExpirationSeconds;
@@ -50,14 +48,12 @@ public class AccountManagementService {
                     .replacePath("/api/account-management/verify-email/")
                     .toUriString() + emailVerificationToken.getEmailVerificationToken();
 
-            Map<String, Object> templateModel = new HashMap<>();
-            templateModel.put("username", userToVerify.getUsername());
-            templateModel.put("emailVerificationUrl", emailVerificationUrl);
-            templateModel.put("supportEmailAddress", VERIFICATION_EMAIL_SUPPORT_EMAIL_ADDRESS);
-
-            String emailMessageContent = templateService.getProcessedFreemarkerTemplate(VERIFICATION_EMAIL_TEMPLATE_FILENAME, templateModel);
+            String emailMessageContent = templateService.render(EmailTemplate.VERIFICATION, VerificationEmail.builder()
+                    .username(userToVerify.getUsername())
+                    .emailVerificationUrl(emailVerificationUrl)
+                    .build());
 
-            mailService.sendHtmlMail(userToVerify.getEmail(), VERIFICATION_EMAIL_SUBJECT, emailMessageContent);
+            mailOutboxService.enqueue(userToVerify.getEmail(), EmailTemplate.VERIFICATION.getSubject(), emailMessageContent);
 
             throw new CzarBankSecurityException(ExceptionMessage.EMAIL_VERIFICATION_TOKEN_EXPIRED);
         }
@@ -66,5 +62,7 @@ public class AccountManagementService {
         userToVerify.setEmailVerified(true);
 
         userRepository.save(userToVerify);
+
+        principalCacheService.invalidateUser(userToVerify.getId());
     }
 }
@@ -7,6 +7,8 @@ import ru.dreadblade.czarbank.domain.security.Role;
 import ru.dreadblade.czarbank.exception.*;
 import ru.dreadblade.czarbank.repository.security.PermissionRepository;
 import ru.dreadblade.czarbank.repository.security.RoleRepository;
+import ru.dreadblade.czarbank.security.service.AuthoritySetService;
+import ru.dreadblade.czarbank.security.service.PrincipalCacheService;
 
 import java.util.List;
 import java.util.Set;
@@ -16,11 +18,16 @@ import java.util.stream.Collectors;
 public class RoleService {
     private final RoleRepository roleRepository;
     private final PermissionRepository permissionRepository;
+    private final PrincipalCacheService principalCacheService;
+    private final AuthoritySetService authoritySetService;
 
     @Autowired
-    public RoleService(RoleRepository roleRepository, PermissionRepository permissionRepository) {
+    public RoleService(RoleRepository roleRepository, PermissionRepository permissionRepository,
+                       PrincipalCacheService principalCacheService, AuthoritySetService authoritySetService) {
         this.roleRepository = roleRepository;
         this.permissionRepository = permissionRepository;
+        this.principalCacheService = principalCacheService;
+        this.authoritySetService = authoritySetService;
     }
 
     public List<Role> findAll() {
@@ -70,7 +77,12 @@ public class RoleService {
             roleToUpdate.setPermissions(existingPermissions);
         }
 
-        return roleRepository.save(roleToUpdate);
+        Role savedRole = roleRepository.save(roleToUpdate);
+
+        authoritySetService.invalidateAll();
+        principalCacheService.invalidateAll();
+
+        return savedRole;
     }
 
     public void deleteRoleById(Long roleId) {
@@ -79,6 +91,9 @@ public class RoleService {
         }
 
         roleRepository.deleteById(roleId);
+
+        authoritySetService.invalidateAll();
+        principalCacheService.invalidateAll();
     }
 
     private Set<Permission> filterAndFindPermissionsFromDb(Set<Permission> permissions) {
@@ -10,10 +10,12 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.dreadblade.czarbank.domain.security.RecoveryCode;
 import ru.dreadblade.czarbank.domain.security.User;
+import ru.dreadblade.czarbank.exception.CzarBankException;
 import ru.dreadblade.czarbank.exception.CzarBankSecurityException;
 import ru.dreadblade.czarbank.exception.ExceptionMessage;
 import ru.dreadblade.czarbank.repository.security.RecoveryCodeRepository;
 import ru.dreadblade.czarbank.repository.security.UserRepository;
+import ru.dreadblade.czarbank.security.service.PrincipalCacheService;
 import ru.dreadblade.czarbank.security.service.TotpService;
 
 import java.util.Arrays;
@@ -35,11 +37,14 @@ public class TwoFactorAuthenticationService {
     private final UserRepository userRepository;
     private final RecoveryCodeGenerator recoveryCodeGenerator;
     private final RecoveryCodeRepository recoveryCodeRepository;
+    private final PrincipalCacheService principalCacheService;
 
     @Value("${czar-bank.security.two-factor-authentication.recovery-codes.amount}")
     private int recoveryCodesAmount;
 
-    public byte[] generateQrCodeImageForUser(User user) {
+    public byte[] generateQrCodeImageForUser(User principal) {
+        User user = findManagedUser(principal);
+
         if (user.isTwoFactorAuthenticationEnabled()) {
             throw new CzarBankSecurityException(TWO_FACTOR_AUTHENTICATION_ALREADY_SETUP);
         }
@@ -48,6 +53,7 @@ public class TwoFactorAuthenticationService {
         user.setTwoFactorAuthenticationSecretKey(secretKey);
 
         userRepository.save(user);
+        principalCacheService.invalidateUser(user.getId());
 
         return totpService.generateQrCodeImage(secretKey, user.getEmail(), "CzarBank");
     }
@@ -56,7 +62,9 @@ public class TwoFactorAuthenticationService {
         return totpService.getQrCodeImageMediaType();
     }
 
-    public List<String> verifyTwoFactorAuthentication(String code, User user) {
+    public List<String> verifyTwoFactorAuthentication(String code, User principal) {
+        User user = findManagedUser(principal);
+
         if (user.isTwoFactorAuthenticationEnabled()) {
             throw new CzarBankSecurityException(TWO_FACTOR_AUTHENTICATION_ALREADY_SETUP);
         }
@@ -73,6 +81,7 @@ public class TwoFactorAuthenticationService {
 
         user.setTwoFactorAuthenticationEnabled(true);
         userRepository.save(user);
+        principalCacheService.invalidateUser(user.getId());
 
         return generateRecoveryCodesForUser(user);
     }
@@ -92,7 +101,9 @@ public class TwoFactorAuthenticationService {
     }
 
     @Transactional
-    public void disableTwoFactorAuthentication(String code, User user) {
+    public void disableTwoFactorAuthentication(String code, User principal) {
+        User user = findManagedUser(principal);
+
         if (!user.isTwoFactorAuthenticationEnabled()) {
             throw new CzarBankSecurityException(SETUP_TWO_FACTOR_AUTHENTICATION);
         }
@@ -112,12 +123,22 @@ public class TwoFactorAuthenticationService {
         }
     }
 
+    /**
+     * The principal may be the cached instance shared by the concurrent requests of the user, so it is never changed,
+     * the changes go to a copy read from the database and the cached principal is invalidated afterwards
+     */
+    private User findManagedUser(User principal) {
+        return userRepository.findById(principal.getId()).orElseThrow(() ->
+                new CzarBankException(ExceptionMessage.USER_NOT_FOUND));
+    }
+
     private void disableTwoFactorAuthenticationForUser(User user) {
         user.setTwoFactorAuthenticationEnabled(false);
         user.setTwoFactorAuthenticationSecretKey(null);
         recoveryCodeRepository.deleteAllByUser(user);
 
         userRepository.save(user);
+        principalCacheService.invalidateUser(user.getId());
     }
 
     private List<String> generateRecoveryCodesForUser(User user) {
@@ -6,15 +6,23 @@ import org.apache.commons.lang3.RandomStringUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import ru.dreadblade.czarbank.domain.BankAccount;
 import ru.dreadblade.czarbank.domain.security.EmailVerificationToken;
 import ru.dreadblade.czarbank.domain.security.Role;
 import ru.dreadblade.czarbank.domain.security.User;
 import ru.dreadblade.czarbank.exception.CzarBankException;
 import ru.dreadblade.czarbank.exception.ExceptionMessage;
+import ru.dreadblade.czarbank.repository.BankAccountRepository;
 import ru.dreadblade.czarbank.repository.security.RoleRepository;
 import ru.dreadblade.czarbank.repository.security.UserRepository;
-import ru.dreadblade.czarbank.service.email.MailService;
+import ru.dreadblade.czarbank.security.service.PrincipalCacheService;
+import ru.dreadblade.czarbank.service.BankAccountOwnerIndex;
+import ru.dreadblade.czarbank.service.cache.RequestEntityMemo;
+import ru.dreadblade.czarbank.service.email.EmailTemplate;
+import ru.dreadblade.czarbank.service.email.MailOutboxService;
+import ru.dreadblade.czarbank.service.email.VerificationEmail;
 import ru.dreadblade.czarbank.service.freemarker.FreemarkerTemplateService;
 
 import java.util.*;
@@ -23,16 +31,16 @@ import java.util.stream.Collectors;
 @Service
 @RequiredArgsConstructor
 public class UserService {
-    private static final String VERIFICATION_EMAIL_SUBJECT = "czar-bank account verification";
-    private static final String VERIFICATION_EMAIL_SUPPORT_EMAIL_ADDRESS = "support@czarbank.org";
-    private static final String VERIFICATION_EMAIL_TEMPLATE_FILENAME = "verification-email-message.ftlh";
-
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
     private final EmailVerificationTokenService emailVerificationTokenService;
     private final PasswordEncoder passwordEncoder;
-    private final MailService mailService;
+    private final MailOutboxService mailOutboxService;
     private final FreemarkerTemplateService templateService;
+    private final PrincipalCacheService principalCacheService;
+    private final BankAccountRepository bankAccountRepository;
+    private final BankAccountOwnerIndex bankAccountOwnerIndex;
+    private final RequestEntityMemo requestEntityMemo;
 
     public List<User> findAll() {
         return userRepository.findAll();
@@ -42,7 +50,11 @@ public class UserService {
         return userRepository.findById(userId).orElseThrow(() -> new CzarBankException(ExceptionMessage.USER_NOT_FOUND));
     }
 
+    /**
+     * Creates the user and enqueues the verification email in the same transaction
+     */
     @SneakyThrows
+    @Transactional(rollbackFor = Exception.class)
     public User createUser(User userToCreate, User currentUser) {
         if (userRepository.existsByUsername(userToCreate.getUsername())) {
             throw new CzarBankException(ExceptionMessage.USERNAME_ALREADY_EXISTS);
@@ -80,14 +92,12 @@ public class UserService {
                 .replacePath("/api/account-management/verify-email/")
                 .toUriString() + emailVerificationToken.getEmailVerificationToken();
 
-        Map<String, Object> templateModel = new HashMap<>();
-        templateModel.put("username", user.getUsername());
-        templateModel.put("emailVerificationUrl", emailVerificationUrl);
-        templateModel.put("supportEmailAddress", VERIFICATION_EMAIL_SUPPORT_EMAIL_ADDRESS);
-
-        String emailMessageContent = templateService.getProcessedFreemarkerTemplate(VERIFICATION_EMAIL_TEMPLATE_FILENAME, templateModel);
+        String emailMessageContent = templateService.render(EmailTemplate.VERIFICATION, VerificationEmail.builder()
+                .username(user.getUsername())
+                .emailVerificationUrl(emailVerificationUrl)
+                .build());
 
-        mailService.sendHtmlMail(user.getEmail(), VERIFICATION_EMAIL_SUBJECT, emailMessageContent);
+        mailOutboxService.enqueue(user.getEmail(), EmailTemplate.VERIFICATION.getSubject(), emailMessageContent);
 
         return user;
     }
@@ -130,14 +140,34 @@ public class UserService {
             userToUpdate.setRoles(roles);
         }
 
-        return userRepository.save(userToUpdate);
+        User savedUser = userRepository.save(userToUpdate);
+
+        principalCacheService.invalidateUser(userId);
+
+        return savedUser;
     }
 
+    /**
+     * Closes the accounts of the user and detaches them from the user before deleting it, the accounts would otherwise
+     * be deleted together with the user, which their ledger entries and transactions don't allow
+     */
+    @Transactional
     public void deleteUserById(Long userId) {
         if (!userRepository.existsById(userId)) {
             throw new CzarBankException(ExceptionMessage.USER_NOT_FOUND);
         }
 
+        for (BankAccount bankAccount : bankAccountRepository.findAllIncludingClosedByOwnerId(userId)) {
+            bankAccount.setIsClosed(true);
+            bankAccount.setOwner(null);
+            bankAccountOwnerIndex.evict(bankAccount);
+        }
+
+        bankAccountRepository.flush();
+        requestEntityMemo.evictAll(BankAccount.class);
+
         userRepository.deleteById(userId);
+
+        principalCacheService.invalidateUser(userId);
     }
 }
@@ -0,0 +1,67 @@
+package ru.dreadblade.czarbank.service.snapshot;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * Open, high, low, close and average exchange rates of a currency over an interval of days (both ends inclusive)
+ */
+@Getter
+@Builder
+@AllArgsConstructor
+public class ExchangeRateAggregate {
+    private final Long currencyId;
+    private final LocalDate startDate;
+    private final LocalDate endDate;
+    private final BigDecimal open;
+    private final BigDecimal high;
+    private final BigDecimal low;
+    private final BigDecimal close;
+    private final BigDecimal average;
+
+    public enum Interval {
+        WEEK {
+            @Override
+            LocalDate getStartOfInterval(LocalDate date) {
+                return date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            }
+
+            @Override
+            LocalDate getStartOfNextInterval(LocalDate date) {
+                return getStartOfInterval(date).plusWeeks(1);
+            }
+        },
+        MONTH {
+            @Override
+            LocalDate getStartOfInterval(LocalDate date) {
+                return date.withDayOfMonth(1);
+            }
+
+            @Override
+            LocalDate getStartOfNextInterval(LocalDate date) {
+                return getStartOfInterval(date).plusMonths(1);
+            }
+        },
+        QUARTER {
+            @Override
+            LocalDate getStartOfInterval(LocalDate date) {
+                return LocalDate.of(date.getYear(), (date.getMonthValue() - 1) / 3 * 3 + 1, 1);
+            }
+
+            @Override
+            LocalDate getStartOfNextInterval(LocalDate date) {
+                return getStartOfInterval(date).plusMonths(3);
+            }
+        };
+
+        abstract LocalDate getStartOfInterval(LocalDate date);
+
+        abstract LocalDate getStartOfNextInterval(LocalDate date);
+    }
+}
@@ -0,0 +1,227 @@
+package ru.dreadblade.czarbank.service.snapshot;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Immutable columnar view of the exchange rates history (against the Russian Ruble). Every currency has a single
+ * array of rates scaled to {@link #RATE_SCALE} and indexed by the day since the first day of its history,
+ * so a range of days is a slice of that array. Updates produce a new history and leave this one untouched
+ */
+public class ExchangeRateHistory {
+    public static final ExchangeRateHistory EMPTY = new ExchangeRateHistory(0L, Map.of());
+
+    /**
+     * Scale of the exchange_rate column
+     */
+    public static final int RATE_SCALE = 2;
+
+    static final long MISSING_RATE = Long.MIN_VALUE;
+
+    private final long version;
+    private final SortedMap<Long, Column> columnsByCurrencyId;
+    private final long latestEpochDay;
+    private final long contentHash;
+
+    private ExchangeRateHistory(long version, Map<Long, Column> columnsByCurrencyId) {
+        this.version = version;
+        this.columnsByCurrencyId = Collections.unmodifiableSortedMap(new TreeMap<>(columnsByCurrencyId));
+        this.latestEpochDay = columnsByCurrencyId.values().stream()
+                .mapToLong(Column::getLastEpochDay)
+                .max()
+                .orElse(Long.MIN_VALUE);
+        this.contentHash = hashContent(this.columnsByCurrencyId);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Hash of the currencies and their rates, the same on every instance that has loaded the same rates
+     */
+    public long getContentHash() {
+        return contentHash;
+    }
+
+    public boolean isEmpty() {
+        return columnsByCurrencyId.isEmpty();
+    }
+
+    public int getCurrenciesCount() {
+        return columnsByCurrencyId.size();
+    }
+
+    public Optional<LocalDate> getLatestDate() {
+        return isEmpty() ? Optional.empty() : Optional.of(LocalDate.ofEpochDay(latestEpochDay));
+    }
+
+    /**
+     * Returns the series of the currencies that have a rate for every day between the start and end dates (both inclusive)
+     */
+    public List<ExchangeRateSeries> findAllCoveringRange(LocalDate startDate, LocalDate endDate) {
+        long startEpochDay = startDate.toEpochDay();
+        long endEpochDay = endDate.toEpochDay();
+
+        if (endEpochDay < startEpochDay) {
+            return List.of();
+        }
+
+        List<ExchangeRateSeries> result = new ArrayList<>(columnsByCurrencyId.size());
+
+        columnsByCurrencyId.forEach((currencyId, column) -> {
+            if (column.covers(startEpochDay, endEpochDay)) {
+                result.add(new ExchangeRateSeries(currencyId, startDate, column.scaledRates,
+                        (int) (startEpochDay - column.firstEpochDay), (int) (endEpochDay - startEpochDay + 1)));
+            }
+        });
+
+        return result;
+    }
+
+    /**
+     * Returns a history with the rates of the given currency set at the given days, replacing the existing ones
+     */
+    public ExchangeRateHistory withRates(Long currencyId, Map<LocalDate, BigDecimal> ratesByDate) {
+        if (ratesByDate.isEmpty()) {
+            return this;
+        }
+
+        Map<Long, Column> updatedColumns = new HashMap<>(columnsByCurrencyId);
+        Column column = columnsByCurrencyId.get(currencyId);
+
+        long firstEpochDay = ratesByDate.keySet().stream().mapToLong(LocalDate::toEpochDay).min().orElseThrow();
+        long lastEpochDay = ratesByDate.keySet().stream().mapToLong(LocalDate::toEpochDay).max().orElseThrow();
+
+        if (column != null) {
+            firstEpochDay = Math.min(firstEpochDay, column.firstEpochDay);
+            lastEpochDay = Math.max(lastEpochDay, column.getLastEpochDay());
+        }
+
+        long[] scaledRates = new long[Math.toIntExact(lastEpochDay - firstEpochDay + 1)];
+        Arrays.fill(scaledRates, MISSING_RATE);
+
+        if (column != null) {
+            System.arraycopy(column.scaledRates, 0, scaledRates, (int) (column.firstEpochDay - firstEpochDay),
+                    column.scaledRates.length);
+        }
+
+        for (Map.Entry<LocalDate, BigDecimal> rateByDate : ratesByDate.entrySet()) {
+            scaledRates[(int) (rateByDate.getKey().toEpochDay() - firstEpochDay)] = toScaledRate(rateByDate.getValue());
+        }
+
+        updatedColumns.put(currencyId, new Column(firstEpochDay, scaledRates));
+
+        return new ExchangeRateHistory(version + 1L, updatedColumns);
+    }
+
+    private static long hashContent(SortedMap<Long, Column> columnsByCurrencyId) {
+        long hash = 1L;
+
+        for (Map.Entry<Long, Column> columnByCurrencyId : columnsByCurrencyId.entrySet()) {
+            Column column = columnByCurrencyId.getValue();
+
+            hash = 31L * hash + columnByCurrencyId.getKey();
+            hash = 31L * hash + column.firstEpochDay;
+
+            for (long scaledRate : column.scaledRates) {
+                hash = 31L * hash + scaledRate;
+            }
+        }
+
+        return hash;
+    }
+
+    /**
+     * Rounds the rate the same way as the numeric exchange_rate column does
+     */
+    public static long toScaledRate(BigDecimal rate) {
+        return rate.setScale(RATE_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Builds the history from the rates of a single pass over the rows, the rows of a currency must go in the
+     * ascending order of their days
+     */
+    public static class Builder {
+        private final Map<Long, Column> columnsByCurrencyId = new HashMap<>();
+
+        private Long currencyId;
+        private long firstEpochDay;
+        private long[] scaledRates;
+        private int size;
+
+        public Builder add(long currencyId, long epochDay, long scaledRate) {
+            if (this.currencyId == null || this.currencyId != currencyId) {
+                completeColumn();
+
+                this.currencyId = currencyId;
+                this.firstEpochDay = epochDay;
+                this.scaledRates = new long[1024];
+                this.size = 0;
+            }
+
+            int index = Math.toIntExact(epochDay - firstEpochDay);
+
+            if (index < size) {
+                throw new IllegalArgumentException("Exchange rates must go in the ascending order of their days");
+            }
+
+            if (index >= scaledRates.length) {
+                scaledRates = Arrays.copyOf(scaledRates, Math.max(scaledRates.length * 2, index + 1));
+            }
+
+            Arrays.fill(scaledRates, size, index, MISSING_RATE);
+            scaledRates[index] = scaledRate;
+            size = index + 1;
+
+            return this;
+        }
+
+        public ExchangeRateHistory build() {
+            return build(1L);
+        }
+
+        public ExchangeRateHistory build(long version) {
+            completeColumn();
+
+            return new ExchangeRateHistory(version, columnsByCurrencyId);
+        }
+
+        private void completeColumn() {
+            if (currencyId != null) {
+                columnsByCurrencyId.put(currencyId, new Column(firstEpochDay, Arrays.copyOf(scaledRates, size)));
+            }
+        }
+    }
+
+    private static class Column {
+        private final long firstEpochDay;
+        private final long[] scaledRates;
+
+        Column(long firstEpochDay, long[] scaledRates) {
+            this.firstEpochDay = firstEpochDay;
+            this.scaledRates = scaledRates;
+        }
+
+        long getLastEpochDay() {
+            return firstEpochDay + scaledRates.length - 1;
+        }
+
+        boolean covers(long startEpochDay, long endEpochDay) {
+            if (startEpochDay < firstEpochDay || endEpochDay > getLastEpochDay()) {
+                return false;
+            }
+
+            for (int i = (int) (startEpochDay - firstEpochDay), end = (int) (endEpochDay - firstEpochDay); i <= end; i++) {
+                if (scaledRates[i] == MISSING_RATE) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+    }
+}
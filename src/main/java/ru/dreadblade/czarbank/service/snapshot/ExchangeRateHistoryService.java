@@ -0,0 +1,104 @@
+package ru.dreadblade.czarbank.service.snapshot;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import ru.dreadblade.czarbank.domain.ExchangeRate;
+import ru.dreadblade.czarbank.service.cache.SerializedResponseCache;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * Holds the whole exchange rates history in memory as {@link ExchangeRateHistory}, so the rate queries are served
+ * as array slices. The history is loaded with {@link #reload()} and kept up to date by {@link #append(Collection)}
+ * whenever new rates are written
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ExchangeRateHistoryService {
+    private static final String SELECT_ALL_SCALED_RATES_QUERY = "select currency_id, date - date '1970-01-01' as epoch_day, " +
+            "cast(round(exchange_rate * 100) as bigint) as scaled_rate from exchange_rate order by currency_id, date";
+    private static final String COUNT_CURRENCIES_QUERY = "select count(*) from currency";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SerializedResponseCache serializedResponseCache;
+
+    private final AtomicReference<ExchangeRateHistory> history = new AtomicReference<>();
+
+    /**
+     * Number of currencies in the database when the history was last reloaded
+     */
+    private volatile long loadedCurrenciesCount = -1L;
+
+    public ExchangeRateHistory getHistory() {
+        ExchangeRateHistory currentHistory = history.get();
+
+        if (currentHistory == null) {
+            return reload();
+        }
+
+        return currentHistory;
+    }
+
+    /**
+     * Reloads the history if currencies have been created or deleted since the last reload, possibly by another
+     * instance which has only appended to its own history
+     */
+    public void reloadIfCurrenciesChanged() {
+        if (countCurrencies() != loadedCurrenciesCount) {
+            reload();
+        }
+    }
+
+    public synchronized ExchangeRateHistory reload() {
+        ExchangeRateHistory.Builder builder = new ExchangeRateHistory.Builder();
+        long currenciesCount = countCurrencies();
+
+        RowCallbackHandler rowHandler = rs -> builder.add(rs.getLong(1), rs.getLong(2), rs.getLong(3));
+        jdbcTemplate.query(SELECT_ALL_SCALED_RATES_QUERY, rowHandler);
+
+        ExchangeRateHistory currentHistory = history.get();
+        ExchangeRateHistory loadedHistory = builder.build(currentHistory == null ? 1L : currentHistory.getVersion() + 1L);
+        history.set(loadedHistory);
+        loadedCurrenciesCount = currenciesCount;
+        serializedResponseCache.invalidate(SerializedResponseCache.Name.LATEST_EXCHANGE_RATES);
+
+        log.debug("Exchange rates history loaded ({} currencies, latest date {})", loadedHistory.getCurrenciesCount(),
+                loadedHistory.getLatestDate().orElse(null));
+
+        return loadedHistory;
+    }
+
+    public synchronized void append(Collection<ExchangeRate> exchangeRates) {
+        ExchangeRateHistory currentHistory = history.get();
+
+        if (currentHistory == null) {
+            reload();
+            return;
+        }
+
+        Map<Long, Map<LocalDate, BigDecimal>> ratesByCurrencyId = exchangeRates.stream()
+                .collect(Collectors.groupingBy(exchangeRate -> exchangeRate.getCurrency().getId(),
+                        Collectors.toMap(ExchangeRate::getDate, ExchangeRate::getExchangeRate, (first, second) -> second)));
+
+        for (Map.Entry<Long, Map<LocalDate, BigDecimal>> rates : ratesByCurrencyId.entrySet()) {
+            currentHistory = currentHistory.withRates(rates.getKey(), rates.getValue());
+        }
+
+        history.set(currentHistory);
+        serializedResponseCache.invalidate(SerializedResponseCache.Name.LATEST_EXCHANGE_RATES);
+    }
+
+    private long countCurrencies() {
+        Long currenciesCount = jdbcTemplate.queryForObject(COUNT_CURRENCIES_QUERY, Long.class);
+
+        return currenciesCount == null ? 0L : currenciesCount;
+    }
+}
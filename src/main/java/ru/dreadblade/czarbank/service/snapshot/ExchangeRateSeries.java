@@ -0,0 +1,96 @@
+package ru.dreadblade.czarbank.service.snapshot;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Consecutive daily exchange rates of a currency starting at the start date, backed by a slice of the rate history
+ */
+@Getter
+public class ExchangeRateSeries {
+    private final Long currencyId;
+    private final LocalDate startDate;
+
+    @Getter(AccessLevel.NONE)
+    private final long[] scaledRates;
+
+    @Getter(AccessLevel.NONE)
+    private final int offset;
+
+    private final int size;
+
+    ExchangeRateSeries(Long currencyId, LocalDate startDate, long[] scaledRates, int offset, int size) {
+        this.currencyId = currencyId;
+        this.startDate = startDate;
+        this.scaledRates = scaledRates;
+        this.offset = offset;
+        this.size = size;
+    }
+
+    public LocalDate getDate(int index) {
+        return startDate.plusDays(index);
+    }
+
+    public BigDecimal getExchangeRate(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+
+        return BigDecimal.valueOf(scaledRates[offset + index], ExchangeRateHistory.RATE_SCALE);
+    }
+
+    /**
+     * Splits the series by the interval and aggregates every part, the first and the last parts are cut
+     * to the days of the series
+     */
+    public List<ExchangeRateAggregate> aggregate(ExchangeRateAggregate.Interval interval) {
+        List<ExchangeRateAggregate> aggregates = new ArrayList<>();
+        LocalDate endDate = getDate(size - 1);
+        LocalDate intervalStartDate = startDate;
+        int intervalStartIndex = 0;
+
+        while (intervalStartIndex < size) {
+            LocalDate nextIntervalStartDate = interval.getStartOfNextInterval(intervalStartDate);
+            LocalDate intervalEndDate = nextIntervalStartDate.isAfter(endDate) ? endDate : nextIntervalStartDate.minusDays(1);
+            int intervalEndIndex = intervalStartIndex + (int) ChronoUnit.DAYS.between(intervalStartDate, intervalEndDate);
+
+            long high = Long.MIN_VALUE;
+            long low = Long.MAX_VALUE;
+            long sum = 0;
+
+            for (int i = offset + intervalStartIndex; i <= offset + intervalEndIndex; i++) {
+                long scaledRate = scaledRates[i];
+
+                high = Math.max(high, scaledRate);
+                low = Math.min(low, scaledRate);
+                sum += scaledRate;
+            }
+
+            long count = intervalEndIndex - intervalStartIndex + 1L;
+
+            aggregates.add(ExchangeRateAggregate.builder()
+                    .currencyId(currencyId)
+                    .startDate(intervalStartDate)
+                    .endDate(intervalEndDate)
+                    .open(getExchangeRate(intervalStartIndex))
+                    .high(BigDecimal.valueOf(high, ExchangeRateHistory.RATE_SCALE))
+                    .low(BigDecimal.valueOf(low, ExchangeRateHistory.RATE_SCALE))
+                    .close(getExchangeRate(intervalEndIndex))
+                    .average(BigDecimal.valueOf(sum, ExchangeRateHistory.RATE_SCALE)
+                            .divide(BigDecimal.valueOf(count), ExchangeRateHistory.RATE_SCALE, RoundingMode.HALF_EVEN))
+                    .build());
+
+            intervalStartDate = nextIntervalStartDate;
+            intervalStartIndex = intervalEndIndex + 1;
+        }
+
+        return aggregates;
+    }
+}
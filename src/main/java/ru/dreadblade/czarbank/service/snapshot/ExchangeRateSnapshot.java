@@ -0,0 +1,53 @@
+package ru.dreadblade.czarbank.service.snapshot;
+
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Immutable view of the latest exchange rates (against the Russian Ruble), keyed by currency code
+ */
+@Getter
+public class ExchangeRateSnapshot {
+    public static final ExchangeRateSnapshot EMPTY = new ExchangeRateSnapshot(0L, null, Map.of());
+
+    private final long version;
+    private final LocalDate date;
+    private final Map<String, BigDecimal> ratesByCurrencyCode;
+
+    /**
+     * Hash of the date and the rates, the same on every instance that has loaded the same rates
+     */
+    private final long contentHash;
+
+    public ExchangeRateSnapshot(long version, LocalDate date, Map<String, BigDecimal> ratesByCurrencyCode) {
+        this.version = version;
+        this.date = date;
+        this.ratesByCurrencyCode = Map.copyOf(ratesByCurrencyCode);
+        this.contentHash = hashContent(date, new TreeMap<>(ratesByCurrencyCode));
+    }
+
+    public Optional<BigDecimal> findRate(String currencyCode) {
+        return Optional.ofNullable(ratesByCurrencyCode.get(currencyCode));
+    }
+
+    public boolean isEmpty() {
+        return ratesByCurrencyCode.isEmpty();
+    }
+
+    private static long hashContent(LocalDate date, SortedMap<String, BigDecimal> ratesByCurrencyCode) {
+        long hash = date == null ? 0L : date.toEpochDay();
+
+        for (Map.Entry<String, BigDecimal> rateByCurrencyCode : ratesByCurrencyCode.entrySet()) {
+            hash = 31L * hash + rateByCurrencyCode.getKey().hashCode();
+            hash = 31L * hash + rateByCurrencyCode.getValue().stripTrailingZeros().hashCode();
+        }
+
+        return hash;
+    }
+}
@@ -0,0 +1,97 @@
+package ru.dreadblade.czarbank.service.snapshot;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import ru.dreadblade.czarbank.domain.ExchangeRate;
+import ru.dreadblade.czarbank.repository.ExchangeRateRepository;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the latest exchange rates in memory, so currency exchange doesn't hit the database.
+ * The snapshot is replaced as a whole by {@link #refresh()} whenever new rates are written.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ExchangeRateSnapshotService {
+    private final ExchangeRateRepository exchangeRateRepository;
+
+    private final AtomicReference<ExchangeRateSnapshot> snapshot = new AtomicReference<>(ExchangeRateSnapshot.EMPTY);
+
+    /**
+     * Minimal time between the refreshes caused by a rate missing from the snapshot
+     */
+    @Value("${czar-bank.exchange-rate.snapshot.min-refresh-interval-seconds:10}")
+    private long minRefreshIntervalSeconds;
+
+    private volatile long refreshedAtNanos;
+
+    public ExchangeRateSnapshot getSnapshot() {
+        ExchangeRateSnapshot currentSnapshot = snapshot.get();
+
+        if (currentSnapshot.isEmpty()) {
+            return refreshOnMiss(currentSnapshot);
+        }
+
+        return currentSnapshot;
+    }
+
+    /**
+     * Refreshes the snapshot a rate was not found in, at most once per the minimal refresh interval, so the lookups
+     * of a currency that has no rate don't reload the rates on every request. Returns the current snapshot if it has
+     * already been replaced or the interval has not passed yet
+     */
+    public ExchangeRateSnapshot refreshOnMiss(ExchangeRateSnapshot missedSnapshot) {
+        ExchangeRateSnapshot currentSnapshot = snapshot.get();
+
+        if (currentSnapshot != missedSnapshot || isRefreshedRecently(currentSnapshot)) {
+            return currentSnapshot;
+        }
+
+        synchronized (this) {
+            currentSnapshot = snapshot.get();
+
+            if (currentSnapshot != missedSnapshot || isRefreshedRecently(currentSnapshot)) {
+                return currentSnapshot;
+            }
+
+            return refresh();
+        }
+    }
+
+    public synchronized ExchangeRateSnapshot refresh() {
+        List<ExchangeRate> latestExchangeRates = exchangeRateRepository.findAllLatest();
+
+        LocalDate date = null;
+        Map<String, BigDecimal> ratesByCurrencyCode = new HashMap<>();
+
+        for (ExchangeRate exchangeRate : latestExchangeRates) {
+            date = exchangeRate.getDate();
+            ratesByCurrencyCode.put(exchangeRate.getCurrency().getCode(), exchangeRate.getExchangeRate());
+        }
+
+        ExchangeRateSnapshot refreshedSnapshot = new ExchangeRateSnapshot(snapshot.get().getVersion() + 1L, date,
+                ratesByCurrencyCode);
+
+        snapshot.set(refreshedSnapshot);
+        refreshedAtNanos = System.nanoTime();
+
+        log.debug("Exchange rate snapshot refreshed (version {}, date {})", refreshedSnapshot.getVersion(), date);
+
+        return refreshedSnapshot;
+    }
+
+    private boolean isRefreshedRecently(ExchangeRateSnapshot currentSnapshot) {
+        return currentSnapshot != ExchangeRateSnapshot.EMPTY &&
+                System.nanoTime() - refreshedAtNanos < Duration.ofSeconds(minRefreshIntervalSeconds).toNanos();
+    }
+}
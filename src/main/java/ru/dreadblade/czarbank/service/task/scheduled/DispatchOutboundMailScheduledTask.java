@@ -0,0 +1,27 @@
+package ru.dreadblade.czarbank.service.task.scheduled;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.dreadblade.czarbank.service.email.MailOutboxService;
+import ru.dreadblade.czarbank.service.metrics.TaskMetrics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends the due mails of the outbox
+ */
+@Component
+@RequiredArgsConstructor
+public class DispatchOutboundMailScheduledTask implements ScheduledTask {
+    private final MailOutboxService mailOutboxService;
+    private final TaskMetrics taskMetrics;
+
+    @Scheduled(fixedDelayString = "#{${czar-bank.mail.outbox.dispatch-delay-seconds:1}}",
+            initialDelayString = "#{${czar-bank.mail.outbox.dispatch-delay-seconds:1}}",
+            timeUnit = TimeUnit.SECONDS)
+    @Override
+    public void run() {
+        taskMetrics.record(this, mailOutboxService::dispatchAll);
+    }
+}
@@ -0,0 +1,27 @@
+package ru.dreadblade.czarbank.service.task.scheduled;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.dreadblade.czarbank.service.BankAccountBalanceSlotService;
+import ru.dreadblade.czarbank.service.metrics.TaskMetrics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves the money credited to the balance slots of the hot bank accounts to their balances
+ */
+@Component
+@RequiredArgsConstructor
+public class FoldBalanceSlotsScheduledTask implements ScheduledTask {
+    private final BankAccountBalanceSlotService bankAccountBalanceSlotService;
+    private final TaskMetrics taskMetrics;
+
+    @Scheduled(fixedDelayString = "#{${czar-bank.bank-account.balance-slots.fold-delay-seconds:10}}",
+            initialDelayString = "#{${czar-bank.bank-account.balance-slots.fold-delay-seconds:10}}",
+            timeUnit = TimeUnit.SECONDS)
+    @Override
+    public void run() {
+        taskMetrics.record(this, bankAccountBalanceSlotService::foldAll);
+    }
+}
@@ -9,6 +9,9 @@ import ru.dreadblade.czarbank.domain.ExchangeRate;
 import ru.dreadblade.czarbank.repository.CurrencyRepository;
 import ru.dreadblade.czarbank.repository.ExchangeRateRepository;
 import ru.dreadblade.czarbank.service.external.CentralBankOfRussiaService;
+import ru.dreadblade.czarbank.service.metrics.TaskMetrics;
+import ru.dreadblade.czarbank.service.snapshot.ExchangeRateHistoryService;
+import ru.dreadblade.czarbank.service.snapshot.ExchangeRateSnapshotService;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
@@ -23,45 +26,55 @@ public class GetExchangeRatesFromCentralBankOfRussiaScheduledTask implements Sch
     private final CentralBankOfRussiaService centralBankOfRussiaService;
     private final ExchangeRateRepository exchangeRateRepository;
     private final CurrencyRepository currencyRepository;
+    private final ExchangeRateSnapshotService exchangeRateSnapshotService;
+    private final ExchangeRateHistoryService exchangeRateHistoryService;
+    private final TaskMetrics taskMetrics;
 
-    @Scheduled(cron = "@daily")
+    @Scheduled(cron = "${czar-bank.exchange-rate.update-cron:@daily}")
     @Override
     public void run() {
+        try {
+            taskMetrics.record(this, this::loadLatestExchangeRates);
+
+            log.info("Loading exchange rates from the API of the Central Bank of the Russian Federation has been successfully completed");
+        } catch (Exception e) {
+            log.error("Error when loading exchange rates from the API of the Central Bank of the Russian Federation");
+        }
+    }
+
+    private void loadLatestExchangeRates() {
         List<Currency> currencies = currencyRepository.findAll();
         LocalDate date = LocalDate.now();
 
-        try {
-            List<ExchangeRate> exchangeRates = centralBankOfRussiaService.getExchangeRatesForCurrenciesByDate(currencies, date);
+        List<ExchangeRate> exchangeRates = centralBankOfRussiaService.getExchangeRatesForCurrenciesByDate(currencies, date);
 
-            if (exchangeRates == null || exchangeRates.isEmpty()) {
-                throw new IllegalStateException();
-            }
+        if (exchangeRates == null || exchangeRates.isEmpty()) {
+            throw new IllegalStateException();
+        }
 
-            if (exchangeRateRepository.findAllLatest().stream().anyMatch(exchangeRate -> exchangeRate.getDate().equals(date))) {
-                for (ExchangeRate exchangeRate : exchangeRates) {
-                    Optional<ExchangeRate> existingExchangeRateOptional = exchangeRateRepository.findByCurrencyAndDate(exchangeRate.getCurrency(), date);
+        if (exchangeRateRepository.findAllLatest().stream().anyMatch(exchangeRate -> exchangeRate.getDate().equals(date))) {
+            for (ExchangeRate exchangeRate : exchangeRates) {
+                Optional<ExchangeRate> existingExchangeRateOptional = exchangeRateRepository.findByCurrencyAndDate(exchangeRate.getCurrency(), date);
 
-                    if (existingExchangeRateOptional.isPresent()) {
-                        ExchangeRate existingExchangeRate = existingExchangeRateOptional.get();
+                if (existingExchangeRateOptional.isPresent()) {
+                    ExchangeRate existingExchangeRate = existingExchangeRateOptional.get();
 
-                        BigDecimal exchangeRateValue = exchangeRate.getExchangeRate().setScale(2, RoundingMode.HALF_EVEN);
+                    BigDecimal exchangeRateValue = exchangeRate.getExchangeRate().setScale(2, RoundingMode.HALF_EVEN);
 
-                        if (exchangeRateValue.compareTo(existingExchangeRate.getExchangeRate()) != 0) {
-                            existingExchangeRate.setExchangeRate(exchangeRate.getExchangeRate());
+                    if (exchangeRateValue.compareTo(existingExchangeRate.getExchangeRate()) != 0) {
+                        existingExchangeRate.setExchangeRate(exchangeRate.getExchangeRate());
 
-                            exchangeRateRepository.save(existingExchangeRate);
-                        }
-                    } else {
-                        exchangeRateRepository.save(exchangeRate);
+                        exchangeRateRepository.save(existingExchangeRate);
                     }
+                } else {
+                    exchangeRateRepository.save(exchangeRate);
                 }
-            } else {
-                exchangeRateRepository.saveAll(exchangeRates);
             }
-
-            log.info("Loading exchange rates from the API of the Central Bank of the Russian Federation has been successfully completed");
-        } catch (Exception e) {
-            log.error("Error when loading exchange rates from the API of the Central Bank of the Russian Federation");
+        } else {
+            exchangeRateRepository.saveAll(exchangeRates);
         }
+
+        exchangeRateSnapshotService.refresh();
+        exchangeRateHistoryService.append(exchangeRates);
     }
 }
\ No newline at end of file
@@ -0,0 +1,38 @@
+package ru.dreadblade.czarbank.service.task.scheduled;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.dreadblade.czarbank.security.service.ExpiredTokenReaperService;
+import ru.dreadblade.czarbank.service.metrics.TaskMetrics;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deletes the transaction idempotency keys kept past the retention period, a request retried after that
+ * creates a new transaction
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class ReapExpiredIdempotencyKeysScheduledTask implements ScheduledTask {
+    private final ExpiredTokenReaperService expiredTokenReaperService;
+    private final TaskMetrics taskMetrics;
+
+    @Value("${czar-bank.transaction.idempotency.retention-seconds:86400}")
+    private int idempotencyKeyRetentionSeconds;
+
+    @Scheduled(fixedRateString = "#{${czar-bank.transaction.idempotency.reaper-rate-seconds:3600}}",
+            initialDelayString = "#{${czar-bank.transaction.idempotency.reaper-rate-seconds:3600}}",
+            timeUnit = TimeUnit.SECONDS)
+    @Override
+    public void run() {
+        taskMetrics.record(this, () -> expiredTokenReaperService.reapCreatedBefore("transaction_idempotency_key",
+                Instant.now().minusSeconds(idempotencyKeyRetentionSeconds), null));
+
+        log.info("Reaped expired transaction idempotency keys");
+    }
+}
@@ -0,0 +1,59 @@
+package ru.dreadblade.czarbank.service.task.scheduled;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.dreadblade.czarbank.security.service.ExpiredTokenReaperService;
+import ru.dreadblade.czarbank.service.metrics.TaskMetrics;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deletes the refresh token sessions that are expired or were revoked a while ago, and the email verification tokens
+ * that are kept past the retention period or belong to users whose email address is already verified
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class ReapExpiredTokensScheduledTask implements ScheduledTask {
+    private final ExpiredTokenReaperService expiredTokenReaperService;
+    private final TaskMetrics taskMetrics;
+
+    @Value("${czar-bank.security.access-token.expiration-seconds}")
+    private int accessTokenExpirationSeconds;
+
+    @Value("${czar-bank.security.refresh-token.expiration-seconds}")
+    private int refreshTokenExpirationSeconds;
+
+    @Value("${czar-bank.security.email-verification-token.retention-seconds:2592000}")
+    private int emailVerificationTokenRetentionSeconds;
+
+    @Scheduled(fixedRateString = "#{${czar-bank.security.token-reaper.rate-seconds:3600}}",
+            initialDelayString = "#{${czar-bank.security.token-reaper.rate-seconds:3600}}",
+            timeUnit = TimeUnit.SECONDS)
+    @Override
+    public void run() {
+        taskMetrics.record(this, this::reapExpiredTokens);
+
+        log.info("Reaped expired refresh token sessions and email verification tokens");
+    }
+
+    private void reapExpiredTokens() {
+        Instant now = Instant.now();
+
+        expiredTokenReaperService.reapCreatedBefore("refresh_token_session",
+                now.minusSeconds(refreshTokenExpirationSeconds), null);
+
+        expiredTokenReaperService.reapCreatedBefore("refresh_token_session",
+                now.minusSeconds(accessTokenExpirationSeconds), "is_revoked");
+
+        expiredTokenReaperService.reapCreatedBefore("email_verification_token",
+                now.minusSeconds(emailVerificationTokenRetentionSeconds), null);
+
+        expiredTokenReaperService.reapCreatedBefore("email_verification_token", now,
+                "user_id in (select u.id from users u where u.is_email_verified)");
+    }
+}
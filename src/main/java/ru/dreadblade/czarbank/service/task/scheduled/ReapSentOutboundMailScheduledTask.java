@@ -0,0 +1,37 @@
+package ru.dreadblade.czarbank.service.task.scheduled;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.dreadblade.czarbank.security.service.ExpiredTokenReaperService;
+import ru.dreadblade.czarbank.service.metrics.TaskMetrics;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deletes the sent mails of the outbox kept past the retention period, the dead mails are kept for inspection
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class ReapSentOutboundMailScheduledTask implements ScheduledTask {
+    private final ExpiredTokenReaperService expiredTokenReaperService;
+    private final TaskMetrics taskMetrics;
+
+    @Value("${czar-bank.mail.outbox.retention-seconds:604800}")
+    private int sentMailRetentionSeconds;
+
+    @Scheduled(fixedRateString = "#{${czar-bank.security.token-reaper.rate-seconds:3600}}",
+            initialDelayString = "#{${czar-bank.security.token-reaper.rate-seconds:3600}}",
+            timeUnit = TimeUnit.SECONDS)
+    @Override
+    public void run() {
+        taskMetrics.record(this, () -> expiredTokenReaperService.reapCreatedBefore("outbound_mail",
+                Instant.now().minusSeconds(sentMailRetentionSeconds), "status = 'SENT'"));
+
+        log.info("Reaped sent outbound mails");
+    }
+}
@@ -0,0 +1,27 @@
+package ru.dreadblade.czarbank.service.task.scheduled;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.dreadblade.czarbank.service.metrics.TaskMetrics;
+import ru.dreadblade.czarbank.service.snapshot.ExchangeRateHistoryService;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reloads the in-memory exchange rates history once the currencies have been changed by another instance
+ */
+@Component
+@RequiredArgsConstructor
+public class RefreshExchangeRateHistoryScheduledTask implements ScheduledTask {
+    private final ExchangeRateHistoryService exchangeRateHistoryService;
+    private final TaskMetrics taskMetrics;
+
+    @Scheduled(fixedDelayString = "#{${czar-bank.exchange-rate.history.refresh-delay-seconds:60}}",
+            initialDelayString = "#{${czar-bank.exchange-rate.history.refresh-delay-seconds:60}}",
+            timeUnit = TimeUnit.SECONDS)
+    @Override
+    public void run() {
+        taskMetrics.record(this, exchangeRateHistoryService::reloadIfCurrenciesChanged);
+    }
+}
@@ -5,18 +5,20 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import ru.dreadblade.czarbank.domain.security.BlacklistedAccessToken;
-import ru.dreadblade.czarbank.repository.security.BlacklistedAccessTokenRepository;
+import ru.dreadblade.czarbank.security.service.AccessTokenRevocationService;
+import ru.dreadblade.czarbank.security.service.ExpiredTokenReaperService;
+import ru.dreadblade.czarbank.service.metrics.TaskMetrics;
 
 import java.time.Instant;
-import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 @Component
 @Slf4j
 @RequiredArgsConstructor
 public class ReleaseBlacklistedAccessTokensScheduledTask implements ScheduledTask {
-    private final BlacklistedAccessTokenRepository blacklistedAccessTokenRepository;
+    private final ExpiredTokenReaperService expiredTokenReaperService;
+    private final AccessTokenRevocationService accessTokenRevocationService;
+    private final TaskMetrics taskMetrics;
 
     @Value("${czar-bank.security.access-token.expiration-seconds}")
     private int accessTokenExpirationSeconds;
@@ -24,13 +26,14 @@ public class ReleaseBlacklistedAccessTokensScheduledTask implements ScheduledTas
     @Scheduled(fixedRateString = "#{${czar-bank.security.access-token.expiration-seconds:900}}", timeUnit = TimeUnit.SECONDS)
     @Override
     public void run() {
-        List<BlacklistedAccessToken> blacklistedAccessTokens = blacklistedAccessTokenRepository
-                .findAllByCreatedAtIsBefore(Instant.now().minusSeconds(accessTokenExpirationSeconds));
+        taskMetrics.record(this, () -> {
+            var result = expiredTokenReaperService.reapCreatedBefore("blacklisted_access_token",
+                    Instant.now().minusSeconds(accessTokenExpirationSeconds), null);
 
-        if (!blacklistedAccessTokens.isEmpty()) {
-            blacklistedAccessTokens.forEach(blacklistedAccessToken ->
-                    blacklistedAccessTokenRepository.deleteById(blacklistedAccessToken.getId()));
-        }
+            if (result.getReclaimedRows() > 0) {
+                accessTokenRevocationService.rebuild();
+            }
+        });
 
         log.info("Released blacklisted access tokens");
     }
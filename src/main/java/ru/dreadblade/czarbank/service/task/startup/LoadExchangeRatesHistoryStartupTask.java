@@ -1,63 +1,219 @@
 package ru.dreadblade.czarbank.service.task.startup;
 
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Component;
 import ru.dreadblade.czarbank.domain.Currency;
 import ru.dreadblade.czarbank.domain.ExchangeRate;
 import ru.dreadblade.czarbank.repository.CurrencyRepository;
+import ru.dreadblade.czarbank.repository.ExchangeRateHistoryIsland;
 import ru.dreadblade.czarbank.repository.ExchangeRateRepository;
 import ru.dreadblade.czarbank.service.external.CentralBankOfRussiaService;
+import ru.dreadblade.czarbank.service.metrics.TaskMetrics;
+import ru.dreadblade.czarbank.service.snapshot.ExchangeRateHistoryService;
+import ru.dreadblade.czarbank.service.snapshot.ExchangeRateSnapshotService;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
 
+/**
+ * Loads only the missing parts of the exchange rates history. The gaps are found per currency from the database
+ * and fetched in parallel with a bounded concurrency, the rates are saved in batches while the response is still
+ * being read. On application startup the loading runs in the background and the application refuses traffic
+ * (readiness state) until the history is complete
+ */
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class LoadExchangeRatesHistoryStartupTask implements StartupTask {
     private final CentralBankOfRussiaService centralBankOfRussiaService;
     private final CurrencyRepository currencyRepository;
     private final ExchangeRateRepository exchangeRateRepository;
+    private final ExchangeRateSnapshotService exchangeRateSnapshotService;
+    private final ExchangeRateHistoryService exchangeRateHistoryService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TaskMetrics taskMetrics;
 
     @Value("#{T(java.time.LocalDate).parse('${czar-bank.exchange-rate.history.load-from-date:2012-01-01}')}")
     private LocalDate loadHistoryFromDate;
 
+    @Value("${czar-bank.exchange-rate.history.concurrency:4}")
+    private int concurrency;
+
+    @Value("${czar-bank.exchange-rate.history.async:true}")
+    private boolean isAsync;
+
+    @Value("${czar-bank.exchange-rate.history.batch-size:1000}")
+    private int batchSize;
+
+    private final Object readinessLock = new Object();
+    private volatile boolean isHistoryLoaded = false;
+
+    public LoadExchangeRatesHistoryStartupTask(CentralBankOfRussiaService centralBankOfRussiaService,
+                                               CurrencyRepository currencyRepository,
+                                               ExchangeRateRepository exchangeRateRepository,
+                                               ExchangeRateSnapshotService exchangeRateSnapshotService,
+                                               ExchangeRateHistoryService exchangeRateHistoryService,
+                                               ApplicationEventPublisher eventPublisher,
+                                               TaskMetrics taskMetrics) {
+        this.centralBankOfRussiaService = centralBankOfRussiaService;
+        this.currencyRepository = currencyRepository;
+        this.exchangeRateRepository = exchangeRateRepository;
+        this.exchangeRateSnapshotService = exchangeRateSnapshotService;
+        this.exchangeRateHistoryService = exchangeRateHistoryService;
+        this.eventPublisher = eventPublisher;
+        this.taskMetrics = taskMetrics;
+    }
+
     @Override
     public void run(ApplicationArguments args) {
-        run();
+        if (isAsync) {
+            new SimpleAsyncTaskExecutor("exchange-rates-history-").execute(this::run);
+        } else {
+            run();
+        }
     }
 
     @Override
-    public void run() {
-        List<Currency> foreignCurrencies = currencyRepository.findAllForeignCurrencies();
+    public synchronized void run() {
+        try {
+            taskMetrics.record(this, () -> {
+                loadMissingHistory();
+
+                exchangeRateSnapshotService.refresh();
+                exchangeRateHistoryService.reload();
+            });
+
+            log.info("Loading the history of exchange rates from the API of the Central Bank of the Russian Federation " +
+                    "has been successfully completed");
+        } catch (Exception e) {
+            log.error("Error when loading the history of exchange rates from the API of the Central Bank of the Russian Federation", e);
+        } finally {
+            markHistoryLoaded();
+        }
+    }
+
+    public boolean isHistoryLoaded() {
+        return isHistoryLoaded;
+    }
+
+    /**
+     * Spring Boot reports the application as ready once the startup tasks have been launched,
+     * so the readiness is taken back until the history is loaded
+     */
+    @EventListener
+    public void onReadinessStateChange(AvailabilityChangeEvent<ReadinessState> event) {
+        synchronized (readinessLock) {
+            if (event.getState() == ReadinessState.ACCEPTING_TRAFFIC && !isHistoryLoaded) {
+                AvailabilityChangeEvent.publish(eventPublisher, this, ReadinessState.REFUSING_TRAFFIC);
+            }
+        }
+    }
+
+    private void markHistoryLoaded() {
+        synchronized (readinessLock) {
+            if (!isHistoryLoaded) {
+                isHistoryLoaded = true;
+
+                AvailabilityChangeEvent.publish(eventPublisher, this, ReadinessState.ACCEPTING_TRAFFIC);
+            }
+        }
+    }
 
+    private void loadMissingHistory() {
         LocalDate loadHistoryToDate = LocalDate.now();
 
-        long requiredExchangeRateCount = (ChronoUnit.DAYS.between(loadHistoryFromDate, loadHistoryToDate) + 1) *
-                foreignCurrencies.size();
+        List<Currency> foreignCurrencies = currencyRepository.findAllForeignCurrencies();
+
+        Map<Long, List<ExchangeRateHistoryIsland>> islandsByCurrencyId = exchangeRateRepository
+                .findAllHistoryIslands(loadHistoryFromDate, loadHistoryToDate).stream()
+                .collect(Collectors.groupingBy(ExchangeRateHistoryIsland::getCurrencyId));
+
+        ExecutorService executorService = Executors.newFixedThreadPool(concurrency,
+                new CustomizableThreadFactory("exchange-rates-history-loader-"));
 
-        if (exchangeRateRepository.count() == requiredExchangeRateCount) {
-            log.info("Historical exchange rate data already loaded");
+        try {
+            List<CompletableFuture<Void>> loadings = new ArrayList<>();
 
-            return;
+            for (Currency currency : foreignCurrencies) {
+                List<LocalDate[]> gaps = findGaps(islandsByCurrencyId.getOrDefault(currency.getId(), List.of()),
+                        loadHistoryFromDate, loadHistoryToDate);
+
+                if (gaps.isEmpty()) {
+                    log.trace("Exchange rates history is already loaded ({})", currency.getSymbol());
+                }
+
+                gaps.forEach(gap -> loadings.add(CompletableFuture.runAsync(() -> loadGap(currency, gap[0], gap[1]), executorService)));
+            }
+
+            CompletableFuture.allOf(loadings.toArray(CompletableFuture[]::new)).join();
+        } finally {
+            executorService.shutdown();
         }
+    }
 
-        exchangeRateRepository.deleteAll();
+    /**
+     * Loads the rates of the gap, the days of the gap without a published rate get the last rate before them,
+     * starting with the stored rate of the day before the gap
+     */
+    private void loadGap(Currency currency, LocalDate startDate, LocalDate endDate) {
+        List<ExchangeRate> batch = new ArrayList<>(batchSize);
 
-        foreignCurrencies.forEach(currency -> {
-            List<ExchangeRate> exchangeRates = centralBankOfRussiaService
-                    .getExchangeRatesForCurrencyBetweenDates(currency, loadHistoryFromDate, loadHistoryToDate);
+        BigDecimal previousRate = exchangeRateRepository.findByCurrencyAndDate(currency, startDate.minusDays(1))
+                .map(ExchangeRate::getExchangeRate)
+                .orElse(null);
 
-            exchangeRateRepository.saveAll(exchangeRates);
+        centralBankOfRussiaService.streamExchangeRatesForCurrencyBetweenDates(currency, startDate, endDate, previousRate, exchangeRate -> {
+            batch.add(exchangeRate);
 
-            log.trace("Loaded exchange rates history ({})", currency.getSymbol());
+            if (batch.size() >= batchSize) {
+                exchangeRateRepository.saveAll(batch);
+                batch.clear();
+            }
         });
 
-        log.info("Loading the history of exchange rates from the API of the Central Bank of the Russian Federation " +
-                "has been successfully completed");
+        if (!batch.isEmpty()) {
+            exchangeRateRepository.saveAll(batch);
+        }
+
+        log.trace("Loaded exchange rates history ({}) from {} to {}", currency.getSymbol(), startDate, endDate);
+    }
+
+    /**
+     * Returns the date ranges (both ends inclusive) between the start and end dates that are not covered by the islands,
+     * the islands must be sorted by their start date
+     */
+    static List<LocalDate[]> findGaps(List<ExchangeRateHistoryIsland> islands, LocalDate startDate, LocalDate endDate) {
+        List<LocalDate[]> gaps = new ArrayList<>();
+        LocalDate nextMissingDate = startDate;
+
+        for (ExchangeRateHistoryIsland island : islands) {
+            if (island.getStartDate().isAfter(nextMissingDate)) {
+                gaps.add(new LocalDate[] { nextMissingDate, island.getStartDate().minusDays(1) });
+            }
+
+            if (!island.getEndDate().isBefore(nextMissingDate)) {
+                nextMissingDate = island.getEndDate().plusDays(1);
+            }
+        }
+
+        if (!nextMissingDate.isAfter(endDate)) {
+            gaps.add(new LocalDate[] { nextMissingDate, endDate });
+        }
+
+        return gaps;
     }
 }
@@ -0,0 +1,24 @@
+package ru.dreadblade.czarbank.service.task.startup;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.stereotype.Component;
+import ru.dreadblade.czarbank.security.service.AccessTokenRevocationService;
+import ru.dreadblade.czarbank.service.metrics.TaskMetrics;
+
+@Component
+@RequiredArgsConstructor
+public class RebuildAccessTokenRevocationFilterStartupTask implements StartupTask {
+    private final AccessTokenRevocationService accessTokenRevocationService;
+    private final TaskMetrics taskMetrics;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        run();
+    }
+
+    @Override
+    public void run() {
+        taskMetrics.record(this, accessTokenRevocationService::rebuild);
+    }
+}
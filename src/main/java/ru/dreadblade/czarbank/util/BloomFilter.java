@@ -0,0 +1,77 @@
+package ru.dreadblade.czarbank.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe Bloom filter of strings. {@link #mightContain(String)} never returns false for a string that has been put,
+ * but may return true for a string that has not
+ */
+public class BloomFilter {
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashFunctionCount;
+
+    public BloomFilter(long expectedInsertions, double falsePositiveProbability) {
+        long optimalBitCount = (long) Math.ceil(-Math.max(expectedInsertions, 1) * Math.log(falsePositiveProbability) /
+                (Math.log(2) * Math.log(2)));
+
+        this.bitCount = Math.max(Long.SIZE, (optimalBitCount + Long.SIZE - 1) / Long.SIZE * Long.SIZE);
+        this.bits = new AtomicLongArray((int) (bitCount / Long.SIZE));
+        this.hashFunctionCount = Math.max(1, (int) Math.round((double) bitCount / Math.max(expectedInsertions, 1) * Math.log(2)));
+    }
+
+    public void put(String value) {
+        long hash = hash(value);
+        int firstHash = (int) hash;
+        int secondHash = (int) (hash >>> 32);
+
+        for (int i = 1; i <= hashFunctionCount; i++) {
+            long bitIndex = Math.floorMod(firstHash + (long) i * secondHash, bitCount);
+            int wordIndex = (int) (bitIndex / Long.SIZE);
+            long mask = 1L << (bitIndex % Long.SIZE);
+
+            long word;
+
+            do {
+                word = bits.get(wordIndex);
+            } while ((word & mask) == 0 && !bits.compareAndSet(wordIndex, word, word | mask));
+        }
+    }
+
+    public boolean mightContain(String value) {
+        long hash = hash(value);
+        int firstHash = (int) hash;
+        int secondHash = (int) (hash >>> 32);
+
+        for (int i = 1; i <= hashFunctionCount; i++) {
+            long bitIndex = Math.floorMod(firstHash + (long) i * secondHash, bitCount);
+
+            if ((bits.get((int) (bitIndex / Long.SIZE)) & (1L << (bitIndex % Long.SIZE))) == 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * 64-bit FNV-1a hash of the UTF-8 bytes followed by the MurmurHash3 finalizer
+     */
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+
+        return hash;
+    }
+}
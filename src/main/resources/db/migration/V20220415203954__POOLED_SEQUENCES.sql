@@ -0,0 +1,11 @@
+alter sequence permission_id_sequence increment 50;
+alter sequence role_id_sequence increment 50;
+alter sequence user_id_sequence increment 50;
+alter sequence refresh_token_session_sequence increment 50;
+alter sequence blacklisted_access_token_id_sequence increment 50;
+alter sequence email_verification_token_id_sequence increment 50;
+alter sequence currency_id_sequence increment 50;
+alter sequence bank_account_type_id_sequence increment 50;
+alter sequence bank_account_id_sequence increment 50;
+alter sequence transaction_id_sequence increment 50;
+alter sequence recovery_code_sequence increment 50;
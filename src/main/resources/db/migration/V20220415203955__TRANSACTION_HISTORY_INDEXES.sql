@@ -0,0 +1,5 @@
+create index transaction_source_bank_account_id_created_at_id_idx
+    on transaction (source_bank_account_id, created_at, id);
+
+create index transaction_destination_bank_account_id_created_at_id_idx
+    on transaction (destination_bank_account_id, created_at, id);
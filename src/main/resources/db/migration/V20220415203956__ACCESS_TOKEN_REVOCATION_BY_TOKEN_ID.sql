@@ -0,0 +1,13 @@
+alter table blacklisted_access_token add column token_id varchar(64);
+
+update blacklisted_access_token set token_id = encode(sha256(convert_to(access_token, 'UTF8')), 'hex');
+
+delete from blacklisted_access_token duplicate
+using blacklisted_access_token original
+where duplicate.token_id = original.token_id and duplicate.id > original.id;
+
+alter table blacklisted_access_token alter column token_id set not null;
+alter table blacklisted_access_token add constraint blacklisted_access_token_token_id_key unique (token_id);
+alter table blacklisted_access_token drop column access_token;
+
+create index blacklisted_access_token_created_at_idx on blacklisted_access_token (created_at);
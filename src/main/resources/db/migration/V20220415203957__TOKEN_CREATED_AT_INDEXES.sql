@@ -0,0 +1,3 @@
+create index refresh_token_session_created_at_idx on refresh_token_session (created_at);
+
+create index email_verification_token_created_at_idx on email_verification_token (created_at);
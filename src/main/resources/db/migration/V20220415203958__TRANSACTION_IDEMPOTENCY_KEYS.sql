@@ -0,0 +1,12 @@
+create sequence transaction_idempotency_key_id_sequence start 1 increment 50;
+
+create table transaction_idempotency_key(
+    id bigint not null primary key,
+    idempotency_key varchar(255) not null unique,
+    request_hash varchar(64) not null,
+    transaction_id bigint not null,
+    created_at timestamp,
+    foreign key (transaction_id) references transaction (id) on delete cascade
+);
+
+create index transaction_idempotency_key_created_at_idx on transaction_idempotency_key (created_at);
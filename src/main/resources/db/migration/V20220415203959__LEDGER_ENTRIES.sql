@@ -0,0 +1,21 @@
+create sequence ledger_entry_id_sequence start 1 increment 50;
+
+create table ledger_entry(
+    id bigint not null primary key,
+    entry_type varchar(32) not null,
+    amount numeric(20, 2) not null,
+    bank_account_id bigint not null,
+    transaction_id bigint,
+    created_at timestamp,
+    foreign key (bank_account_id) references bank_account (id) on delete cascade,
+    foreign key (transaction_id) references transaction (id) on delete cascade
+);
+
+create index ledger_entry_bank_account_id_id_idx on ledger_entry (bank_account_id, id);
+
+create index ledger_entry_transaction_id_idx on ledger_entry (transaction_id);
+
+insert into ledger_entry (id, entry_type, amount, bank_account_id, created_at)
+select nextval('ledger_entry_id_sequence'), 'OPENING', balance, id, now()
+from bank_account
+where balance <> 0;
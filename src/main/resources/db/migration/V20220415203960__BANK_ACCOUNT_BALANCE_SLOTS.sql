@@ -0,0 +1,9 @@
+alter table bank_account add column balance_slots integer not null default 0;
+
+create table bank_account_balance_slot(
+    bank_account_id bigint not null,
+    slot integer not null,
+    balance numeric(20, 2) not null,
+    primary key (bank_account_id, slot),
+    foreign key (bank_account_id) references bank_account (id) on delete cascade
+);
@@ -0,0 +1,17 @@
+create sequence outbound_mail_id_sequence start 1 increment 50;
+
+create table outbound_mail(
+    id bigint not null primary key,
+    recipient varchar(254) not null,
+    subject varchar(255) not null,
+    html_content text not null,
+    status varchar(16) not null,
+    attempts integer not null,
+    next_attempt_at timestamp not null,
+    last_error varchar(1000),
+    created_at timestamp,
+    sent_at timestamp
+);
+
+create index outbound_mail_pending_idx on outbound_mail (next_attempt_at) where status = 'PENDING';
+create index outbound_mail_created_at_idx on outbound_mail (created_at);
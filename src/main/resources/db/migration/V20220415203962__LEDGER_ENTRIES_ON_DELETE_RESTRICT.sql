@@ -0,0 +1,11 @@
+alter table ledger_entry drop constraint ledger_entry_bank_account_id_fkey;
+alter table ledger_entry add constraint ledger_entry_bank_account_id_fkey
+    foreign key (bank_account_id) references bank_account(id) on delete restrict;
+
+alter table ledger_entry drop constraint ledger_entry_transaction_id_fkey;
+alter table ledger_entry add constraint ledger_entry_transaction_id_fkey
+    foreign key (transaction_id) references transaction(id) on delete restrict;
+
+update bank_account set is_closed = false where is_closed is null;
+alter table bank_account alter column is_closed set default false;
+alter table bank_account alter column is_closed set not null;
@@ -0,0 +1,14 @@
+alter table transaction_idempotency_key add column source_bank_account_number varchar(20);
+
+update transaction_idempotency_key k
+set source_bank_account_number = b.number
+from transaction t
+         join bank_account b on b.id = t.source_bank_account_id
+where t.id = k.transaction_id;
+
+alter table transaction_idempotency_key alter column source_bank_account_number set not null;
+
+alter table transaction_idempotency_key drop constraint transaction_idempotency_key_idempotency_key_key;
+
+create unique index transaction_idempotency_key_source_key_idx
+    on transaction_idempotency_key (source_bank_account_number, idempotency_key);
@@ -0,0 +1,2 @@
+update transaction set created_at = 'epoch' where created_at is null;
+alter table transaction alter column created_at set not null;
@@ -822,7 +822,7 @@ public class AuthenticationIntegrationTest extends BaseIntegrationTest {
                             .content(requestContent))
                     .andExpect(status().isOk());
 
-            assertThat(blacklistedAccessTokenRepository.existsByAccessToken(accessToken)).isTrue();
+            assertThat(blacklistedAccessTokenRepository.existsByTokenId(accessTokenService.getTokenId(accessToken))).isTrue();
 
             refreshTokenSession = refreshTokenSessionRepository.findByRefreshToken(refreshToken).orElseThrow();
             assertThat(refreshTokenSession.getIsRevoked()).isTrue();
@@ -837,7 +837,7 @@ public class AuthenticationIntegrationTest extends BaseIntegrationTest {
             TimeUnit.SECONDS.sleep(ACCESS_TOKEN_EXPIRATION_SECONDS);
 
             releaseBlacklistedAccessTokensScheduledTask.run();
-            assertThat(blacklistedAccessTokenRepository.existsByAccessToken(accessToken)).isFalse();
+            assertThat(blacklistedAccessTokenRepository.existsByTokenId(accessTokenService.getTokenId(accessToken))).isFalse();
         }
 
         @Test
@@ -10,11 +10,13 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.test.context.support.WithUserDetails;
 import org.springframework.test.annotation.Rollback;
 import org.springframework.test.context.jdbc.Sql;
 import ru.dreadblade.czarbank.api.mapper.BankAccountMapper;
+import ru.dreadblade.czarbank.api.model.request.BankAccountBalanceSlotsRequestDTO;
 import ru.dreadblade.czarbank.api.model.request.BankAccountRequestDTO;
 import ru.dreadblade.czarbank.api.model.response.BankAccountResponseDTO;
 import ru.dreadblade.czarbank.domain.BankAccount;
@@ -22,7 +24,9 @@ import ru.dreadblade.czarbank.domain.security.User;
 import ru.dreadblade.czarbank.exception.ExceptionMessage;
 import ru.dreadblade.czarbank.repository.BankAccountRepository;
 import ru.dreadblade.czarbank.repository.CurrencyRepository;
+import ru.dreadblade.czarbank.repository.LedgerEntryRepository;
 import ru.dreadblade.czarbank.repository.security.UserRepository;
+import ru.dreadblade.czarbank.service.BankAccountBalanceSlotService;
 
 import java.math.BigDecimal;
 import java.util.Set;
@@ -50,6 +54,15 @@ public class BankAccountIntegrationTest extends BaseIntegrationTest {
     @Autowired
     CurrencyRepository currencyRepository;
 
+    @Autowired
+    BankAccountBalanceSlotService bankAccountBalanceSlotService;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    LedgerEntryRepository ledgerEntryRepository;
+
     private static final String BANK_ACCOUNTS_API_URL = "/api/bank-accounts";
 
     @Nested
@@ -150,6 +163,29 @@ public class BankAccountIntegrationTest extends BaseIntegrationTest {
                     .andExpect(content().json(expectedResponse));
         }
 
+        /**
+         * The authorization expression is compiled after a hundred evaluations, the owner check must resolve
+         * its bean both before and after that
+         */
+        @Test
+        @WithUserDetails("client")
+        void findById_withAuth_asOwnerOfBankAccount_repeatedly_isSuccessful() throws Exception {
+            BankAccount ownBankAccount = bankAccountRepository.findById(3L).orElseThrow();
+            BankAccount foreignBankAccount = bankAccountRepository.findById(1L).orElseThrow();
+
+            for (int i = 0; i < 150; i++) {
+                mockMvc.perform(get(BANK_ACCOUNTS_API_URL + "/" + ownBankAccount.getId())
+                                .contentType(MediaType.APPLICATION_JSON))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.id").value(ownBankAccount.getId()));
+            }
+
+            mockMvc.perform(get(BANK_ACCOUNTS_API_URL + "/" + foreignBankAccount.getId())
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isForbidden())
+                    .andExpect(jsonPath("$.message").value("Access is denied"));
+        }
+
         @Test
         @WithUserDetails("client")
         void findById_withAuth_notAsOwner_isFailed() throws Exception {
@@ -479,6 +515,101 @@ public class BankAccountIntegrationTest extends BaseIntegrationTest {
         }
     }
 
+    @Nested
+    @DisplayName("updateBalanceSlots() Tests")
+    class UpdateBalanceSlotsTests {
+        @Test
+        @WithUserDetails("admin")
+        void updateBalanceSlots_withAuth_withPermission_isSuccessful() throws Exception {
+            long bankAccountId = 2L;
+
+            BankAccountBalanceSlotsRequestDTO requestDTO = BankAccountBalanceSlotsRequestDTO.builder()
+                    .balanceSlots(4)
+                    .build();
+
+            mockMvc.perform(put(BANK_ACCOUNTS_API_URL + "/" + bankAccountId + "/balance-slots")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(requestDTO)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.balanceSlots").value(4));
+
+            Assertions.assertThat(jdbcTemplate.queryForObject("select count(*) from bank_account_balance_slot " +
+                    "where bank_account_id = ?", Integer.class, bankAccountId)).isEqualTo(4);
+        }
+
+        @Test
+        @WithUserDetails("admin")
+        void updateBalanceSlots_withAuth_withPermission_balanceIncludesSlots() throws Exception {
+            BankAccount hotAccount = bankAccountRepository.findById(2L).orElseThrow();
+
+            bankAccountBalanceSlotService.resize(hotAccount.getId(), 2);
+            jdbcTemplate.update("update bank_account_balance_slot set balance = 10 where bank_account_id = ?",
+                    hotAccount.getId());
+
+            BigDecimal expectedBalance = hotAccount.getBalance().add(BigDecimal.valueOf(20));
+
+            String response = mockMvc.perform(get(BANK_ACCOUNTS_API_URL + "/" + hotAccount.getId())
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+
+            Assertions.assertThat(objectMapper.readValue(response, BankAccountResponseDTO.class).getBalance())
+                    .isEqualByComparingTo(expectedBalance);
+
+            mockMvc.perform(put(BANK_ACCOUNTS_API_URL + "/" + hotAccount.getId() + "/balance-slots")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(BankAccountBalanceSlotsRequestDTO.builder()
+                                    .balanceSlots(0)
+                                    .build())))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.balanceSlots").value(0));
+
+            Assertions.assertThat(bankAccountRepository.findById(hotAccount.getId()).orElseThrow().getBalance())
+                    .isEqualByComparingTo(expectedBalance);
+        }
+
+        @Test
+        @WithUserDetails("admin")
+        void updateBalanceSlots_withAuth_withPermission_tooManySlots_validationIsFailed() throws Exception {
+            BankAccountBalanceSlotsRequestDTO requestDTO = BankAccountBalanceSlotsRequestDTO.builder()
+                    .balanceSlots(65)
+                    .build();
+
+            mockMvc.perform(put(BANK_ACCOUNTS_API_URL + "/2/balance-slots")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(requestDTO)))
+                    .andExpect(status().isBadRequest());
+        }
+
+        @Test
+        @WithUserDetails("client")
+        void updateBalanceSlots_withAuth_withoutPermission_isFailed() throws Exception {
+            BankAccountBalanceSlotsRequestDTO requestDTO = BankAccountBalanceSlotsRequestDTO.builder()
+                    .balanceSlots(4)
+                    .build();
+
+            mockMvc.perform(put(BANK_ACCOUNTS_API_URL + "/3/balance-slots")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(requestDTO)))
+                    .andExpect(status().isForbidden())
+                    .andExpect(jsonPath("$.message").value("Access is denied"));
+        }
+
+        @Test
+        @WithUserDetails("admin")
+        void updateBalanceSlots_withAuth_withPermission_isNotFound() throws Exception {
+            BankAccountBalanceSlotsRequestDTO requestDTO = BankAccountBalanceSlotsRequestDTO.builder()
+                    .balanceSlots(4)
+                    .build();
+
+            mockMvc.perform(put(BANK_ACCOUNTS_API_URL + "/1234/balance-slots")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(requestDTO)))
+                    .andExpect(status().isNotFound())
+                    .andExpect(jsonPath("$.message").value(ExceptionMessage.BANK_ACCOUNT_NOT_FOUND.getMessage()));
+        }
+    }
+
     @Nested
     @DisplayName("deleteAccount() Tests")
     class DeleteAccountTests {
@@ -502,6 +633,25 @@ public class BankAccountIntegrationTest extends BaseIntegrationTest {
                             .value(ExceptionMessage.BANK_ACCOUNT_NOT_FOUND.getMessage()));
         }
 
+        @Test
+        @WithUserDetails("admin")
+        @Rollback
+        void deleteAccount_withAuth_withPermission_keepsLedgerEntries() throws Exception {
+            Long bankAccountToDeleteId = 1L;
+
+            Assertions.assertThat(ledgerEntryRepository.findAllByBankAccountIdOrderByIdAsc(bankAccountToDeleteId)).hasSize(1);
+
+            mockMvc.perform(delete(BANK_ACCOUNTS_API_URL + "/" + bankAccountToDeleteId))
+                    .andExpect(status().isNoContent());
+
+            Assertions.assertThat(bankAccountRepository.findById(bankAccountToDeleteId).orElseThrow().getIsClosed()).isTrue();
+            Assertions.assertThat(ledgerEntryRepository.findAllByBankAccountIdOrderByIdAsc(bankAccountToDeleteId)).hasSize(1);
+
+            mockMvc.perform(get(BANK_ACCOUNTS_API_URL))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[*].id", not(hasItem(bankAccountToDeleteId.intValue()))));
+        }
+
         @Test
         @WithUserDetails("client")
         @Rollback
@@ -71,6 +71,7 @@ public class BankAccountTypeIntegrationTest extends BaseIntegrationTest {
         void findAll_withoutAuth_isEmpty() throws Exception {
             bankAccountRepository.deleteAll();
             bankAccountTypeRepository.deleteAll();
+            serializedResponseCache.invalidateAll();
 
             int expectedSize = 0;
 
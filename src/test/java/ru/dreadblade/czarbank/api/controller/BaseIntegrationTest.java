@@ -1,6 +1,7 @@
 package ru.dreadblade.czarbank.api.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.provider.Arguments;
@@ -18,6 +19,9 @@ import org.springframework.web.context.WebApplicationContext;
 import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Testcontainers;
 import org.testcontainers.utility.DockerImageName;
+import ru.dreadblade.czarbank.security.service.AuthoritySetService;
+import ru.dreadblade.czarbank.service.BankAccountOwnerIndex;
+import ru.dreadblade.czarbank.service.cache.SerializedResponseCache;
 
 import java.util.stream.Stream;
 
@@ -39,16 +43,37 @@ public abstract class BaseIntegrationTest {
     @Autowired
     ObjectMapper objectMapper;
 
+    @Autowired
+    SerializedResponseCache serializedResponseCache;
+
+    @Autowired
+    AuthoritySetService authoritySetService;
+
+    @Autowired
+    BankAccountOwnerIndex bankAccountOwnerIndex;
+
     MockMvc mockMvc;
 
     @BeforeEach
     public void setUp() {
+        serializedResponseCache.invalidateAll();
+
         mockMvc = MockMvcBuilders
                 .webAppContextSetup(webApplicationContext)
                 .apply(springSecurity())
                 .build();
     }
 
+    /**
+     * The fixtures reset the roles and the bank accounts directly in the database, so the authorities and the owners
+     * indexed during a test must not outlive it
+     */
+    @AfterEach
+    public void tearDown() {
+        authoritySetService.invalidateAll();
+        bankAccountOwnerIndex.invalidateAll();
+    }
+
     @Test
     void contextLoads() {
         assertThat(webApplicationContext).isNotNull();
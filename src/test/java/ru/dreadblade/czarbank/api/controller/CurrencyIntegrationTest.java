@@ -26,7 +26,6 @@ import ru.dreadblade.czarbank.repository.ExchangeRateRepository;
 import ru.dreadblade.czarbank.repository.security.UserRepository;
 import ru.dreadblade.czarbank.service.BankAccountService;
 import ru.dreadblade.czarbank.service.CurrencyService;
-import ru.dreadblade.czarbank.service.ExchangeRateService;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
@@ -53,9 +52,6 @@ public class CurrencyIntegrationTest extends BaseIntegrationTest {
     @Autowired
     BankAccountRepository bankAccountRepository;
 
-    @Autowired
-    ExchangeRateService exchangeRateService;
-
     @Autowired
     ExchangeRateRepository exchangeRateRepository;
 
@@ -99,6 +95,7 @@ public class CurrencyIntegrationTest extends BaseIntegrationTest {
             bankAccountRepository.deleteAll();
             exchangeRateRepository.deleteAll();
             currencyRepository.deleteAll();
+            serializedResponseCache.invalidateAll();
 
             long expectedSize = 0L;
 
@@ -318,7 +315,7 @@ public class CurrencyIntegrationTest extends BaseIntegrationTest {
 
             Assertions.assertThat(sourceCurrency.getCode()).isNotEqualTo(targetCurrency.getCode());
 
-            BigDecimal exchangeRate = exchangeRateService.findAllLatest().stream()
+            BigDecimal exchangeRate = exchangeRateRepository.findAllLatest().stream()
                     .filter(rate -> rate.getCurrency().getCode().equals(targetCurrency.getCode()))
                     .findFirst().orElseThrow()
                     .getExchangeRate();
@@ -336,7 +333,7 @@ public class CurrencyIntegrationTest extends BaseIntegrationTest {
 
             Assertions.assertThat(sourceCurrency.getCode()).isNotEqualTo(targetCurrency.getCode());
 
-            BigDecimal exchangeRate = exchangeRateService.findAllLatest().stream()
+            BigDecimal exchangeRate = exchangeRateRepository.findAllLatest().stream()
                     .filter(rate -> rate.getCurrency().getCode().equals(sourceCurrency.getCode()))
                     .findFirst().orElseThrow()
                     .getExchangeRate();
@@ -354,7 +351,7 @@ public class CurrencyIntegrationTest extends BaseIntegrationTest {
 
             Assertions.assertThat(sourceCurrency.getCode()).isNotEqualTo(targetCurrency.getCode());
 
-            BigDecimal exchangeRate = exchangeRateService.findAllLatest().stream()
+            BigDecimal exchangeRate = exchangeRateRepository.findAllLatest().stream()
                     .filter(rate -> rate.getCurrency().getCode().equals(targetCurrency.getCode()))
                     .findFirst().orElseThrow()
                     .getExchangeRate();
@@ -372,7 +369,7 @@ public class CurrencyIntegrationTest extends BaseIntegrationTest {
 
             Assertions.assertThat(sourceCurrency.getCode()).isNotEqualTo(targetCurrency.getCode());
 
-            BigDecimal exchangeRate = exchangeRateService.findAllLatest().stream()
+            BigDecimal exchangeRate = exchangeRateRepository.findAllLatest().stream()
                     .filter(rate -> rate.getCurrency().getCode().equals(sourceCurrency.getCode()))
                     .findFirst().orElseThrow()
                     .getExchangeRate();
@@ -416,12 +413,12 @@ public class CurrencyIntegrationTest extends BaseIntegrationTest {
 
             Assertions.assertThat(sourceCurrency.getCode()).isNotEqualTo(targetCurrency.getCode());
 
-            BigDecimal exchangeRateToRub = exchangeRateService.findAllLatest().stream()
+            BigDecimal exchangeRateToRub = exchangeRateRepository.findAllLatest().stream()
                     .filter(rate -> rate.getCurrency().getCode().equals(sourceCurrency.getCode()))
                     .findFirst().orElseThrow()
                     .getExchangeRate();
 
-            BigDecimal exchangeRateFromRub = exchangeRateService.findAllLatest().stream()
+            BigDecimal exchangeRateFromRub = exchangeRateRepository.findAllLatest().stream()
                     .filter(rate -> rate.getCurrency().getCode().equals(targetCurrency.getCode()))
                     .findFirst().orElseThrow()
                     .getExchangeRate();
@@ -440,12 +437,12 @@ public class CurrencyIntegrationTest extends BaseIntegrationTest {
 
             Assertions.assertThat(sourceCurrency.getCode()).isNotEqualTo(targetCurrency.getCode());
 
-            BigDecimal exchangeRateToRub = exchangeRateService.findAllLatest().stream()
+            BigDecimal exchangeRateToRub = exchangeRateRepository.findAllLatest().stream()
                     .filter(rate -> rate.getCurrency().getCode().equals(sourceCurrency.getCode()))
                     .findFirst().orElseThrow()
                     .getExchangeRate();
 
-            BigDecimal exchangeRateFromRub = exchangeRateService.findAllLatest().stream()
+            BigDecimal exchangeRateFromRub = exchangeRateRepository.findAllLatest().stream()
                     .filter(rate -> rate.getCurrency().getCode().equals(targetCurrency.getCode()))
                     .findFirst().orElseThrow()
                     .getExchangeRate();
@@ -464,12 +461,12 @@ public class CurrencyIntegrationTest extends BaseIntegrationTest {
 
             Assertions.assertThat(sourceCurrency.getCode()).isNotEqualTo(targetCurrency.getCode());
 
-            BigDecimal exchangeRateToRub = exchangeRateService.findAllLatest().stream()
+            BigDecimal exchangeRateToRub = exchangeRateRepository.findAllLatest().stream()
                     .filter(rate -> rate.getCurrency().getCode().equals(sourceCurrency.getCode()))
                     .findFirst().orElseThrow()
                     .getExchangeRate();
 
-            BigDecimal exchangeRateFromRub = exchangeRateService.findAllLatest().stream()
+            BigDecimal exchangeRateFromRub = exchangeRateRepository.findAllLatest().stream()
                     .filter(rate -> rate.getCurrency().getCode().equals(targetCurrency.getCode()))
                     .findFirst().orElseThrow()
                     .getExchangeRate();
@@ -1,28 +1,40 @@
 package ru.dreadblade.czarbank.api.controller;
 
 import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.annotation.Rollback;
 import org.springframework.test.context.jdbc.Sql;
 import org.springframework.web.util.UriComponentsBuilder;
 import ru.dreadblade.czarbank.api.mapper.ExchangeRateMapper;
 import ru.dreadblade.czarbank.api.model.response.ExchangeRateResponseDTO;
+import ru.dreadblade.czarbank.domain.Currency;
+import ru.dreadblade.czarbank.domain.ExchangeRate;
 import ru.dreadblade.czarbank.exception.ExceptionMessage;
 import ru.dreadblade.czarbank.repository.CurrencyRepository;
 import ru.dreadblade.czarbank.repository.ExchangeRateRepository;
+import ru.dreadblade.czarbank.service.snapshot.ExchangeRateHistoryService;
+import ru.dreadblade.czarbank.service.task.scheduled.RefreshExchangeRateHistoryScheduledTask;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.everyItem;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.in;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.startsWith;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -38,6 +50,8 @@ public class ExchangeRateIntegrationTest extends BaseIntegrationTest {
     private static final String TIME_SERIES = "/time-series/";
     private static final String START_DATE_PARAMETER = "start-date";
     private static final String END_DATE_PARAMETER = "end-date";
+    private static final String CURRENCY_ID_PARAMETER = "currency-id";
+    private static final String INTERVAL_PARAMETER = "interval";
 
     @Autowired
     CurrencyRepository currencyRepository;
@@ -48,6 +62,20 @@ public class ExchangeRateIntegrationTest extends BaseIntegrationTest {
     @Autowired
     ExchangeRateMapper exchangeRateMapper;
 
+    @Autowired
+    RefreshExchangeRateHistoryScheduledTask refreshExchangeRateHistoryScheduledTask;
+
+    @Autowired
+    ExchangeRateHistoryService exchangeRateHistoryService;
+
+    /**
+     * The exchange rates are inserted by the SQL scripts bypassing the application, so the in-memory history is reloaded
+     */
+    @BeforeEach
+    void reloadExchangeRatesHistory() {
+        exchangeRateHistoryService.reload();
+    }
+
     @Nested
     @DisplayName("findAllLatest() Tests")
     class FindAllLatestTests {
@@ -68,10 +96,51 @@ public class ExchangeRateIntegrationTest extends BaseIntegrationTest {
                     .andExpect(content().json(expectedResponse));
         }
 
+        @Test
+        @Rollback
+        void findAllLatest_withMatchingETag_isNotModified() throws Exception {
+            String eTag = mockMvc.perform(get(EXCHANGE_RATES_API_URL + LATEST)
+                            .accept(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.ETAG, startsWith("W/")))
+                    .andExpect(header().doesNotExist(HttpHeaders.LAST_MODIFIED))
+                    .andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("max-age=")))
+                    .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+            mockMvc.perform(get(EXCHANGE_RATES_API_URL + LATEST)
+                            .header(HttpHeaders.IF_NONE_MATCH, eTag)
+                            .accept(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string(HttpHeaders.ETAG, eTag))
+                    .andExpect(content().string(""));
+
+            exchangeRateHistoryService.reload();
+
+            mockMvc.perform(get(EXCHANGE_RATES_API_URL + LATEST)
+                            .header(HttpHeaders.IF_NONE_MATCH, eTag)
+                            .accept(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string(HttpHeaders.ETAG, eTag));
+
+            exchangeRateRepository.save(ExchangeRate.builder()
+                    .date(LocalDate.of(2021, 10, 1))
+                    .currency(currencyRepository.findById(2L).orElseThrow())
+                    .exchangeRate(new BigDecimal("71.50"))
+                    .build());
+            exchangeRateHistoryService.reload();
+
+            mockMvc.perform(get(EXCHANGE_RATES_API_URL + LATEST)
+                            .header(HttpHeaders.IF_NONE_MATCH, eTag)
+                            .accept(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.ETAG, not(eTag)));
+        }
+
         @Test
         @Rollback
         void findAllLatest_isEmpty() throws Exception {
             exchangeRateRepository.deleteAll();
+            exchangeRateHistoryService.reload();
 
             final long expectedSize = 0L;
 
@@ -155,6 +224,97 @@ public class ExchangeRateIntegrationTest extends BaseIntegrationTest {
                     .andExpect(content().json(expectedResponse));
         }
 
+        @Test
+        @Rollback
+        void findAllInTimeSeries_currencyCreatedElsewhere_isSuccessful() throws Exception {
+            LocalDate startDate = LocalDate.of(2021, 9, 1);
+            LocalDate endDate = LocalDate.of(2021, 9, 5);
+
+            Currency currency = currencyRepository.save(Currency.builder()
+                    .code("GBP")
+                    .symbol("£")
+                    .build());
+
+            for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1L)) {
+                exchangeRateRepository.save(ExchangeRate.builder()
+                        .date(date)
+                        .currency(currency)
+                        .exchangeRate(new BigDecimal("101.25"))
+                        .build());
+            }
+
+            refreshExchangeRateHistoryScheduledTask.run();
+
+            String URL = UriComponentsBuilder.fromUriString(EXCHANGE_RATES_API_URL + TIME_SERIES)
+                    .queryParam(START_DATE_PARAMETER, "2021-09-01")
+                    .queryParam(END_DATE_PARAMETER, "2021-09-05")
+                    .encode()
+                    .build()
+                    .toUriString();
+
+            long expectedSize = (currencyRepository.count() - 1L) * (ChronoUnit.DAYS.between(startDate, endDate) + 1L);
+
+            mockMvc.perform(get(URL).accept(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$", hasSize(Math.toIntExact(expectedSize))));
+        }
+
+        @Test
+        void findAllInTimeSeries_withCurrencyFilter_isSuccessful() throws Exception {
+            String URL = UriComponentsBuilder.fromUriString(EXCHANGE_RATES_API_URL + TIME_SERIES)
+                    .queryParam(START_DATE_PARAMETER, "2021-09-01")
+                    .queryParam(END_DATE_PARAMETER, "2021-09-05")
+                    .queryParam(CURRENCY_ID_PARAMETER, 2L, 3L)
+                    .encode()
+                    .build()
+                    .toUriString();
+
+            mockMvc.perform(get(URL).accept(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$", hasSize(10)))
+                    .andExpect(jsonPath("$[*].currencyId", everyItem(in(List.of(2, 3)))));
+        }
+
+        @Test
+        void findAllInTimeSeries_withInterval_isAggregated() throws Exception {
+            String URL = UriComponentsBuilder.fromUriString(EXCHANGE_RATES_API_URL + TIME_SERIES)
+                    .queryParam(START_DATE_PARAMETER, "2021-09-01")
+                    .queryParam(END_DATE_PARAMETER, "2021-09-05")
+                    .queryParam(CURRENCY_ID_PARAMETER, 2L)
+                    .queryParam(INTERVAL_PARAMETER, "WEEK")
+                    .encode()
+                    .build()
+                    .toUriString();
+
+            mockMvc.perform(get(URL).accept(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$", hasSize(1)))
+                    .andExpect(jsonPath("$[0].currencyId").value(2))
+                    .andExpect(jsonPath("$[0].startDate").value("2021-09-01"))
+                    .andExpect(jsonPath("$[0].endDate").value("2021-09-05"))
+                    .andExpect(jsonPath("$[0].open").value(73.28))
+                    .andExpect(jsonPath("$[0].high").value(73.28))
+                    .andExpect(jsonPath("$[0].low").value(72.85))
+                    .andExpect(jsonPath("$[0].close").value(72.85))
+                    .andExpect(jsonPath("$[0].average").value(73.0));
+        }
+
+        @Test
+        void findAllInTimeSeries_unknownCurrency_isFailed() throws Exception {
+            String URL = UriComponentsBuilder.fromUriString(EXCHANGE_RATES_API_URL + TIME_SERIES)
+                    .queryParam(START_DATE_PARAMETER, "2021-09-01")
+                    .queryParam(END_DATE_PARAMETER, "2021-09-05")
+                    .queryParam(CURRENCY_ID_PARAMETER, 2L, 999L)
+                    .encode()
+                    .build()
+                    .toUriString();
+
+            mockMvc.perform(get(URL).accept(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isNotFound())
+                    .andExpect(jsonPath("$.message")
+                            .value(ExceptionMessage.EXCHANGE_RATES_AT_DATE_NOT_FOUND.getMessage()));
+        }
+
         @Test
         void findAllInTimeSeries_dataDoesNotExistOnTheGivenDate_isFailed() throws Exception {
             LocalDate startDate = LocalDate.of(2009, 6, 10);
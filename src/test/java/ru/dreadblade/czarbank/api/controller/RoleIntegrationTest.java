@@ -18,10 +18,12 @@ import org.springframework.transaction.annotation.Transactional;
 import ru.dreadblade.czarbank.api.model.request.security.RoleRequestDTO;
 import ru.dreadblade.czarbank.domain.security.Permission;
 import ru.dreadblade.czarbank.domain.security.Role;
+import ru.dreadblade.czarbank.domain.security.User;
 import ru.dreadblade.czarbank.exception.ExceptionMessage;
 import ru.dreadblade.czarbank.repository.security.PermissionRepository;
 import ru.dreadblade.czarbank.repository.security.RoleRepository;
 import ru.dreadblade.czarbank.repository.security.UserRepository;
+import ru.dreadblade.czarbank.security.service.CustomUserDetailsService;
 
 import java.util.Collections;
 import java.util.HashSet;
@@ -47,6 +49,9 @@ public class RoleIntegrationTest extends BaseIntegrationTest {
     @Autowired
     PermissionRepository permissionRepository;
 
+    @Autowired
+    CustomUserDetailsService customUserDetailsService;
+
     private static final String ROLES_API_URL = "/api/roles";
 
     @Nested
@@ -536,6 +541,30 @@ public class RoleIntegrationTest extends BaseIntegrationTest {
             Assertions.assertThat(roleToUpdate.getPermissions()).containsExactlyInAnyOrderElementsOf(permissions);
         }
 
+        @Test
+        @WithUserDetails("admin")
+        void updateRole_withAuth_withPermission_authoritiesOfRoleMembersAreUpdated() throws Exception {
+            User employeeBeforeUpdate = (User) customUserDetailsService.loadUserByUsername("employee");
+
+            Assertions.assertThat(employeeBeforeUpdate.hasAuthority("TRANSACTION_READ")).isTrue();
+            Assertions.assertThat(employeeBeforeUpdate.hasAuthority("CURRENCY_CREATE")).isFalse();
+
+            RoleRequestDTO requestDTO = RoleRequestDTO.builder()
+                    .permissions(List.of(21L))
+                    .build();
+
+            mockMvc.perform(put(ROLES_API_URL + "/2")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(requestDTO)))
+                    .andExpect(status().isOk());
+
+            User employeeAfterUpdate = (User) customUserDetailsService.loadUserByUsername("employee");
+
+            Assertions.assertThat(employeeAfterUpdate.hasAuthority("TRANSACTION_READ")).isFalse();
+            Assertions.assertThat(employeeAfterUpdate.hasAuthority("CURRENCY_CREATE")).isTrue();
+            Assertions.assertThat(employeeAfterUpdate.hasAuthority("ROLE_EMPLOYEE")).isTrue();
+        }
+
         @Test
         @WithUserDetails("client")
         @Rollback
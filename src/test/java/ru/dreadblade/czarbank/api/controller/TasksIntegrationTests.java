@@ -320,7 +320,7 @@ public class TasksIntegrationTests extends BaseIntegrationTest {
             long expectedCount = (ChronoUnit.DAYS.between(loadHistoryFromDate, today) + 1) * currencyRepository.findAllForeignCurrencies().size();
 
             Assertions.assertThat(actualCount).isEqualTo(expectedCount);
-            Mockito.verify(exchangeRateRepository, Mockito.times(currencyRepository.findAllForeignCurrencies().size())).saveAll(Mockito.anyList());
+            Mockito.verify(exchangeRateRepository, Mockito.atLeast(currencyRepository.findAllForeignCurrencies().size())).saveAll(Mockito.anyList());
         }
     }
 }
@@ -1,5 +1,7 @@
 package ru.dreadblade.czarbank.api.controller;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.assertj.core.api.Assertions;
 import org.hamcrest.Matchers;
@@ -10,28 +12,46 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.test.context.support.WithUserDetails;
 import org.springframework.test.annotation.Rollback;
 import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 import ru.dreadblade.czarbank.api.mapper.TransactionMapper;
+import ru.dreadblade.czarbank.api.model.request.TransactionBatchRequestDTO;
 import ru.dreadblade.czarbank.api.model.request.TransactionRequestDTO;
 import ru.dreadblade.czarbank.api.model.response.TransactionResponseDTO;
 import ru.dreadblade.czarbank.domain.BankAccount;
 import ru.dreadblade.czarbank.domain.BankAccountType;
+import ru.dreadblade.czarbank.domain.LedgerEntry;
 import ru.dreadblade.czarbank.exception.ExceptionMessage;
 import ru.dreadblade.czarbank.repository.BankAccountRepository;
+import ru.dreadblade.czarbank.repository.LedgerEntryRepository;
 import ru.dreadblade.czarbank.repository.TransactionRepository;
 import ru.dreadblade.czarbank.repository.security.UserRepository;
 import ru.dreadblade.czarbank.service.BankAccountService;
 import ru.dreadblade.czarbank.service.CurrencyService;
+import ru.dreadblade.czarbank.service.LedgerService;
+import ru.dreadblade.czarbank.service.TransactionService;
+import ru.dreadblade.czarbank.service.metrics.MetricOutcome;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -48,6 +68,9 @@ public class TransactionIntegrationTest extends BaseIntegrationTest {
     @Autowired
     TransactionRepository transactionRepository;
 
+    @Autowired
+    TransactionService transactionService;
+
     @Autowired
     TransactionMapper transactionMapper;
 
@@ -60,9 +83,23 @@ public class TransactionIntegrationTest extends BaseIntegrationTest {
     @Autowired
     CurrencyService currencyService;
 
+    @Autowired
+    LedgerEntryRepository ledgerEntryRepository;
+
+    @Autowired
+    LedgerService ledgerService;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
     private static final String TRANSACTIONS_API_URL = "/api/transactions";
     private static final String BANK_ACCOUNTS_API_URL = "/api/bank-accounts";
+    private static final String USERS_API_URL = "/api/users";
     private static final String TRANSACTIONS = "transactions";
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
 
     @Nested
     @DisplayName("findAll() Tests")
@@ -165,6 +202,23 @@ public class TransactionIntegrationTest extends BaseIntegrationTest {
                     .andExpect(content().json(expectedResponse));
         }
 
+        @Test
+        @WithUserDetails("client")
+        void findAllByBankAccountId_withAuth_asOwner_createdAndDeletedAccount_ownerIndexIsUpdated() throws Exception {
+            BankAccount createdAccount = bankAccountService.create(3L, 1L, 1L);
+
+            mockMvc.perform(get(BANK_ACCOUNTS_API_URL + "/" + createdAccount.getId() + "/" + TRANSACTIONS)
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$", hasSize(0)));
+
+            bankAccountService.deleteById(createdAccount.getId());
+
+            mockMvc.perform(get(BANK_ACCOUNTS_API_URL + "/" + createdAccount.getId() + "/" + TRANSACTIONS)
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isNotFound());
+        }
+
         @Test
         @WithUserDetails("client")
         void findAllByBankAccountId_withAuth_notAsOwner_isFailed() throws Exception {
@@ -223,6 +277,72 @@ public class TransactionIntegrationTest extends BaseIntegrationTest {
         }
     }
 
+    @Nested
+    @DisplayName("findHistoryPage() Tests")
+    class FindHistoryPageTests {
+        @Test
+        @WithUserDetails("admin")
+        void findHistoryPage_withAuth_withPermission_pagesThroughTheWholeHistory() throws Exception {
+            Long bankAccountId = 2L;
+
+            String firstPage = mockMvc.perform(get(BANK_ACCOUNTS_API_URL + "/" + bankAccountId + "/" + TRANSACTIONS + "/history")
+                            .param("limit", "1"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.items", hasSize(1)))
+                    .andExpect(jsonPath("$.items[0].id").value(2))
+                    .andExpect(jsonPath("$.items[0].direction").value("INCOMING"))
+                    .andExpect(jsonPath("$.nextCursor").isString())
+                    .andReturn().getResponse().getContentAsString();
+
+            String nextCursor = objectMapper.readTree(firstPage).get("nextCursor").asText();
+
+            mockMvc.perform(get(BANK_ACCOUNTS_API_URL + "/" + bankAccountId + "/" + TRANSACTIONS + "/history")
+                            .param("limit", "1")
+                            .param("cursor", nextCursor))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.items", hasSize(1)))
+                    .andExpect(jsonPath("$.items[0].id").value(1))
+                    .andExpect(jsonPath("$.items[0].direction").value("OUTGOING"))
+                    .andExpect(jsonPath("$.nextCursor").doesNotExist());
+        }
+
+        @Test
+        @WithUserDetails("admin")
+        void findHistoryPage_withAuth_withPermission_withDirection_isSuccessful() throws Exception {
+            mockMvc.perform(get(BANK_ACCOUNTS_API_URL + "/2/" + TRANSACTIONS + "/history")
+                            .param("direction", "OUTGOING"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.items", hasSize(1)))
+                    .andExpect(jsonPath("$.items[0].sourceBankAccountNumber")
+                            .value(bankAccountRepository.findById(2L).orElseThrow().getNumber()));
+        }
+
+        @Test
+        @WithUserDetails("admin")
+        void findHistoryPage_withAuth_withPermission_withInvalidCursor_isFailed() throws Exception {
+            mockMvc.perform(get(BANK_ACCOUNTS_API_URL + "/2/" + TRANSACTIONS + "/history")
+                            .param("cursor", "invalid"))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.message").value(ExceptionMessage.INVALID_TRANSACTION_HISTORY_CURSOR.getMessage()));
+        }
+
+        @Test
+        @WithUserDetails("admin")
+        void exportHistory_withAuth_withPermission_writesOneJsonObjectPerLine() throws Exception {
+            MvcResult mvcResult = mockMvc.perform(get(BANK_ACCOUNTS_API_URL + "/2/" + TRANSACTIONS + "/export"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+
+            String response = mockMvc.perform(asyncDispatch(mvcResult))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+
+            Assertions.assertThat(response.lines()).hasSize(2);
+            Assertions.assertThat(objectMapper.readTree(response.lines().findFirst().orElseThrow()).get("id").asLong())
+                    .isEqualTo(2L);
+        }
+    }
+
     @Nested
     @DisplayName("createTransaction() Tests")
     class CreateTransactionTests {
@@ -280,6 +400,32 @@ public class TransactionIntegrationTest extends BaseIntegrationTest {
                     .isEqualTo(destinationBankAccountBalanceBeforeTransaction.add(transactionRequest.getAmount()));
         }
 
+        @Test
+        @WithUserDetails("admin")
+        @Transactional
+        void createTransaction_withAuth_withPermission_toSameBankAccount_onlyCommissionIsCharged() throws Exception {
+            BankAccount bankAccount = bankAccountRepository.findById(1L).orElseThrow();
+
+            TransactionRequestDTO transactionRequest = TransactionRequestDTO.builder()
+                    .amount(BigDecimal.valueOf(1000L))
+                    .sourceBankAccountNumber(bankAccount.getNumber())
+                    .destinationBankAccountNumber(bankAccount.getNumber())
+                    .build();
+
+            BigDecimal balanceBeforeTransaction = bankAccount.getBalance();
+            BigDecimal commission = transactionRequest.getAmount()
+                    .multiply(bankAccount.getBankAccountType().getTransactionCommission());
+
+            mockMvc.perform(post(TRANSACTIONS_API_URL)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(transactionRequest)))
+                    .andExpect(status().isCreated())
+                    .andExpect(jsonPath("$.sourceBankAccount.number").value(bankAccount.getNumber()))
+                    .andExpect(jsonPath("$.destinationBankAccount.number").value(bankAccount.getNumber()));
+
+            Assertions.assertThat(bankAccount.getBalance()).isEqualByComparingTo(balanceBeforeTransaction.subtract(commission));
+        }
+
         @Test
         @WithUserDetails("client")
         @Transactional
@@ -607,6 +753,138 @@ public class TransactionIntegrationTest extends BaseIntegrationTest {
                     .andExpect(jsonPath("$.message").value(ExceptionMessage.NOT_ENOUGH_BALANCE.getMessage()));
         }
 
+        @Test
+        @WithUserDetails("admin")
+        void createTransaction_withAuth_withPermission_outcomesAreRecordedInMetrics() throws Exception {
+            double successfulTransfers = countTransfers(MetricOutcome.SUCCESS);
+            double rejectedTransfers = countTransfers(MetricOutcome.INSUFFICIENT_BALANCE);
+
+            TransactionRequestDTO transactionRequest = TransactionRequestDTO.builder()
+                    .amount(BigDecimal.valueOf(100L))
+                    .sourceBankAccountNumber(bankAccountRepository.findById(3L).orElseThrow().getNumber())
+                    .destinationBankAccountNumber(bankAccountRepository.findById(4L).orElseThrow().getNumber())
+                    .build();
+
+            mockMvc.perform(post(TRANSACTIONS_API_URL)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(transactionRequest)))
+                    .andExpect(status().isCreated());
+
+            transactionRequest.setAmount(BigDecimal.valueOf(10000L));
+
+            mockMvc.perform(post(TRANSACTIONS_API_URL)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(transactionRequest)))
+                    .andExpect(status().isBadRequest());
+
+            Assertions.assertThat(countTransfers(MetricOutcome.SUCCESS)).isEqualTo(successfulTransfers + 1);
+            Assertions.assertThat(countTransfers(MetricOutcome.INSUFFICIENT_BALANCE)).isEqualTo(rejectedTransfers + 1);
+        }
+
+        private double countTransfers(String outcome) {
+            Timer timer = meterRegistry.find("czarbank.transfers").tag(MetricOutcome.TAG, outcome).timer();
+
+            return timer == null ? 0 : timer.count();
+        }
+
+        @Test
+        @WithUserDetails("admin")
+        @Transactional
+        void createTransaction_withAuth_withPermission_sameIdempotencyKey_isReplayed() throws Exception {
+            BankAccount sourceBankAccount = bankAccountRepository.findById(1L).orElseThrow();
+            BankAccount destinationBankAccount = bankAccountRepository.findById(2L).orElseThrow();
+
+            TransactionRequestDTO transactionRequest = TransactionRequestDTO.builder()
+                    .amount(BigDecimal.valueOf(1000L))
+                    .sourceBankAccountNumber(sourceBankAccount.getNumber())
+                    .destinationBankAccountNumber(destinationBankAccount.getNumber())
+                    .build();
+
+            long transactionsCountBeforeTransaction = transactionRepository.count();
+
+            MvcResult firstResult = mockMvc.perform(post(TRANSACTIONS_API_URL)
+                            .header(IDEMPOTENCY_KEY_HEADER, "transfer-1")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(transactionRequest)))
+                    .andExpect(status().isCreated())
+                    .andReturn();
+
+            BigDecimal destinationBankAccountBalanceAfterTransaction = destinationBankAccount.getBalance();
+
+            TransactionResponseDTO createdTransaction = objectMapper.readValue(firstResult.getResponse().getContentAsString(),
+                    TransactionResponseDTO.class);
+
+            mockMvc.perform(post(TRANSACTIONS_API_URL)
+                            .header(IDEMPOTENCY_KEY_HEADER, "transfer-1")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(transactionRequest)))
+                    .andExpect(status().isCreated())
+                    .andExpect(jsonPath("$.id").value(createdTransaction.getId()));
+
+            Assertions.assertThat(transactionRepository.count()).isEqualTo(transactionsCountBeforeTransaction + 1);
+            Assertions.assertThat(destinationBankAccount.getBalance()).isEqualTo(destinationBankAccountBalanceAfterTransaction);
+        }
+
+        @Test
+        @WithUserDetails("admin")
+        @Transactional
+        void createTransaction_withAuth_withPermission_idempotencyKeyUsedForAnotherTransaction_isFailed() throws Exception {
+            TransactionRequestDTO transactionRequest = TransactionRequestDTO.builder()
+                    .amount(BigDecimal.valueOf(1000L))
+                    .sourceBankAccountNumber(bankAccountRepository.findById(1L).orElseThrow().getNumber())
+                    .destinationBankAccountNumber(bankAccountRepository.findById(2L).orElseThrow().getNumber())
+                    .build();
+
+            mockMvc.perform(post(TRANSACTIONS_API_URL)
+                            .header(IDEMPOTENCY_KEY_HEADER, "transfer-2")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(transactionRequest)))
+                    .andExpect(status().isCreated());
+
+            transactionRequest.setAmount(BigDecimal.valueOf(2000L));
+
+            mockMvc.perform(post(TRANSACTIONS_API_URL)
+                            .header(IDEMPOTENCY_KEY_HEADER, "transfer-2")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(transactionRequest)))
+                    .andExpect(status().isUnprocessableEntity())
+                    .andExpect(jsonPath("$.message").value(ExceptionMessage.IDEMPOTENCY_KEY_ALREADY_USED.getMessage()));
+        }
+
+        @Test
+        @WithUserDetails("admin")
+        @Transactional
+        void createTransaction_withAuth_withPermission_sameIdempotencyKeyForAnotherSourceBankAccount_isSuccessful() throws Exception {
+            TransactionRequestDTO firstTransactionRequest = TransactionRequestDTO.builder()
+                    .amount(BigDecimal.valueOf(1000L))
+                    .sourceBankAccountNumber(bankAccountRepository.findById(1L).orElseThrow().getNumber())
+                    .destinationBankAccountNumber(bankAccountRepository.findById(2L).orElseThrow().getNumber())
+                    .build();
+
+            TransactionRequestDTO secondTransactionRequest = TransactionRequestDTO.builder()
+                    .amount(BigDecimal.valueOf(1000L))
+                    .sourceBankAccountNumber(bankAccountRepository.findById(2L).orElseThrow().getNumber())
+                    .destinationBankAccountNumber(bankAccountRepository.findById(1L).orElseThrow().getNumber())
+                    .build();
+
+            long transactionsCountBeforeTransactions = transactionRepository.count();
+
+            mockMvc.perform(post(TRANSACTIONS_API_URL)
+                            .header(IDEMPOTENCY_KEY_HEADER, "transfer-3")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(firstTransactionRequest)))
+                    .andExpect(status().isCreated());
+
+            mockMvc.perform(post(TRANSACTIONS_API_URL)
+                            .header(IDEMPOTENCY_KEY_HEADER, "transfer-3")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(secondTransactionRequest)))
+                    .andExpect(status().isCreated())
+                    .andExpect(jsonPath("$.sourceBankAccount.number").value(secondTransactionRequest.getSourceBankAccountNumber()));
+
+            Assertions.assertThat(transactionRepository.count()).isEqualTo(transactionsCountBeforeTransactions + 2);
+        }
+
         @Nested
         @DisplayName("Validation Tests")
         class ValidationTests {
@@ -664,4 +942,298 @@ public class TransactionIntegrationTest extends BaseIntegrationTest {
             }
         }
     }
+
+    @Nested
+    @DisplayName("createTransactions() Tests")
+    class CreateTransactionsTests {
+        private static final String TRANSACTIONS_BATCH_API_URL = TRANSACTIONS_API_URL + "/batch";
+
+        @Test
+        @WithUserDetails("admin")
+        void createTransactions_withAuth_withPermission_notAtomic_failedTransferIsSkipped() throws Exception {
+            BankAccount firstBankAccount = bankAccountRepository.findById(1L).orElseThrow();
+            BankAccount secondBankAccount = bankAccountRepository.findById(2L).orElseThrow();
+
+            long expectedTransactionsCount = transactionRepository.count() + 1;
+
+            TransactionBatchRequestDTO batchRequest = TransactionBatchRequestDTO.builder()
+                    .atomic(false)
+                    .transactions(List.of(
+                            TransactionRequestDTO.builder()
+                                    .amount(BigDecimal.valueOf(100L))
+                                    .sourceBankAccountNumber(firstBankAccount.getNumber())
+                                    .destinationBankAccountNumber(secondBankAccount.getNumber())
+                                    .build(),
+                            TransactionRequestDTO.builder()
+                                    .amount(BigDecimal.valueOf(100L))
+                                    .sourceBankAccountNumber(firstBankAccount.getNumber())
+                                    .destinationBankAccountNumber("01234567899876543210")
+                                    .build()))
+                    .build();
+
+            mockMvc.perform(post(TRANSACTIONS_BATCH_API_URL)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(batchRequest)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.createdCount").value(1))
+                    .andExpect(jsonPath("$.failedCount").value(1))
+                    .andExpect(jsonPath("$.results[0].status").value("CREATED"))
+                    .andExpect(jsonPath("$.results[0].transaction.id").isNumber())
+                    .andExpect(jsonPath("$.results[1].status").value("FAILED"))
+                    .andExpect(jsonPath("$.results[1].message")
+                            .value(ExceptionMessage.DESTINATION_BANK_ACCOUNT_DOESNT_EXIST.getMessage()));
+
+            Assertions.assertThat(transactionRepository.count()).isEqualTo(expectedTransactionsCount);
+        }
+
+        @Test
+        @WithUserDetails("admin")
+        void createTransactions_withAuth_withPermission_isAtomicFalseInJson_failedTransferIsSkipped() throws Exception {
+            BankAccount firstBankAccount = bankAccountRepository.findById(1L).orElseThrow();
+            BankAccount secondBankAccount = bankAccountRepository.findById(2L).orElseThrow();
+
+            long expectedTransactionsCount = transactionRepository.count() + 1;
+
+            Map<String, Object> batchRequest = Map.of(
+                    "isAtomic", false,
+                    "transactions", List.of(
+                            Map.of("amount", 100,
+                                    "sourceBankAccountNumber", firstBankAccount.getNumber(),
+                                    "destinationBankAccountNumber", secondBankAccount.getNumber()),
+                            Map.of("amount", 100,
+                                    "sourceBankAccountNumber", firstBankAccount.getNumber(),
+                                    "destinationBankAccountNumber", "01234567899876543210")));
+
+            mockMvc.perform(post(TRANSACTIONS_BATCH_API_URL)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(batchRequest)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.isAtomic").value(false))
+                    .andExpect(jsonPath("$.createdCount").value(1))
+                    .andExpect(jsonPath("$.failedCount").value(1));
+
+            Assertions.assertThat(transactionRepository.count()).isEqualTo(expectedTransactionsCount);
+        }
+
+        @Test
+        @WithUserDetails("admin")
+        void createTransactions_withAuth_withPermission_atomic_failedTransferRollsBackTheBatch() throws Exception {
+            BankAccount firstBankAccount = bankAccountRepository.findById(1L).orElseThrow();
+            BankAccount secondBankAccount = bankAccountRepository.findById(2L).orElseThrow();
+
+            long expectedTransactionsCount = transactionRepository.count();
+            BigDecimal expectedBalance = firstBankAccount.getBalance();
+
+            TransactionBatchRequestDTO batchRequest = TransactionBatchRequestDTO.builder()
+                    .transactions(List.of(
+                            TransactionRequestDTO.builder()
+                                    .amount(BigDecimal.valueOf(100L))
+                                    .sourceBankAccountNumber(firstBankAccount.getNumber())
+                                    .destinationBankAccountNumber(secondBankAccount.getNumber())
+                                    .build(),
+                            TransactionRequestDTO.builder()
+                                    .amount(BigDecimal.valueOf(100L))
+                                    .sourceBankAccountNumber("01234567899876543210")
+                                    .destinationBankAccountNumber(secondBankAccount.getNumber())
+                                    .build()))
+                    .build();
+
+            mockMvc.perform(post(TRANSACTIONS_BATCH_API_URL)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(batchRequest)))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.createdCount").value(0))
+                    .andExpect(jsonPath("$.failedCount").value(2))
+                    .andExpect(jsonPath("$.results[0].status").value("ROLLED_BACK"))
+                    .andExpect(jsonPath("$.results[1].status").value("FAILED"))
+                    .andExpect(jsonPath("$.results[1].message")
+                            .value(ExceptionMessage.SOURCE_BANK_ACCOUNT_DOESNT_EXIST.getMessage()));
+
+            Assertions.assertThat(transactionRepository.count()).isEqualTo(expectedTransactionsCount);
+            Assertions.assertThat(bankAccountRepository.findById(1L).orElseThrow().getBalance())
+                    .isEqualByComparingTo(expectedBalance);
+        }
+
+        @Test
+        @WithUserDetails("client")
+        void createTransactions_withAuth_notAsOwnerOfSourceBankAccounts_isForbidden() throws Exception {
+            TransactionBatchRequestDTO batchRequest = TransactionBatchRequestDTO.builder()
+                    .transactions(List.of(
+                            TransactionRequestDTO.builder()
+                                    .amount(BigDecimal.valueOf(1L))
+                                    .sourceBankAccountNumber(bankAccountRepository.findById(3L).orElseThrow().getNumber())
+                                    .destinationBankAccountNumber(bankAccountRepository.findById(2L).orElseThrow().getNumber())
+                                    .build(),
+                            TransactionRequestDTO.builder()
+                                    .amount(BigDecimal.valueOf(1L))
+                                    .sourceBankAccountNumber(bankAccountRepository.findById(1L).orElseThrow().getNumber())
+                                    .destinationBankAccountNumber(bankAccountRepository.findById(2L).orElseThrow().getNumber())
+                                    .build()))
+                    .build();
+
+            mockMvc.perform(post(TRANSACTIONS_BATCH_API_URL)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(batchRequest)))
+                    .andExpect(status().isForbidden())
+                    .andExpect(jsonPath("$.message").value("Access is denied"));
+        }
+    }
+
+    @Nested
+    @DisplayName("Concurrency Tests")
+    class ConcurrencyTests {
+        private static final int TRANSFERS_PER_DIRECTION = 20;
+
+        /**
+         * Both directions lock the same two accounts, the balances must end up as if the transfers ran one by one
+         */
+        @Test
+        void createTransaction_parallelOppositeDirections_balancesAreConsistent() throws Exception {
+            BankAccount firstBankAccount = bankAccountRepository.findById(1L).orElseThrow();
+            BankAccount secondBankAccount = bankAccountRepository.findById(2L).orElseThrow();
+
+            BigDecimal amount = BigDecimal.TEN;
+            BigDecimal transfers = BigDecimal.valueOf(TRANSFERS_PER_DIRECTION);
+
+            BigDecimal expectedFirstBalance = firstBankAccount.getBalance()
+                    .subtract(amount.multiply(firstBankAccount.getBankAccountType().getTransactionCommission())
+                            .multiply(transfers));
+            BigDecimal expectedSecondBalance = secondBankAccount.getBalance()
+                    .subtract(amount.multiply(secondBankAccount.getBankAccountType().getTransactionCommission())
+                            .multiply(transfers));
+            long expectedTransactionsCount = transactionRepository.count() + 2L * TRANSFERS_PER_DIRECTION;
+
+            ExecutorService executor = Executors.newFixedThreadPool(8);
+            CountDownLatch start = new CountDownLatch(1);
+
+            try {
+                List<Callable<Object>> tasks = new ArrayList<>();
+
+                for (int i = 0; i < TRANSFERS_PER_DIRECTION; i++) {
+                    tasks.add(transferTask(start, firstBankAccount, secondBankAccount, amount));
+                    tasks.add(transferTask(start, secondBankAccount, firstBankAccount, amount));
+                }
+
+                List<Future<Object>> futures = tasks.stream().map(executor::submit).toList();
+
+                start.countDown();
+
+                for (Future<Object> future : futures) {
+                    future.get(30, TimeUnit.SECONDS);
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+
+            Assertions.assertThat(bankAccountRepository.findById(1L).orElseThrow().getBalance())
+                    .isEqualByComparingTo(expectedFirstBalance);
+            Assertions.assertThat(bankAccountRepository.findById(2L).orElseThrow().getBalance())
+                    .isEqualByComparingTo(expectedSecondBalance);
+            Assertions.assertThat(transactionRepository.count()).isEqualTo(expectedTransactionsCount);
+            Assertions.assertThat(ledgerService.rebuildBalances()).isZero();
+        }
+
+        private Callable<Object> transferTask(CountDownLatch start, BankAccount source, BankAccount destination,
+                                              BigDecimal amount) {
+            return () -> {
+                start.await();
+
+                return transactionService.createTransaction(TransactionRequestDTO.builder()
+                        .amount(amount)
+                        .sourceBankAccountNumber(source.getNumber())
+                        .destinationBankAccountNumber(destination.getNumber())
+                        .build());
+            };
+        }
+    }
+
+    @Nested
+    @DisplayName("Ledger Tests")
+    class LedgerTests {
+        @Test
+        @WithUserDetails("admin")
+        @Transactional
+        void createTransaction_withAuth_withPermission_appendsLedgerEntriesMatchingTheBalances() throws Exception {
+            BankAccount sourceBankAccount = bankAccountRepository.findById(1L).orElseThrow();
+            BankAccount destinationBankAccount = bankAccountRepository.findById(3L).orElseThrow();
+
+            TransactionRequestDTO transactionRequest = TransactionRequestDTO.builder()
+                    .amount(BigDecimal.valueOf(1000L))
+                    .sourceBankAccountNumber(sourceBankAccount.getNumber())
+                    .destinationBankAccountNumber(destinationBankAccount.getNumber())
+                    .build();
+
+            mockMvc.perform(post(TRANSACTIONS_API_URL)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(transactionRequest)))
+                    .andExpect(status().isCreated());
+
+            List<LedgerEntry> sourceEntries = ledgerEntryRepository.findAllByBankAccountIdOrderByIdAsc(sourceBankAccount.getId());
+            List<LedgerEntry> destinationEntries = ledgerEntryRepository.findAllByBankAccountIdOrderByIdAsc(destinationBankAccount.getId());
+
+            Assertions.assertThat(sourceEntries).extracting(LedgerEntry::getEntryType)
+                    .containsExactly(LedgerEntry.Type.OPENING, LedgerEntry.Type.DEBIT, LedgerEntry.Type.COMMISSION);
+            Assertions.assertThat(destinationEntries).extracting(LedgerEntry::getEntryType)
+                    .containsExactly(LedgerEntry.Type.OPENING, LedgerEntry.Type.CREDIT);
+
+            Assertions.assertThat(sumOf(sourceEntries)).isEqualByComparingTo(sourceBankAccount.getBalance());
+            Assertions.assertThat(sumOf(destinationEntries)).isEqualByComparingTo(destinationBankAccount.getBalance());
+
+            Assertions.assertThat(ledgerService.rebuildBalances()).isZero();
+        }
+
+        @Test
+        @Transactional
+        void rebuildBalances_balanceDiffersFromLedger_balanceIsRestored() {
+            BigDecimal expectedBalance = bankAccountRepository.findById(1L).orElseThrow().getBalance();
+
+            jdbcTemplate.update("update bank_account set balance = 0 where id = 1");
+
+            Assertions.assertThat(ledgerService.rebuildBalances()).isEqualTo(1);
+            Assertions.assertThat(jdbcTemplate.queryForObject("select balance from bank_account where id = 1", BigDecimal.class))
+                    .isEqualByComparingTo(expectedBalance);
+        }
+
+        @Test
+        @WithUserDetails("admin")
+        void deleteUser_withTransfers_keepsAccountsAndLedgerEntries() throws Exception {
+            BankAccount sourceBankAccount = bankAccountRepository.findById(2L).orElseThrow();
+            BankAccount destinationBankAccount = bankAccountRepository.findById(1L).orElseThrow();
+            Long ownerId = sourceBankAccount.getOwner().getId();
+
+            TransactionRequestDTO transactionRequest = TransactionRequestDTO.builder()
+                    .amount(BigDecimal.valueOf(1000L))
+                    .sourceBankAccountNumber(sourceBankAccount.getNumber())
+                    .destinationBankAccountNumber(destinationBankAccount.getNumber())
+                    .build();
+
+            mockMvc.perform(post(TRANSACTIONS_API_URL)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(transactionRequest)))
+                    .andExpect(status().isCreated());
+
+            List<LedgerEntry> sourceEntries = ledgerEntryRepository.findAllByBankAccountIdOrderByIdAsc(sourceBankAccount.getId());
+
+            mockMvc.perform(delete(USERS_API_URL + "/" + ownerId))
+                    .andExpect(status().isNoContent());
+
+            BankAccount closedBankAccount = bankAccountRepository.findById(sourceBankAccount.getId()).orElseThrow();
+
+            Assertions.assertThat(userRepository.existsById(ownerId)).isFalse();
+            Assertions.assertThat(closedBankAccount.getIsClosed()).isTrue();
+            Assertions.assertThat(closedBankAccount.getOwner()).isNull();
+            Assertions.assertThat(ledgerEntryRepository.findAllByBankAccountIdOrderByIdAsc(sourceBankAccount.getId()))
+                    .hasSameSizeAs(sourceEntries);
+
+            mockMvc.perform(get(BANK_ACCOUNTS_API_URL + "/" + sourceBankAccount.getId()))
+                    .andExpect(status().isNotFound());
+        }
+
+        private BigDecimal sumOf(List<LedgerEntry> entries) {
+            return entries.stream()
+                    .map(LedgerEntry::getAmount)
+                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+        }
+    }
 }
+
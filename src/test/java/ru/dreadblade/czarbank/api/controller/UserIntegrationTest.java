@@ -8,10 +8,13 @@ import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.SpyBean;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.security.test.context.support.WithUserDetails;
 import org.springframework.test.annotation.Rollback;
@@ -28,14 +31,22 @@ import ru.dreadblade.czarbank.api.mapper.security.RoleMapper;
 import ru.dreadblade.czarbank.api.mapper.security.UserMapper;
 import ru.dreadblade.czarbank.api.model.request.security.UserRequestDTO;
 import ru.dreadblade.czarbank.api.model.response.security.UserResponseDTO;
+import ru.dreadblade.czarbank.domain.OutboundMail;
 import ru.dreadblade.czarbank.domain.security.Role;
 import ru.dreadblade.czarbank.domain.security.User;
 import ru.dreadblade.czarbank.exception.ExceptionMessage;
+import ru.dreadblade.czarbank.repository.OutboundMailRepository;
 import ru.dreadblade.czarbank.repository.security.RoleRepository;
 import ru.dreadblade.czarbank.repository.security.UserRepository;
+import ru.dreadblade.czarbank.service.email.HtmlMail;
+import ru.dreadblade.czarbank.service.email.MailOutboxService;
+import ru.dreadblade.czarbank.service.email.MailService;
 
 import javax.mail.internet.MimeMessage;
+import java.time.Instant;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -52,6 +63,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @Sql(value = "/user/users-deletion.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
 public class UserIntegrationTest extends BaseIntegrationTest {
     private static final String USERS_API_URL = "/api/users";
+    private static final String SMTP_FAILURE_MESSAGE = "SMTP server is unavailable";
 
     @Autowired
     UserRepository userRepository;
@@ -65,9 +77,24 @@ public class UserIntegrationTest extends BaseIntegrationTest {
     @Autowired
     RoleMapper roleMapper;
 
+    @Autowired
+    OutboundMailRepository outboundMailRepository;
+
+    @Autowired
+    MailOutboxService mailOutboxService;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
     @SpyBean
     JavaMailSender javaMailSender;
 
+    @SpyBean
+    MailService mailService;
+
+    @Value("${czar-bank.mail.outbox.max-attempts:8}")
+    int maxAttempts;
+
     @Container
     static GenericContainer<?> greenMailContainer = new GenericContainer<>(DockerImageName.parse("greenmail/standalone:1.6.9"))
             .withCreateContainerCmdModifier(cmd -> cmd.withName("czar-bank-test-greenmail"))
@@ -223,7 +250,12 @@ public class UserIntegrationTest extends BaseIntegrationTest {
                     .content(objectMapper.writeValueAsString(requestDTO)))
                     .andExpect(status().isCreated());
 
-            Mockito.verify(javaMailSender, Mockito.times(1)).send(Mockito.any(MimeMessage.class));
+            Mockito.verify(javaMailSender, Mockito.never()).send(Mockito.any(MimeMessage.class));
+
+            Assertions.assertThat(outboundMailRepository.findAllByRecipient(requestDTO.getEmail()))
+                    .singleElement()
+                    .extracting(OutboundMail::getStatus)
+                    .isEqualTo(OutboundMail.Status.PENDING);
 
             User createdUser = userRepository.findByUsername(requestDTO.getUsername()).orElseThrow();
 
@@ -246,7 +278,12 @@ public class UserIntegrationTest extends BaseIntegrationTest {
                             .content(objectMapper.writeValueAsString(requestDTO)))
                     .andExpect(status().isCreated());
 
-            Mockito.verify(javaMailSender, Mockito.times(1)).send(Mockito.any(MimeMessage.class));
+            Mockito.verify(javaMailSender, Mockito.never()).send(Mockito.any(MimeMessage.class));
+
+            Assertions.assertThat(outboundMailRepository.findAllByRecipient(requestDTO.getEmail()))
+                    .singleElement()
+                    .extracting(OutboundMail::getStatus)
+                    .isEqualTo(OutboundMail.Status.PENDING);
 
             User createdUser = userRepository.findByUsername(requestDTO.getUsername()).orElseThrow();
 
@@ -255,6 +292,93 @@ public class UserIntegrationTest extends BaseIntegrationTest {
             Assertions.assertThat(createdUser.getRoles()).doesNotContain(roleRepository.findByName("EMPLOYEE").orElseThrow());
         }
 
+        @Test
+        void createUser_withoutAuth_verificationEmailIsDispatched() throws Exception {
+            UserRequestDTO requestDTO = UserRequestDTO.builder()
+                    .username("boyarin")
+                    .email("boyarin@czarbank.org")
+                    .password("c0mp1exP@ssw0rd")
+                    .build();
+
+            mockMvc.perform(post(USERS_API_URL)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(requestDTO)))
+                    .andExpect(status().isCreated());
+
+            Assertions.assertThat(mailOutboxService.dispatchAll()).isEqualTo(1);
+
+            Mockito.verify(mailService, Mockito.times(1)).sendHtmlMails(Mockito.anyList());
+
+            OutboundMail outboundMail = outboundMailRepository.findAllByRecipient(requestDTO.getEmail()).get(0);
+
+            Assertions.assertThat(outboundMail.getStatus()).isEqualTo(OutboundMail.Status.SENT);
+            Assertions.assertThat(outboundMail.getAttempts()).isEqualTo(1);
+            Assertions.assertThat(outboundMail.getSentAt()).isNotNull();
+        }
+
+        @Test
+        void createUser_withoutAuth_verificationEmailIsFailed_isRetriedLater() throws Exception {
+            UserRequestDTO requestDTO = UserRequestDTO.builder()
+                    .username("boyarin")
+                    .email("boyarin@czarbank.org")
+                    .password("c0mp1exP@ssw0rd")
+                    .build();
+
+            mockMvc.perform(post(USERS_API_URL)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(requestDTO)))
+                    .andExpect(status().isCreated());
+
+            Mockito.doAnswer(invocation -> failAll(invocation.getArgument(0)))
+                    .when(mailService).sendHtmlMails(Mockito.anyList());
+
+            Assertions.assertThat(mailOutboxService.dispatchAll()).isEqualTo(1);
+            Assertions.assertThat(mailOutboxService.dispatchAll()).isZero();
+
+            OutboundMail outboundMail = outboundMailRepository.findAllByRecipient(requestDTO.getEmail()).get(0);
+
+            Assertions.assertThat(outboundMail.getStatus()).isEqualTo(OutboundMail.Status.PENDING);
+            Assertions.assertThat(outboundMail.getAttempts()).isEqualTo(1);
+            Assertions.assertThat(outboundMail.getNextAttemptAt()).isAfter(Instant.now());
+            Assertions.assertThat(outboundMail.getLastError()).isEqualTo(SMTP_FAILURE_MESSAGE);
+        }
+
+        @Test
+        void createUser_withoutAuth_verificationEmailRunsOutOfAttempts_isDead() throws Exception {
+            UserRequestDTO requestDTO = UserRequestDTO.builder()
+                    .username("boyarin")
+                    .email("boyarin@czarbank.org")
+                    .password("c0mp1exP@ssw0rd")
+                    .build();
+
+            mockMvc.perform(post(USERS_API_URL)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(requestDTO)))
+                    .andExpect(status().isCreated());
+
+            jdbcTemplate.update("update outbound_mail set attempts = ? where recipient = ?", maxAttempts - 1,
+                    requestDTO.getEmail());
+
+            Mockito.doAnswer(invocation -> failAll(invocation.getArgument(0)))
+                    .when(mailService).sendHtmlMails(Mockito.anyList());
+
+            Assertions.assertThat(mailOutboxService.dispatchAll()).isEqualTo(1);
+
+            OutboundMail outboundMail = outboundMailRepository.findAllByRecipient(requestDTO.getEmail()).get(0);
+
+            Assertions.assertThat(outboundMail.getStatus()).isEqualTo(OutboundMail.Status.DEAD);
+            Assertions.assertThat(outboundMail.getAttempts()).isEqualTo(maxAttempts);
+            Assertions.assertThat(outboundMail.getSentAt()).isNull();
+        }
+
+        private Map<HtmlMail, Exception> failAll(List<HtmlMail> mails) {
+            Map<HtmlMail, Exception> failures = new IdentityHashMap<>();
+
+            mails.forEach(mail -> failures.put(mail, new MailSendException(SMTP_FAILURE_MESSAGE)));
+
+            return failures;
+        }
+
         @Nested
         @DisplayName("Validation Tests")
         class ValidationTests {
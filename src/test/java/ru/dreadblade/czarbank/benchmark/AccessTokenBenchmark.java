@@ -0,0 +1,92 @@
+package ru.dreadblade.czarbank.benchmark;
+
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+import ru.dreadblade.czarbank.domain.security.Permission;
+import ru.dreadblade.czarbank.domain.security.Role;
+import ru.dreadblade.czarbank.domain.security.User;
+import ru.dreadblade.czarbank.repository.security.PermissionRepository;
+import ru.dreadblade.czarbank.repository.security.RoleRepository;
+import ru.dreadblade.czarbank.repository.security.UserRepository;
+import ru.dreadblade.czarbank.security.service.AccessTokenService;
+import ru.dreadblade.czarbank.security.service.AuthoritySetService;
+import ru.dreadblade.czarbank.security.service.PrincipalCacheService;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures signing and verifying the access tokens of {@link AccessTokenService}. The principals are served from
+ * the principal cache, so the verification measures the HMAC and the parsing of the token only.
+ * Run through {@link BenchmarkSuite} or {@link #main} with the test classpath
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AccessTokenBenchmark {
+    private AccessTokenService accessTokenService;
+    private User user;
+    private String accessToken;
+
+    @Setup
+    public void setUp() {
+        user = User.builder()
+                .id(1L)
+                .username("admin")
+                .addRole(Role.builder()
+                        .id(1L)
+                        .name("ADMIN")
+                        .addPermission(Permission.builder().id(1L).name("BANK_ACCOUNT_READ").build())
+                        .addPermission(Permission.builder().id(2L).name("BANK_ACCOUNT_CREATE").build())
+                        .addPermission(Permission.builder().id(3L).name("TRANSACTION_READ").build())
+                        .build())
+                .build();
+
+        UserRepository userRepository = Mockito.mock(UserRepository.class);
+        Mockito.when(userRepository.findByUsername(user.getUsername())).thenReturn(Optional.of(user));
+
+        List<Role> roles = List.copyOf(user.getRoles());
+
+        RoleRepository roleRepository = Mockito.mock(RoleRepository.class);
+        Mockito.when(roleRepository.findAllById(Mockito.anyIterable())).thenReturn(roles);
+
+        PermissionRepository permissionRepository = Mockito.mock(PermissionRepository.class);
+        Mockito.when(permissionRepository.findAll()).thenReturn(roles.stream()
+                .flatMap(role -> role.getPermissions().stream())
+                .toList());
+
+        accessTokenService = new AccessTokenService("czar-bank-benchmark-secret-key", userRepository,
+                new PrincipalCacheService(10000, 3600),
+                new AuthoritySetService(roleRepository, permissionRepository, 1000, 60));
+
+        ReflectionTestUtils.setField(accessTokenService, "issuer", "Czar Bank");
+        ReflectionTestUtils.setField(accessTokenService, "audience", "Czar Bank clients and staff");
+        ReflectionTestUtils.setField(accessTokenService, "accessTokenExpirationSeconds", 3600);
+
+        accessToken = accessTokenService.generateAccessToken(user);
+    }
+
+    @Benchmark
+    public String sign() {
+        return accessTokenService.generateAccessToken(user);
+    }
+
+    @Benchmark
+    public User verify() {
+        return accessTokenService.getUserFromToken(accessToken);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(AccessTokenBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,36 @@
+package ru.dreadblade.czarbank.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+
+/**
+ * Runs the in-memory JMH benchmarks and writes the results to target/benchmarks/jmh-{label}.json, where the label
+ * is taken from the benchmark.label system property (e.g. the abbreviated commit hash), so the runs of different
+ * commits can be compared with any JMH result viewer. The benchmarks that need Docker are run separately through
+ * their own main methods
+ */
+public class BenchmarkSuite {
+    private static final String RESULTS_DIRECTORY = "target/benchmarks";
+
+    public static void main(String[] args) throws RunnerException {
+        String label = System.getProperty("benchmark.label", "local");
+
+        new File(RESULTS_DIRECTORY).mkdirs();
+
+        new Runner(new OptionsBuilder()
+                .include(CurrencyExchangeBenchmark.class.getSimpleName())
+                .include(UserAuthoritiesBenchmark.class.getSimpleName())
+                .include(AccessTokenBenchmark.class.getSimpleName())
+                .include(MapperBenchmark.class.getSimpleName())
+                .include(CentralBankOfRussiaXmlParsingBenchmark.class.getSimpleName())
+                .include(EmailTemplateBenchmark.class.getSimpleName())
+                .jvmArgsAppend("-Xms1g", "-Xmx1g")
+                .resultFormat(ResultFormatType.JSON)
+                .result(RESULTS_DIRECTORY + "/jmh-" + label + ".json")
+                .build()).run();
+    }
+}
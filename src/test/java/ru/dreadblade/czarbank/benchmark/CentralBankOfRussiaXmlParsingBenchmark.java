@@ -0,0 +1,89 @@
+package ru.dreadblade.czarbank.benchmark;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.dataformat.xml.XmlMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import ru.dreadblade.czarbank.api.model.response.external.CentralBankOfRussiaExchangeRatesBetweenDatesResponseDTO;
+import ru.dreadblade.czarbank.service.external.CentralBankOfRussiaXmlReader;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the Jackson object tree binding of an exchange rates history document (XML_dynamic.asp)
+ * with the streaming StAX reader. Run through {@link #main} with the test classpath
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-XX:+UseParallelGC")
+public class CentralBankOfRussiaXmlParsingBenchmark {
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd.MM.yyyy");
+
+    /**
+     * Number of published records, 14 years of working days is about 3500
+     */
+    @Param({ "250", "3500" })
+    private int recordsCount;
+
+    private byte[] document;
+    private XmlMapper xmlMapper;
+
+    @Setup
+    public void setUp() {
+        StringBuilder xml = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n")
+                .append("<ValCurs ID=\"R01235\" name=\"Foreign Currency Market Dynamic\">\n");
+        LocalDate date = LocalDate.of(2012, 1, 1);
+
+        for (int i = 0; i < recordsCount; i++) {
+            xml.append("<Record Date=\"").append(date.plusDays(i).format(DATE_FORMATTER)).append("\" Id=\"R01235\">")
+                    .append("<Nominal>1</Nominal>")
+                    .append("<Value>").append(30 + i % 50).append(',').append(1000 + i % 9000).append("</Value>")
+                    .append("</Record>\n");
+        }
+
+        document = xml.append("</ValCurs>").toString().getBytes(StandardCharsets.UTF_8);
+
+        xmlMapper = XmlMapper.builder()
+                .addModule(new JavaTimeModule())
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .build();
+    }
+
+    @Benchmark
+    public void jacksonObjectTree(Blackhole blackhole) throws Exception {
+        var response = xmlMapper.readValue(document, CentralBankOfRussiaExchangeRatesBetweenDatesResponseDTO.class);
+
+        for (var rate : response.getRates()) {
+            blackhole.consume(rate.getDate());
+            blackhole.consume(rate.getNominal());
+            blackhole.consume(rate.getRate());
+        }
+    }
+
+    @Benchmark
+    public void staxStreaming(Blackhole blackhole) throws Exception {
+        CentralBankOfRussiaXmlReader.readRecords(new ByteArrayInputStream(document), (date, nominal, rate) -> {
+            blackhole.consume(date);
+            blackhole.consume(nominal);
+            blackhole.consume(rate);
+        });
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CentralBankOfRussiaXmlParsingBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build()).run();
+    }
+}
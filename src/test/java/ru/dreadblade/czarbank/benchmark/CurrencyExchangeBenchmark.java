@@ -0,0 +1,80 @@
+package ru.dreadblade.czarbank.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import ru.dreadblade.czarbank.domain.Currency;
+import ru.dreadblade.czarbank.service.CurrencyService;
+import ru.dreadblade.czarbank.service.metrics.ExchangeRateMetrics;
+import ru.dreadblade.czarbank.service.snapshot.ExchangeRateSnapshot;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link CurrencyService#exchangeCurrency} against an exchange rates snapshot for every conversion path:
+ * the same currency, from and to the base currency and between two foreign currencies.
+ * Run through {@link BenchmarkSuite} or {@link #main} with the test classpath
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CurrencyExchangeBenchmark {
+    private CurrencyService currencyService;
+    private ExchangeRateSnapshot snapshot;
+
+    private Currency rub;
+    private Currency usd;
+    private Currency eur;
+
+    private BigDecimal amount;
+
+    @Setup
+    public void setUp() {
+        currencyService = new CurrencyService(null, null, null, null, null, null,
+                new ExchangeRateMetrics(new SimpleMeterRegistry()));
+        snapshot = new ExchangeRateSnapshot(1L, LocalDate.of(2021, 9, 5), Map.of(
+                "USD", new BigDecimal("72.85"),
+                "EUR", new BigDecimal("86.54"),
+                "JPY", new BigDecimal("0.67")));
+
+        rub = Currency.builder().id(1L).code("RUB").symbol("₽").build();
+        usd = Currency.builder().id(2L).code("USD").symbol("$").build();
+        eur = Currency.builder().id(3L).code("EUR").symbol("€").build();
+
+        amount = new BigDecimal("1234.56");
+    }
+
+    @Benchmark
+    public BigDecimal sameCurrency() {
+        return currencyService.exchangeCurrency(snapshot, usd, amount, usd);
+    }
+
+    @Benchmark
+    public BigDecimal fromBaseCurrency() {
+        return currencyService.exchangeCurrency(snapshot, rub, amount, usd);
+    }
+
+    @Benchmark
+    public BigDecimal toBaseCurrency() {
+        return currencyService.exchangeCurrency(snapshot, usd, amount, rub);
+    }
+
+    @Benchmark
+    public BigDecimal crossCurrency() {
+        return currencyService.exchangeCurrency(snapshot, usd, amount, eur);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CurrencyExchangeBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
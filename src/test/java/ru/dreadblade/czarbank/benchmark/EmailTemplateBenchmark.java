@@ -0,0 +1,90 @@
+package ru.dreadblade.czarbank.benchmark;
+
+import freemarker.template.TemplateException;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.ui.freemarker.FreeMarkerTemplateUtils;
+import org.springframework.web.servlet.view.freemarker.FreeMarkerConfigurer;
+import ru.dreadblade.czarbank.config.CzarBankConfiguration;
+import ru.dreadblade.czarbank.service.email.EmailTemplate;
+import ru.dreadblade.czarbank.service.email.VerificationEmail;
+import ru.dreadblade.czarbank.service.freemarker.FreemarkerTemplateService;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the renders of the verification email per second through {@link FreemarkerTemplateService}, one by one
+ * and in batches, against the template lookup with a fresh map model and a fresh writer per render.
+ * Run through {@link BenchmarkSuite} or {@link #main} with the test classpath
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmailTemplateBenchmark {
+    private static final int BATCH_SIZE = 50;
+
+    private FreeMarkerConfigurer freeMarkerConfigurer;
+    private FreemarkerTemplateService freemarkerTemplateService;
+
+    private VerificationEmail verificationEmail;
+    private List<VerificationEmail> verificationEmails;
+
+    @Setup
+    public void setUp() throws IOException {
+        freeMarkerConfigurer = new CzarBankConfiguration().freeMarkerClassLoaderConfig();
+        freemarkerTemplateService = new FreemarkerTemplateService(freeMarkerConfigurer);
+
+        verificationEmail = verificationEmail(0);
+        verificationEmails = new ArrayList<>(BATCH_SIZE);
+
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            verificationEmails.add(verificationEmail(i));
+        }
+    }
+
+    @Benchmark
+    public String render() throws IOException, TemplateException {
+        return freemarkerTemplateService.render(EmailTemplate.VERIFICATION, verificationEmail);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public List<String> renderAll() throws IOException, TemplateException {
+        return freemarkerTemplateService.renderAll(EmailTemplate.VERIFICATION, verificationEmails);
+    }
+
+    @Benchmark
+    public String renderWithTemplateLookup() throws IOException, TemplateException {
+        Map<String, Object> templateModel = new HashMap<>();
+        templateModel.put("username", verificationEmail.getUsername());
+        templateModel.put("emailVerificationUrl", verificationEmail.getEmailVerificationUrl());
+        templateModel.put("supportEmailAddress", verificationEmail.getSupportEmailAddress());
+
+        return FreeMarkerTemplateUtils.processTemplateIntoString(freeMarkerConfigurer.getConfiguration()
+                .getTemplate(EmailTemplate.VERIFICATION.getFileName()), templateModel);
+    }
+
+    private static VerificationEmail verificationEmail(int index) {
+        return VerificationEmail.builder()
+                .username("boyarin" + index)
+                .emailVerificationUrl("https://czarbank.org/api/account-management/verify-email/" +
+                        "4f6c1b0e-2b1f-4a9e-9d3c-" + String.format("%012d", index))
+                .build();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(EmailTemplateBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,97 @@
+package ru.dreadblade.czarbank.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Measures the throughput of concurrent credits of a single hot bank account depending on the number of its
+ * balance slots, 1 slot behaves as the plain balance row. Every thread stands for a separate payer and credits
+ * the slot picked by its hash, as {@link ru.dreadblade.czarbank.service.BankAccountBalanceSlotService} does.
+ * Needs Docker, run through {@link #main} with the test classpath
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(16)
+@Fork(1)
+public class HotAccountCreditBenchmark {
+    private static final long HOT_ACCOUNT_ID = 1L;
+
+    @Param({ "1", "4", "16" })
+    private int slotsCount;
+
+    private PostgreSQLContainer<?> postgresqlContainer;
+    private final AtomicInteger payerCounter = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        postgresqlContainer = new PostgreSQLContainer<>(DockerImageName.parse("postgres:14"));
+        postgresqlContainer.start();
+
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            statement.execute("create table bank_account_balance_slot (bank_account_id bigint not null, " +
+                    "slot integer not null, balance numeric(20, 2) not null default 0, " +
+                    "primary key (bank_account_id, slot))");
+            statement.execute("insert into bank_account_balance_slot (bank_account_id, slot) " +
+                    "select " + HOT_ACCOUNT_ID + ", s from generate_series(0, " + (slotsCount - 1) + ") s");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        postgresqlContainer.stop();
+    }
+
+    @State(Scope.Thread)
+    public static class Payer {
+        private Connection connection;
+        private PreparedStatement creditStatement;
+        private int slot;
+
+        @Setup(Level.Trial)
+        public void setUp(HotAccountCreditBenchmark benchmark) throws SQLException {
+            connection = benchmark.connect();
+            creditStatement = connection.prepareStatement("update bank_account_balance_slot " +
+                    "set balance = balance + 1 where bank_account_id = ? and slot = ?");
+            slot = Math.floorMod(Long.hashCode(benchmark.payerCounter.incrementAndGet()), benchmark.slotsCount);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws SQLException {
+            connection.close();
+        }
+    }
+
+    @Benchmark
+    public int credit(Payer payer) throws SQLException {
+        payer.creditStatement.setLong(1, HOT_ACCOUNT_ID);
+        payer.creditStatement.setInt(2, payer.slot);
+
+        return payer.creditStatement.executeUpdate();
+    }
+
+    private Connection connect() throws SQLException {
+        return DriverManager.getConnection(postgresqlContainer.getJdbcUrl(), postgresqlContainer.getUsername(),
+                postgresqlContainer.getPassword());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(HotAccountCreditBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,92 @@
+package ru.dreadblade.czarbank.benchmark;
+
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import ru.dreadblade.czarbank.api.mapper.BankAccountMapper;
+import ru.dreadblade.czarbank.api.mapper.TransactionMapper;
+import ru.dreadblade.czarbank.api.model.response.BankAccountResponseDTO;
+import ru.dreadblade.czarbank.api.model.response.TransactionResponseDTO;
+import ru.dreadblade.czarbank.domain.BankAccount;
+import ru.dreadblade.czarbank.domain.BankAccountType;
+import ru.dreadblade.czarbank.domain.Currency;
+import ru.dreadblade.czarbank.domain.Transaction;
+import ru.dreadblade.czarbank.domain.security.User;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the MapStruct mappers used by the bank account and the transaction endpoints.
+ * Run through {@link BenchmarkSuite} or {@link #main} with the test classpath
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapperBenchmark {
+    private BankAccountMapper bankAccountMapper;
+    private TransactionMapper transactionMapper;
+
+    private BankAccount bankAccount;
+    private Transaction transaction;
+
+    @Setup
+    public void setUp() {
+        bankAccountMapper = Mappers.getMapper(BankAccountMapper.class);
+        transactionMapper = Mappers.getMapper(TransactionMapper.class);
+
+        Currency currency = Currency.builder().id(1L).code("RUB").symbol("₽").build();
+        BankAccountType bankAccountType = BankAccountType.builder()
+                .id(1L)
+                .name("Czar")
+                .transactionCommission(new BigDecimal("0.01"))
+                .currencyExchangeCommission(new BigDecimal("0.01"))
+                .build();
+
+        bankAccount = bankAccount(1L, "39903336089073190794", User.builder().id(4L).build(), currency, bankAccountType);
+
+        transaction = Transaction.builder()
+                .id(1L)
+                .amount(new BigDecimal("1000.00"))
+                .receivedAmount(new BigDecimal("1000.00"))
+                .sourceBankAccount(bankAccount)
+                .destinationBankAccount(bankAccount(2L, "33390474811219980161", User.builder().id(5L).build(),
+                        currency, bankAccountType))
+                .createdAt(Instant.parse("2022-06-01T12:00:00Z"))
+                .build();
+    }
+
+    @Benchmark
+    public BankAccountResponseDTO bankAccountToResponseDto() {
+        return bankAccountMapper.entityToResponseDto(bankAccount);
+    }
+
+    @Benchmark
+    public TransactionResponseDTO transactionToResponseDto() {
+        return transactionMapper.entityToResponseDto(transaction);
+    }
+
+    private static BankAccount bankAccount(Long id, String number, User owner, Currency currency,
+                                           BankAccountType bankAccountType) {
+        return BankAccount.builder()
+                .id(id)
+                .number(number)
+                .balance(new BigDecimal("15000.00"))
+                .owner(owner)
+                .usedCurrency(currency)
+                .bankAccountType(bankAccountType)
+                .build();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(MapperBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
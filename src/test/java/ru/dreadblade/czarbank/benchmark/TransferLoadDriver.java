@@ -0,0 +1,257 @@
+package ru.dreadblade.czarbank.benchmark;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.dreadblade.czarbank.CzarBankApplication;
+import ru.dreadblade.czarbank.api.model.request.TransactionRequestDTO;
+import ru.dreadblade.czarbank.service.TransactionService;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drives concurrent transfers through {@link TransactionService#createTransaction(TransactionRequestDTO)} against
+ * a local PostgreSQL database and reports the throughput and the latency percentiles. The schema is migrated
+ * by Flyway and the bank accounts of the driver are recreated on every run, the pairs of accounts are drawn from
+ * a seeded random, so the runs of different commits execute the same transfers.
+ * <p>
+ * The results are printed and appended to target/benchmarks/transfer-load.csv together with the benchmark.label
+ * system property. Run through {@link #main} with the test classpath, the settings are system properties:
+ * benchmark.jdbc-url, benchmark.username, benchmark.password, benchmark.threads, benchmark.accounts,
+ * benchmark.warmup-seconds, benchmark.duration-seconds and benchmark.seed
+ */
+public class TransferLoadDriver {
+    private static final String OWNER_USERNAME = "transfer-load-driver";
+    private static final String BANK_ACCOUNT_TYPE_NAME = "Transfer load driver";
+    private static final BigDecimal OPENING_BALANCE = new BigDecimal("1000000000.00");
+    private static final BigDecimal TRANSFER_AMOUNT = new BigDecimal("1.00");
+    private static final Path RESULTS_FILE = Path.of("target", "benchmarks", "transfer-load.csv");
+
+    public static void main(String[] args) throws Exception {
+        int threads = Integer.getInteger("benchmark.threads", 16);
+        int accountsCount = Integer.getInteger("benchmark.accounts", 1000);
+        int warmupSeconds = Integer.getInteger("benchmark.warmup-seconds", 10);
+        int durationSeconds = Integer.getInteger("benchmark.duration-seconds", 30);
+        long seed = Long.getLong("benchmark.seed", 42L);
+        String label = System.getProperty("benchmark.label", "local");
+
+        // System properties take precedence over the application.yml of the test classpath
+        System.setProperty("spring.datasource.url", System.getProperty("benchmark.jdbc-url",
+                "jdbc:postgresql://localhost:5432/czar_bank_benchmark"));
+        System.setProperty("spring.datasource.username", System.getProperty("benchmark.username", "postgres"));
+        System.setProperty("spring.datasource.password", System.getProperty("benchmark.password", "password"));
+        System.setProperty("spring.datasource.hikari.maximum-pool-size", String.valueOf(threads));
+        System.setProperty("spring.jpa.hibernate.ddl-auto", "validate");
+        System.setProperty("czar-bank.scheduling.enabled", "false");
+        System.setProperty("czar-bank.exchange-rate.history.async", "true");
+        System.setProperty("czar-bank.exchange-rate.history.load-from-date", LocalDate.now().toString());
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(CzarBankApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(args)) {
+            List<String> bankAccountNumbers = createBankAccounts(context.getBean(JdbcTemplate.class), accountsCount);
+            TransactionService transactionService = context.getBean(TransactionService.class);
+
+            Result result = run(transactionService, bankAccountNumbers, threads, warmupSeconds, durationSeconds, seed);
+
+            String summary = String.format("%s,%s,%d,%d,%d,%d,%.1f,%.3f,%.3f,%.3f,%.3f,%.3f",
+                    label, Instant.now(), threads, accountsCount, result.completed, result.failed,
+                    result.completed / (double) durationSeconds, millis(result.percentile(0.5)),
+                    millis(result.percentile(0.9)), millis(result.percentile(0.99)), millis(result.percentile(0.999)),
+                    millis(result.percentile(1.0)));
+
+            System.out.println("label,finished_at,threads,accounts,completed,failed,tps,p50_ms,p90_ms,p99_ms,p999_ms,max_ms");
+            System.out.println(summary);
+
+            appendResult(summary);
+        }
+    }
+
+    /**
+     * Recreates the owner, the bank account type and the bank accounts of the driver. The accounts have
+     * a large opening balance with the matching opening ledger entry and no commissions
+     */
+    private static List<String> createBankAccounts(JdbcTemplate jdbcTemplate, int accountsCount) {
+        jdbcTemplate.update("delete from ledger_entry where bank_account_id in (" +
+                "select b.id from bank_account b join users u on u.id = b.owner_id where u.username = ?)",
+                OWNER_USERNAME);
+        jdbcTemplate.update("delete from transaction where source_bank_account_id in (" +
+                "select b.id from bank_account b join users u on u.id = b.owner_id where u.username = ?) " +
+                "or destination_bank_account_id in (" +
+                "select b.id from bank_account b join users u on u.id = b.owner_id where u.username = ?)",
+                OWNER_USERNAME, OWNER_USERNAME);
+        jdbcTemplate.update("delete from users where username = ?", OWNER_USERNAME);
+
+        jdbcTemplate.update("insert into users (id, user_id, username, email, password, is_email_verified, " +
+                "is_account_expired, is_account_locked, is_credentials_expired, is_enabled, " +
+                "is_two_factor_authentication_enabled) values (nextval('user_id_sequence'), '0000000000', ?, " +
+                "'transfer-load-driver@czarbank.org', 'password', true, false, false, false, true, false)",
+                OWNER_USERNAME);
+        jdbcTemplate.update("insert into bank_account_type (id, name, transaction_commission, " +
+                "currency_exchange_commission) values (nextval('bank_account_type_id_sequence'), ?, 0, 0) " +
+                "on conflict (name) do nothing", BANK_ACCOUNT_TYPE_NAME);
+
+        jdbcTemplate.update("insert into bank_account (id, number, balance, is_closed, owner_id, used_currency_id, " +
+                "bank_account_type_id) select nextval('bank_account_id_sequence'), '9' || lpad(g::text, 19, '0'), ?, " +
+                "false, (select id from users where username = ?), (select id from currency where code = 'RUB'), " +
+                "(select id from bank_account_type where name = ?) from generate_series(1, ?) g",
+                OPENING_BALANCE, OWNER_USERNAME, BANK_ACCOUNT_TYPE_NAME, accountsCount);
+        jdbcTemplate.update("insert into ledger_entry (id, entry_type, amount, bank_account_id, created_at) " +
+                "select nextval('ledger_entry_id_sequence'), 'OPENING', b.balance, b.id, now() from bank_account b " +
+                "join users u on u.id = b.owner_id where u.username = ?", OWNER_USERNAME);
+
+        return jdbcTemplate.queryForList("select b.number from bank_account b join users u on u.id = b.owner_id " +
+                "where u.username = ? order by b.number", String.class, OWNER_USERNAME);
+    }
+
+    private static Result run(TransactionService transactionService, List<String> bankAccountNumbers, int threads,
+                              int warmupSeconds, int durationSeconds, long seed) throws Exception {
+        long measurementStartsAt = System.nanoTime() + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        long measurementEndsAt = measurementStartsAt + TimeUnit.SECONDS.toNanos(durationSeconds);
+
+        ExecutorService executorService = Executors.newFixedThreadPool(threads);
+
+        try {
+            List<Future<Recorder>> recorders = new ArrayList<>(threads);
+
+            for (int i = 0; i < threads; i++) {
+                SplittableRandom random = new SplittableRandom(seed + i);
+
+                recorders.add(executorService.submit(() -> drive(transactionService, bankAccountNumbers, random,
+                        measurementStartsAt, measurementEndsAt)));
+            }
+
+            Result result = new Result();
+
+            for (Future<Recorder> recorder : recorders) {
+                result.add(recorder.get());
+            }
+
+            Arrays.sort(result.latencies, 0, result.completed);
+
+            return result;
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    private static Recorder drive(TransactionService transactionService, List<String> bankAccountNumbers,
+                                  SplittableRandom random, long measurementStartsAt, long measurementEndsAt) {
+        Recorder recorder = new Recorder();
+        int accountsCount = bankAccountNumbers.size();
+
+        while (System.nanoTime() < measurementEndsAt) {
+            int source = random.nextInt(accountsCount);
+            int destination = (source + 1 + random.nextInt(accountsCount - 1)) % accountsCount;
+
+            TransactionRequestDTO request = TransactionRequestDTO.builder()
+                    .sourceBankAccountNumber(bankAccountNumbers.get(source))
+                    .destinationBankAccountNumber(bankAccountNumbers.get(destination))
+                    .amount(TRANSFER_AMOUNT)
+                    .build();
+
+            long startedAt = System.nanoTime();
+            boolean isCompleted;
+
+            try {
+                transactionService.createTransaction(request);
+                isCompleted = true;
+            } catch (RuntimeException e) {
+                isCompleted = false;
+            }
+
+            long finishedAt = System.nanoTime();
+
+            if (startedAt >= measurementStartsAt && finishedAt <= measurementEndsAt) {
+                recorder.record(isCompleted, finishedAt - startedAt);
+            }
+        }
+
+        return recorder;
+    }
+
+    private static void appendResult(String summary) throws IOException {
+        Files.createDirectories(RESULTS_FILE.getParent());
+
+        boolean isNewFile = Files.notExists(RESULTS_FILE);
+
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(RESULTS_FILE, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND))) {
+            if (isNewFile) {
+                writer.println("label,finished_at,threads,accounts,completed,failed,tps,p50_ms,p90_ms,p99_ms,p999_ms,max_ms");
+            }
+
+            writer.println(summary);
+        }
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    /**
+     * Latencies of the completed transfers of a single driver thread
+     */
+    private static class Recorder {
+        private long[] latencies = new long[1 << 16];
+        private int completed;
+        private int failed;
+
+        void record(boolean isCompleted, long latency) {
+            if (!isCompleted) {
+                failed++;
+                return;
+            }
+
+            if (completed == latencies.length) {
+                latencies = Arrays.copyOf(latencies, latencies.length * 2);
+            }
+
+            latencies[completed++] = latency;
+        }
+    }
+
+    private static class Result {
+        private long[] latencies = new long[0];
+        private int completed;
+        private int failed;
+
+        void add(Recorder recorder) {
+            latencies = Arrays.copyOf(latencies, completed + recorder.completed);
+            System.arraycopy(recorder.latencies, 0, latencies, completed, recorder.completed);
+
+            completed += recorder.completed;
+            failed += recorder.failed;
+        }
+
+        /**
+         * Nearest-rank percentile of the sorted latencies
+         */
+        long percentile(double quantile) {
+            if (completed == 0) {
+                return 0;
+            }
+
+            int rank = (int) Math.ceil(quantile * completed);
+
+            return latencies[Math.max(rank, 1) - 1];
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package ru.dreadblade.czarbank.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.core.GrantedAuthority;
+import ru.dreadblade.czarbank.domain.security.AuthoritySet;
+import ru.dreadblade.czarbank.domain.security.Permission;
+import ru.dreadblade.czarbank.domain.security.Role;
+import ru.dreadblade.czarbank.domain.security.User;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+/**
+ * Measures {@link User#getAuthorities} and {@link User#hasAuthority}, which are called for every secured request,
+ * and the compilation of the {@link AuthoritySet} behind them, for users with the role and permission counts
+ * of a client and an administrator.
+ * Run through {@link BenchmarkSuite} or {@link #main} with the test classpath
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserAuthoritiesBenchmark {
+    /**
+     * Number of permissions of every role, a client has a few of them and an administrator has all of them
+     */
+    @Param({ "4", "21" })
+    private int permissionsCount;
+
+    private User user;
+
+    @Setup
+    public void setUp() {
+        User.UserBuilder userBuilder = User.builder()
+                .id(1L)
+                .username("benchmark");
+
+        for (long roleId = 1; roleId <= 3; roleId++) {
+            long firstPermissionId = roleId * 100;
+
+            userBuilder.addRole(Role.builder()
+                    .id(roleId)
+                    .name("ROLE" + roleId)
+                    .permissions(LongStream.range(firstPermissionId, firstPermissionId + permissionsCount)
+                            .mapToObj(permissionId -> Permission.builder()
+                                    .id(permissionId)
+                                    .name("PERMISSION_" + permissionId)
+                                    .build())
+                            .collect(Collectors.toSet()))
+                    .build());
+        }
+
+        user = userBuilder.build();
+    }
+
+    @Benchmark
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return user.getAuthorities();
+    }
+
+    @Benchmark
+    public boolean hasAuthority() {
+        return user.hasAuthority("PERMISSION_300");
+    }
+
+    @Benchmark
+    public AuthoritySet compileAuthoritySet() {
+        return AuthoritySet.of(user.getRoles());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(UserAuthoritiesBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,75 @@
+package ru.dreadblade.czarbank.domain.security;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@DisplayName("AuthoritySet Unit Tests")
+public class AuthoritySetUnitTest {
+    private static final Permission TRANSACTION_READ = Permission.builder().id(10L).name("TRANSACTION_READ").build();
+    private static final Permission USER_UPDATE = Permission.builder().id(19L).name("USER_UPDATE").build();
+    private static final Permission CURRENCY_CREATE = Permission.builder().id(101L).name("CURRENCY_CREATE").build();
+
+    private static final Role EMPLOYEE = Role.builder()
+            .id(2L)
+            .name("EMPLOYEE")
+            .addPermission(TRANSACTION_READ)
+            .addPermission(USER_UPDATE)
+            .build();
+
+    @Test
+    void contains_permissionsAndRolesOfRoles_isTrue() {
+        AuthoritySet authoritySet = AuthoritySet.of(List.of(EMPLOYEE));
+
+        Assertions.assertThat(authoritySet.contains("TRANSACTION_READ")).isTrue();
+        Assertions.assertThat(authoritySet.contains("USER_UPDATE")).isTrue();
+        Assertions.assertThat(authoritySet.contains("ROLE_EMPLOYEE")).isTrue();
+        Assertions.assertThat(authoritySet.contains("CURRENCY_CREATE")).isFalse();
+        Assertions.assertThat(authoritySet.contains("ROLE_ADMIN")).isFalse();
+    }
+
+    @Test
+    void contains_permissionOfSharedIndexNotGranted_isFalse() {
+        Map<String, Long> permissionIdsByName = Map.of(
+                TRANSACTION_READ.getName(), TRANSACTION_READ.getId(),
+                USER_UPDATE.getName(), USER_UPDATE.getId(),
+                CURRENCY_CREATE.getName(), CURRENCY_CREATE.getId());
+
+        AuthoritySet authoritySet = AuthoritySet.of(List.of(EMPLOYEE), permissionIdsByName);
+
+        Assertions.assertThat(authoritySet.contains("TRANSACTION_READ")).isTrue();
+        Assertions.assertThat(authoritySet.contains("CURRENCY_CREATE")).isFalse();
+        Assertions.assertThat(authoritySet.hasPermission(CURRENCY_CREATE.getId())).isFalse();
+        Assertions.assertThat(authoritySet.hasPermission(-1L)).isFalse();
+    }
+
+    @Test
+    void getGrantedAuthorities_ofRoles_areRolesAndPermissions() {
+        AuthoritySet authoritySet = AuthoritySet.of(List.of(EMPLOYEE));
+
+        Assertions.assertThat(authoritySet.getGrantedAuthorities())
+                .extracting(GrantedAuthority::getAuthority)
+                .containsExactlyInAnyOrder("ROLE_EMPLOYEE", "TRANSACTION_READ", "USER_UPDATE");
+        Assertions.assertThat(authoritySet.getGrantedAuthorities()).isSameAs(authoritySet.getGrantedAuthorities());
+    }
+
+    @Test
+    void hasAuthority_rolesOfUserReplaced_authoritiesAreRecompiled() {
+        User user = User.builder()
+                .id(1L)
+                .addRole(EMPLOYEE)
+                .build();
+
+        Assertions.assertThat(user.hasAuthority("TRANSACTION_READ")).isTrue();
+
+        user.setRoles(Set.of(Role.builder().id(3L).name("CLIENT").build()));
+
+        Assertions.assertThat(user.hasAuthority("TRANSACTION_READ")).isFalse();
+        Assertions.assertThat(user.hasAuthority("ROLE_CLIENT")).isTrue();
+    }
+}
@@ -0,0 +1,76 @@
+package ru.dreadblade.czarbank.security.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import ru.dreadblade.czarbank.repository.security.BlacklistedAccessTokenRepository;
+import ru.dreadblade.czarbank.service.metrics.SecurityMetrics;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+@DisplayName("AccessTokenRevocationService Unit Tests")
+public class AccessTokenRevocationServiceUnitTest {
+    private static final String TOKEN_ID = "revoked-during-synchronization";
+
+    @Test
+    void synchronize_revocationCommittedDuringPreviousSynchronization_isPickedUp() {
+        Map<String, Instant> committedRevocations = new ConcurrentHashMap<>();
+        BlacklistedAccessTokenRepository repository = Mockito.mock(BlacklistedAccessTokenRepository.class);
+
+        Mockito.when(repository.findAllTokenIdsCreatedSince(Mockito.any())).thenAnswer(invocation -> {
+            Instant since = invocation.getArgument(0);
+
+            List<String> tokenIds = committedRevocations.entrySet().stream()
+                    .filter(revocation -> !revocation.getValue().isBefore(since))
+                    .map(Map.Entry::getKey)
+                    .collect(Collectors.toList());
+
+            // Stamped by another instance just before this synchronization started, committed after it has read
+            committedRevocations.putIfAbsent(TOKEN_ID, Instant.now().minusSeconds(1));
+
+            return tokenIds;
+        });
+        Mockito.when(repository.existsByTokenId(TOKEN_ID)).thenAnswer(invocation ->
+                committedRevocations.containsKey(TOKEN_ID));
+
+        AccessTokenRevocationService revocationService = new AccessTokenRevocationService(repository,
+                new SecurityMetrics(new SimpleMeterRegistry()), 1000, 0.001, 60);
+
+        revocationService.synchronize();
+
+        Assertions.assertThat(revocationService.isRevoked(TOKEN_ID)).isFalse();
+
+        revocationService.synchronize();
+
+        Assertions.assertThat(revocationService.isRevoked(TOKEN_ID)).isTrue();
+    }
+
+    @Test
+    void rebuild_revocationDuringRebuild_isKept() {
+        AtomicReference<AccessTokenRevocationService> revocationServiceReference = new AtomicReference<>();
+        BlacklistedAccessTokenRepository repository = Mockito.mock(BlacklistedAccessTokenRepository.class);
+
+        Mockito.when(repository.findAllTokenIds()).thenAnswer(invocation -> {
+            // Revoked on this instance after the rebuild has read the revoked tokens
+            revocationServiceReference.get().revoke(TOKEN_ID);
+
+            return List.of();
+        });
+        Mockito.when(repository.existsByTokenId(TOKEN_ID)).thenReturn(true);
+
+        AccessTokenRevocationService revocationService = new AccessTokenRevocationService(repository,
+                new SecurityMetrics(new SimpleMeterRegistry()), 1000, 0.001, 60);
+        revocationServiceReference.set(revocationService);
+
+        revocationService.rebuild();
+
+        Assertions.assertThat(revocationService.isRevoked(TOKEN_ID)).isTrue();
+    }
+}
@@ -0,0 +1,91 @@
+package ru.dreadblade.czarbank.service.cache;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import ru.dreadblade.czarbank.domain.BankAccount;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@DisplayName("RequestEntityMemo Unit Tests")
+public class RequestEntityMemoUnitTest {
+    private final RequestEntityMemo requestEntityMemo = new RequestEntityMemo();
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void find_withinRequest_loadsOnce() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        AtomicInteger loads = new AtomicInteger();
+        BankAccount bankAccount = BankAccount.builder().id(1L).build();
+
+        for (int i = 0; i < 3; i++) {
+            Optional<BankAccount> found = requestEntityMemo.find(BankAccount.class, 1L, id -> {
+                loads.incrementAndGet();
+                return Optional.of(bankAccount);
+            });
+
+            Assertions.assertThat(found).containsSame(bankAccount);
+        }
+
+        Assertions.assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void find_absentWithinRequest_absenceIsRemembered() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        AtomicInteger loads = new AtomicInteger();
+
+        requestEntityMemo.find(BankAccount.class, 1L, id -> {
+            loads.incrementAndGet();
+            return Optional.empty();
+        });
+        Optional<BankAccount> found = requestEntityMemo.find(BankAccount.class, 1L, id -> {
+            loads.incrementAndGet();
+            return Optional.empty();
+        });
+
+        Assertions.assertThat(found).isEmpty();
+        Assertions.assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void find_afterEvictAll_loadsAgain() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        AtomicInteger loads = new AtomicInteger();
+
+        requestEntityMemo.find(BankAccount.class, 1L, id -> {
+            loads.incrementAndGet();
+            return Optional.empty();
+        });
+        requestEntityMemo.evictAll(BankAccount.class);
+        requestEntityMemo.find(BankAccount.class, 1L, id -> {
+            loads.incrementAndGet();
+            return Optional.empty();
+        });
+
+        Assertions.assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void find_outsideRequest_alwaysLoads() {
+        AtomicInteger loads = new AtomicInteger();
+
+        for (int i = 0; i < 2; i++) {
+            requestEntityMemo.find(BankAccount.class, 1L, id -> {
+                loads.incrementAndGet();
+                return Optional.empty();
+            });
+        }
+
+        Assertions.assertThat(loads).hasValue(2);
+    }
+}
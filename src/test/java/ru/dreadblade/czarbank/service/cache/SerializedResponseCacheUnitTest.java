@@ -0,0 +1,116 @@
+package ru.dreadblade.czarbank.service.cache;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.xml.MappingJackson2XmlHttpMessageConverter;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+@DisplayName("SerializedResponseCache Unit Tests")
+public class SerializedResponseCacheUnitTest {
+    private static final Type STRING_LIST_TYPE = new ParameterizedTypeReference<List<String>>() { }.getType();
+
+    private final SerializedResponseCache serializedResponseCache = new SerializedResponseCache(new HttpMessageConverters(false,
+            List.of(new MappingJackson2HttpMessageConverter(), new MappingJackson2XmlHttpMessageConverter())), 60);
+
+    private final AtomicInteger supplierCalls = new AtomicInteger();
+    private final Supplier<List<String>> bodySupplier = () -> {
+        supplierCalls.incrementAndGet();
+        return List.of("RUB", "USD");
+    };
+
+    @Test
+    void respond_repeatedRequests_bodyIsSerializedOnce() {
+        ResponseEntity<byte[]> firstResponse = respond("application/json");
+        ResponseEntity<byte[]> secondResponse = respond(null);
+
+        Assertions.assertThat(firstResponse.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_JSON);
+        Assertions.assertThat(new String(firstResponse.getBody(), StandardCharsets.UTF_8)).isEqualTo("[\"RUB\",\"USD\"]");
+        Assertions.assertThat(secondResponse.getBody()).isSameAs(firstResponse.getBody());
+        Assertions.assertThat(supplierCalls).hasValue(1);
+    }
+
+    @Test
+    void respond_xmlAccepted_bodyIsCachedPerContentType() {
+        ResponseEntity<byte[]> jsonResponse = respond("application/json");
+        ResponseEntity<byte[]> xmlResponse = respond("application/xml;q=0.9, application/json;q=0.1");
+
+        Assertions.assertThat(xmlResponse.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_XML);
+        Assertions.assertThat(new String(xmlResponse.getBody(), StandardCharsets.UTF_8)).contains("<item>USD</item>");
+        Assertions.assertThat(xmlResponse.getBody()).isNotEqualTo(jsonResponse.getBody());
+        Assertions.assertThat(supplierCalls).hasValue(2);
+    }
+
+    @Test
+    void respond_afterInvalidation_bodyIsSerializedAgain() {
+        respond("application/json");
+        serializedResponseCache.invalidate(SerializedResponseCache.Name.BANK_ACCOUNT_TYPES);
+        respond("application/json");
+
+        serializedResponseCache.invalidate(SerializedResponseCache.Name.CURRENCIES);
+        respond("application/json");
+
+        Assertions.assertThat(supplierCalls).hasValue(2);
+    }
+
+    @Test
+    void respond_expiredBody_bodyIsSerializedAgain() {
+        SerializedResponseCache expiringCache = new SerializedResponseCache(new HttpMessageConverters(false,
+                List.of(new MappingJackson2HttpMessageConverter())), 0);
+
+        expiringCache.respond(SerializedResponseCache.Name.CURRENCIES, null, STRING_LIST_TYPE, bodySupplier);
+        expiringCache.respond(SerializedResponseCache.Name.CURRENCIES, null, STRING_LIST_TYPE, bodySupplier);
+
+        Assertions.assertThat(supplierCalls).hasValue(2);
+    }
+
+    @Test
+    void respond_cachedBeforeCommitOfInvalidatingTransaction_bodyIsDroppedAfterCommit() {
+        respond("application/json");
+
+        TransactionSynchronizationManager.initSynchronization();
+
+        try {
+            serializedResponseCache.invalidate(SerializedResponseCache.Name.CURRENCIES);
+
+            // A concurrent request still reads the data committed before the transaction
+            respond("application/json");
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        respond("application/json");
+
+        Assertions.assertThat(supplierCalls).hasValue(3);
+    }
+
+    @Test
+    void respond_unsupportedContentType_isNotAcceptable() {
+        Assertions.assertThatThrownBy(() -> respond("text/html"))
+                .isInstanceOf(ResponseStatusException.class)
+                .extracting(e -> ((ResponseStatusException) e).getStatus())
+                .isEqualTo(HttpStatus.NOT_ACCEPTABLE);
+    }
+
+    private ResponseEntity<byte[]> respond(String acceptHeader) {
+        return serializedResponseCache.respond(SerializedResponseCache.Name.CURRENCIES, acceptHeader, STRING_LIST_TYPE,
+                bodySupplier);
+    }
+}
@@ -0,0 +1,112 @@
+package ru.dreadblade.czarbank.service.external;
+
+import com.sun.net.httpserver.HttpServer;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CentralBankOfRussiaCurrencyDirectoryUnitTest {
+    private static final String ETAG = "\"daily-rates-v1\"";
+    private static final String DAILY_RATES_XML = """
+            <ValCurs Date="15.04.2022" name="Foreign Currency Market">
+                <Valute ID="R01235">
+                    <NumCode>840</NumCode>
+                    <CharCode>USD</CharCode>
+                    <Nominal>1</Nominal>
+                    <Name>US Dollar</Name>
+                    <Value>80,0000</Value>
+                </Valute>
+                <Valute ID="R01239">
+                    <NumCode>978</NumCode>
+                    <CharCode>EUR</CharCode>
+                    <Nominal>1</Nominal>
+                    <Name>Euro</Name>
+                    <Value>87,0000</Value>
+                </Valute>
+            </ValCurs>
+            """;
+
+    private final AtomicInteger fullResponses = new AtomicInteger();
+    private final AtomicInteger notModifiedResponses = new AtomicInteger();
+
+    private HttpServer server;
+    private String apiUrl;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/scripts/XML_daily.asp", exchange -> {
+            if (ETAG.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                notModifiedResponses.incrementAndGet();
+                exchange.getResponseHeaders().set("ETag", ETAG);
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return;
+            }
+
+            fullResponses.incrementAndGet();
+            byte[] body = DAILY_RATES_XML.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/xml");
+            exchange.getResponseHeaders().set("ETag", ETAG);
+            exchange.sendResponseHeaders(200, body.length);
+
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(body);
+            }
+        });
+        server.start();
+
+        apiUrl = "http://127.0.0.1:" + server.getAddress().getPort() + "/scripts";
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void findUniqueCurrencyCode_withinTtl_requestsDirectoryOnce() {
+        CentralBankOfRussiaCurrencyDirectory directory = createDirectory(86400);
+
+        Assertions.assertThat(directory.findUniqueCurrencyCode("USD")).contains("R01235");
+        Assertions.assertThat(directory.findUniqueCurrencyCode("EUR")).contains("R01239");
+        Assertions.assertThat(directory.findUniqueCurrencyCode("USD")).contains("R01235");
+
+        Assertions.assertThat(fullResponses).hasValue(1);
+        Assertions.assertThat(notModifiedResponses).hasValue(0);
+    }
+
+    @Test
+    void findUniqueCurrencyCode_afterTtl_revalidatesWithConditionalRequest() throws InterruptedException {
+        CentralBankOfRussiaCurrencyDirectory directory = createDirectory(0);
+
+        Assertions.assertThat(directory.findUniqueCurrencyCode("USD")).contains("R01235");
+        Thread.sleep(10);
+        Assertions.assertThat(directory.findUniqueCurrencyCode("EUR")).contains("R01239");
+
+        Assertions.assertThat(fullResponses).hasValue(1);
+        Assertions.assertThat(notModifiedResponses).hasValue(1);
+    }
+
+    @Test
+    void findUniqueCurrencyCode_unknownCurrency_isEmpty() {
+        CentralBankOfRussiaCurrencyDirectory directory = createDirectory(86400);
+
+        Assertions.assertThat(directory.findUniqueCurrencyCode("XXX")).isEmpty();
+        Assertions.assertThat(directory.findUniqueCurrencyCode("XXX")).isEmpty();
+
+        Assertions.assertThat(fullResponses).hasValue(1);
+    }
+
+    private CentralBankOfRussiaCurrencyDirectory createDirectory(long ttlSeconds) {
+        return new CentralBankOfRussiaCurrencyDirectory(new ConditionalGetClient(new RestTemplate(), 16), apiUrl, ttlSeconds);
+    }
+}
@@ -0,0 +1,62 @@
+package ru.dreadblade.czarbank.service.external;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.dreadblade.czarbank.domain.Currency;
+import ru.dreadblade.czarbank.domain.ExchangeRate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+@DisplayName("CentralBankOfRussiaService Unit Tests")
+public class CentralBankOfRussiaServiceUnitTest {
+    private static final Currency CURRENCY = Currency.builder().id(2L).code("USD").symbol("$").build();
+    private static final LocalDate START_DATE = LocalDate.of(2022, 1, 8);
+
+    private final List<ExchangeRate> exchangeRates = new ArrayList<>();
+
+    @Test
+    void dailyRateFiller_withPreviousRate_leadingDaysGetPreviousRate() {
+        CentralBankOfRussiaService.DailyRateFiller filler = new CentralBankOfRussiaService.DailyRateFiller(CURRENCY,
+                START_DATE, new BigDecimal("74.00"), exchangeRates::add);
+
+        filler.accept(START_DATE.plusDays(2), 1L, new BigDecimal("75.00"));
+        filler.fillUntil(START_DATE.plusDays(3));
+
+        Assertions.assertThat(exchangeRates).extracting(ExchangeRate::getExchangeRate).containsExactly(
+                new BigDecimal("74.00"), new BigDecimal("74.00"), new BigDecimal("75.00"), new BigDecimal("75.00"));
+        Assertions.assertThat(exchangeRates.get(0).getDate()).isEqualTo(START_DATE);
+    }
+
+    @Test
+    void dailyRateFiller_withPreviousRate_withoutRecords_isForwardFilled() {
+        CentralBankOfRussiaService.DailyRateFiller filler = new CentralBankOfRussiaService.DailyRateFiller(CURRENCY,
+                START_DATE, new BigDecimal("74.00"), exchangeRates::add);
+
+        filler.fillUntil(START_DATE.plusDays(1));
+
+        Assertions.assertThat(exchangeRates).extracting(ExchangeRate::getDate)
+                .containsExactly(START_DATE, START_DATE.plusDays(1));
+        Assertions.assertThat(exchangeRates).extracting(ExchangeRate::getExchangeRate)
+                .containsOnly(new BigDecimal("74.00"));
+    }
+
+    @Test
+    void dailyRateFiller_recordsBeforeStartDate_onlyBecomeLastRate() {
+        CentralBankOfRussiaService.DailyRateFiller filler = new CentralBankOfRussiaService.DailyRateFiller(CURRENCY,
+                START_DATE, null, exchangeRates::add);
+
+        filler.accept(START_DATE.minusDays(9), 1L, new BigDecimal("73.00"));
+        filler.accept(START_DATE.minusDays(7), 1L, new BigDecimal("74.00"));
+        filler.accept(START_DATE.plusDays(1), 1L, new BigDecimal("75.00"));
+        filler.fillUntil(START_DATE.plusDays(1));
+
+        Assertions.assertThat(exchangeRates).extracting(ExchangeRate::getDate)
+                .containsExactly(START_DATE, START_DATE.plusDays(1));
+        Assertions.assertThat(exchangeRates).extracting(ExchangeRate::getExchangeRate)
+                .containsExactly(new BigDecimal("74.00"), new BigDecimal("75.00"));
+    }
+}
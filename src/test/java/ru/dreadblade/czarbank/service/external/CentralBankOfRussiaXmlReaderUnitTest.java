@@ -0,0 +1,70 @@
+package ru.dreadblade.czarbank.service.external;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+@DisplayName("CentralBankOfRussiaXmlReader Unit Tests")
+public class CentralBankOfRussiaXmlReaderUnitTest {
+    private static final String HISTORY_XML = """
+            <?xml version="1.0" encoding="windows-1251"?>
+            <ValCurs ID="R01235" DateRange1="01.01.2022" DateRange2="05.01.2022" name="Foreign Currency Market Dynamic">
+                <Record Date="01.01.2022" Id="R01235">
+                    <Nominal>1</Nominal>
+                    <Value>74,2926</Value>
+                </Record>
+                <Record Date="05.01.2022" Id="R01235">
+                    <Nominal>10</Nominal>
+                    <Value>745,5000</Value>
+                </Record>
+            </ValCurs>
+            """;
+
+    @Test
+    void readRecords_emitsRecordsInDocumentOrder() throws Exception {
+        List<Object[]> records = new ArrayList<>();
+
+        CentralBankOfRussiaXmlReader.readRecords(new ByteArrayInputStream(HISTORY_XML.getBytes(Charset.forName("windows-1251"))),
+                (date, nominal, rate) -> records.add(new Object[] { date, nominal, rate }));
+
+        Assertions.assertThat(records).hasSize(2);
+        Assertions.assertThat(records.get(0)).containsExactly(LocalDate.of(2022, 1, 1), 1L, new BigDecimal("74.2926"));
+        Assertions.assertThat(records.get(1)).containsExactly(LocalDate.of(2022, 1, 5), 10L, new BigDecimal("745.5000"));
+    }
+
+    @Test
+    void parseDecimal_withCommaOrDot_isParsed() {
+        Assertions.assertThat(parseDecimal("74,2926")).isEqualTo(new BigDecimal("74.2926"));
+        Assertions.assertThat(parseDecimal(" 0.5 ")).isEqualTo(new BigDecimal("0.5"));
+        Assertions.assertThat(parseDecimal("-12,30")).isEqualTo(new BigDecimal("-12.30"));
+        Assertions.assertThat(parseDecimal("100")).isEqualTo(new BigDecimal("100"));
+        Assertions.assertThat(parseDecimal("12345678901234567890,12")).isEqualTo(new BigDecimal("12345678901234567890.12"));
+    }
+
+    @Test
+    void parseDecimal_invalidValue_throwsException() {
+        Assertions.assertThatThrownBy(() -> parseDecimal("1,2,3")).isInstanceOf(NumberFormatException.class);
+        Assertions.assertThatThrownBy(() -> parseDecimal("12a")).isInstanceOf(NumberFormatException.class);
+        Assertions.assertThatThrownBy(() -> parseDecimal("  ")).isInstanceOf(NumberFormatException.class);
+    }
+
+    @Test
+    void parseDate_isParsed() {
+        Assertions.assertThat(CentralBankOfRussiaXmlReader.parseDate("29.02.2020")).isEqualTo(LocalDate.of(2020, 2, 29));
+        Assertions.assertThatThrownBy(() -> CentralBankOfRussiaXmlReader.parseDate("2020-02-29"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static BigDecimal parseDecimal(String value) {
+        char[] chars = ("<" + value + ">").toCharArray();
+
+        return CentralBankOfRussiaXmlReader.parseDecimal(chars, 1, chars.length - 2);
+    }
+}
@@ -0,0 +1,63 @@
+package ru.dreadblade.czarbank.service.freemarker;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.dreadblade.czarbank.config.CzarBankConfiguration;
+import ru.dreadblade.czarbank.service.email.EmailTemplate;
+import ru.dreadblade.czarbank.service.email.VerificationEmail;
+
+import java.util.List;
+
+@DisplayName("FreemarkerTemplateService Unit Tests")
+public class FreemarkerTemplateServiceUnitTest {
+    private FreemarkerTemplateService freemarkerTemplateService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        freemarkerTemplateService = new FreemarkerTemplateService(new CzarBankConfiguration().freeMarkerClassLoaderConfig());
+    }
+
+    @Test
+    void render_verificationEmail_containsModel() throws Exception {
+        String renderedMail = freemarkerTemplateService.render(EmailTemplate.VERIFICATION, VerificationEmail.builder()
+                .username("boyarin")
+                .emailVerificationUrl("http://localhost/api/account-management/verify-email/token")
+                .build());
+
+        Assertions.assertThat(renderedMail)
+                .contains("Hello, boyarin,")
+                .contains("href=\"http://localhost/api/account-management/verify-email/token\"")
+                .contains(VerificationEmail.SUPPORT_EMAIL_ADDRESS)
+                .endsWith("</html>");
+    }
+
+    @Test
+    void render_repeatedly_bufferIsReset() throws Exception {
+        VerificationEmail verificationEmail = VerificationEmail.builder()
+                .username("boyarin")
+                .emailVerificationUrl("http://localhost/api/account-management/verify-email/token")
+                .build();
+
+        String firstMail = freemarkerTemplateService.render(EmailTemplate.VERIFICATION, verificationEmail);
+        String secondMail = freemarkerTemplateService.render(EmailTemplate.VERIFICATION, verificationEmail);
+
+        Assertions.assertThat(secondMail).isEqualTo(firstMail);
+    }
+
+    @Test
+    void renderAll_verificationEmails_areInOrderOfModels() throws Exception {
+        List<VerificationEmail> verificationEmails = List.of(
+                VerificationEmail.builder().username("boyarin").emailVerificationUrl("http://localhost/1").build(),
+                VerificationEmail.builder().username("okolnichy").emailVerificationUrl("http://localhost/2").build());
+
+        List<String> renderedMails = freemarkerTemplateService.renderAll(EmailTemplate.VERIFICATION, verificationEmails);
+
+        Assertions.assertThat(renderedMails).hasSize(2);
+        Assertions.assertThat(renderedMails.get(0)).contains("Hello, boyarin,").doesNotContain("okolnichy");
+        Assertions.assertThat(renderedMails.get(1)).contains("Hello, okolnichy,").doesNotContain("boyarin");
+        Assertions.assertThat(renderedMails.get(0))
+                .isEqualTo(freemarkerTemplateService.render(EmailTemplate.VERIFICATION, verificationEmails.get(0)));
+    }
+}
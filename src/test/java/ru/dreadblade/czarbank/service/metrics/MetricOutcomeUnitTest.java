@@ -0,0 +1,61 @@
+package ru.dreadblade.czarbank.service.metrics;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.dreadblade.czarbank.exception.CzarBankException;
+import ru.dreadblade.czarbank.exception.CzarBankSecurityException;
+import ru.dreadblade.czarbank.exception.ExceptionMessage;
+
+import java.time.Instant;
+import java.util.Date;
+
+@DisplayName("MetricOutcome Unit Tests")
+public class MetricOutcomeUnitTest {
+    @Test
+    void of_noFailure_isSuccess() {
+        Assertions.assertThat(MetricOutcome.of(null)).isEqualTo(MetricOutcome.SUCCESS);
+    }
+
+    @Test
+    void of_notEnoughBalance_isInsufficientBalance() {
+        Assertions.assertThat(MetricOutcome.of(new CzarBankException(ExceptionMessage.NOT_ENOUGH_BALANCE)))
+                .isEqualTo(MetricOutcome.INSUFFICIENT_BALANCE);
+    }
+
+    @Test
+    void of_missingEntities_isNotFound() {
+        Assertions.assertThat(MetricOutcome.of(new CzarBankException(ExceptionMessage.BANK_ACCOUNT_NOT_FOUND)))
+                .isEqualTo(MetricOutcome.NOT_FOUND);
+        Assertions.assertThat(MetricOutcome.of(new CzarBankException(ExceptionMessage.SOURCE_BANK_ACCOUNT_DOESNT_EXIST)))
+                .isEqualTo(MetricOutcome.NOT_FOUND);
+    }
+
+    @Test
+    void of_otherExceptionMessage_isNameOfExceptionMessage() {
+        Assertions.assertThat(MetricOutcome.of(new CzarBankSecurityException(ExceptionMessage.INVALID_ACCESS_TOKEN)))
+                .isEqualTo("invalid_access_token");
+    }
+
+    @Test
+    void of_tokenVerificationFailures_areTokenOutcomes() {
+        Algorithm algorithm = Algorithm.HMAC512("czar-bank-secret-key");
+        String expiredToken = JWT.create()
+                .withExpiresAt(Date.from(Instant.now().minusSeconds(60)))
+                .sign(algorithm);
+
+        Throwable expiredTokenFailure = Assertions.catchThrowable(() -> JWT.require(algorithm).build().verify(expiredToken));
+        Throwable invalidTokenFailure = Assertions.catchThrowable(() -> JWT.require(Algorithm.HMAC512("another-secret-key"))
+                .build().verify(expiredToken));
+
+        Assertions.assertThat(MetricOutcome.of(expiredTokenFailure)).isEqualTo(MetricOutcome.TOKEN_EXPIRED);
+        Assertions.assertThat(MetricOutcome.of(invalidTokenFailure)).isEqualTo(MetricOutcome.INVALID_TOKEN);
+    }
+
+    @Test
+    void of_unexpectedException_isError() {
+        Assertions.assertThat(MetricOutcome.of(new IllegalStateException())).isEqualTo(MetricOutcome.ERROR);
+    }
+}
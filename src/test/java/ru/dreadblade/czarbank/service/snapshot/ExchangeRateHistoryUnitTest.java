@@ -0,0 +1,120 @@
+package ru.dreadblade.czarbank.service.snapshot;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+@DisplayName("ExchangeRateHistory Unit Tests")
+public class ExchangeRateHistoryUnitTest {
+    private static final LocalDate FIRST_DATE = LocalDate.of(2022, 1, 1);
+
+    private final ExchangeRateHistory history = new ExchangeRateHistory.Builder()
+            .add(2L, FIRST_DATE.toEpochDay(), 7400L)
+            .add(2L, FIRST_DATE.plusDays(1).toEpochDay(), 7450L)
+            .add(2L, FIRST_DATE.plusDays(2).toEpochDay(), 7500L)
+            .add(3L, FIRST_DATE.toEpochDay(), 8400L)
+            .add(3L, FIRST_DATE.plusDays(2).toEpochDay(), 8500L)
+            .build();
+
+    @Test
+    void findAllCoveringRange_returnsOnlyCompleteSeries() {
+        List<ExchangeRateSeries> series = history.findAllCoveringRange(FIRST_DATE, FIRST_DATE.plusDays(2));
+
+        Assertions.assertThat(series).hasSize(1);
+        Assertions.assertThat(series.get(0).getCurrencyId()).isEqualTo(2L);
+        Assertions.assertThat(series.get(0).getSize()).isEqualTo(3);
+        Assertions.assertThat(series.get(0).getDate(2)).isEqualTo(FIRST_DATE.plusDays(2));
+        Assertions.assertThat(series.get(0).getExchangeRate(2)).isEqualTo(new BigDecimal("75.00"));
+    }
+
+    @Test
+    void findAllCoveringRange_singleDay_returnsEveryCurrencyHavingTheDay() {
+        Assertions.assertThat(history.findAllCoveringRange(FIRST_DATE, FIRST_DATE)).hasSize(2);
+        Assertions.assertThat(history.findAllCoveringRange(FIRST_DATE.plusDays(1), FIRST_DATE.plusDays(1))).hasSize(1);
+        Assertions.assertThat(history.findAllCoveringRange(FIRST_DATE.minusDays(1), FIRST_DATE.minusDays(1))).isEmpty();
+        Assertions.assertThat(history.getLatestDate()).contains(FIRST_DATE.plusDays(2));
+    }
+
+    @Test
+    void withRates_fillsMissingDayAndExtendsHistory() {
+        ExchangeRateHistory updatedHistory = history.withRates(3L, Map.of(
+                FIRST_DATE.plusDays(1), new BigDecimal("84.505"),
+                FIRST_DATE.plusDays(3), new BigDecimal("85.1")
+        ));
+
+        List<ExchangeRateSeries> series = updatedHistory.findAllCoveringRange(FIRST_DATE, FIRST_DATE.plusDays(3));
+
+        Assertions.assertThat(series).hasSize(1);
+        Assertions.assertThat(series.get(0).getExchangeRate(1)).isEqualTo(new BigDecimal("84.51"));
+        Assertions.assertThat(series.get(0).getExchangeRate(3)).isEqualTo(new BigDecimal("85.10"));
+        Assertions.assertThat(updatedHistory.getLatestDate()).contains(FIRST_DATE.plusDays(3));
+        Assertions.assertThat(history.findAllCoveringRange(FIRST_DATE, FIRST_DATE.plusDays(2))).hasSize(1);
+    }
+
+    @Test
+    void getContentHash_dependsOnlyOnRates() {
+        ExchangeRateHistory sameHistory = new ExchangeRateHistory.Builder()
+                .add(3L, FIRST_DATE.toEpochDay(), 8400L)
+                .add(3L, FIRST_DATE.plusDays(2).toEpochDay(), 8500L)
+                .add(2L, FIRST_DATE.toEpochDay(), 7400L)
+                .add(2L, FIRST_DATE.plusDays(1).toEpochDay(), 7450L)
+                .add(2L, FIRST_DATE.plusDays(2).toEpochDay(), 7500L)
+                .build();
+
+        ExchangeRateHistory updatedHistory = history.withRates(2L, Map.of(FIRST_DATE.plusDays(2), new BigDecimal("75.01")));
+
+        Assertions.assertThat(sameHistory.getContentHash()).isEqualTo(history.getContentHash());
+        Assertions.assertThat(updatedHistory.getContentHash()).isNotEqualTo(history.getContentHash());
+    }
+
+    @Test
+    void aggregate_byWeek_cutsIntervalsToSeries() {
+        ExchangeRateHistory weeksHistory = new ExchangeRateHistory.Builder()
+                .add(2L, LocalDate.of(2021, 9, 4).toEpochDay(), 7000L)
+                .add(2L, LocalDate.of(2021, 9, 5).toEpochDay(), 7200L)
+                .add(2L, LocalDate.of(2021, 9, 6).toEpochDay(), 7100L)
+                .add(2L, LocalDate.of(2021, 9, 7).toEpochDay(), 7300L)
+                .build();
+
+        List<ExchangeRateAggregate> aggregates = weeksHistory
+                .findAllCoveringRange(LocalDate.of(2021, 9, 4), LocalDate.of(2021, 9, 7)).get(0)
+                .aggregate(ExchangeRateAggregate.Interval.WEEK);
+
+        Assertions.assertThat(aggregates).hasSize(2);
+
+        Assertions.assertThat(aggregates.get(0).getStartDate()).isEqualTo(LocalDate.of(2021, 9, 4));
+        Assertions.assertThat(aggregates.get(0).getEndDate()).isEqualTo(LocalDate.of(2021, 9, 5));
+        Assertions.assertThat(aggregates.get(0).getOpen()).isEqualTo(new BigDecimal("70.00"));
+        Assertions.assertThat(aggregates.get(0).getClose()).isEqualTo(new BigDecimal("72.00"));
+        Assertions.assertThat(aggregates.get(0).getAverage()).isEqualTo(new BigDecimal("71.00"));
+
+        Assertions.assertThat(aggregates.get(1).getStartDate()).isEqualTo(LocalDate.of(2021, 9, 6));
+        Assertions.assertThat(aggregates.get(1).getEndDate()).isEqualTo(LocalDate.of(2021, 9, 7));
+        Assertions.assertThat(aggregates.get(1).getHigh()).isEqualTo(new BigDecimal("73.00"));
+        Assertions.assertThat(aggregates.get(1).getLow()).isEqualTo(new BigDecimal("71.00"));
+    }
+
+    @Test
+    void aggregate_byQuarter_splitsAtQuarterStart() {
+        LocalDate startDate = LocalDate.of(2021, 3, 30);
+        ExchangeRateHistory.Builder builder = new ExchangeRateHistory.Builder();
+
+        for (int i = 0; i < 5; i++) {
+            builder.add(2L, startDate.plusDays(i).toEpochDay(), 7000L + i);
+        }
+
+        List<ExchangeRateAggregate> aggregates = builder.build()
+                .findAllCoveringRange(startDate, startDate.plusDays(4)).get(0)
+                .aggregate(ExchangeRateAggregate.Interval.QUARTER);
+
+        Assertions.assertThat(aggregates).extracting(ExchangeRateAggregate::getStartDate)
+                .containsExactly(startDate, LocalDate.of(2021, 4, 1));
+        Assertions.assertThat(aggregates).extracting(ExchangeRateAggregate::getEndDate)
+                .containsExactly(LocalDate.of(2021, 3, 31), startDate.plusDays(4));
+    }
+}
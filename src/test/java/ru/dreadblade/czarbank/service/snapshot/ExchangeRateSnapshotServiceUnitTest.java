@@ -0,0 +1,67 @@
+package ru.dreadblade.czarbank.service.snapshot;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+import ru.dreadblade.czarbank.domain.Currency;
+import ru.dreadblade.czarbank.domain.ExchangeRate;
+import ru.dreadblade.czarbank.repository.ExchangeRateRepository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@DisplayName("ExchangeRateSnapshotService Unit Tests")
+public class ExchangeRateSnapshotServiceUnitTest {
+    private final ExchangeRateRepository exchangeRateRepository = Mockito.mock(ExchangeRateRepository.class);
+    private final ExchangeRateSnapshotService exchangeRateSnapshotService = new ExchangeRateSnapshotService(exchangeRateRepository);
+
+    @BeforeEach
+    void setUp() {
+        Mockito.when(exchangeRateRepository.findAllLatest()).thenReturn(List.of(ExchangeRate.builder()
+                .date(LocalDate.of(2022, 1, 1))
+                .currency(Currency.builder().id(2L).code("USD").symbol("$").build())
+                .exchangeRate(new BigDecimal("74.00"))
+                .build()));
+
+        ReflectionTestUtils.setField(exchangeRateSnapshotService, "minRefreshIntervalSeconds", 60L);
+    }
+
+    @Test
+    void refreshOnMiss_withinInterval_doesNotReload() {
+        ExchangeRateSnapshot snapshot = exchangeRateSnapshotService.getSnapshot();
+
+        Assertions.assertThat(snapshot.findRate("EUR")).isEmpty();
+        Assertions.assertThat(exchangeRateSnapshotService.refreshOnMiss(snapshot)).isSameAs(snapshot);
+        Assertions.assertThat(exchangeRateSnapshotService.refreshOnMiss(snapshot)).isSameAs(snapshot);
+
+        Mockito.verify(exchangeRateRepository, Mockito.times(1)).findAllLatest();
+    }
+
+    @Test
+    void refreshOnMiss_afterInterval_reloads() {
+        ReflectionTestUtils.setField(exchangeRateSnapshotService, "minRefreshIntervalSeconds", 0L);
+
+        ExchangeRateSnapshot snapshot = exchangeRateSnapshotService.getSnapshot();
+        ExchangeRateSnapshot refreshedSnapshot = exchangeRateSnapshotService.refreshOnMiss(snapshot);
+
+        Assertions.assertThat(refreshedSnapshot.getVersion()).isEqualTo(snapshot.getVersion() + 1L);
+
+        Mockito.verify(exchangeRateRepository, Mockito.times(2)).findAllLatest();
+    }
+
+    @Test
+    void refreshOnMiss_ofReplacedSnapshot_returnsCurrentSnapshot() {
+        ReflectionTestUtils.setField(exchangeRateSnapshotService, "minRefreshIntervalSeconds", 0L);
+
+        ExchangeRateSnapshot snapshot = exchangeRateSnapshotService.getSnapshot();
+        ExchangeRateSnapshot refreshedSnapshot = exchangeRateSnapshotService.refresh();
+
+        Assertions.assertThat(exchangeRateSnapshotService.refreshOnMiss(snapshot)).isSameAs(refreshedSnapshot);
+
+        Mockito.verify(exchangeRateRepository, Mockito.times(2)).findAllLatest();
+    }
+}
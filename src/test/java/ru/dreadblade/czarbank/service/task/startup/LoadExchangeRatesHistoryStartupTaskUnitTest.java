@@ -0,0 +1,63 @@
+package ru.dreadblade.czarbank.service.task.startup;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.dreadblade.czarbank.repository.ExchangeRateHistoryIsland;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@DisplayName("LoadExchangeRatesHistoryStartupTask Unit Tests")
+public class LoadExchangeRatesHistoryStartupTaskUnitTest {
+    private static final LocalDate START_DATE = LocalDate.of(2022, 1, 1);
+    private static final LocalDate END_DATE = LocalDate.of(2022, 1, 31);
+
+    @Test
+    void findGaps_withoutIslands_wholeRangeIsMissing() {
+        List<LocalDate[]> gaps = LoadExchangeRatesHistoryStartupTask.findGaps(List.of(), START_DATE, END_DATE);
+
+        Assertions.assertThat(gaps).containsExactly(new LocalDate[] { START_DATE, END_DATE });
+    }
+
+    @Test
+    void findGaps_withCompleteHistory_nothingIsMissing() {
+        List<LocalDate[]> gaps = LoadExchangeRatesHistoryStartupTask.findGaps(List.of(island(START_DATE, END_DATE)),
+                START_DATE, END_DATE);
+
+        Assertions.assertThat(gaps).isEmpty();
+    }
+
+    @Test
+    void findGaps_withHoles_onlyHolesAreMissing() {
+        List<LocalDate[]> gaps = LoadExchangeRatesHistoryStartupTask.findGaps(List.of(
+                island(LocalDate.of(2022, 1, 5), LocalDate.of(2022, 1, 10)),
+                island(LocalDate.of(2022, 1, 15), LocalDate.of(2022, 1, 20))
+        ), START_DATE, END_DATE);
+
+        Assertions.assertThat(gaps).containsExactly(
+                new LocalDate[] { START_DATE, LocalDate.of(2022, 1, 4) },
+                new LocalDate[] { LocalDate.of(2022, 1, 11), LocalDate.of(2022, 1, 14) },
+                new LocalDate[] { LocalDate.of(2022, 1, 21), END_DATE }
+        );
+    }
+
+    private static ExchangeRateHistoryIsland island(LocalDate startDate, LocalDate endDate) {
+        return new ExchangeRateHistoryIsland() {
+            @Override
+            public Long getCurrencyId() {
+                return 1L;
+            }
+
+            @Override
+            public LocalDate getStartDate() {
+                return startDate;
+            }
+
+            @Override
+            public LocalDate getEndDate() {
+                return endDate;
+            }
+        };
+    }
+}
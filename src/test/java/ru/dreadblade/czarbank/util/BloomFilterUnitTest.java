@@ -0,0 +1,38 @@
+package ru.dreadblade.czarbank.util;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+@DisplayName("BloomFilter Unit Tests")
+public class BloomFilterUnitTest {
+    @Test
+    void mightContain_putValues_areAlwaysFound() {
+        BloomFilter bloomFilter = new BloomFilter(1000, 0.001);
+
+        List<String> values = IntStream.range(0, 1000)
+                .mapToObj(i -> UUID.randomUUID().toString())
+                .toList();
+
+        values.forEach(bloomFilter::put);
+
+        Assertions.assertThat(values).allMatch(bloomFilter::mightContain);
+    }
+
+    @Test
+    void mightContain_notPutValues_falsePositiveRateIsLow() {
+        BloomFilter bloomFilter = new BloomFilter(1000, 0.001);
+
+        IntStream.range(0, 1000).forEach(i -> bloomFilter.put(UUID.randomUUID().toString()));
+
+        long falsePositiveCount = IntStream.range(0, 10000)
+                .filter(i -> bloomFilter.mightContain(UUID.randomUUID().toString()))
+                .count();
+
+        Assertions.assertThat(falsePositiveCount).isLessThan(100);
+    }
+}
@@ -1,3 +1,4 @@
+delete from ledger_entry;
 delete from bank_account;
 delete from exchange_rate;
 delete from currency;
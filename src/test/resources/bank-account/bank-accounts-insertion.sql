@@ -1,3 +1,4 @@
+delete from ledger_entry;
 delete from bank_account;
 delete from exchange_rate;
 delete from currency;
@@ -46,4 +47,13 @@ values (1, 15000, false, '39903336089073190794', 4, 1, 1),
        (4, 500, false, '36264421013439107929', 5, 1, 4),
        (5, 1500, false, '32541935657215432384', 4, 1, 4);
 
-alter sequence bank_account_id_sequence restart 6;
\ No newline at end of file
+alter sequence bank_account_id_sequence restart 6;
+
+insert into ledger_entry (id, entry_type, amount, bank_account_id, created_at)
+values (1, 'OPENING', 15000, 1, now()),
+       (2, 'OPENING', 5000, 2, now()),
+       (3, 'OPENING', 2000, 3, now()),
+       (4, 'OPENING', 500, 4, now()),
+       (5, 'OPENING', 1500, 5, now());
+
+alter sequence ledger_entry_id_sequence restart 6;
\ No newline at end of file
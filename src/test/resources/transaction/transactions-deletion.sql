@@ -1 +1,2 @@
+delete from ledger_entry;
 delete from transaction;
\ No newline at end of file
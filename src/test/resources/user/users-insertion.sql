@@ -2,6 +2,7 @@ delete from user_role;
 delete from refresh_token_session;
 delete from email_verification_token;
 delete from recovery_code;
+delete from outbound_mail;
 delete from users;
 delete from role_permission;
 delete from role;